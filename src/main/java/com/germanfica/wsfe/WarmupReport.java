@@ -0,0 +1,67 @@
+package com.germanfica.wsfe;
+
+import lombok.Getter;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+/**
+ * Resultado de {@link WsfeClient#warmup()}: cuánto tardó cada paso y si terminó bien.
+ * <p>
+ * Los pasos corren en paralelo, así que {@link #getTotal()} es el tiempo del más lento y no la suma.
+ * Un paso fallido no interrumpe a los demás: su error queda en {@link Step#getError()}.
+ */
+@Getter
+public final class WarmupReport {
+    private final List<Step> steps;
+    private final Duration total;
+
+    WarmupReport(List<Step> steps, Duration total) {
+        this.steps = List.copyOf(steps);
+        this.total = total;
+    }
+
+    public boolean isSuccessful() {
+        return steps.stream().allMatch(Step::isSuccessful);
+    }
+
+    public Optional<Step> getStep(String name) {
+        return steps.stream().filter(step -> step.getName().equals(name)).findFirst();
+    }
+
+    @Override
+    public String toString() {
+        return "warmup " + total.toMillis() + " ms [" + steps.stream().map(Step::toString).collect(Collectors.joining(", ")) + "]";
+    }
+
+    /**
+     * Un paso del warmup: {@code ports}, {@code connection} o {@code auth}.
+     */
+    @Getter
+    public static final class Step {
+        private final String name;
+        private final Duration duration;
+        /** Resumen del resultado (por ejemplo, la cantidad de ports creados), o {@code null}. */
+        private final String detail;
+        private final Exception error;
+
+        Step(String name, Duration duration, String detail, Exception error) {
+            this.name = name;
+            this.duration = duration;
+            this.detail = detail;
+            this.error = error;
+        }
+
+        public boolean isSuccessful() {
+            return error == null;
+        }
+
+        @Override
+        public String toString() {
+            String result = error != null ? "FAILED: " + error.getMessage() : detail;
+            return name + " " + duration.toMillis() + " ms" + (result != null ? " (" + result + ")" : "");
+        }
+    }
+}
@@ -2,16 +2,27 @@ package com.germanfica.wsfe;
 
 import com.germanfica.wsfe.exception.ApiException;
 import com.germanfica.wsfe.net.*;
+import com.germanfica.wsfe.service.AuthOperations;
+import https.wsaa_afip_gov_ar.ws.services.logincms.LoginCMS;
 import lombok.Getter;
 
 import java.net.Proxy;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Executor;
 
 /**
  * This is the primary entrypoint to make requests against WSAA's API. It provides a means of
  * accessing all the methods on the WSAA API, and the ability to set configuration such as apiKey
  * and connection timeouts.
+ * <p>
+ * El cliente es dueño de sus ports, conexiones y threads de I/O, y los libera al cerrarse
+ * ({@link #close()}).
  */
-public class WsaaClient {
+public class WsaaClient implements AutoCloseable {
+    /** Espera de {@link #close()} a que terminen las solicitudes en curso. */
+    public static final Duration DEFAULT_DRAIN_TIMEOUT = Duration.ofSeconds(30);
+
     private final SoapRequestHandler soapRequestHandler;
 
     /**
@@ -28,6 +39,76 @@ public class WsaaClient {
         return new com.germanfica.wsfe.service.AuthService(soapRequestHandler);
     }
 
+    /**
+     * Limitador de concurrencia de WSAA, para monitorear el límite actual y las llamadas en curso.
+     * Devuelve {@code null} si el handler no limita la concurrencia.
+     */
+    public ConcurrencyLimiter getConcurrencyLimiter() {
+        return soapRequestHandler.getConcurrencyLimiter(LoginCMS.class, AuthOperations.LOGIN_CMS);
+    }
+
+    /**
+     * Cupo propio de WSAA sobre el executor del cliente (ver {@link BulkheadOptions}), con sus
+     * contadores. Devuelve {@code null} si el aislamiento está desactivado.
+     */
+    public Bulkhead getBulkhead() {
+        return soapRequestHandler.getBulkhead(LoginCMS.class);
+    }
+
+    /**
+     * Limitador de frecuencia por CUIT y operación del cliente. Permite consultar con
+     * {@link RateLimiter#tryAcquire} si una llamada respetaría los límites antes de hacerla.
+     */
+    public RateLimiter getRateLimiter() {
+        return soapRequestHandler.getRateLimiter();
+    }
+
+    /**
+     * Caché de sesiones TLS del cliente, con los contadores de reanudación.
+     * Devuelve {@code null} si está desactivada.
+     */
+    public TlsSessionCache getTlsSessionCache() {
+        return soapRequestHandler.getTlsSessionCache();
+    }
+
+    /**
+     * Caché DNS del cliente, con sus contadores. Devuelve {@code null} si está desactivada.
+     */
+    public DnsCache getDnsCache() {
+        return soapRequestHandler.getDnsCache();
+    }
+
+    /**
+     * Latencia y estado de cada endpoint de WSAA: el principal y sus alternativas (ver
+     * {@link FailoverOptions}).
+     */
+    public List<EndpointStatus> getEndpoints() {
+        return soapRequestHandler.getEndpoints(LoginCMS.class);
+    }
+
+    /**
+     * Cierra el cliente esperando hasta {@link #DEFAULT_DRAIN_TIMEOUT} a que terminen las solicitudes
+     * en curso (ver {@link #shutdown(Duration)}).
+     */
+    @Override
+    public void close() {
+        shutdown(DEFAULT_DRAIN_TIMEOUT);
+    }
+
+    /**
+     * Deja de aceptar solicitudes, espera hasta {@code drainTimeout} a que terminen las que están en
+     * curso y libera los ports, las conexiones y los threads propios del cliente. Las solicitudes
+     * nuevas y las que no terminan a tiempo fallan con {@code ClientClosedException}; el reporte
+     * indica cuántas se abandonaron.
+     */
+    public ShutdownReport shutdown(Duration drainTimeout) {
+        return soapRequestHandler.shutdown(drainTimeout);
+    }
+
+    public boolean isClosed() {
+        return soapRequestHandler.isClosed();
+    }
+
     static class ClientWsaaResponseGetterOptions extends SoapResponseGetterOptions {
         @Getter(onMethod_ = {@Override})
         private final String urlBase;
@@ -37,12 +118,57 @@ public class WsaaClient {
         private final ProxyOptions proxyOptions;
         @Getter(onMethod_ = {@Override})
         private final HttpTransportMode httpTransportMode;
+        @Getter(onMethod_ = {@Override})
+        private final WsdlMode wsdlMode;
+        @Getter(onMethod_ = {@Override})
+        private final Executor executor;
+        @Getter(onMethod_ = {@Override})
+        private final ConnectionPoolOptions connectionPoolOptions;
+        @Getter(onMethod_ = {@Override})
+        private final TimeoutPolicy timeoutPolicy;
+        @Getter(onMethod_ = {@Override})
+        private final RetryPolicy retryPolicy;
+        @Getter(onMethod_ = {@Override})
+        private final CircuitBreakerOptions circuitBreakerOptions;
+        @Getter(onMethod_ = {@Override})
+        private final ConcurrencyLimitOptions concurrencyLimitOptions;
+        @Getter(onMethod_ = {@Override})
+        private final RateLimitPolicy rateLimitPolicy;
+        @Getter(onMethod_ = {@Override})
+        private final HedgingOptions hedgingOptions;
+        @Getter(onMethod_ = {@Override})
+        private final TlsOptions tlsOptions;
+        @Getter(onMethod_ = {@Override})
+        private final DnsCacheOptions dnsCacheOptions;
+        @Getter(onMethod_ = {@Override})
+        private final FailoverOptions failoverOptions;
+        @Getter(onMethod_ = {@Override})
+        private final BulkheadOptions bulkheadOptions;
+        @Getter(onMethod_ = {@Override})
+        private final List<SoapInterceptor> interceptors;
+        @Getter(onMethod_ = {@Override})
+        private final ErrorReportingOptions errorReportingOptions;
 
-        ClientWsaaResponseGetterOptions(String urlBase, ApiEnvironment apiEnvironment, ProxyOptions proxyOptions, HttpTransportMode httpTransportMode) {
+        ClientWsaaResponseGetterOptions(String urlBase, ApiEnvironment apiEnvironment, ProxyOptions proxyOptions, HttpTransportMode httpTransportMode, WsdlMode wsdlMode, Executor executor, ConnectionPoolOptions connectionPoolOptions, TimeoutPolicy timeoutPolicy, RetryPolicy retryPolicy, CircuitBreakerOptions circuitBreakerOptions, ConcurrencyLimitOptions concurrencyLimitOptions, RateLimitPolicy rateLimitPolicy, HedgingOptions hedgingOptions, TlsOptions tlsOptions, DnsCacheOptions dnsCacheOptions, FailoverOptions failoverOptions, BulkheadOptions bulkheadOptions, List<SoapInterceptor> interceptors, ErrorReportingOptions errorReportingOptions) {
             this.urlBase = urlBase;
             this.apiEnvironment = apiEnvironment;
             this.proxyOptions = proxyOptions;
             this.httpTransportMode = httpTransportMode;
+            this.wsdlMode = wsdlMode;
+            this.executor = executor;
+            this.connectionPoolOptions = connectionPoolOptions;
+            this.timeoutPolicy = timeoutPolicy;
+            this.retryPolicy = retryPolicy;
+            this.circuitBreakerOptions = circuitBreakerOptions;
+            this.concurrencyLimitOptions = concurrencyLimitOptions;
+            this.rateLimitPolicy = rateLimitPolicy;
+            this.hedgingOptions = hedgingOptions;
+            this.tlsOptions = tlsOptions;
+            this.dnsCacheOptions = dnsCacheOptions;
+            this.failoverOptions = failoverOptions;
+            this.bulkheadOptions = bulkheadOptions;
+            this.interceptors = interceptors;
+            this.errorReportingOptions = errorReportingOptions;
         }
     }
 
@@ -55,6 +181,21 @@ public class WsaaClient {
         private ApiEnvironment apiEnvironment;
         private ProxyOptions proxyOptions;
         private HttpTransportMode httpTransportMode;
+        private WsdlMode wsdlMode;
+        private Executor executor;
+        private ConnectionPoolOptions connectionPoolOptions;
+        private TimeoutPolicy timeoutPolicy;
+        private RetryPolicy retryPolicy;
+        private CircuitBreakerOptions circuitBreakerOptions;
+        private ConcurrencyLimitOptions concurrencyLimitOptions;
+        private RateLimitPolicy rateLimitPolicy;
+        private HedgingOptions hedgingOptions;
+        private TlsOptions tlsOptions;
+        private DnsCacheOptions dnsCacheOptions;
+        private FailoverOptions failoverOptions;
+        private BulkheadOptions bulkheadOptions;
+        private List<SoapInterceptor> interceptors;
+        private ErrorReportingOptions errorReportingOptions;
 
         public WsaaClientBuilder setUrlBase(String urlBase) {
             this.urlBase = urlBase;
@@ -75,6 +216,124 @@ public class WsaaClient {
             return this;
         }
 
+        public WsaaClientBuilder setWsdlMode(WsdlMode wsdlMode) {
+            this.wsdlMode = wsdlMode;
+            return this;
+        }
+
+        /**
+         * Executor para el trabajo bloqueante de las llamadas asíncronas. Por defecto se usan
+         * virtual threads cuando la JVM los soporta (ver {@link ClientExecutors}).
+         */
+        public WsaaClientBuilder setExecutor(Executor executor) {
+            this.executor = executor;
+            return this;
+        }
+
+        /**
+         * Ajustes del pool de conexiones (keep-alive, HTTP/2, límites por host, buffers).
+         */
+        public WsaaClientBuilder setConnectionPoolOptions(ConnectionPoolOptions connectionPoolOptions) {
+            this.connectionPoolOptions = connectionPoolOptions;
+            return this;
+        }
+
+        /**
+         * Timeouts de conexión, lectura y deadline total, con overrides por operación.
+         */
+        public WsaaClientBuilder setTimeoutPolicy(TimeoutPolicy timeoutPolicy) {
+            this.timeoutPolicy = timeoutPolicy;
+            return this;
+        }
+
+        /**
+         * Reintentos con backoff y presupuesto global. {@code loginCms} no se reintenta por defecto.
+         */
+        public WsaaClientBuilder setRetryPolicy(RetryPolicy retryPolicy) {
+            this.retryPolicy = retryPolicy;
+            return this;
+        }
+
+        /**
+         * Circuit breaker del endpoint de WSAA: falla rápido mientras el servicio no responde. Desactivado por defecto.
+         */
+        public WsaaClientBuilder setCircuitBreakerOptions(CircuitBreakerOptions circuitBreakerOptions) {
+            this.circuitBreakerOptions = circuitBreakerOptions;
+            return this;
+        }
+
+        /**
+         * Límite adaptativo de llamadas simultáneas a WSAA; las que lo superan esperan o se rechazan. Desactivado por defecto.
+         */
+        public WsaaClientBuilder setConcurrencyLimitOptions(ConcurrencyLimitOptions concurrencyLimitOptions) {
+            this.concurrencyLimitOptions = concurrencyLimitOptions;
+            return this;
+        }
+
+        /**
+         * Límites de frecuencia por CUIT y operación. Por defecto no hay límites.
+         */
+        public WsaaClientBuilder setRateLimitPolicy(RateLimitPolicy rateLimitPolicy) {
+            this.rateLimitPolicy = rateLimitPolicy;
+            return this;
+        }
+
+        /**
+         * Hedging de consultas idempotentes. Desactivado por defecto.
+         */
+        public WsaaClientBuilder setHedgingOptions(HedgingOptions hedgingOptions) {
+            this.hedgingOptions = hedgingOptions;
+            return this;
+        }
+
+        /**
+         * Caché de sesiones TLS del SSLContext compartido por los conduits.
+         */
+        public WsaaClientBuilder setTlsOptions(TlsOptions tlsOptions) {
+            this.tlsOptions = tlsOptions;
+            return this;
+        }
+
+        /**
+         * TTL de las resoluciones DNS de los hosts de ARCA.
+         */
+        public WsaaClientBuilder setDnsCacheOptions(DnsCacheOptions dnsCacheOptions) {
+            this.dnsCacheOptions = dnsCacheOptions;
+            return this;
+        }
+
+        /**
+         * Endpoints alternativos de WSAA y cómo se reparte el tráfico entre ellos. Por defecto el failover está activo pero sin alternativas configuradas.
+         */
+        public WsaaClientBuilder setFailoverOptions(FailoverOptions failoverOptions) {
+            this.failoverOptions = failoverOptions;
+            return this;
+        }
+
+        /**
+         * Cupo de tareas y conexiones propio de WSAA, separado del de WSFE. Desactivado por defecto.
+         */
+        public WsaaClientBuilder setBulkheadOptions(BulkheadOptions bulkheadOptions) {
+            this.bulkheadOptions = bulkheadOptions;
+            return this;
+        }
+
+        /**
+         * Interceptores de las llamadas a WSAA, en el orden en que se ejecutan (ver {@link SoapInterceptor}).
+         */
+        public WsaaClientBuilder setInterceptors(List<SoapInterceptor> interceptors) {
+            this.interceptors = interceptors;
+            return this;
+        }
+
+        /**
+         * Destino de los errores de las llamadas a WSAA (ver {@link ErrorListener}). Por defecto se registran en el {@code System.Logger} {@code com.germanfica.wsfe}, hasta 10 por minuto de cada código.
+         */
+        public WsaaClientBuilder setErrorReportingOptions(ErrorReportingOptions errorReportingOptions) {
+            this.errorReportingOptions = errorReportingOptions;
+            return this;
+        }
+
         public WsaaClient build() {
             return new WsaaClient(new DefaultSoapRequestHandler(buildOptions()));
         }
@@ -84,7 +343,22 @@ public class WsaaClient {
                 this.urlBase,
                 this.apiEnvironment,
                 this.proxyOptions,
-                this.httpTransportMode != null ? this.httpTransportMode : HttpTransportMode.HTTP
+                this.httpTransportMode != null ? this.httpTransportMode : HttpTransportMode.HTTP,
+                this.wsdlMode != null ? this.wsdlMode : WsdlMode.LOCAL,
+                this.executor != null ? this.executor : ClientExecutors.defaultExecutor(),
+                this.connectionPoolOptions != null ? this.connectionPoolOptions : ConnectionPoolOptions.defaults(),
+                this.timeoutPolicy != null ? this.timeoutPolicy : TimeoutPolicy.defaults(),
+                this.retryPolicy != null ? this.retryPolicy : RetryPolicy.defaults(),
+                this.circuitBreakerOptions != null ? this.circuitBreakerOptions : CircuitBreakerOptions.disabled(),
+                this.concurrencyLimitOptions != null ? this.concurrencyLimitOptions : ConcurrencyLimitOptions.disabled(),
+                this.rateLimitPolicy != null ? this.rateLimitPolicy : RateLimitPolicy.defaults(),
+                this.hedgingOptions != null ? this.hedgingOptions : HedgingOptions.disabled(),
+                this.tlsOptions != null ? this.tlsOptions : TlsOptions.defaults(),
+                this.dnsCacheOptions != null ? this.dnsCacheOptions : DnsCacheOptions.defaults(),
+                this.failoverOptions != null ? this.failoverOptions : FailoverOptions.defaults(),
+                this.bulkheadOptions != null ? this.bulkheadOptions : BulkheadOptions.disabled(),
+                this.interceptors != null ? this.interceptors : List.of(),
+                this.errorReportingOptions != null ? this.errorReportingOptions : ErrorReportingOptions.defaults()
             );
         }
     }
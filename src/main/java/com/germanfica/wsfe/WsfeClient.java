@@ -7,23 +7,48 @@ import com.germanfica.wsfe.service.WsfeService;
 import com.germanfica.wsfe.provider.feauth.FEAuthProvider;
 import com.germanfica.wsfe.provider.ProviderChain;
 import com.germanfica.wsfe.provider.feauth.StaticAuthProvider;
+import com.germanfica.wsfe.service.WsfeOperations;
+import fev1.dif.afip.gov.ar.DummyResponse;
 import fev1.dif.afip.gov.ar.FEActividadesResponse;
 import fev1.dif.afip.gov.ar.FECAERequest;
 import fev1.dif.afip.gov.ar.FECAEResponse;
 import fev1.dif.afip.gov.ar.FERecuperaLastCbteResponse;
+import fev1.dif.afip.gov.ar.ServiceSoap;
 import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.experimental.Accessors;
 
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+
 /**
  * This is the primary entrypoint to make requests against WSFE's API. It provides a means of
  * accessing all the methods on the WSFE API, and the ability to set configuration such as apiKey
  * and connection timeouts.
+ * <p>
+ * El cliente es dueño de sus ports, conexiones y threads de I/O, y los libera al cerrarse
+ * ({@link #close()}). El {@link FEAuthProvider} no se cierra con él: si usa un {@link WsaaClient},
+ * hay que cerrarlo aparte.
  */
-public class WsfeClient {
+public class WsfeClient implements AutoCloseable {
+    /** Espera de {@link #close()} a que terminen las solicitudes en curso. */
+    public static final Duration DEFAULT_DRAIN_TIMEOUT = Duration.ofSeconds(30);
+
+    /** Máximo de variantes de {@link WsfeService} memorizadas por {@link #wsfe(RequestOptions)}. */
+    private static final int MAX_SERVICE_VARIANTS = 64;
+
     private final SoapRequestHandler soapRequestHandler;
     private final FEAuthProvider authProvider;
+    private final WsfeService wsfeService;
+    private final Map<RequestOptions, WsfeService> serviceVariants = new ConcurrentHashMap<>();
+    private volatile WarmupReport warmupReport;
 
     /**
      * Creates a WsfeClient using a custom SoapRequestHandler.
@@ -34,18 +59,202 @@ public class WsfeClient {
     public WsfeClient(SoapRequestHandler requestHandler, FEAuthProvider feAuthProvider) {
         this.soapRequestHandler = requestHandler;
         this.authProvider = feAuthProvider;
+        this.wsfeService = new WsfeService(requestHandler, feAuthProvider, null);
+    }
+
+    /**
+     * Servicio WSFE con la configuración del cliente. Es el que usan los métodos de esta clase.
+     */
+    public WsfeService wsfe() {
+        return wsfeService;
+    }
+
+    /**
+     * Servicio WSFE cuyas llamadas usan {@code options} (otro endpoint, proxy, transporte,
+     * timeouts o deadline) sin crear otro cliente: comparte el handler, los ports, las conexiones
+     * y los límites de este.
+     * <p>
+     * Con {@code null} devuelve {@link #wsfe()}. Los servicios se memorizan por {@code options};
+     * los que llevan deadline o token de cancelación son de una sola solicitud y no se memorizan.
+     */
+    public WsfeService wsfe(RequestOptions options) {
+        if (options == null) return wsfeService;
+        WsfeService service = serviceVariants.get(options);
+        if (service != null) return service;
+        service = wsfeService.withOptions(options);
+        if (options.getDeadline() == null && options.getCancellationToken() == null && serviceVariants.size() < MAX_SERVICE_VARIANTS) {
+            WsfeService previous = serviceVariants.putIfAbsent(options, service);
+            if (previous != null) return previous;
+        }
+        return service;
     }
 
     public FECAEResponse fecaeSolicitar(FECAERequest feCAEReq) throws ApiException {
-        return new WsfeService(soapRequestHandler, authProvider).fecaeSolicitar(feCAEReq);
+        return wsfeService.fecaeSolicitar(feCAEReq);
+    }
+
+    public FECAEResponse fecaeSolicitar(FECAERequest feCAEReq, RequestOptions options) throws ApiException {
+        return wsfe(options).fecaeSolicitar(feCAEReq);
     }
 
     public FERecuperaLastCbteResponse feCompUltimoAutorizado(int ptoVta, int cbteTipo) throws ApiException {
-        return new com.germanfica.wsfe.service.WsfeService(soapRequestHandler, authProvider).feCompUltimoAutorizado(ptoVta, cbteTipo);
+        return wsfeService.feCompUltimoAutorizado(ptoVta, cbteTipo);
+    }
+
+    public FERecuperaLastCbteResponse feCompUltimoAutorizado(int ptoVta, int cbteTipo, RequestOptions options) throws ApiException {
+        return wsfe(options).feCompUltimoAutorizado(ptoVta, cbteTipo);
     }
 
     public FEActividadesResponse feParamGetActividades() throws ApiException {
-        return new com.germanfica.wsfe.service.WsfeService(soapRequestHandler, authProvider).feParamGetActividades();
+        return wsfeService.feParamGetActividades();
+    }
+
+    public FEActividadesResponse feParamGetActividades(RequestOptions options) throws ApiException {
+        return wsfe(options).feParamGetActividades();
+    }
+
+    public CompletableFuture<FECAEResponse> fecaeSolicitarAsync(FECAERequest feCAEReq) {
+        return wsfeService.fecaeSolicitarAsync(feCAEReq);
+    }
+
+    public CompletableFuture<FECAEResponse> fecaeSolicitarAsync(FECAERequest feCAEReq, RequestOptions options) {
+        return wsfe(options).fecaeSolicitarAsync(feCAEReq);
+    }
+
+    public CompletableFuture<FERecuperaLastCbteResponse> feCompUltimoAutorizadoAsync(int ptoVta, int cbteTipo) {
+        return wsfeService.feCompUltimoAutorizadoAsync(ptoVta, cbteTipo);
+    }
+
+    public CompletableFuture<FERecuperaLastCbteResponse> feCompUltimoAutorizadoAsync(int ptoVta, int cbteTipo, RequestOptions options) {
+        return wsfe(options).feCompUltimoAutorizadoAsync(ptoVta, cbteTipo);
+    }
+
+    public CompletableFuture<FEActividadesResponse> feParamGetActividadesAsync() {
+        return wsfeService.feParamGetActividadesAsync();
+    }
+
+    public CompletableFuture<FEActividadesResponse> feParamGetActividadesAsync(RequestOptions options) {
+        return wsfe(options).feParamGetActividadesAsync();
+    }
+
+    /**
+     * Prepara en paralelo, en el executor del cliente, lo que la primera llamada pagaría de otro modo:
+     * <ul>
+     *   <li>{@code ports}: los ports de cada perfil de timeouts, con su modelo de servicio y contexto JAXB;</li>
+     *   <li>{@code connection}: una llamada a {@code FEDummy} que abre la conexión TLS con el endpoint
+     *       del {@link ApiEnvironment} configurado y recorre la serialización de ida y vuelta;</li>
+     *   <li>{@code auth}: {@link FEAuthProvider#getAuth()}, que puede implicar un login en WSAA.</li>
+     * </ul>
+     * No lanza excepciones: los errores de cada paso quedan en el {@link WarmupReport}.
+     */
+    public WarmupReport warmup() {
+        Executor executor = soapRequestHandler.getExecutor();
+        long startNanos = System.nanoTime();
+
+        List<CompletableFuture<WarmupReport.Step>> steps = List.of(
+            step("ports", () -> soapRequestHandler.preparePorts(null, ServiceSoap.class, WsfeOperations.all()), count -> count + " ports", executor),
+            step("connection", wsfeService::feDummy, WsfeClient::describe, executor),
+            step("auth", authProvider::getAuth, auth -> auth != null ? "CUIT " + auth.getCuit() : null, executor));
+
+        WarmupReport report = new WarmupReport(
+            steps.stream().map(CompletableFuture::join).toList(),
+            Duration.ofNanos(System.nanoTime() - startNanos));
+        this.warmupReport = report;
+        return report;
+    }
+
+    /**
+     * Resultado del último {@link #warmup()}, o {@code null} si no se ejecutó.
+     */
+    public WarmupReport getWarmupReport() {
+        return warmupReport;
+    }
+
+    private static <T> CompletableFuture<WarmupReport.Step> step(String name, Callable<T> task, Function<T, String> detail, Executor executor) {
+        return CompletableFuture.supplyAsync(() -> {
+            long startNanos = System.nanoTime();
+            try {
+                T result = task.call();
+                return new WarmupReport.Step(name, Duration.ofNanos(System.nanoTime() - startNanos), detail.apply(result), null);
+            } catch (Exception e) {
+                return new WarmupReport.Step(name, Duration.ofNanos(System.nanoTime() - startNanos), null, e);
+            }
+        }, executor);
+    }
+
+    private static String describe(DummyResponse response) {
+        return response != null ? "appServer=" + response.getAppServer() + " dbServer=" + response.getDbServer() + " authServer=" + response.getAuthServer() : null;
+    }
+
+    /**
+     * Limitador de concurrencia de la operación {@code operationName} de WSFE (ver
+     * {@link WsfeOperations}), para monitorear el límite actual y las llamadas en curso.
+     * Devuelve {@code null} si el handler no limita la concurrencia.
+     */
+    public ConcurrencyLimiter getConcurrencyLimiter(String operationName) {
+        return soapRequestHandler.getConcurrencyLimiter(ServiceSoap.class, operationName);
+    }
+
+    /**
+     * Cupo propio de WSFE sobre el executor del cliente (ver {@link BulkheadOptions}), con sus
+     * contadores. Devuelve {@code null} si el aislamiento está desactivado.
+     */
+    public Bulkhead getBulkhead() {
+        return soapRequestHandler.getBulkhead(ServiceSoap.class);
+    }
+
+    /**
+     * Limitador de frecuencia por CUIT y operación del cliente. Permite consultar con
+     * {@link RateLimiter#tryAcquire} si una llamada respetaría los límites antes de hacerla.
+     */
+    public RateLimiter getRateLimiter() {
+        return soapRequestHandler.getRateLimiter();
+    }
+
+    /**
+     * Caché de sesiones TLS del cliente, con los contadores de reanudación.
+     * Devuelve {@code null} si está desactivada.
+     */
+    public TlsSessionCache getTlsSessionCache() {
+        return soapRequestHandler.getTlsSessionCache();
+    }
+
+    /**
+     * Caché DNS del cliente, con sus contadores. Devuelve {@code null} si está desactivada.
+     */
+    public DnsCache getDnsCache() {
+        return soapRequestHandler.getDnsCache();
+    }
+
+    /**
+     * Latencia y estado de cada endpoint de WSFE: el principal y sus alternativas (ver
+     * {@link FailoverOptions}).
+     */
+    public List<EndpointStatus> getEndpoints() {
+        return soapRequestHandler.getEndpoints(ServiceSoap.class);
+    }
+
+    /**
+     * Cierra el cliente esperando hasta {@link #DEFAULT_DRAIN_TIMEOUT} a que terminen las solicitudes
+     * en curso (ver {@link #shutdown(Duration)}).
+     */
+    @Override
+    public void close() {
+        shutdown(DEFAULT_DRAIN_TIMEOUT);
+    }
+
+    /**
+     * Deja de aceptar solicitudes, espera hasta {@code drainTimeout} a que terminen las que están en
+     * curso y libera los ports, las conexiones y los threads propios del cliente. Las solicitudes
+     * nuevas y las que no terminan a tiempo fallan con {@code ClientClosedException}; el reporte
+     * indica cuántas se abandonaron.
+     */
+    public ShutdownReport shutdown(Duration drainTimeout) {
+        return soapRequestHandler.shutdown(drainTimeout);
+    }
+
+    public boolean isClosed() {
+        return soapRequestHandler.isClosed();
     }
 
     static class ClientWsfeResponseGetterOptions extends SoapResponseGetterOptions {
@@ -57,12 +266,57 @@ public class WsfeClient {
         private final ProxyOptions proxyOptions;
         @Getter(onMethod_ = {@Override})
         private final HttpTransportMode httpTransportMode;
+        @Getter(onMethod_ = {@Override})
+        private final WsdlMode wsdlMode;
+        @Getter(onMethod_ = {@Override})
+        private final Executor executor;
+        @Getter(onMethod_ = {@Override})
+        private final ConnectionPoolOptions connectionPoolOptions;
+        @Getter(onMethod_ = {@Override})
+        private final TimeoutPolicy timeoutPolicy;
+        @Getter(onMethod_ = {@Override})
+        private final RetryPolicy retryPolicy;
+        @Getter(onMethod_ = {@Override})
+        private final CircuitBreakerOptions circuitBreakerOptions;
+        @Getter(onMethod_ = {@Override})
+        private final ConcurrencyLimitOptions concurrencyLimitOptions;
+        @Getter(onMethod_ = {@Override})
+        private final RateLimitPolicy rateLimitPolicy;
+        @Getter(onMethod_ = {@Override})
+        private final HedgingOptions hedgingOptions;
+        @Getter(onMethod_ = {@Override})
+        private final TlsOptions tlsOptions;
+        @Getter(onMethod_ = {@Override})
+        private final DnsCacheOptions dnsCacheOptions;
+        @Getter(onMethod_ = {@Override})
+        private final FailoverOptions failoverOptions;
+        @Getter(onMethod_ = {@Override})
+        private final BulkheadOptions bulkheadOptions;
+        @Getter(onMethod_ = {@Override})
+        private final List<SoapInterceptor> interceptors;
+        @Getter(onMethod_ = {@Override})
+        private final ErrorReportingOptions errorReportingOptions;
 
-        ClientWsfeResponseGetterOptions(String token, String sign, Long cuit, String urlBase, ApiEnvironment apiEnvironment, ProxyOptions proxyOptions, HttpTransportMode httpTransportMode) {
+        ClientWsfeResponseGetterOptions(String token, String sign, Long cuit, String urlBase, ApiEnvironment apiEnvironment, ProxyOptions proxyOptions, HttpTransportMode httpTransportMode, WsdlMode wsdlMode, Executor executor, ConnectionPoolOptions connectionPoolOptions, TimeoutPolicy timeoutPolicy, RetryPolicy retryPolicy, CircuitBreakerOptions circuitBreakerOptions, ConcurrencyLimitOptions concurrencyLimitOptions, RateLimitPolicy rateLimitPolicy, HedgingOptions hedgingOptions, TlsOptions tlsOptions, DnsCacheOptions dnsCacheOptions, FailoverOptions failoverOptions, BulkheadOptions bulkheadOptions, List<SoapInterceptor> interceptors, ErrorReportingOptions errorReportingOptions) {
             this.urlBase = urlBase;
             this.apiEnvironment = apiEnvironment;
             this.proxyOptions = proxyOptions;
             this.httpTransportMode = httpTransportMode;
+            this.wsdlMode = wsdlMode;
+            this.executor = executor;
+            this.connectionPoolOptions = connectionPoolOptions;
+            this.timeoutPolicy = timeoutPolicy;
+            this.retryPolicy = retryPolicy;
+            this.circuitBreakerOptions = circuitBreakerOptions;
+            this.concurrencyLimitOptions = concurrencyLimitOptions;
+            this.rateLimitPolicy = rateLimitPolicy;
+            this.hedgingOptions = hedgingOptions;
+            this.tlsOptions = tlsOptions;
+            this.dnsCacheOptions = dnsCacheOptions;
+            this.failoverOptions = failoverOptions;
+            this.bulkheadOptions = bulkheadOptions;
+            this.interceptors = interceptors;
+            this.errorReportingOptions = errorReportingOptions;
         }
     }
 
@@ -86,6 +340,23 @@ public class WsfeClient {
         private ApiEnvironment apiEnvironment;
         private ProxyOptions proxyOptions;
         private HttpTransportMode httpTransportMode;
+        private WsdlMode wsdlMode;
+        private Executor executor;
+        private ConnectionPoolOptions connectionPoolOptions;
+        private TimeoutPolicy timeoutPolicy;
+        private RetryPolicy retryPolicy;
+        private CircuitBreakerOptions circuitBreakerOptions;
+        private ConcurrencyLimitOptions concurrencyLimitOptions;
+        private RateLimitPolicy rateLimitPolicy;
+        private HedgingOptions hedgingOptions;
+        private TlsOptions tlsOptions;
+        private DnsCacheOptions dnsCacheOptions;
+        private FailoverOptions failoverOptions;
+        private BulkheadOptions bulkheadOptions;
+        private List<SoapInterceptor> interceptors;
+        private ErrorReportingOptions errorReportingOptions;
+        /** Ejecuta {@link WsfeClient#warmup()} al construir el cliente. */
+        private boolean warmupOnBuild;
 
         public WsfeClientBuilder setFEAuthProvider(FEAuthProvider feAuthProvider) {
             this.feAuthProvider = feAuthProvider;
@@ -98,10 +369,12 @@ public class WsfeClient {
         }
 
         public WsfeClient build() {
-            return new WsfeClient(
+            WsfeClient client = new WsfeClient(
                 new DefaultSoapRequestHandler(buildOptions()),
                 this.feAuthProvider != null ? this.feAuthProvider : defaultProviderChain()
             );
+            if (warmupOnBuild) client.warmup();
+            return client;
         }
 
         private FEAuthProvider defaultProviderChain() {
@@ -123,7 +396,22 @@ public class WsfeClient {
                     this.urlBase,
                     this.apiEnvironment,
                     this.proxyOptions,
-                    this.httpTransportMode != null ? this.httpTransportMode : HttpTransportMode.HTTP
+                    this.httpTransportMode != null ? this.httpTransportMode : HttpTransportMode.HTTP,
+                    this.wsdlMode != null ? this.wsdlMode : WsdlMode.LOCAL,
+                    this.executor != null ? this.executor : ClientExecutors.defaultExecutor(),
+                    this.connectionPoolOptions != null ? this.connectionPoolOptions : ConnectionPoolOptions.defaults(),
+                    this.timeoutPolicy != null ? this.timeoutPolicy : TimeoutPolicy.defaults(),
+                    this.retryPolicy != null ? this.retryPolicy : RetryPolicy.defaults(),
+                    this.circuitBreakerOptions != null ? this.circuitBreakerOptions : CircuitBreakerOptions.disabled(),
+                    this.concurrencyLimitOptions != null ? this.concurrencyLimitOptions : ConcurrencyLimitOptions.disabled(),
+                    this.rateLimitPolicy != null ? this.rateLimitPolicy : RateLimitPolicy.defaults(),
+                    this.hedgingOptions != null ? this.hedgingOptions : HedgingOptions.disabled(),
+                    this.tlsOptions != null ? this.tlsOptions : TlsOptions.defaults(),
+                    this.dnsCacheOptions != null ? this.dnsCacheOptions : DnsCacheOptions.defaults(),
+                    this.failoverOptions != null ? this.failoverOptions : FailoverOptions.defaults(),
+                    this.bulkheadOptions != null ? this.bulkheadOptions : BulkheadOptions.disabled(),
+                    this.interceptors != null ? this.interceptors : List.of(),
+                    this.errorReportingOptions != null ? this.errorReportingOptions : ErrorReportingOptions.defaults()
             );
         }
     }
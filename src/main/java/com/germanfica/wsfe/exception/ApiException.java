@@ -15,4 +15,14 @@ public class ApiException extends Exception {
         this.errorDto = errorDto;
         this.httpStatus = httpStatus;
     }
+
+    /**
+     * Igual que {@link #ApiException(ErrorDto, HttpStatus)}, conservando la excepción que originó
+     * el error como {@link #getCause()}.
+     */
+    public ApiException(ErrorDto errorDto, HttpStatus httpStatus, Throwable cause) {
+        super(errorDto.getFaultString(), cause);
+        this.errorDto = errorDto;
+        this.httpStatus = httpStatus;
+    }
 }
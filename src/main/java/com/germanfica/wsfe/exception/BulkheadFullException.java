@@ -0,0 +1,31 @@
+package com.germanfica.wsfe.exception;
+
+import com.germanfica.wsfe.dto.ErrorDto;
+import com.germanfica.wsfe.net.HttpStatus;
+
+import java.net.InetAddress;
+
+/**
+ * Los threads del servicio están ocupados y su cola de espera está llena (ver
+ * {@code BulkheadOptions}).
+ */
+public class BulkheadFullException extends ApiException {
+  public BulkheadFullException(String service) {
+    super(new ErrorDto(
+        "bulkhead_full",
+        "No hay lugar para más solicitudes a " + service,
+        new ErrorDto.ErrorDetailsDto(
+            "BulkheadFullException",
+            getLocalHostname()
+        )
+    ), HttpStatus.SERVICE_UNAVAILABLE);
+  }
+
+  private static String getLocalHostname() {
+    try {
+      return InetAddress.getLocalHost().getHostName();
+    } catch (Exception e) {
+      return "unknown-host";
+    }
+  }
+}
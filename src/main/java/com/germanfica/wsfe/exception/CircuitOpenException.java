@@ -0,0 +1,30 @@
+package com.germanfica.wsfe.exception;
+
+import com.germanfica.wsfe.dto.ErrorDto;
+import com.germanfica.wsfe.net.HttpStatus;
+
+import java.net.InetAddress;
+
+/**
+ * El circuit breaker del endpoint está abierto: la llamada se rechazó sin contactar a ARCA.
+ */
+public class CircuitOpenException extends ApiException {
+  public CircuitOpenException(String endpoint) {
+    super(new ErrorDto(
+        "circuit_open",
+        "ARCA no responde en " + endpoint + "; se rechazan las llamadas hasta que el servicio se recupere",
+        new ErrorDto.ErrorDetailsDto(
+            "CircuitOpenException",
+            getLocalHostname()
+        )
+    ), HttpStatus.SERVICE_UNAVAILABLE);
+  }
+
+  private static String getLocalHostname() {
+    try {
+      return InetAddress.getLocalHost().getHostName();
+    } catch (Exception e) {
+      return "unknown-host";
+    }
+  }
+}
@@ -0,0 +1,31 @@
+package com.germanfica.wsfe.exception;
+
+import com.germanfica.wsfe.dto.ErrorDto;
+import com.germanfica.wsfe.net.HttpStatus;
+
+import java.net.InetAddress;
+
+/**
+ * El cliente se cerró: no acepta solicitudes nuevas, o la solicitud seguía en curso cuando venció
+ * la espera del cierre y se abandonó.
+ */
+public class ClientClosedException extends ApiException {
+  public ClientClosedException() {
+    super(new ErrorDto(
+        "client_closed",
+        "El cliente está cerrado y no acepta más solicitudes",
+        new ErrorDto.ErrorDetailsDto(
+            "ClientClosedException",
+            getLocalHostname()
+        )
+    ), HttpStatus.SERVICE_UNAVAILABLE);
+  }
+
+  private static String getLocalHostname() {
+    try {
+      return InetAddress.getLocalHost().getHostName();
+    } catch (Exception e) {
+      return "unknown-host";
+    }
+  }
+}
@@ -0,0 +1,30 @@
+package com.germanfica.wsfe.exception;
+
+import com.germanfica.wsfe.dto.ErrorDto;
+import com.germanfica.wsfe.net.HttpStatus;
+
+import java.net.InetAddress;
+
+/**
+ * La llamada superó el límite de concurrencia adaptativo del cliente y no obtuvo lugar a tiempo.
+ */
+public class ConcurrencyLimitException extends ApiException {
+  public ConcurrencyLimitException(int limit) {
+    super(new ErrorDto(
+        "concurrency_limit",
+        "Se alcanzó el límite de " + limit + " llamadas simultáneas a ARCA",
+        new ErrorDto.ErrorDetailsDto(
+            "ConcurrencyLimitException",
+            getLocalHostname()
+        )
+    ), HttpStatus.TOO_MANY_REQUESTS);
+  }
+
+  private static String getLocalHostname() {
+    try {
+      return InetAddress.getLocalHost().getHostName();
+    } catch (Exception e) {
+      return "unknown-host";
+    }
+  }
+}
@@ -0,0 +1,31 @@
+package com.germanfica.wsfe.exception;
+
+import com.germanfica.wsfe.dto.ErrorDto;
+import com.germanfica.wsfe.net.HttpStatus;
+
+import java.net.InetAddress;
+
+/**
+ * Se agotó el deadline de la solicitud (ver {@link com.germanfica.wsfe.net.Deadline}) antes de
+ * obtener una respuesta. Incluye el tiempo de renovación del TA, las esperas y los reintentos.
+ */
+public class DeadlineExceededException extends ApiException {
+  public DeadlineExceededException() {
+    super(new ErrorDto(
+        "deadline_exceeded",
+        "Se agotó el deadline de la solicitud a ARCA",
+        new ErrorDto.ErrorDetailsDto(
+            "DeadlineExceededException",
+            getLocalHostname()
+        )
+    ), HttpStatus.GATEWAY_TIMEOUT);
+  }
+
+  private static String getLocalHostname() {
+    try {
+      return InetAddress.getLocalHost().getHostName();
+    } catch (Exception e) {
+      return "unknown-host";
+    }
+  }
+}
@@ -0,0 +1,30 @@
+package com.germanfica.wsfe.exception;
+
+import com.germanfica.wsfe.dto.ErrorDto;
+import com.germanfica.wsfe.net.HttpStatus;
+
+import java.net.InetAddress;
+
+/**
+ * La llamada superó el límite de frecuencia configurado para su CUIT u operación y no se envió.
+ */
+public class RateLimitExceededException extends ApiException {
+  public RateLimitExceededException(String key) {
+    super(new ErrorDto(
+        "rate_limited",
+        "Se superó el límite de llamadas por segundo para " + key,
+        new ErrorDto.ErrorDetailsDto(
+            "RateLimitExceededException",
+            getLocalHostname()
+        )
+    ), HttpStatus.TOO_MANY_REQUESTS);
+  }
+
+  private static String getLocalHostname() {
+    try {
+      return InetAddress.getLocalHost().getHostName();
+    } catch (Exception e) {
+      return "unknown-host";
+    }
+  }
+}
@@ -0,0 +1,30 @@
+package com.germanfica.wsfe.exception;
+
+import com.germanfica.wsfe.dto.ErrorDto;
+import com.germanfica.wsfe.net.HttpStatus;
+
+import java.net.InetAddress;
+
+/**
+ * La solicitud se canceló con su {@link com.germanfica.wsfe.net.CancellationToken}.
+ */
+public class RequestCancelledException extends ApiException {
+  public RequestCancelledException() {
+    super(new ErrorDto(
+        "request_cancelled",
+        "La solicitud a ARCA fue cancelada",
+        new ErrorDto.ErrorDetailsDto(
+            "RequestCancelledException",
+            getLocalHostname()
+        )
+    ), HttpStatus.REQUEST_TIMEOUT);
+  }
+
+  private static String getLocalHostname() {
+    try {
+      return InetAddress.getLocalHost().getHostName();
+    } catch (Exception e) {
+      return "unknown-host";
+    }
+  }
+}
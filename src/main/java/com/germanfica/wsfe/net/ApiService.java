@@ -4,6 +4,9 @@ import com.germanfica.wsfe.exception.ApiException;
 import lombok.AccessLevel;
 import lombok.Getter;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
 /** The base class for all services. */
 public abstract class ApiService {
     @Getter(AccessLevel.PROTECTED)
@@ -94,4 +97,105 @@ public abstract class ApiService {
     protected <P, R> R invoke(ApiRequest request, Class<P> portClass, PortInvoker<P, R> invoker) throws ApiException {
         return soapRequestHandler.invoke(request, portClass, invoker);
     }
+
+    /**
+     * Igual que {@link #invoke(ApiRequest, Class, PortInvoker)}, indicando el nombre de la operación
+     * del WSDL (por ejemplo, {@code FECAESolicitar}) para aplicar su configuración propia, como los
+     * timeouts de la {@link TimeoutPolicy} del cliente.
+     */
+    protected <P, R> R invoke(ApiRequest request, Class<P> portClass, String operationName, PortInvoker<P, R> invoker) throws ApiException {
+        return soapRequestHandler.invoke(request, portClass, operationName, invoker);
+    }
+
+    /**
+     * Igual que {@link #invoke(ApiRequest, Class, String, PortInvoker)} para operaciones que no son
+     * idempotentes, como {@code FECAESolicitar}: una falla transitoria solo se reintenta si
+     * {@code reconciler} confirma que el intento anterior no llegó a procesarse
+     * (ver {@link RetryPolicy}).
+     */
+    protected <P, R> R invoke(ApiRequest request, Class<P> portClass, String operationName, RetryReconciler reconciler, PortInvoker<P, R> invoker) throws ApiException {
+        return soapRequestHandler.invoke(request, portClass, operationName, reconciler, invoker);
+    }
+
+    /**
+     * Igual que {@link #invoke(ApiRequest, Class, String, PortInvoker)}, pasando el tipo de la
+     * respuesta y los argumentos de la operación en lugar de un {@link PortInvoker}, como en
+     * {@link #invokeAsync(ApiRequest, Class, String, Class, Object...)}. Los
+     * {@link SoapInterceptor} del cliente los ven en la {@link SoapInvocation}.
+     */
+    protected <P, R> R invoke(ApiRequest request, Class<P> portClass, String operationName, Class<R> responseType, Object... args) throws ApiException {
+        return soapRequestHandler.invoke(request, portClass, operationName, responseType, args);
+    }
+
+    /**
+     * Igual que {@link #invoke(ApiRequest, Class, String, Class, Object...)} con un
+     * {@link RetryReconciler}, como en {@link #invoke(ApiRequest, Class, String, RetryReconciler, PortInvoker)}.
+     */
+    protected <P, R> R invoke(ApiRequest request, Class<P> portClass, String operationName, RetryReconciler reconciler, Class<R> responseType, Object... args) throws ApiException {
+        return soapRequestHandler.invoke(request, portClass, operationName, reconciler, responseType, args);
+    }
+
+    /**
+     * Versión no bloqueante de {@link #invoke}: invoca la operación SOAP {@code operationName} del port
+     * y devuelve un {@link CompletableFuture} que se completa con la respuesta o, en caso de error,
+     * con la misma {@link ApiException} que lanzaría la llamada síncrona.
+     *
+     * <p><b>Ejemplo de uso:</b></p>
+     * <pre>{@code
+     * public CompletableFuture<DummyResponse> feDummyAsync() {
+     *     return this.invokeAsync(null, ServiceSoap.class, "FEDummy", DummyResponse.class);
+     * }
+     * }</pre>
+     *
+     * @param request       Datos opcionales de la solicitud. Puede ser {@code null}.
+     * @param portClass     Clase del port SOAP que se desea utilizar (por ejemplo, `ServiceSoap.class`).
+     * @param operationName Nombre de la operación en el WSDL (por ejemplo, `FECAESolicitar`).
+     * @param responseType  Tipo de la respuesta de la operación.
+     * @param args          Parámetros de la operación, en el mismo orden que el método del port.
+     * @param <P>           Tipo del port SOAP.
+     * @param <R>           Tipo de resultado devuelto por la operación SOAP.
+     * @return Future con el resultado de la operación.
+     */
+    protected <P, R> CompletableFuture<R> invokeAsync(ApiRequest request, Class<P> portClass, String operationName, Class<R> responseType, Object... args) {
+        return soapRequestHandler.invokeAsync(request, portClass, operationName, responseType, args);
+    }
+
+    /**
+     * Versión no bloqueante de {@link #invoke(ApiRequest, Class, String, RetryReconciler, PortInvoker)}.
+     */
+    protected <P, R> CompletableFuture<R> invokeAsync(ApiRequest request, Class<P> portClass, String operationName, RetryReconciler reconciler, Class<R> responseType, Object... args) {
+        return soapRequestHandler.invokeAsync(request, portClass, operationName, reconciler, responseType, args);
+    }
+
+    /**
+     * Executor configurado en el cliente para el trabajo bloqueante de las llamadas asíncronas.
+     */
+    protected Executor getExecutor() {
+        return soapRequestHandler.getExecutor();
+    }
+
+    /**
+     * Solicitud que solo identifica al contribuyente, para que el handler aplique los límites de
+     * frecuencia por CUIT (ver {@link RateLimitPolicy}).
+     */
+    protected static ApiRequest forCuit(long cuit) {
+        return new ApiRequest(RequestOptions.builder().setCuit(cuit).build());
+    }
+
+    /**
+     * Igual que {@link #forCuit(long)}, conservando las {@link RequestOptions} de la llamada
+     * (endpoint, proxy, transporte, timeouts o deadline). Con {@code options == null} equivale a
+     * {@link #forCuit(long)}.
+     */
+    protected static ApiRequest forCuit(RequestOptions options, long cuit) {
+        if (options == null) return forCuit(cuit);
+        return new ApiRequest(options.toBuilder().setCuit(cuit).build());
+    }
+
+    /**
+     * Solicitud con las {@link RequestOptions} de la llamada, o {@code null} si no hay ninguna.
+     */
+    protected static ApiRequest forOptions(RequestOptions options) {
+        return options != null ? new ApiRequest(options) : null;
+    }
 }
@@ -0,0 +1,173 @@
+package com.germanfica.wsfe.net;
+
+import com.germanfica.wsfe.exception.BulkheadFullException;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cupo propio de un servicio (WSAA o WSFE) sobre el executor del cliente (ver
+ * {@link BulkheadOptions}).
+ * <p>
+ * No crea threads: cada tarea corre en el executor del cliente (ver {@link ClientExecutors}), pero a
+ * lo sumo {@link BulkheadOptions#getMaxConcurrency()} tareas del servicio a la vez; las demás esperan
+ * en una cola propia, de modo que un servicio lento no ocupa el cupo del otro.
+ * <p>
+ * Corren aquí los intentos que el handler no ejecuta en el thread que llama (con deadline,
+ * cancelación, hedging o carrera entre endpoints), los callbacks de las llamadas asíncronas, las
+ * decisiones de reintento y los sondeos del circuit breaker. Cuando el cupo y la cola están llenos,
+ * las llamadas nuevas al servicio fallan con {@link BulkheadFullException} y las tareas nuevas con
+ * {@link RejectedExecutionException} ({@link BulkheadOptions.Overflow#REJECT}), o corren en el
+ * thread que las envía ({@link BulkheadOptions.Overflow#CALLER_RUNS}).
+ */
+public final class Bulkhead implements Executor {
+    private final String service;
+    private final BulkheadOptions options;
+    private final Executor executor;
+    private final int maxConcurrency;
+    private final int maxQueueSize;
+    private final ConcurrentLinkedQueue<Runnable> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger active = new AtomicInteger();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final AtomicLong rejected = new AtomicLong();
+    private volatile boolean shutdown;
+
+    Bulkhead(String service, BulkheadOptions options, Executor executor) {
+        this.service = service;
+        this.options = options;
+        this.executor = executor;
+        this.maxConcurrency = Math.max(1, options.getMaxConcurrency());
+        this.maxQueueSize = Math.max(0, options.getMaxQueueSize());
+    }
+
+    /**
+     * Servicio al que pertenece ({@code LoginCMS} o {@code ServiceSoap}).
+     */
+    public String getService() {
+        return service;
+    }
+
+    public int getMaxConcurrency() {
+        return maxConcurrency;
+    }
+
+    /**
+     * Tareas del servicio corriendo en el executor.
+     */
+    public int getActive() {
+        return active.get();
+    }
+
+    /**
+     * Tareas esperando un lugar en el cupo.
+     */
+    public int getQueued() {
+        return queued.get();
+    }
+
+    /**
+     * Llamadas y tareas rechazadas desde que se creó.
+     */
+    public long getRejected() {
+        return rejected.get();
+    }
+
+    /**
+     * Admite una llamada nueva al servicio: con {@link BulkheadOptions.Overflow#REJECT} falla si el
+     * cupo y la cola están llenos.
+     */
+    void admit() throws BulkheadFullException {
+        if (options.getOverflow() != BulkheadOptions.Overflow.REJECT) return;
+        if (active.get() >= maxConcurrency && queued.get() >= maxQueueSize) {
+            rejected.incrementAndGet();
+            throw new BulkheadFullException(service);
+        }
+    }
+
+    /**
+     * Envía {@code task} al executor del cliente si hay lugar en el cupo, o la encola.
+     *
+     * @throws RejectedExecutionException si el bulkhead está cerrado, o si el cupo y la cola están
+     *         llenos con {@link BulkheadOptions.Overflow#REJECT}; la causa es una
+     *         {@link BulkheadFullException}
+     */
+    @Override
+    public void execute(Runnable task) {
+        if (shutdown) throw new RejectedExecutionException("Bulkhead " + service + " cerrado");
+        if (tryAcquire()) {
+            submit(task);
+            return;
+        }
+        if (queued.incrementAndGet() <= maxQueueSize) {
+            queue.offer(task);
+            // Pudo liberarse un lugar entre tryAcquire y offer.
+            drain();
+            return;
+        }
+        queued.decrementAndGet();
+        if (options.getOverflow() == BulkheadOptions.Overflow.CALLER_RUNS) {
+            task.run();
+            return;
+        }
+        rejected.incrementAndGet();
+        throw new RejectedExecutionException("Bulkhead " + service + " lleno", new BulkheadFullException(service));
+    }
+
+    void shutdown() {
+        shutdown = true;
+        while (queue.poll() != null) {
+            queued.decrementAndGet();
+        }
+    }
+
+    private boolean tryAcquire() {
+        for (int current = active.get(); current < maxConcurrency; current = active.get()) {
+            if (active.compareAndSet(current, current + 1)) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Envía una tarea que ya tiene su lugar en el cupo; si el executor la rechaza, el lugar se libera.
+     */
+    private void submit(Runnable task) {
+        try {
+            executor.execute(() -> runAndDrain(task));
+        } catch (RuntimeException | Error e) {
+            active.decrementAndGet();
+            throw e;
+        }
+    }
+
+    private void runAndDrain(Runnable task) {
+        try {
+            task.run();
+        } finally {
+            active.decrementAndGet();
+            drain();
+        }
+    }
+
+    /**
+     * Pasa al executor las tareas encoladas mientras haya lugar en el cupo.
+     */
+    private void drain() {
+        while (!queue.isEmpty() && tryAcquire()) {
+            Runnable next = queue.poll();
+            if (next == null) {
+                active.decrementAndGet();
+                continue;
+            }
+            queued.decrementAndGet();
+            submit(next);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return service + " active " + getActive() + "/" + getMaxConcurrency() + " queued " + getQueued() + " rejected " + getRejected();
+    }
+}
@@ -0,0 +1,56 @@
+package com.germanfica.wsfe.net;
+
+import lombok.Builder;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+
+/**
+ * Aislamiento entre los servicios de un cliente (ver {@link Bulkhead}): WSAA ({@code LoginCMS}) y
+ * WSFE ({@code ServiceSoap}) tienen cada uno su cupo de tareas sobre el executor del cliente y su
+ * pool de conexiones, de modo que un WSAA lento no demora las llamadas a WSFE.
+ * <p>
+ * Los límites se aplican a cada servicio por separado. Está desactivado salvo que se configure:
+ * {@link #defaults()} lo activa, y sin él todos los servicios comparten el executor y las conexiones.
+ */
+@Getter
+@Builder(setterPrefix = "set")
+@EqualsAndHashCode(callSuper = false)
+public class BulkheadOptions {
+    /** Qué hacer con el trabajo nuevo cuando los threads están ocupados y la cola está llena. */
+    public enum Overflow {
+        /**
+         * La llamada falla enseguida con {@code bulkhead_full}; una tarea de una llamada ya admitida,
+         * con {@link java.util.concurrent.RejectedExecutionException}.
+         */
+        REJECT,
+        /**
+         * La tarea corre en el thread que la envía, lo que frena a quien genera la carga. Ese thread
+         * puede ser uno de I/O del transporte, que queda ocupado mientras tanto.
+         */
+        CALLER_RUNS
+    }
+
+    @Builder.Default
+    private final boolean enabled = true;
+    /** Tareas de cada servicio que corren a la vez en el executor del cliente. */
+    @Builder.Default
+    private final int maxConcurrency = 64;
+    /** Tareas que pueden esperar un lugar libre. */
+    @Builder.Default
+    private final int maxQueueSize = 1000;
+    @Builder.Default
+    private final Overflow overflow = Overflow.REJECT;
+    /**
+     * Máximo de conexiones del pool de cada servicio en HTTP_HC5. Con {@code null} se usa
+     * {@link ConnectionPoolOptions#getMaxConnectionsTotal()}.
+     */
+    private final Integer maxConnections;
+
+    public static BulkheadOptions defaults() {
+        return BulkheadOptions.builder().build();
+    }
+
+    public static BulkheadOptions disabled() {
+        return BulkheadOptions.builder().setEnabled(false).build();
+    }
+}
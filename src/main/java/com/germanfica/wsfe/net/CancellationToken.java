@@ -0,0 +1,61 @@
+package com.germanfica.wsfe.net;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Permite cancelar una solicitud en curso desde otro thread.
+ * <p>
+ * Al cancelar, las esperas del cliente (cola de concurrencia, límites de frecuencia, backoff) se
+ * cortan y el intercambio HTTP en curso se aborta en el transporte {@code java.net.http} sin CXF
+ * ({@link HttpTransportMode#JDK_HTTP_CLIENT});
+ * en los de CXF la respuesta se descarta cuando llega. La solicitud falla con
+ * {@link com.germanfica.wsfe.exception.RequestCancelledException}.
+ */
+public final class CancellationToken {
+    private final List<Runnable> callbacks = new ArrayList<>();
+    private boolean cancelled;
+
+    public static CancellationToken create() {
+        return new CancellationToken();
+    }
+
+    public void cancel() {
+        List<Runnable> toRun;
+        synchronized (this) {
+            if (cancelled) return;
+            cancelled = true;
+            toRun = new ArrayList<>(callbacks);
+            callbacks.clear();
+        }
+        toRun.forEach(Runnable::run);
+    }
+
+    public synchronized boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * Registra {@code callback} para cuando se cancele (o lo ejecuta enseguida si ya se canceló).
+     * El registro se deshace con {@link Registration#close()}.
+     */
+    Registration onCancel(Runnable callback) {
+        synchronized (this) {
+            if (!cancelled) {
+                callbacks.add(callback);
+                return () -> {
+                    synchronized (CancellationToken.this) {
+                        callbacks.remove(callback);
+                    }
+                };
+            }
+        }
+        callback.run();
+        return () -> { };
+    }
+
+    interface Registration extends AutoCloseable {
+        @Override
+        void close();
+    }
+}
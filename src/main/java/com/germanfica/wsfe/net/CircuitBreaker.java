@@ -0,0 +1,179 @@
+package com.germanfica.wsfe.net;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Circuit breaker de un endpoint (ver {@link CircuitBreakerOptions}).
+ * <p>
+ * Solo cuentan como fallas las transitorias (red, HTTP 503, timeouts): un SOAP fault demuestra que
+ * el servicio responde. Si hay {@code probe}, la recuperación se verifica con esa llamada y el
+ * tráfico real sigue rechazado hasta que tenga éxito; si no, se deja pasar una llamada de prueba.
+ */
+final class CircuitBreaker {
+    enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private final CircuitBreakerOptions options;
+    private final Supplier<CompletableFuture<Boolean>> probe;
+    private final LongSupplier nanoClock;
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private State state = State.CLOSED;
+    private long openUntilNanos;
+    private boolean probing;
+    private int consecutiveFailures;
+    private final boolean[] window;
+    private int windowIndex;
+    private int windowCount;
+    private int windowFailures;
+
+    CircuitBreaker(CircuitBreakerOptions options, Supplier<CompletableFuture<Boolean>> probe) {
+        this(options, probe, System::nanoTime);
+    }
+
+    CircuitBreaker(CircuitBreakerOptions options, Supplier<CompletableFuture<Boolean>> probe, LongSupplier nanoClock) {
+        this.options = options;
+        this.probe = probe;
+        this.nanoClock = nanoClock;
+        this.window = new boolean[Math.max(1, options.getSlidingWindowSize())];
+    }
+
+    /**
+     * Indica si la llamada puede enviarse. Si el circuito está abierto y ya pasó
+     * {@code openDuration}, dispara la verificación de recuperación.
+     */
+    boolean tryAcquire() {
+        if (!options.isEnabled()) return true;
+        boolean startProbe = false;
+        lock.lock();
+        try {
+            switch (state) {
+                case CLOSED:
+                    return true;
+                case OPEN:
+                    if (nanoClock.getAsLong() - openUntilNanos < 0) return false;
+                    if (probe == null) {
+                        state = State.HALF_OPEN;
+                        return true;
+                    }
+                    if (!probing) {
+                        probing = true;
+                        startProbe = true;
+                    }
+                    return false;
+                default:
+                    return false; // HALF_OPEN: ya hay una llamada de prueba en curso
+            }
+        } finally {
+            lock.unlock();
+            if (startProbe) runProbe();
+        }
+    }
+
+    void onSuccess() {
+        if (!options.isEnabled()) return;
+        lock.lock();
+        try {
+            if (state == State.HALF_OPEN) {
+                close();
+            } else if (state == State.CLOSED) {
+                consecutiveFailures = 0;
+                record(false);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    void onFailure() {
+        if (!options.isEnabled()) return;
+        lock.lock();
+        try {
+            if (state == State.HALF_OPEN) {
+                open();
+            } else if (state == State.CLOSED) {
+                consecutiveFailures++;
+                record(true);
+                if (consecutiveFailures >= options.getConsecutiveFailures() || failureRateExceeded()) open();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * La llamada se abandonó por deadline o cancelación del llamador, sin un resultado que indique
+     * el estado del servicio. Si era la llamada de prueba, el circuito queda listo para otra.
+     */
+    void onAbandoned() {
+        if (!options.isEnabled()) return;
+        lock.lock();
+        try {
+            if (state == State.HALF_OPEN) {
+                state = State.OPEN;
+                openUntilNanos = nanoClock.getAsLong();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    State getState() {
+        lock.lock();
+        try {
+            return state;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void runProbe() {
+        CompletableFuture<Boolean> result;
+        try {
+            result = probe.get();
+        } catch (RuntimeException e) {
+            result = CompletableFuture.completedFuture(Boolean.FALSE);
+        }
+        result.whenComplete((healthy, error) -> {
+            lock.lock();
+            try {
+                probing = false;
+                if (error == null && Boolean.TRUE.equals(healthy)) close();
+                else open();
+            } finally {
+                lock.unlock();
+            }
+        });
+    }
+
+    private void record(boolean failure) {
+        if (windowCount == window.length) {
+            if (window[windowIndex]) windowFailures--;
+        } else {
+            windowCount++;
+        }
+        window[windowIndex] = failure;
+        if (failure) windowFailures++;
+        windowIndex = (windowIndex + 1) % window.length;
+    }
+
+    private boolean failureRateExceeded() {
+        return windowCount >= options.getMinimumCalls()
+            && (double) windowFailures / windowCount >= options.getFailureRateThreshold();
+    }
+
+    private void open() {
+        state = State.OPEN;
+        openUntilNanos = nanoClock.getAsLong() + options.getOpenDuration().toNanos();
+    }
+
+    private void close() {
+        state = State.CLOSED;
+        consecutiveFailures = 0;
+        windowCount = 0;
+        windowIndex = 0;
+        windowFailures = 0;
+    }
+}
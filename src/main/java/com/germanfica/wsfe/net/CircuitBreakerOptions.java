@@ -0,0 +1,47 @@
+package com.germanfica.wsfe.net;
+
+import lombok.Builder;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+
+import java.time.Duration;
+
+/**
+ * Ajustes del circuit breaker que el cliente mantiene por endpoint (WSAA y WSFE por separado).
+ * <p>
+ * El circuito se abre tras {@link #consecutiveFailures} fallas transitorias seguidas, o cuando en
+ * las últimas {@link #slidingWindowSize} llamadas (con al menos {@link #minimumCalls}) la tasa de
+ * fallas alcanza {@link #failureRateThreshold}. Abierto, rechaza las llamadas con
+ * {@code circuit_open} y, pasado {@link #openDuration}, verifica la recuperación: en WSFE con
+ * {@code FEDummy}, sin usar tráfico real; en WSAA, que no tiene una operación equivalente, dejando
+ * pasar una única llamada de prueba.
+ * <p>
+ * Es opcional: los clientes usan {@link #disabled()} salvo que se configure, porque con el circuito
+ * abierto las llamadas empiezan a fallar con {@code circuit_open} sin que cambie nada en la
+ * aplicación.
+ */
+@Getter
+@Builder(setterPrefix = "set")
+@EqualsAndHashCode(callSuper = false)
+public class CircuitBreakerOptions {
+    @Builder.Default
+    private final boolean enabled = true;
+    @Builder.Default
+    private final int consecutiveFailures = 5;
+    @Builder.Default
+    private final double failureRateThreshold = 0.5;
+    @Builder.Default
+    private final int slidingWindowSize = 20;
+    @Builder.Default
+    private final int minimumCalls = 10;
+    @Builder.Default
+    private final Duration openDuration = Duration.ofSeconds(30);
+
+    public static CircuitBreakerOptions defaults() {
+        return CircuitBreakerOptions.builder().build();
+    }
+
+    public static CircuitBreakerOptions disabled() {
+        return CircuitBreakerOptions.builder().setEnabled(false).build();
+    }
+}
@@ -0,0 +1,79 @@
+package com.germanfica.wsfe.net;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Executor por defecto de los clientes del SDK.
+ * <p>
+ * En Java 21+ se usa {@link Executors#newVirtualThreadPerTaskExecutor()}, de modo que cada tarea
+ * bloqueante (refresco del TA, callbacks de CXF) corre en su propio virtual thread. En versiones
+ * anteriores se usa un pool cacheado de threads daemon. El método se resuelve por reflexión porque
+ * el SDK se compila con target 17.
+ */
+public final class ClientExecutors {
+    private ClientExecutors() {
+    }
+
+    /**
+     * Devuelve el executor compartido por defecto. Es único por JVM y nunca se cierra.
+     */
+    public static Executor defaultExecutor() {
+        return Holder.DEFAULT;
+    }
+
+    /**
+     * Indica si el executor por defecto usa virtual threads.
+     */
+    public static boolean isVirtualThreadDefault() {
+        return Holder.VIRTUAL;
+    }
+
+    /**
+     * Crea un pool fijo de {@code threads} threads daemon para usar como event loop de un transporte
+     * no bloqueante. Los threads se crean a demanda y terminan tras un minuto sin trabajo.
+     */
+    public static ExecutorService newEventLoop(int threads) {
+        int size = Math.max(1, threads);
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(size, size, 60, TimeUnit.SECONDS,
+            new LinkedBlockingQueue<>(), new DaemonThreadFactory("wsfe-sdk-io-"));
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    private static final class Holder {
+        private static final ExecutorService VIRTUAL_EXECUTOR = newVirtualThreadPerTaskExecutor();
+        private static final boolean VIRTUAL = VIRTUAL_EXECUTOR != null;
+        private static final Executor DEFAULT = VIRTUAL ? VIRTUAL_EXECUTOR : Executors.newCachedThreadPool(new DaemonThreadFactory("wsfe-sdk-"));
+    }
+
+    private static ExecutorService newVirtualThreadPerTaskExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    static final class DaemonThreadFactory implements ThreadFactory {
+        private final String prefix;
+        private final AtomicInteger counter = new AtomicInteger();
+
+        DaemonThreadFactory(String prefix) {
+            this.prefix = prefix;
+        }
+
+        @Override
+        public Thread newThread(Runnable task) {
+            Thread thread = new Thread(task, prefix + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.germanfica.wsfe.net;
+
+import lombok.Builder;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+
+import java.time.Duration;
+
+/**
+ * Ajustes del límite adaptativo de llamadas simultáneas (ver {@link ConcurrencyLimiter}).
+ * <p>
+ * El límite arranca en {@link #initialLimit} y se mueve entre {@link #minLimit} y {@link #maxLimit}:
+ * crece de a una llamada por ida y vuelta mientras la latencia reciente se mantiene cerca de la
+ * habitual y se multiplica por {@link #backoffRatio} cuando la supera {@link #latencyTolerance}
+ * veces o una llamada falla por timeout o sobrecarga.
+ * <p>
+ * Está desactivado salvo que se configure: {@link #defaults()} lo activa con estos valores, y cada
+ * operación de cada servicio tiene su propio límite.
+ */
+@Getter
+@Builder(setterPrefix = "set")
+@EqualsAndHashCode(callSuper = false)
+public class ConcurrencyLimitOptions {
+    /** Qué hacer con las llamadas que superan el límite. */
+    public enum Overflow {
+        /** Esperan en una cola FIFO hasta {@link #maxQueueWait}. */
+        QUEUE,
+        /** Fallan enseguida con {@code concurrency_limit}. */
+        REJECT
+    }
+
+    @Builder.Default
+    private final boolean enabled = true;
+    @Builder.Default
+    private final int initialLimit = 20;
+    @Builder.Default
+    private final int minLimit = 1;
+    @Builder.Default
+    private final int maxLimit = 200;
+    @Builder.Default
+    private final double backoffRatio = 0.9;
+    @Builder.Default
+    private final double latencyTolerance = 2.0;
+    @Builder.Default
+    private final Overflow overflow = Overflow.QUEUE;
+    @Builder.Default
+    private final int maxQueueSize = 1000;
+    @Builder.Default
+    private final Duration maxQueueWait = Duration.ofSeconds(5);
+
+    public static ConcurrencyLimitOptions defaults() {
+        return ConcurrencyLimitOptions.builder().build();
+    }
+
+    public static ConcurrencyLimitOptions disabled() {
+        return ConcurrencyLimitOptions.builder().setEnabled(false).build();
+    }
+}
@@ -0,0 +1,212 @@
+package com.germanfica.wsfe.net;
+
+import com.germanfica.wsfe.exception.ConcurrencyLimitException;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+/**
+ * Límite adaptativo de llamadas simultáneas a una operación de un servicio (AIMD guiado por latencia).
+ * <p>
+ * Cada llamada toma un {@link Permit} antes de enviarse y lo libera con su resultado. Se comparan dos
+ * promedios móviles de la latencia: uno corto (las últimas ~10 respuestas) y uno largo (~100), que
+ * sigue la latencia habitual de ARCA. Mientras las llamadas usan gran parte del límite y el promedio
+ * corto no supera {@code latencyTolerance} veces el largo, el límite crece {@code 1/limit} por
+ * respuesta (una llamada por ida y vuelta, como la ventana de TCP). Una latencia mayor o una falla
+ * por sobrecarga lo reducen multiplicándolo por {@code backoffRatio}.
+ * <p>
+ * Las llamadas que superan el límite esperan en una cola FIFO sin ocupar threads (o se rechazan,
+ * según {@link ConcurrencyLimitOptions#getOverflow()}).
+ */
+public final class ConcurrencyLimiter {
+    private static final double SHORT_SMOOTHING = 0.1;
+    private static final double LONG_SMOOTHING = 0.01;
+
+    private final ConcurrencyLimitOptions options;
+    private final LongSupplier nanoClock;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final ArrayDeque<CompletableFuture<Permit>> waiters = new ArrayDeque<>();
+
+    private double limit;
+    private int inFlight;
+    private double shortLatencyNanos;
+    private double longLatencyNanos;
+
+    ConcurrencyLimiter(ConcurrencyLimitOptions options) {
+        this(options, System::nanoTime);
+    }
+
+    ConcurrencyLimiter(ConcurrencyLimitOptions options, LongSupplier nanoClock) {
+        this.options = options;
+        this.nanoClock = nanoClock;
+        this.limit = Math.max(options.getMinLimit(), Math.min(options.getMaxLimit(), options.getInitialLimit()));
+    }
+
+    /**
+     * Límite actual de llamadas simultáneas.
+     */
+    public int getLimit() {
+        lock.lock();
+        try {
+            return (int) limit;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Llamadas en curso.
+     */
+    public int getInFlight() {
+        lock.lock();
+        try {
+            return inFlight;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Llamadas esperando lugar.
+     */
+    public int getQueued() {
+        lock.lock();
+        try {
+            return waiters.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Obtiene un lugar. El future se completa enseguida si hay lugar; si no, cuando se libere uno o,
+     * pasado {@code maxQueueWait}, con {@link ConcurrencyLimitException}. Cancelar el future
+     * abandona la espera.
+     */
+    CompletableFuture<Permit> acquire() {
+        if (!options.isEnabled()) return CompletableFuture.completedFuture(new Permit(false));
+
+        CompletableFuture<Permit> waiter;
+        lock.lock();
+        try {
+            if (inFlight < (int) limit) {
+                inFlight++;
+                return CompletableFuture.completedFuture(new Permit(true));
+            }
+            if (options.getOverflow() == ConcurrencyLimitOptions.Overflow.REJECT || waiters.size() >= options.getMaxQueueSize()) {
+                return CompletableFuture.failedFuture(new ConcurrencyLimitException((int) limit));
+            }
+            waiter = new CompletableFuture<>();
+            waiters.add(waiter);
+        } finally {
+            lock.unlock();
+        }
+
+        // El llamador recibe otro future: si lo cancela o vence el plazo, el waiter sale de la cola y
+        // un lugar concedido después se devuelve en vez de perderse.
+        CompletableFuture<Permit> result = new CompletableFuture<>();
+        waiter.thenAccept(permit -> {
+            if (!result.complete(permit)) permit.cancel();
+        });
+        result.whenComplete((permit, e) -> {
+            if (e != null) {
+                removeWaiter(waiter);
+                waiter.cancel(false);
+            }
+        });
+        CompletableFuture.delayedExecutor(options.getMaxQueueWait().toMillis(), TimeUnit.MILLISECONDS)
+            .execute(() -> result.completeExceptionally(new ConcurrencyLimitException(getLimit())));
+        return result;
+    }
+
+    private void removeWaiter(CompletableFuture<Permit> waiter) {
+        lock.lock();
+        try {
+            waiters.remove(waiter);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void release(long latencyNanos, Outcome outcome) {
+        List<CompletableFuture<Permit>> granted = new ArrayList<>();
+        lock.lock();
+        try {
+            int inFlightBefore = inFlight--;
+            if (outcome != Outcome.CANCELLED) adjust(latencyNanos, outcome == Outcome.DROPPED, inFlightBefore);
+            while (inFlight < (int) limit && !waiters.isEmpty()) {
+                granted.add(waiters.poll());
+                inFlight++;
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        // Se completan fuera del lock: la continuación de cada llamada corre en este thread.
+        for (CompletableFuture<Permit> waiter : granted) {
+            Permit permit = new Permit(true);
+            if (!waiter.complete(permit)) permit.cancel(); // el waiter ya había vencido o se canceló
+        }
+    }
+
+    private void adjust(long latencyNanos, boolean dropped, int inFlightBefore) {
+        if (!dropped) trackLatency(latencyNanos);
+
+        boolean congested = dropped || shortLatencyNanos > longLatencyNanos * options.getLatencyTolerance();
+        if (congested) {
+            limit = Math.max(options.getMinLimit(), limit * options.getBackoffRatio());
+        } else if (inFlightBefore * 2 >= (int) limit) {
+            limit = Math.min(options.getMaxLimit(), limit + 1.0 / limit);
+        }
+    }
+
+    private void trackLatency(long latencyNanos) {
+        if (longLatencyNanos == 0) {
+            shortLatencyNanos = longLatencyNanos = latencyNanos;
+            return;
+        }
+        shortLatencyNanos += SHORT_SMOOTHING * (latencyNanos - shortLatencyNanos);
+        longLatencyNanos += LONG_SMOOTHING * (latencyNanos - longLatencyNanos);
+    }
+
+    private enum Outcome { SUCCESS, DROPPED, CANCELLED }
+
+    /**
+     * Lugar obtenido del limitador. Se libera una única vez con el resultado de la llamada.
+     */
+    final class Permit {
+        private final boolean counted;
+        private final long startNanos = nanoClock.getAsLong();
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private Permit(boolean counted) {
+            this.counted = counted;
+        }
+
+        /** La llamada obtuvo respuesta (incluido un SOAP fault). */
+        void onSuccess() {
+            release(Outcome.SUCCESS);
+        }
+
+        /** La llamada falló por timeout, sobrecarga o error de red. */
+        void onDropped() {
+            release(Outcome.DROPPED);
+        }
+
+        /** La llamada no llegó a enviarse. */
+        void cancel() {
+            release(Outcome.CANCELLED);
+        }
+
+        private void release(Outcome outcome) {
+            if (!counted || !released.compareAndSet(false, true)) return;
+            ConcurrencyLimiter.this.release(nanoClock.getAsLong() - startNanos, outcome);
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.germanfica.wsfe.net;
+
+import org.apache.cxf.Bus;
+import org.apache.cxf.transport.http.HTTPConduitFactory;
+import org.apache.cxf.transport.http.asyncclient.hc5.AsyncHTTPConduit;
+import org.apache.cxf.transports.http.configuration.ConnectionType;
+import org.apache.cxf.transports.http.configuration.HTTPClientPolicy;
+
+/**
+ * Traduce {@link ConnectionPoolOptions} a la configuración de cada transporte de CXF.
+ */
+final class ConnectionPoolConfigurer {
+    private ConnectionPoolConfigurer() {
+    }
+
+    /**
+     * Registra en el {@link Bus} un {@link SharedAsyncConduitFactory}, que arma el pool de HTTP_HC5
+     * directamente desde {@code options}, lo comparte entre los ports de cada proxy (y de cada
+     * servicio, si {@code bulkhead} los aísla), resuelve los hosts con {@code dnsCache} y, con
+     * {@code failover} activo, elige entre sus direcciones según cómo conectaron. Debe llamarse antes
+     * de crear el primer port.
+     */
+    static void configureBus(Bus bus, ConnectionPoolOptions options, BulkheadOptions bulkhead, DnsCache dnsCache,
+                             FailoverOptions failover) {
+        ConnectionPoolOptions pool = options != null ? options : ConnectionPoolOptions.defaults();
+
+        bus.setProperty(AsyncHTTPConduit.ENABLE_HTTP2, pool.getHttp2Enabled() == null || pool.getHttp2Enabled());
+        bus.setExtension(new SharedAsyncConduitFactory(bus, pool, bulkhead, dnsCache, failover), HTTPConduitFactory.class);
+    }
+
+    /**
+     * Aplica la versión de HTTP y el keep-alive a la política del conduit de un port.
+     */
+    static void configurePolicy(HTTPClientPolicy policy, ConnectionPoolOptions options) {
+        if (options == null) return;
+
+        if (Boolean.FALSE.equals(options.getHttp2Enabled())) {
+            policy.setVersion("1.1");
+        }
+        if (options.getKeepAlive() != null) {
+            policy.setConnection(options.getKeepAlive() ? ConnectionType.KEEP_ALIVE : ConnectionType.CLOSE);
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.germanfica.wsfe.net;
+
+import lombok.Builder;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+
+import java.time.Duration;
+import java.util.concurrent.Executor;
+
+/**
+ * Ajustes del pool de conexiones del transporte HTTP.
+ * <p>
+ * Los valores {@code null} conservan el default de CXF / del JDK. Con {@link HttpTransportMode#HTTP_HC5}
+ * se aplican al pool de Apache HttpClient 5 del Bus del cliente, uno por proxy y compartido por todos
+ * sus ports. El cliente {@code java.net.http} (HTTP y JDK_HTTP_CLIENT) no permite
+ * configurar su pool por cliente: ahí solo aplican la versión de HTTP y los threads de I/O, salvo
+ * que la aplicación opte por {@link #applyJdkHttpClientProperties()}.
+ */
+@Getter
+@Builder(setterPrefix = "set")
+@EqualsAndHashCode(callSuper = false)
+public class ConnectionPoolOptions {
+    /** Máximo de conexiones por host (ruta). Solo HTTP_HC5. */
+    private final Integer maxConnectionsPerRoute;
+    /** Máximo de conexiones totales del pool. */
+    private final Integer maxConnectionsTotal;
+    /**
+     * Reutiliza conexiones (HTTP keep-alive). En HTTP_HC5 {@code false} envía {@code Connection: close};
+     * el cliente del JDK ignora ese header.
+     */
+    private final Boolean keepAlive;
+    /** Tiempo de vida máximo de una conexión del pool. Solo HTTP_HC5. */
+    private final Duration connectionTimeToLive;
+    /** Tiempo que una conexión puede quedar ociosa antes de cerrarse. */
+    private final Duration idleTimeout;
+    /** Habilita HTTP/2 (ALPN sobre TLS). {@code false} fuerza HTTP/1.1. */
+    private final Boolean http2Enabled;
+    /**
+     * Tamaño del buffer de envío del socket (SO_SNDBUF). En HTTP_HC5 lo aplica el reactor; con
+     * {@code java.net.http}, solo {@link #applyJdkHttpClientProperties()}.
+     */
+    private final Integer sendBufferSize;
+    /**
+     * Tamaño del buffer de recepción del socket (SO_RCVBUF). En HTTP_HC5 lo aplica el reactor; con
+     * {@code java.net.http}, solo {@link #applyJdkHttpClientProperties()}.
+     */
+    private final Integer receiveBufferSize;
+    /** Threads de I/O del reactor de HTTP_HC5. Por defecto, la cantidad de procesadores (mínimo 2). */
+    private final Integer ioThreads;
+    /**
+     * Executor del {@code HttpClient} de JDK_HTTP_CLIENT, por ejemplo un pool fijo de
+     * {@link ClientExecutors#newEventLoop(int)}: las llamadas {@code *Async} en vuelo comparten el
+     * selector del cliente y esos threads, y sus resultados se entregan en el executor del cliente
+     * para no ocupar los threads de I/O. Con {@link BulkheadOptions} activo no se usa: las tareas
+     * de cada servicio pasan por su bulkhead. El SDK no lo cierra. {@code null} usa el executor del
+     * cliente.
+     */
+    private final Executor ioExecutor;
+
+    /**
+     * Threads de I/O efectivos: {@link #ioThreads} o, si no está definido, la cantidad de procesadores.
+     */
+    public int getEffectiveIoThreads() {
+        return ioThreads != null && ioThreads > 0 ? ioThreads : Math.max(2, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Aplica estos ajustes al pool de {@code java.net.http} mediante las propiedades de sistema
+     * {@code jdk.httpclient.*}: {@link #maxConnectionsTotal}, {@link #idleTimeout} y los buffers del
+     * socket. Las propiedades son globales a la JVM (afectan a todos los {@code HttpClient} de la
+     * aplicación), se fijan solo si no estaban definidas y el JDK las lee una única vez, así que este
+     * método debe llamarse al iniciar la aplicación, antes del primer uso de {@code java.net.http}.
+     * Los clientes del SDK nunca lo llaman por su cuenta.
+     */
+    public void applyJdkHttpClientProperties() {
+        setSystemPropertyIfAbsent("jdk.httpclient.connectionPoolSize", maxConnectionsTotal);
+        setSystemPropertyIfAbsent("jdk.httpclient.keepalive.timeout", idleTimeout != null ? Math.max(1, idleTimeout.toSeconds()) : null);
+        setSystemPropertyIfAbsent("jdk.httpclient.sendBufferSize", sendBufferSize);
+        setSystemPropertyIfAbsent("jdk.httpclient.receiveBufferSize", receiveBufferSize);
+    }
+
+    private static void setSystemPropertyIfAbsent(String property, Number value) {
+        if (value != null && System.getProperty(property) == null) {
+            System.setProperty(property, value.toString());
+        }
+    }
+
+    /**
+     * Configuración por defecto: HTTP/2 habilitado y el resto según los defaults de CXF.
+     */
+    public static ConnectionPoolOptions defaults() {
+        return ConnectionPoolOptions.builder()
+            .setHttp2Enabled(Boolean.TRUE)
+            .build();
+    }
+}
@@ -0,0 +1,82 @@
+package com.germanfica.wsfe.net;
+
+import java.time.Duration;
+
+/**
+ * Instante límite de una solicitud, medido con {@link System#nanoTime()}.
+ * <p>
+ * A diferencia del {@code deadline} de {@link TimeoutOptions}, que se cuenta desde que empieza cada
+ * llamada SOAP, un {@code Deadline} es absoluto: se crea una vez y acota todo lo que ocurra hasta
+ * la respuesta (renovación del TA en WSAA, esperas por límites, intentos y backoff).
+ *
+ * <pre>{@code
+ * Deadline deadline = Deadline.after(Duration.ofSeconds(10));
+ * }</pre>
+ */
+public final class Deadline implements Comparable<Deadline> {
+    private final long deadlineNanos;
+
+    private Deadline(long deadlineNanos) {
+        this.deadlineNanos = deadlineNanos;
+    }
+
+    /**
+     * Deadline que vence dentro de {@code timeout}.
+     */
+    public static Deadline after(Duration timeout) {
+        if (timeout == null) throw new IllegalArgumentException("Empty timeout specified!");
+        return new Deadline(System.nanoTime() + saturatedNanos(timeout));
+    }
+
+    /**
+     * El más cercano de los dos; cualquiera puede ser {@code null}.
+     */
+    public static Deadline earliest(Deadline a, Deadline b) {
+        if (a == null) return b;
+        if (b == null) return a;
+        return a.compareTo(b) <= 0 ? a : b;
+    }
+
+    public boolean isExpired() {
+        return remainingNanos() <= 0;
+    }
+
+    /**
+     * Tiempo restante; negativo o cero si ya venció.
+     */
+    public Duration remaining() {
+        return Duration.ofNanos(remainingNanos());
+    }
+
+    public long remainingNanos() {
+        return deadlineNanos - System.nanoTime();
+    }
+
+    /**
+     * Acota {@code timeout} al tiempo restante, redondeado hacia arriba al milisegundo para que el
+     * transporte no corte antes del deadline. Devuelve al menos un milisegundo para que ningún
+     * transporte lo interprete como "sin timeout".
+     */
+    Duration cap(Duration timeout) {
+        Duration remaining = Duration.ofMillis(Math.max(1, (remainingNanos() + 999_999) / 1_000_000));
+        return timeout == null || remaining.compareTo(timeout) < 0 ? remaining : timeout;
+    }
+
+    @Override
+    public int compareTo(Deadline other) {
+        return Long.compare(deadlineNanos - other.deadlineNanos, 0);
+    }
+
+    @Override
+    public String toString() {
+        return "Deadline[" + remaining().toMillis() + " ms]";
+    }
+
+    private static long saturatedNanos(Duration duration) {
+        try {
+            return duration.toNanos();
+        } catch (ArithmeticException e) {
+            return duration.isNegative() ? Long.MIN_VALUE / 2 : Long.MAX_VALUE / 2;
+        }
+    }
+}
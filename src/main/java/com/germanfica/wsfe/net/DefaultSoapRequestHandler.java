@@ -2,27 +2,72 @@ package com.germanfica.wsfe.net;
 
 import com.germanfica.wsfe.dto.ErrorDto;
 import com.germanfica.wsfe.exception.ApiException;
+import com.germanfica.wsfe.exception.BulkheadFullException;
+import com.germanfica.wsfe.exception.CircuitOpenException;
+import com.germanfica.wsfe.exception.ClientClosedException;
+import com.germanfica.wsfe.exception.ConcurrencyLimitException;
+import com.germanfica.wsfe.exception.DeadlineExceededException;
 import com.germanfica.wsfe.exception.MissingHttpTransportSupportException;
+import com.germanfica.wsfe.exception.RateLimitExceededException;
+import com.germanfica.wsfe.exception.RequestCancelledException;
 import com.germanfica.wsfe.exception.UnsupportedProxyAuthException;
-import fev1.dif.afip.gov.ar.Service;
+import fev1.dif.afip.gov.ar.DummyResponse;
 import fev1.dif.afip.gov.ar.ServiceSoap;
 import https.wsaa_afip_gov_ar.ws.services.logincms.LoginCMS;
-import https.wsaa_afip_gov_ar.ws.services.logincms.LoginCMSService;
 import https.wsaa_afip_gov_ar.ws.services.logincms.LoginFault;
 import jakarta.xml.soap.SOAPFault;
-import jakarta.xml.ws.BindingProvider;
 import jakarta.xml.ws.WebServiceException;
 import jakarta.xml.ws.soap.SOAPFaultException;
 
 import org.apache.cxf.Bus;
 import org.apache.cxf.BusFactory;
+import org.apache.cxf.binding.soap.SoapFault;
+import org.apache.cxf.configuration.jsse.TLSClientParameters;
 import org.apache.cxf.configuration.security.ProxyAuthorizationPolicy;
 import org.apache.cxf.endpoint.Client;
+import org.apache.cxf.endpoint.ClientCallback;
 import org.apache.cxf.frontend.ClientProxy;
+import org.apache.cxf.interceptor.Fault;
+import org.apache.cxf.message.Message;
+import org.apache.cxf.service.model.BindingOperationInfo;
 import org.apache.cxf.transport.http.HTTPConduit;
 import org.apache.cxf.transport.http.asyncclient.hc5.AsyncHTTPConduit;
+import org.apache.cxf.transports.http.configuration.HTTPClientPolicy;
 
+import javax.net.ssl.SSLContext;
+import java.io.IOException;
+import java.net.ConnectException;
 import java.net.MalformedURLException;
+import java.net.NoRouteToHostException;
+import java.net.SocketTimeoutException;
+import java.net.UnknownHostException;
+import java.net.http.HttpConnectTimeoutException;
+import java.net.http.HttpTimeoutException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 /**
  * Similar a lo que Stripe denomina LiveStripeResponseGetter.
@@ -32,66 +77,1427 @@ import java.net.MalformedURLException;
  * es equivalente al ResponseGetter de SDKs como Stripe.
  */
 public class DefaultSoapRequestHandler implements SoapRequestHandler {
+    private static final String FE_DUMMY = "FEDummy";
+    /** Máximo de configuraciones distintas memorizadas; al llegar al límite el mapa se vacía. */
+    private static final int MAX_RESOLVED_OPTIONS = 256;
+
     private final SoapResponseGetterOptions options;
+    private final Bus bus;
+    private final PortFactory portFactory;
+    private final PortPool portPool = new PortPool();
+    private final JdkSoapTransport jdkSoapTransport;
+    private final Executor asyncExecutor;
+    private final ConnectionPoolOptions connectionPoolOptions;
+    private final Executor jdkIoExecutor;
+    private final TimeoutPolicy timeoutPolicy;
+    private final RetryPolicy retryPolicy;
+    private final CircuitBreakerOptions circuitBreakerOptions;
+    private final Map<String, CircuitBreaker> circuitBreakers = new ConcurrentHashMap<>();
+    private final ConcurrencyLimitOptions concurrencyLimitOptions;
+    private final Map<String, ConcurrencyLimiter> concurrencyLimiters = new ConcurrentHashMap<>();
+    private final BulkheadOptions bulkheadOptions;
+    private final Map<Class<?>, Bulkhead> bulkheads = new ConcurrentHashMap<>();
+    /** Cadena de {@link SoapInterceptor}; vacía, las llamadas no pasan por ella. */
+    private final SoapInterceptor[] interceptors;
+    /** Informa cada error traducido a {@link ApiException} (ver {@link ErrorReportingOptions}). */
+    private final ErrorReporter errorReporter;
+    private final RateLimiter rateLimiter;
+    private final Hedger hedger;
+    private final FailoverOptions failoverOptions;
+    /** Estado de cada endpoint por URL, compartido por todas las configuraciones que lo usan. */
+    private final Map<String, EndpointHealth> endpointHealth = new ConcurrentHashMap<>();
+    private final DnsCache dnsCache;
+    private final TlsSessionCache tlsSessionCache;
+    /** Compartido por todos los conduits de CXF, para que reutilicen el mismo {@link TlsSessionCache}. */
+    private final TLSClientParameters tlsClientParameters;
+    /** Configuración de las solicitudes que no redefinen la del cliente; se resuelve en la primera. */
+    private volatile ResolvedOptions clientResolvedOptions;
+    private final Map<RequestOptions, ResolvedOptions> resolvedOptions = new ConcurrentHashMap<>();
+    /** Solicitudes en curso, para esperarlas al cerrar (ver {@link #shutdown(Duration)}). */
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final Set<CompletableFuture<?>> pendingAsync = ConcurrentHashMap.newKeySet();
+    private final Set<SyncCall> pendingSync = ConcurrentHashMap.newKeySet();
+    /** Serializa la interrupción de una llamada síncrona abandonada con su salida. */
+    private final ReentrantLock abandonLock = new ReentrantLock();
+    private final CompletableFuture<Void> drained = new CompletableFuture<>();
+    private final AtomicBoolean shutdownStarted = new AtomicBoolean();
+    private final CompletableFuture<ShutdownReport> shutdownReport = new CompletableFuture<>();
+    /** No se aceptan solicitudes nuevas. */
+    private volatile boolean closed;
+    /** Venció la espera del cierre o ya se liberaron los recursos: las solicitudes en curso se cortan. */
+    private volatile boolean terminated;
 
     public DefaultSoapRequestHandler(SoapResponseGetterOptions options) {
         this.options = options;
+        this.asyncExecutor = options != null && options.getExecutor() != null ? options.getExecutor() : ClientExecutors.defaultExecutor();
+        this.connectionPoolOptions = options != null ? options.getConnectionPoolOptions() : null;
+        this.timeoutPolicy = options != null && options.getTimeoutPolicy() != null ? options.getTimeoutPolicy() : TimeoutPolicy.defaults();
+        this.retryPolicy = options != null && options.getRetryPolicy() != null ? options.getRetryPolicy() : RetryPolicy.defaults();
+        this.circuitBreakerOptions = options != null && options.getCircuitBreakerOptions() != null ? options.getCircuitBreakerOptions() : CircuitBreakerOptions.disabled();
+        this.concurrencyLimitOptions = options != null && options.getConcurrencyLimitOptions() != null ? options.getConcurrencyLimitOptions() : ConcurrencyLimitOptions.disabled();
+        this.rateLimiter = new RateLimiter(options != null && options.getRateLimitPolicy() != null ? options.getRateLimitPolicy() : RateLimitPolicy.defaults());
+        this.hedger = new Hedger(options != null && options.getHedgingOptions() != null ? options.getHedgingOptions() : HedgingOptions.disabled(), retryPolicy, asyncExecutor);
+        this.failoverOptions = options != null && options.getFailoverOptions() != null ? options.getFailoverOptions() : FailoverOptions.defaults();
+        this.bulkheadOptions = options != null && options.getBulkheadOptions() != null ? options.getBulkheadOptions() : BulkheadOptions.disabled();
+        this.interceptors = options != null && options.getInterceptors() != null ? options.getInterceptors().toArray(new SoapInterceptor[0]) : new SoapInterceptor[0];
+        this.errorReporter = new ErrorReporter(options != null && options.getErrorReportingOptions() != null ? options.getErrorReportingOptions() : ErrorReportingOptions.defaults());
+        DnsCacheOptions dnsCacheOptions = options != null && options.getDnsCacheOptions() != null ? options.getDnsCacheOptions() : DnsCacheOptions.defaults();
+        TlsOptions tlsOptions = options != null && options.getTlsOptions() != null ? options.getTlsOptions() : TlsOptions.defaults();
+        this.dnsCache = dnsCacheOptions.isEnabled() ? new DnsCache(dnsCacheOptions) : null;
+        this.tlsSessionCache = tlsOptions.isEnabled() ? new TlsSessionCache(tlsOptions) : null;
+        this.tlsClientParameters = createTlsClientParameters(tlsSessionCache);
+        SSLContext sslContext = tlsSessionCache != null ? tlsSessionCache.getSslContext() : null;
+        this.bus = createBus(connectionPoolOptions, bulkheadOptions, dnsCache, failoverOptions);
+        this.jdkIoExecutor = connectionPoolOptions != null ? connectionPoolOptions.getIoExecutor() : null;
+        this.jdkSoapTransport = new JdkSoapTransport(this::jdkExecutor, bulkheadOptions.isEnabled(), connectionPoolOptions, sslContext);
+        this.portFactory = new PortFactory(bus, options != null ? options.getWsdlMode() : null);
+    }
+
+    /**
+     * Crea el {@link Bus} de CXF propio de este handler.
+     * <p>
+     * El Bus se crea y configura una única vez y se comparte entre todas las llamadas
+     * (y todos los threads) del cliente dueño del handler. Lo que varía por request,
+     * como el uso de {@link AsyncHTTPConduit}, se resuelve en el request context del port
+     * y no en el Bus. El pool de conexiones ({@link ConnectionPoolOptions}) se fija aquí, antes
+     * de crear el primer port, para que todas las llamadas reutilicen las mismas conexiones TLS.
+     * Con {@link BulkheadOptions} activo, cada servicio tiene su propio pool. Los hosts se resuelven
+     * con el {@link DnsCache} del handler y, en HTTP_HC5, con el estado por dirección de
+     * {@link FailoverOptions}.
+     */
+    private static Bus createBus(ConnectionPoolOptions connectionPoolOptions, BulkheadOptions bulkheadOptions, DnsCache dnsCache,
+                                 FailoverOptions failoverOptions) {
+        Bus bus = BusFactory.newInstance().createBus();
+        ConnectionPoolConfigurer.configureBus(bus, connectionPoolOptions, bulkheadOptions, dnsCache, failoverOptions);
+        return bus;
+    }
+
+    private static TLSClientParameters createTlsClientParameters(TlsSessionCache tlsSessionCache) {
+        if (tlsSessionCache == null) return null;
+        TLSClientParameters parameters = new TLSClientParameters();
+        parameters.setSslContext(tlsSessionCache.getSslContext());
+        return parameters;
     }
 
+    /**
+     * Ejecuta la solicitud en el thread que llama.
+     * <p>
+     * No se toca el Bus por defecto del thread: los ports reciben el {@link Bus} del handler de forma
+     * explícita en {@link PortFactory}, y {@link BusFactory#setThreadDefaultBus(Bus)} sincroniza sobre
+     * un mapa global, lo que serializa las llamadas concurrentes y fija (pin) los virtual threads.
+     */
     @Override
     public <T> T handleRequest(ApiRequest apiRequest, RequestExecutor<T> executor) throws ApiException {
-        Bus previousBus = BusFactory.getThreadDefaultBus(false);
-        Bus threadBus = BusFactory.newInstance().createBus();
-        threadBus.setProperty(AsyncHTTPConduit.USE_ASYNC, resolveUseAsync(apiRequest));
-        threadBus.setProperty(AsyncHTTPConduit.ENABLE_HTTP2, Boolean.TRUE);
-        BusFactory.setThreadDefaultBus(threadBus);
-
+        enter();
         try {
-            validateUnsupportedFeatures(apiRequest);
+            resolveOptions(apiRequest);
             return executor.execute();
-        } catch (LoginFault e) {
-            handleLoginFault(e);
-        } catch (SOAPFaultException e) {
-            handleSoapFault(e);
-        } catch (WebServiceException e) {
-            handleWebServiceError(e);
-        } catch (MalformedURLException e) {
-            handleMalformedUrlError(e);
         } catch (Exception e) {
-            handleUnexpectedError(e);
+            throw toApiException(e);
         } finally {
-            BusFactory.setThreadDefaultBus(previousBus);
-            threadBus.shutdown(true); // cerramos recursos correctamente
+            exit();
         }
+    }
 
-        return null; // Este return nunca se alcanzará debido a los throws
+    @Override
+    public Executor getExecutor() {
+        return asyncExecutor;
     }
 
     public <P, R> R invoke(ApiRequest apiRequest, Class<P> portClass, PortInvoker<P, R> invoker) throws ApiException {
-        return handleRequest(apiRequest, () -> {
-            P port = resolveConfiguredPort(apiRequest, portClass);
+        return invoke(apiRequest, portClass, null, invoker);
+    }
+
+    /**
+     * Invoca la operación sobre un port del pool configurado con los timeouts de
+     * {@code operationName} (ver {@link TimeoutPolicy}). Las fallas transitorias se reintentan según
+     * la {@link RetryPolicy} del cliente.
+     */
+    @Override
+    public <P, R> R invoke(ApiRequest apiRequest, Class<P> portClass, String operationName, PortInvoker<P, R> invoker) throws ApiException {
+        return invoke(apiRequest, portClass, operationName, null, invoker);
+    }
+
+    /**
+     * Igual que {@link #invoke(ApiRequest, Class, String, PortInvoker)}. Entre intentos se duerme el
+     * backoff de la {@link RetryPolicy} en el thread que llama. Si el circuit breaker del endpoint
+     * está abierto se usa otro endpoint del servicio (ver {@link FailoverOptions}) y, si no hay, la
+     * llamada falla enseguida con {@link CircuitOpenException}. Cada intento toma antes una ficha del
+     * {@link RateLimiter} para el CUIT de {@code apiRequest}.
+     * <p>
+     * El {@link Deadline} de la solicitud (de sus {@link RequestOptions} o del {@link RequestContext}
+     * activo) acota las esperas, el timeout de cada intento y el backoff; su
+     * {@link CancellationToken} corta la llamada en curso.
+     * <p>
+     * Si el cliente tiene {@link SoapInterceptor}, la llamada pasa antes por ellos.
+     */
+    @Override
+    public <P, R> R invoke(ApiRequest apiRequest, Class<P> portClass, String operationName, RetryReconciler reconciler, PortInvoker<P, R> invoker) throws ApiException {
+        return invokeSync(apiRequest, portClass, operationName, reconciler, null, null, invoker);
+    }
+
+    /**
+     * Igual que {@link #invoke(ApiRequest, Class, String, RetryReconciler, PortInvoker)}, invocando
+     * el método del port de {@code operationName}. Los interceptores reciben {@code responseType} y
+     * {@code args} en la {@link SoapInvocation} y, como en {@link #invokeAsync}, lo que dejen en
+     * {@link SoapInvocation#getArguments()} es lo que se envía.
+     */
+    @Override
+    public <P, R> R invoke(ApiRequest apiRequest, Class<P> portClass, String operationName, RetryReconciler reconciler,
+                           Class<R> responseType, Object... args) throws ApiException {
+        return invokeSync(apiRequest, portClass, operationName, reconciler, responseType, args, null);
+    }
+
+    /**
+     * Llamada síncrona con {@code invoker} o, si es {@code null}, con el método del port de
+     * {@code operationName} y {@code args}.
+     */
+    private <P, R> R invokeSync(ApiRequest apiRequest, Class<P> portClass, String operationName, RetryReconciler reconciler,
+                                Class<R> responseType, Object[] args, PortInvoker<P, R> invoker) throws ApiException {
+        enter();
+        SyncCall call = new SyncCall(Thread.currentThread());
+        pendingSync.add(call);
+        try {
+            return interceptors.length == 0
+                ? invokeWithRetry(apiRequest, portClass, operationName, reconciler, invoker != null ? invoker : portInvoker(portClass, operationName, responseType, args))
+                : invokeIntercepted(apiRequest, portClass, operationName, reconciler, responseType, args, invoker);
+        } catch (ApiException e) {
+            throw call.finish() ? new ClientClosedException() : e;
+        } finally {
+            call.finish();
+            pendingSync.remove(call);
+            exit();
+        }
+    }
+
+    /**
+     * Recorre la cadena de {@link SoapInterceptor}; el último eslabón llama a {@link #invokeWithRetry}
+     * en el thread actual, con {@code invoker} o con los argumentos de la {@link SoapInvocation}. Si
+     * un interceptor devuelve un future sin completar, se lo espera.
+     */
+    @SuppressWarnings("unchecked")
+    private <P, R> R invokeIntercepted(ApiRequest apiRequest, Class<P> portClass, String operationName, RetryReconciler reconciler,
+                                       Class<R> responseType, Object[] args, PortInvoker<P, R> invoker) throws ApiException {
+        SoapInvocation invocation = new SoapInvocation(apiRequest, portClass, operationName, responseType, args, false);
+        CompletableFuture<Object> result = new InterceptorChain(interceptors, 0, invocation, () -> {
+            try {
+                return CompletableFuture.completedFuture(invokeWithRetry(apiRequest, portClass, operationName, reconciler,
+                    invoker != null ? invoker : portInvoker(portClass, operationName, responseType, invocation.getArguments())));
+            } catch (ApiException | RuntimeException e) {
+                return CompletableFuture.failedFuture(e);
+            }
+        }).proceed();
+        Object response;
+        try {
+            response = result.get();
+        } catch (ExecutionException e) {
+            throw toApiException(e.getCause());
+        } catch (CancellationException e) {
+            throw new RequestCancelledException();
+        } catch (InterruptedException e) {
+            result.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new RequestCancelledException();
+        }
+        if (response != null && responseType != null && !responseType.isInstance(response)) {
+            throw toApiException(new ClassCastException(
+                "Se esperaba " + responseType.getName() + " y un interceptor devolvió " + response.getClass().getName()), portClass, operationName);
+        }
+        return (R) response;
+    }
+
+    private <P, R> PortInvoker<P, R> portInvoker(Class<P> portClass, String operationName, Class<R> responseType, Object[] args) throws ApiException {
+        try {
+            return PortMethods.invoker(portClass, operationName, responseType, args);
+        } catch (IllegalArgumentException e) {
+            throw toApiException(e);
+        }
+    }
+
+    private <P, R> R invokeWithRetry(ApiRequest apiRequest, Class<P> portClass, String operationName, RetryReconciler reconciler, PortInvoker<P, R> invoker) throws ApiException {
+        ResolvedOptions resolved;
+        EndpointRoute route;
+        PortKey key;
+        try {
+            resolved = resolveOptions(apiRequest);
+            route = resolveRoute(portClass, resolved);
+            key = resolvePortKey(portClass, resolved, route.primary(), operationName);
+        } catch (Exception e) {
+            throw toApiException(e);
+        }
+
+        admit(portClass);
+        ConcurrencyLimiter limiter = concurrencyLimiter(portClass, operationName);
+        Long cuit = resolveCuit(apiRequest);
+        CallBounds bounds = CallBounds.resolve(requestOptions(apiRequest), key.getTimeoutOptions());
+        boolean raced = racesEndpoints(route, operationName);
+        ApiException lastFailure = null;
+        for (int attempt = 1; ; attempt++) {
+            bounds.checkActive();
+            if (terminated) throw new ClientClosedException();
+            acquireRate(cuit, operationName, bounds, lastFailure);
+            ConcurrencyLimiter.Permit permit = acquirePermit(limiter, bounds, lastFailure);
+            RouteChoice choice = chooseEndpoint(route, null, portClass, resolved, operationName);
+            if (choice == null) {
+                permit.cancel();
+                throw lastFailure != null ? lastFailure : new CircuitOpenException(route.primary().getEndpointUrl());
+            }
+            long startNanos = System.nanoTime();
+            try {
+                R response = invokeAttempt(choice, raced ? route : null, resolved, portClass, operationName, cuit, bounds, invoker);
+                permit.onSuccess();
+                if (!raced) recordEndpoint(choice, startNanos, null, null);
+                retryPolicy.getRetryBudget().onSuccess();
+                return response;
+            } catch (Exception e) {
+                ApiException failure = toApiException(e, portClass, operationName);
+                ApiException aborted = bounds.abortedFailure();
+                if (aborted != null) {
+                    // El resultado no dice nada del servicio: no cuenta para el circuito ni el límite.
+                    permit.cancel();
+                    if (!raced) choice.breaker.onAbandoned();
+                    throw aborted;
+                }
+                recordPermit(permit, e, failure);
+                if (!raced) recordEndpoint(choice, startNanos, e, failure);
+                Duration delay = retryDelay(operationName, attempt, e, failure, reconciler, bounds.effective);
+                if (delay == null) throw failure;
+                lastFailure = failure;
+                sleep(delay, failure, bounds);
+            }
+        }
+    }
+
+    private void acquireRate(Long cuit, String operationName, CallBounds bounds, ApiException lastFailure) throws ApiException {
+        try {
+            rateLimiter.acquire(cuit, operationName, bounds.effective, bounds.token);
+        } catch (RateLimitExceededException e) {
+            throw lastFailure != null ? lastFailure : e;
+        }
+    }
+
+    /**
+     * CUIT de la solicitud, para los límites por contribuyente. Los servicios lo informan en las
+     * {@link RequestOptions} de {@code apiRequest}.
+     */
+    private static Long resolveCuit(ApiRequest apiRequest) {
+        return apiRequest != null && apiRequest.getOptions() != null ? apiRequest.getOptions().getCuit() : null;
+    }
+
+    /**
+     * Espera un lugar en el {@link ConcurrencyLimiter}, como mucho hasta el deadline. Si no lo obtiene
+     * y ya hubo un intento fallido, se informa ese error en lugar del rechazo.
+     */
+    private ConcurrencyLimiter.Permit acquirePermit(ConcurrencyLimiter limiter, CallBounds bounds, ApiException lastFailure) throws ApiException {
+        CompletableFuture<ConcurrencyLimiter.Permit> acquisition = limiter.acquire();
+        try (CancellationToken.Registration ignored = bounds.onCancel(() -> acquisition.cancel(false))) {
+            return bounds.effective != null
+                ? acquisition.get(Math.max(0, bounds.effective.remainingNanos()), TimeUnit.NANOSECONDS)
+                : acquisition.get();
+        } catch (ExecutionException e) {
+            if (lastFailure != null) throw lastFailure;
+            throw (ApiException) e.getCause();
+        } catch (CancellationException e) {
+            throw new RequestCancelledException();
+        } catch (TimeoutException e) {
+            acquisition.cancel(false);
+            throw expiredFailure(bounds, e);
+        } catch (InterruptedException e) {
+            acquisition.cancel(false);
+            Thread.currentThread().interrupt();
+            if (lastFailure != null) throw lastFailure;
+            throw new ConcurrencyLimitException(limiter.getLimit());
+        }
+    }
+
+    /**
+     * Un intento de la llamada síncrona. Si compite entre endpoints ({@code race} no es
+     * {@code null}), la operación tiene hedging (ver {@link HedgingOptions}) o la solicitud tiene
+     * deadline o se puede cancelar, las solicitudes corren en el executor del cliente para que el
+     * thread que llama pueda quedarse con la primera respuesta, o abandonarla, sin esperar. Así el
+     * deadline se cumple aunque el transporte controle sus timeouts con menos precisión (HC5 los
+     * revisa una vez por segundo).
+     */
+    private <P, R> R invokeAttempt(RouteChoice choice, EndpointRoute race, ResolvedOptions resolved, Class<?> portClass, String operationName,
+                                   Long cuit, CallBounds bounds, PortInvoker<P, R> invoker) throws Exception {
+        RequestOptions mergedOptions = resolved.getOptions();
+        boolean hedged = race == null && hedger.applies(operationName);
+        if (race == null && !hedged && bounds.token == null && bounds.requested == null) {
+            return invokeOnce(choice.key, mergedOptions, bounds.effective, invoker);
+        }
+
+        CompletableFuture<R> call;
+        if (race != null) {
+            call = new EndpointRace<R>(race, choice, portClass, resolved, operationName, cuit,
+                leg -> runInterruptibly(portClass, () -> invokeOnce(leg.key, mergedOptions, bounds.effective, invoker))).start();
+        } else {
+            Callable<R> once = () -> invokeOnce(choice.key, mergedOptions, bounds.effective, invoker);
+            call = hedged
+                ? hedger.invoke(operationName, () -> runInterruptibly(portClass, once), () -> rateLimiter.tryAcquire(cuit, operationName))
+                : runInterruptibly(portClass, once);
+        }
+        try (CancellationToken.Registration ignored = bounds.onCancel(() -> call.cancel(true))) {
+            return bounds.requested != null
+                ? call.get(Math.max(0, bounds.requested.remainingNanos()), TimeUnit.NANOSECONDS)
+                : call.get();
+        } catch (CancellationException e) {
+            throw new RequestCancelledException();
+        } catch (TimeoutException e) {
+            call.cancel(true);
+            throw new DeadlineExceededException();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof Exception) throw (Exception) e.getCause();
+            throw e;
+        } catch (InterruptedException e) {
+            call.cancel(true);
+            Thread.currentThread().interrupt();
+            throw e;
+        }
+    }
+
+    /**
+     * Ejecuta {@code task} en el executor del servicio de {@code portClass}. Cancelar el future
+     * interrumpe el thread, lo que aborta el intercambio en los transportes basados en
+     * {@code java.net.http}.
+     */
+    private <R> CompletableFuture<R> runInterruptibly(Class<?> portClass, Callable<R> task) {
+        CompletableFuture<R> future = new CompletableFuture<>();
+        FutureTask<Void> runner = new FutureTask<>(() -> {
+            try {
+                future.complete(task.call());
+            } catch (Throwable e) {
+                future.completeExceptionally(e);
+            }
+            return null;
+        });
+        future.whenComplete((response, error) -> {
+            if (future.isCancelled()) runner.cancel(true);
+        });
+        executor(portClass).execute(runner);
+        return future;
+    }
+
+    private <P, R> R invokeOnce(PortKey key, RequestOptions mergedOptions, Deadline deadline, PortInvoker<P, R> invoker) throws Exception {
+        if (terminated) throw new ClientClosedException();
+        P port = portPool.borrow(key, () -> createConfiguredPort(key, mergedOptions));
+        applyDeadline(port, key.getTimeoutOptions(), deadline);
+        try {
             return invoker.invoke(port);
+        } finally {
+            if (deadline != null) clearDeadline(port);
+            portPool.release(key, port);
+        }
+    }
+
+    /**
+     * Acota los timeouts del próximo intento sobre {@code port} al tiempo restante de {@code deadline}.
+     * Los ports de CXF lo leen del request context ({@link Message#RECEIVE_TIMEOUT},
+     * {@link Message#CONNECTION_TIMEOUT}), que tiene prioridad sobre la política del conduit.
+     */
+    private static void applyDeadline(Object port, TimeoutOptions timeouts, Deadline deadline) {
+        if (deadline == null) return;
+
+        JdkSoapPort jdkPort = JdkSoapTransport.unwrap(port);
+        if (jdkPort != null) {
+            jdkPort.setDeadline(deadline);
+            return;
+        }
+        Map<String, Object> requestContext = ClientProxy.getClient(port).getRequestContext();
+        requestContext.put(Message.RECEIVE_TIMEOUT, deadline.cap(timeouts != null ? timeouts.getEffectiveReceiveTimeout() : null).toMillis());
+        requestContext.put(Message.CONNECTION_TIMEOUT, deadline.cap(timeouts != null ? timeouts.getEffectiveConnectTimeout() : null).toMillis());
+    }
+
+    private static void clearDeadline(Object port) {
+        JdkSoapPort jdkPort = JdkSoapTransport.unwrap(port);
+        if (jdkPort != null) {
+            jdkPort.setDeadline(null);
+            return;
+        }
+        Map<String, Object> requestContext = ClientProxy.getClient(port).getRequestContext();
+        requestContext.remove(Message.RECEIVE_TIMEOUT);
+        requestContext.remove(Message.CONNECTION_TIMEOUT);
+    }
+
+    @Override
+    public <P, R> CompletableFuture<R> invokeAsync(ApiRequest apiRequest, Class<P> portClass, String operationName, Class<R> responseType, Object... args) {
+        return invokeAsync(apiRequest, portClass, operationName, null, responseType, args);
+    }
+
+    /**
+     * Invoca la operación {@code operationName} sin bloquear el thread que llama.
+     * <p>
+     * Usa la invocación asíncrona de CXF ({@link Client#invoke(ClientCallback, BindingOperationInfo, Object...)})
+     * sobre un port del pool, por lo que con {@link HttpTransportMode#HTTP_HC5} la llamada viaja por
+     * {@link AsyncHTTPConduit} sin ocupar un thread mientras espera la respuesta. Con
+     * {@link HttpTransportMode#JDK_HTTP_CLIENT} se usa {@code HttpClient#sendAsync}; si el cliente
+     * corre sobre {@link ConnectionPoolOptions#getIoExecutor()}, el resultado se entrega en el
+     * executor del cliente para que el código del llamador no ocupe los threads de I/O. El port vuelve al
+     * pool cuando la llamada termina y los errores se traducen a la misma jerarquía de
+     * {@link ApiException} que en {@link #invoke}.
+     * <p>
+     * Los reintentos se programan con {@link CompletableFuture#delayedExecutor}, sin bloquear threads
+     * durante el backoff, y el deadline de la operación abarca todos los intentos. Al vencer el
+     * deadline, cancelar el {@link CancellationToken} o cancelar el future devuelto, el intento en
+     * curso se aborta.
+     * <p>
+     * Si el cliente tiene {@link SoapInterceptor}, la llamada pasa antes por ellos.
+     */
+    @Override
+    public <P, R> CompletableFuture<R> invokeAsync(ApiRequest apiRequest, Class<P> portClass, String operationName, RetryReconciler reconciler, Class<R> responseType, Object... args) {
+        try {
+            enter();
+        } catch (ClientClosedException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        CompletableFuture<R> result = interceptors.length == 0
+            ? invokeAsyncWithBounds(apiRequest, portClass, operationName, reconciler, responseType, args)
+            : invokeAsyncIntercepted(apiRequest, portClass, operationName, reconciler, responseType, args);
+        pendingAsync.add(result);
+        result.whenComplete((response, error) -> {
+            pendingAsync.remove(result);
+            exit();
+        });
+        return result;
+    }
+
+    /**
+     * Recorre la cadena de {@link SoapInterceptor} de una llamada asíncrona; el último eslabón llama
+     * a {@link #invokeAsyncWithBounds} con los argumentos de la {@link SoapInvocation}. Completar o
+     * cancelar el future devuelto corta las llamadas que la cadena tenga en curso.
+     */
+    @SuppressWarnings("unchecked")
+    private <P, R> CompletableFuture<R> invokeAsyncIntercepted(ApiRequest apiRequest, Class<P> portClass, String operationName, RetryReconciler reconciler,
+                                                               Class<R> responseType, Object[] args) {
+        SoapInvocation invocation = new SoapInvocation(apiRequest, portClass, operationName, responseType, args, true);
+        CompletableFuture<R> result = new CompletableFuture<>();
+        new InterceptorChain(interceptors, 0, invocation, () -> {
+            CompletableFuture<R> call = invokeAsyncWithBounds(apiRequest, portClass, operationName, reconciler, responseType, invocation.getArguments());
+            result.whenComplete((response, error) -> {
+                if (!call.isDone()) call.cancel(false);
+            });
+            return (CompletableFuture<Object>) call;
+        }).proceed().whenComplete((response, error) -> {
+            if (error != null) {
+                result.completeExceptionally(toApiException(error, portClass, operationName));
+            } else if (response != null && !responseType.isInstance(response)) {
+                result.completeExceptionally(toApiException(new ClassCastException(
+                    "Se esperaba " + responseType.getName() + " y un interceptor devolvió " + response.getClass().getName()), portClass, operationName));
+            } else {
+                result.complete(responseType.cast(response));
+            }
+        });
+        return result;
+    }
+
+    private <P, R> CompletableFuture<R> invokeAsyncWithBounds(ApiRequest apiRequest, Class<P> portClass, String operationName, RetryReconciler reconciler,
+                                                              Class<R> responseType, Object... args) {
+        ResolvedOptions resolved;
+        EndpointRoute route;
+        PortKey key;
+        try {
+            resolved = resolveOptions(apiRequest);
+            route = resolveRoute(portClass, resolved);
+            key = resolvePortKey(portClass, resolved, route.primary(), operationName);
+        } catch (Exception e) {
+            return CompletableFuture.failedFuture(toApiException(e));
+        }
+
+        try {
+            admit(portClass);
+        } catch (BulkheadFullException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+
+        CompletableFuture<R> future = new CompletableFuture<>();
+        CallBounds bounds = CallBounds.resolve(requestOptions(apiRequest), key.getTimeoutOptions());
+        AsyncAttempt attempt = new AsyncAttempt(route, resolved, portClass, operationName, reconciler, racesEndpoints(route, operationName),
+            concurrencyLimiter(portClass, operationName), resolveCuit(apiRequest), bounds);
+        CompletableFuture<R> result = withBounds(future, bounds);
+        invokeAsyncWithRetry(attempt, responseType, args, 1, null, future);
+        return result;
+    }
+
+    private <R> void invokeAsyncWithRetry(AsyncAttempt call, Class<R> responseType, Object[] args, int attempt, ApiException lastFailure, CompletableFuture<R> future) {
+        if (future.isDone()) return; // venció el deadline entre intentos
+
+        // La espera por una ficha o por lugar en el limitador no ocupa un thread.
+        rateLimiter.acquireAsync(call.cuit, call.operationName, call.bounds.effective, executor(call.portClass))
+            .thenCompose(ignored -> {
+                CompletableFuture<ConcurrencyLimiter.Permit> acquisition = call.limiter.acquire();
+                future.whenComplete((response, error) -> acquisition.cancel(false)); // deja la cola si la solicitud termina
+                return acquisition;
+            })
+            .whenComplete((permit, limitError) -> {
+                if (limitError != null) {
+                    if (future.isDone()) return;
+                    future.completeExceptionally(lastFailure != null ? lastFailure : toApiException(limitError));
+                    return;
+                }
+                RouteChoice choice = future.isDone() ? null : chooseEndpoint(call.route, null, call.portClass, call.resolved, call.operationName);
+                if (choice == null) {
+                    permit.cancel();
+                    future.completeExceptionally(lastFailure != null ? lastFailure
+                        : new CircuitOpenException(call.route.primary().getEndpointUrl()));
+                    return;
+                }
+                invokeAsyncAttempt(call, choice, permit, responseType, args, attempt, future);
+            });
+    }
+
+    private <R> void invokeAsyncAttempt(AsyncAttempt call, RouteChoice choice, ConcurrencyLimiter.Permit permit, Class<R> responseType,
+                                        Object[] args, int attempt, CompletableFuture<R> future) {
+        long startNanos = System.nanoTime();
+        CompletableFuture<R> inFlight = invokeAsyncHedged(call, choice, responseType, args);
+        future.whenComplete((response, error) -> inFlight.cancel(true));
+        inFlight.whenComplete((response, error) -> {
+            if (future.isDone()) { // venció el deadline o se canceló mientras el intento estaba en curso
+                permit.cancel();
+                if (!call.raced) choice.breaker.onAbandoned();
+                return;
+            }
+            if (error == null) {
+                permit.onSuccess();
+                if (!call.raced) recordEndpoint(choice, startNanos, null, null);
+                retryPolicy.getRetryBudget().onSuccess();
+                future.complete(response);
+                return;
+            }
+            ApiException failure = toApiException(error, call.portClass, call.operationName);
+            recordPermit(permit, error, failure);
+            if (!call.raced) recordEndpoint(choice, startNanos, error, failure);
+            // El reconciliador puede bloquear (consulta a ARCA), así que la decisión corre en el executor.
+            CompletableFuture.supplyAsync(() -> retryDelay(call.operationName, attempt, error, failure, call.reconciler, call.bounds.effective), executor(call.portClass))
+                .whenComplete((delay, decisionError) -> {
+                    if (decisionError != null || delay == null) {
+                        future.completeExceptionally(failure);
+                        return;
+                    }
+                    CompletableFuture.delayedExecutor(delay.toMillis(), TimeUnit.MILLISECONDS, executor(call.portClass))
+                        .execute(() -> invokeAsyncWithRetry(call, responseType, args, attempt + 1, failure, future));
+                });
+        });
+    }
+
+    private <R> CompletableFuture<R> invokeAsyncHedged(AsyncAttempt call, RouteChoice choice, Class<R> responseType, Object[] args) {
+        RequestOptions mergedOptions = call.resolved.getOptions();
+        if (call.raced) {
+            return new EndpointRace<R>(call.route, choice, call.portClass, call.resolved, call.operationName, call.cuit,
+                leg -> invokeAsyncOnce(leg.key, mergedOptions, call.operationName, call.bounds.effective, responseType, args)).start();
+        }
+        Supplier<CompletableFuture<R>> attempt = () -> invokeAsyncOnce(choice.key, mergedOptions, call.operationName, call.bounds.effective, responseType, args);
+        if (!hedger.applies(call.operationName)) return attempt.get();
+        return hedger.invoke(call.operationName, attempt, () -> rateLimiter.tryAcquire(call.cuit, call.operationName));
+    }
+
+    /**
+     * Datos de una llamada asíncrona que se mantienen entre intentos.
+     */
+    private static final class AsyncAttempt {
+        private final EndpointRoute route;
+        private final ResolvedOptions resolved;
+        private final Class<?> portClass;
+        private final String operationName;
+        private final RetryReconciler reconciler;
+        /** Cada intento compite entre endpoints (ver {@link EndpointRace}). */
+        private final boolean raced;
+        private final ConcurrencyLimiter limiter;
+        private final Long cuit;
+        private final CallBounds bounds;
+
+        private AsyncAttempt(EndpointRoute route, ResolvedOptions resolved, Class<?> portClass, String operationName,
+                             RetryReconciler reconciler, boolean raced, ConcurrencyLimiter limiter, Long cuit, CallBounds bounds) {
+            this.route = route;
+            this.resolved = resolved;
+            this.portClass = portClass;
+            this.operationName = operationName;
+            this.reconciler = reconciler;
+            this.raced = raced;
+            this.limiter = limiter;
+            this.cuit = cuit;
+            this.bounds = bounds;
+        }
+    }
+
+    /**
+     * Deadline y cancelación de una solicitud. {@code requested} es el deadline pedido por la
+     * aplicación; {@code effective} es el más cercano entre ese y el deadline de la
+     * {@link TimeoutPolicy}, contado desde el inicio de la llamada.
+     */
+    private static final class CallBounds {
+        private final Deadline requested;
+        private final Deadline effective;
+        private final CancellationToken token;
+
+        private CallBounds(Deadline requested, Deadline effective, CancellationToken token) {
+            this.requested = requested;
+            this.effective = effective;
+            this.token = token;
+        }
+
+        /**
+         * Las {@link RequestOptions} tienen prioridad sobre el {@link RequestContext} del thread; de
+         * los deadlines se toma el más cercano.
+         */
+        private static CallBounds resolve(RequestOptions requestOptions, TimeoutOptions timeouts) {
+            RequestContext context = RequestContext.current();
+            Deadline requested = requestOptions != null ? requestOptions.getDeadline() : null;
+            CancellationToken token = requestOptions != null ? requestOptions.getCancellationToken() : null;
+            if (context != null) {
+                requested = Deadline.earliest(requested, context.getDeadline());
+                if (token == null) token = context.getCancellationToken();
+            }
+            Deadline policyDeadline = timeouts != null && timeouts.getDeadline() != null ? Deadline.after(timeouts.getDeadline()) : null;
+            return new CallBounds(requested, Deadline.earliest(requested, policyDeadline), token);
+        }
+
+        private boolean isCancelled() {
+            return token != null && token.isCancelled();
+        }
+
+        /**
+         * Error con el que termina la solicitud si se canceló o venció su deadline; si no, {@code null}.
+         */
+        private ApiException abortedFailure() {
+            if (isCancelled()) return new RequestCancelledException();
+            if (requested != null && requested.isExpired()) return new DeadlineExceededException();
+            return null;
+        }
+
+        private void checkActive() throws ApiException {
+            ApiException aborted = abortedFailure();
+            if (aborted != null) throw aborted;
+        }
+
+        private CancellationToken.Registration onCancel(Runnable callback) {
+            return token != null ? token.onCancel(callback) : () -> { };
+        }
+    }
+
+    /**
+     * Endpoint elegido para un intento, con su clave de pool y su circuit breaker, que ya admitió
+     * la llamada.
+     */
+    private static final class RouteChoice {
+        private final ResolvedOptions.Target target;
+        private final PortKey key;
+        private final CircuitBreaker breaker;
+
+        private RouteChoice(ResolvedOptions.Target target, PortKey key, CircuitBreaker breaker) {
+            this.target = target;
+            this.key = key;
+            this.breaker = breaker;
+        }
+    }
+
+    /**
+     * Elige el endpoint del próximo intento en el orden de {@link EndpointRoute#candidates}: el
+     * primero cuyo circuit breaker admite la llamada, o {@code null} si no hay. Con {@code exclude}
+     * (el segundo tramo de una carrera) solo se consideran los endpoints disponibles.
+     */
+    private RouteChoice chooseEndpoint(EndpointRoute route, ResolvedOptions.Target exclude, Class<?> portClass,
+                                       ResolvedOptions resolved, String operationName) {
+        for (ResolvedOptions.Target target : route.candidates(exclude, exclude == null)) {
+            PortKey key = resolvePortKey(portClass, resolved, target, operationName);
+            CircuitBreaker breaker = circuitBreaker(key, target, resolved.getOptions());
+            if (breaker.tryAcquire()) return new RouteChoice(target, key, breaker);
+        }
+        return null;
+    }
+
+    /**
+     * Indica si las llamadas a {@code operationName} compiten entre los endpoints de {@code route}:
+     * solo las {@link Idempotency#SAFE}, que se pueden enviar dos veces sin efectos.
+     */
+    private boolean racesEndpoints(EndpointRoute route, String operationName) {
+        return failoverOptions.isRaceEnabled() && route.hasAlternates() && operationName != null
+            && retryPolicy.idempotency(operationName) == Idempotency.SAFE;
+    }
+
+    /**
+     * Espera antes de probar otro endpoint: el doble de la latencia habitual de {@code target}, y
+     * nunca menos que {@link FailoverOptions#getMinRaceDelay()}.
+     */
+    private Duration raceDelay(ResolvedOptions.Target target) {
+        Duration min = failoverOptions.getMinRaceDelay();
+        double latency = target.getHealth().latencyNanos();
+        return latency * 2 > min.toNanos() ? Duration.ofNanos(Math.round(latency * 2)) : min;
+    }
+
+    /**
+     * Un intento que compite entre endpoints, al estilo happy eyeballs: {@code leg} se lanza sobre el
+     * endpoint elegido y, si no respondió al cabo de {@link #raceDelay} o falló con un error
+     * transitorio, sobre el siguiente disponible. Gana la primera respuesta correcta y la otra
+     * solicitud se cancela; cualquier otra respuesta del servicio (un SOAP fault) termina la carrera.
+     * Cada tramo registra su resultado en el circuit breaker y la {@link EndpointHealth} de su
+     * endpoint.
+     */
+    private final class EndpointRace<R> {
+        private final EndpointRoute route;
+        private final RouteChoice first;
+        private final Class<?> portClass;
+        private final ResolvedOptions resolved;
+        private final String operationName;
+        private final Long cuit;
+        private final Function<RouteChoice, CompletableFuture<R>> leg;
+        private final CompletableFuture<R> result = new CompletableFuture<>();
+        private final List<CompletableFuture<R>> legs = new CopyOnWriteArrayList<>();
+        private final AtomicInteger pending = new AtomicInteger(1);
+        private final AtomicBoolean raced = new AtomicBoolean();
+        private volatile Throwable lastError;
+
+        private EndpointRace(EndpointRoute route, RouteChoice first, Class<?> portClass, ResolvedOptions resolved, String operationName,
+                             Long cuit, Function<RouteChoice, CompletableFuture<R>> leg) {
+            this.route = route;
+            this.first = first;
+            this.portClass = portClass;
+            this.resolved = resolved;
+            this.operationName = operationName;
+            this.cuit = cuit;
+            this.leg = leg;
+        }
+
+        private CompletableFuture<R> start() {
+            result.whenComplete((response, error) -> legs.forEach(l -> l.cancel(true)));
+            launch(first);
+            if (!result.isDone()) {
+                CompletableFuture.delayedExecutor(raceDelay(first.target).toNanos(), TimeUnit.NANOSECONDS, executor(portClass))
+                    .execute(this::launchNext);
+            }
+            return result;
+        }
+
+        /**
+         * Lanza el segundo tramo, una sola vez, si la carrera sigue abierta, el {@link RateLimiter}
+         * lo permite y hay otro endpoint disponible.
+         */
+        private void launchNext() {
+            pending.incrementAndGet();
+            RouteChoice next = null;
+            if (!result.isDone() && raced.compareAndSet(false, true) && rateLimiter.tryAcquire(cuit, operationName)) {
+                next = chooseEndpoint(route, first.target, portClass, resolved, operationName);
+            }
+            if (next != null) launch(next);
+            else settle();
+        }
+
+        private void launch(RouteChoice choice) {
+            long startNanos = System.nanoTime();
+            CompletableFuture<R> call = leg.apply(choice);
+            legs.add(call);
+            if (result.isDone()) call.cancel(true);
+
+            call.whenComplete((response, error) -> {
+                if (call.isCancelled()) {
+                    choice.breaker.onAbandoned();
+                    if (result.isDone() && !result.isCompletedExceptionally()) choice.target.getHealth().onLost(System.nanoTime() - startNanos);
+                    return;
+                }
+                ApiException failure = error != null ? translate(error) : null;
+                recordEndpoint(choice, startNanos, error, failure);
+                if (error == null) {
+                    result.complete(response);
+                } else if (!isTransient(error, failure)) {
+                    result.completeExceptionally(error);
+                } else {
+                    lastError = error;
+                    if (choice == first) launchNext();
+                    settle();
+                }
+            });
+        }
+
+        private void settle() {
+            if (pending.decrementAndGet() == 0) result.completeExceptionally(lastError);
+        }
+    }
+
+    /**
+     * Devuelve el circuit breaker del endpoint de {@code key}. En WSFE la recuperación se verifica
+     * con {@code FEDummy}, que no requiere autenticación; WSAA no tiene una operación equivalente.
+     */
+    private CircuitBreaker circuitBreaker(PortKey key, ResolvedOptions.Target target, RequestOptions mergedOptions) {
+        CircuitBreaker breaker = circuitBreakers.get(target.getEndpointUrl());
+        if (breaker != null) return breaker;
+        return circuitBreakers.computeIfAbsent(target.getEndpointUrl(), url -> new CircuitBreaker(circuitBreakerOptions,
+            key.getPortClass() == ServiceSoap.class ? () -> probeFeDummy(key, mergedOptions) : null));
+    }
+
+    /**
+     * Llama a {@code FEDummy} en el executor de WSFE, fuera de los reintentos y del circuito.
+     * El servicio se considera recuperado si responde con el servidor de aplicación en {@code OK}.
+     */
+    private CompletableFuture<Boolean> probeFeDummy(PortKey key, RequestOptions mergedOptions) {
+        return CompletableFuture.supplyAsync(() -> {
+            if (closed) return Boolean.FALSE;
+            try {
+                PortKey probeKey = resolvePortKey(key.getPortClass(), key.getEndpoint(), mergedOptions, FE_DUMMY);
+                DummyResponse response = this.<ServiceSoap, DummyResponse>invokeOnce(probeKey, mergedOptions, null, ServiceSoap::feDummy);
+                return response != null && "OK".equalsIgnoreCase(response.getAppServer());
+            } catch (Exception e) {
+                return Boolean.FALSE;
+            }
+        }, executor(key.getPortClass()));
+    }
+
+    /**
+     * Limitador de concurrencia de la operación {@code operationName} de {@code portClass}. Cada
+     * operación tiene el suyo: la latencia de {@code FEDummy} no se mezcla con la de un
+     * {@code FECAESolicitar}, que guía el límite con otra escala.
+     */
+    private ConcurrencyLimiter concurrencyLimiter(Class<?> portClass, String operationName) {
+        String name = portClass.getName() + "#" + (operationName != null ? operationName : "");
+        ConcurrencyLimiter limiter = concurrencyLimiters.get(name);
+        if (limiter != null) return limiter;
+        return concurrencyLimiters.computeIfAbsent(name, n -> new ConcurrencyLimiter(concurrencyLimitOptions));
+    }
+
+    @Override
+    public ConcurrencyLimiter getConcurrencyLimiter(Class<?> portClass, String operationName) {
+        return concurrencyLimiter(portClass, operationName);
+    }
+
+    /**
+     * Executor del servicio de {@code portClass}: su {@link Bulkhead} o, si está desactivado, el del
+     * cliente.
+     */
+    private Executor executor(Class<?> portClass) {
+        return bulkheadOptions.isEnabled() ? bulkhead(portClass) : asyncExecutor;
+    }
+
+    /**
+     * Executor del {@code HttpClient} de {@link HttpTransportMode#JDK_HTTP_CLIENT}: el bulkhead del
+     * servicio si está activo y, si no, {@link ConnectionPoolOptions#getIoExecutor()} o el del cliente.
+     */
+    private Executor jdkExecutor(Class<?> portClass) {
+        if (bulkheadOptions.isEnabled()) return bulkhead(portClass);
+        return jdkIoExecutor != null ? jdkIoExecutor : asyncExecutor;
+    }
+
+    /**
+     * Si el {@code HttpClient} completa las llamadas en {@link ConnectionPoolOptions#getIoExecutor()},
+     * en cuyo caso el resultado pasa al executor del cliente antes de llegar al llamador.
+     */
+    private boolean deliversOnIoExecutor() {
+        return jdkIoExecutor != null && !bulkheadOptions.isEnabled();
+    }
+
+    private Bulkhead bulkhead(Class<?> portClass) {
+        Bulkhead bulkhead = bulkheads.get(portClass);
+        if (bulkhead != null) return bulkhead;
+        return bulkheads.computeIfAbsent(portClass, c -> new Bulkhead(c.getSimpleName(), bulkheadOptions, asyncExecutor));
+    }
+
+    /**
+     * Rechaza la llamada si el {@link Bulkhead} del servicio está lleno (ver {@link BulkheadOptions.Overflow#REJECT}).
+     */
+    private void admit(Class<?> portClass) throws BulkheadFullException {
+        if (bulkheadOptions.isEnabled()) bulkhead(portClass).admit();
+    }
+
+    @Override
+    public Bulkhead getBulkhead(Class<?> portClass) {
+        return bulkheadOptions.isEnabled() ? bulkhead(portClass) : null;
+    }
+
+    @Override
+    public RateLimiter getRateLimiter() {
+        return rateLimiter;
+    }
+
+    @Override
+    public TlsSessionCache getTlsSessionCache() {
+        return tlsSessionCache;
+    }
+
+    @Override
+    public DnsCache getDnsCache() {
+        return dnsCache;
+    }
+
+    @Override
+    public List<EndpointStatus> getEndpoints(Class<?> portClass) {
+        try {
+            return resolveRoute(portClass, resolveOptions(null)).status();
+        } catch (Exception e) {
+            return List.of();
+        }
+    }
+
+    /**
+     * Toma y devuelve al pool un port por cada {@link PortKey} distinta de {@code operationNames};
+     * el pool crea y configura los que falten.
+     */
+    @Override
+    public int preparePorts(ApiRequest apiRequest, Class<?> portClass, Collection<String> operationNames) throws ApiException {
+        enter();
+        try {
+            ResolvedOptions resolved = resolveOptions(apiRequest);
+            RequestOptions mergedOptions = resolved.getOptions();
+            Set<PortKey> keys = new LinkedHashSet<>();
+            for (ResolvedOptions.Target target : resolveRoute(portClass, resolved).targets()) {
+                for (String operationName : operationNames) {
+                    keys.add(resolvePortKey(portClass, resolved, target, operationName));
+                }
+            }
+            for (PortKey key : keys) {
+                Object port = portPool.borrow(key, () -> createConfiguredPort(key, mergedOptions));
+                portPool.release(key, port);
+            }
+            return keys.size();
+        } catch (Exception e) {
+            throw toApiException(e);
+        } finally {
+            exit();
+        }
+    }
+
+    /**
+     * Cierra el handler: rechaza las solicitudes nuevas con {@link ClientClosedException}, espera a
+     * las que están en curso y luego libera el {@link Bus} (y con él los conduits y el pool de
+     * conexiones de HC5), los ports del pool, los {@link java.net.http.HttpClient} y la cola de
+     * cada {@link Bulkhead}.
+     * <p>
+     * El executor del cliente no se cierra: el de por defecto es compartido por la JVM y uno
+     * configurado con {@code setExecutor} pertenece a la aplicación. Lo mismo vale para
+     * {@link ConnectionPoolOptions#getIoExecutor()}.
+     */
+    @Override
+    public ShutdownReport shutdown(Duration drainTimeout) {
+        if (!shutdownStarted.compareAndSet(false, true)) return shutdownReport.join();
+
+        long startNanos = System.nanoTime();
+        closed = true;
+        int inFlightAtClose = inFlight.get();
+        if (inFlightAtClose == 0) drained.complete(null);
+        int abandoned = 0;
+        try {
+            drained.get(Math.max(0, drainTimeout.toNanos()), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            abandoned = abandonInFlight();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            abandoned = abandonInFlight();
+        } catch (ExecutionException e) {
+            // drained nunca se completa con error
+        }
+
+        terminated = true;
+        List<Exception> errors = releaseResources(abandoned > 0);
+        ShutdownReport report = new ShutdownReport(inFlightAtClose, abandoned, Duration.ofNanos(System.nanoTime() - startNanos), errors);
+        shutdownReport.complete(report);
+        return report;
+    }
+
+    @Override
+    public boolean isClosed() {
+        return closed;
+    }
+
+    /**
+     * Registra una solicitud en curso, o la rechaza si el handler está cerrado.
+     */
+    private void enter() throws ClientClosedException {
+        inFlight.incrementAndGet();
+        if (closed) {
+            exit();
+            throw new ClientClosedException();
+        }
+    }
+
+    private void exit() {
+        if (inFlight.decrementAndGet() == 0 && closed) drained.complete(null);
+    }
+
+    /**
+     * Corta las solicitudes que siguen en curso: las asíncronas se completan con
+     * {@link ClientClosedException} (lo que cancela su intento) y las síncronas fallan al comenzar
+     * su próximo intento.
+     */
+    private int abandonInFlight() {
+        terminated = true;
+        int abandoned = inFlight.get();
+        for (CompletableFuture<?> future : pendingAsync) {
+            future.completeExceptionally(new ClientClosedException());
+        }
+        for (SyncCall call : pendingSync) {
+            call.abandon();
+        }
+        return abandoned;
+    }
+
+    /**
+     * Llamada síncrona en curso. Al abandonarla se interrumpe su thread, que puede estar bloqueado
+     * esperando la respuesta, el backoff o un permiso; al salir, la llamada limpia esa interrupción
+     * para no dejarla pendiente en un thread de la aplicación.
+     */
+    private final class SyncCall {
+        private static final int RUNNING = 0;
+        private static final int FINISHED = 1;
+        private static final int ABANDONED = 2;
+
+        private final Thread thread;
+        private final AtomicInteger state = new AtomicInteger(RUNNING);
+
+        private SyncCall(Thread thread) {
+            this.thread = thread;
+        }
+
+        private void abandon() {
+            abandonLock.lock();
+            try {
+                if (state.compareAndSet(RUNNING, ABANDONED)) thread.interrupt();
+            } finally {
+                abandonLock.unlock();
+            }
+        }
+
+        /**
+         * Marca la llamada como terminada; devuelve {@code true} si se había abandonado.
+         */
+        private boolean finish() {
+            if (state.compareAndSet(RUNNING, FINISHED)) return false;
+            if (state.compareAndSet(ABANDONED, FINISHED)) {
+                abandonLock.lock(); // espera a que abandon() termine de interrumpir
+                abandonLock.unlock();
+                Thread.interrupted();
+                return true;
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Con solicitudes abandonadas el {@link Bus} se cierra en segundo plano: HC5 cierra su cliente
+     * de forma ordenada y espera (hasta unos segundos) a que terminen los intercambios en curso.
+     */
+    private List<Exception> releaseResources(boolean abandoned) {
+        List<Exception> errors = new ArrayList<>();
+        for (Object port : portPool.close()) {
+            if (JdkSoapTransport.unwrap(port) == null) release(errors, () -> ClientProxy.getClient(port).destroy());
+        }
+        release(errors, jdkSoapTransport::close);
+        for (Bulkhead bulkhead : bulkheads.values()) {
+            release(errors, bulkhead::shutdown);
+        }
+        if (abandoned) {
+            asyncExecutor.execute(() -> bus.shutdown(false));
+        } else {
+            release(errors, () -> bus.shutdown(false));
+        }
+        if (dnsCache != null) dnsCache.clear();
+        resolvedOptions.clear();
+        return errors;
+    }
+
+    private static void release(List<Exception> errors, Runnable action) {
+        try {
+            action.run();
+        } catch (RuntimeException e) {
+            errors.add(e);
+        }
+    }
+
+    /**
+     * Solo las fallas transitorias abren el circuito, excluyen el endpoint y reducen el límite de
+     * concurrencia; cualquier otra respuesta (por ejemplo, un SOAP fault) demuestra que el servicio
+     * está disponible.
+     */
+    private boolean isTransient(Throwable error, ApiException failure) {
+        return isNotSent(error) || retryPolicy.isRetryable(failure);
+    }
+
+    private void recordPermit(ConcurrencyLimiter.Permit permit, Throwable error, ApiException failure) {
+        if (failure instanceof BulkheadFullException) permit.cancel();
+        else if (isTransient(error, failure)) permit.onDropped();
+        else permit.onSuccess();
+    }
+
+    /**
+     * Registra el resultado de un intento en el circuit breaker y la {@link EndpointHealth} del
+     * endpoint elegido; una respuesta, aunque sea un SOAP fault, cuenta como muestra de latencia. Un
+     * intento que el {@link Bulkhead} rechazó no llegó al endpoint y no se registra.
+     */
+    private void recordEndpoint(RouteChoice choice, long startNanos, Throwable error, ApiException failure) {
+        if (failure instanceof BulkheadFullException) return;
+        if (error != null && isTransient(error, failure)) {
+            choice.breaker.onFailure();
+            choice.target.getHealth().onFailure();
+        } else {
+            choice.breaker.onSuccess();
+            choice.target.getHealth().onSuccess(System.nanoTime() - startNanos);
+        }
+    }
+
+    /**
+     * Un intento asíncrono. El future falla con el error original (sin traducir) para que la
+     * política de reintentos pueda distinguir, por ejemplo, una conexión rechazada.
+     */
+    private <P, R> CompletableFuture<R> invokeAsyncOnce(PortKey key, RequestOptions mergedOptions, String operationName, Deadline deadline,
+                                                        Class<R> responseType, Object[] args) {
+        CompletableFuture<R> future = new CompletableFuture<>();
+        P port;
+        try {
+            if (terminated) throw new ClientClosedException();
+            port = portPool.borrow(key, () -> createConfiguredPort(key, mergedOptions));
+        } catch (Exception e) {
+            future.completeExceptionally(e);
+            return future;
+        }
+
+        // El deadline se quita recién al devolver el port: CXF puede terminar la llamada antes de que
+        // invoke retorne.
+        AsyncPortCallback<R> callback = new AsyncPortCallback<>(future, responseType, () -> {
+            if (deadline != null) clearDeadline(port);
+            portPool.release(key, port);
         });
+        try {
+            applyDeadline(port, key.getTimeoutOptions(), deadline);
+            JdkSoapPort jdkPort = JdkSoapTransport.unwrap(port);
+            if (jdkPort != null) {
+                BiConsumer<Object, Throwable> completion = (response, error) -> {
+                    if (error != null) callback.handleException(null, error);
+                    else callback.handleResponse(null, new Object[]{response});
+                };
+                CompletableFuture<Object> call = jdkPort.invokeAsync(operationName, args);
+                // Un hedge perdedor se cancela: se aborta el intercambio HTTP y el port vuelve al pool.
+                future.whenComplete((response, error) -> {
+                    if (future.isCancelled()) call.cancel(true);
+                });
+                if (deliversOnIoExecutor()) {
+                    call.whenCompleteAsync(completion, asyncExecutor);
+                } else {
+                    call.whenComplete(completion);
+                }
+            } else {
+                Client client = ClientProxy.getClient(port);
+                client.invoke(callback, resolveOperation(client, operationName), args);
+            }
+        } catch (Exception e) {
+            callback.handleException(null, e);
+        }
+        return future;
     }
 
-    private void handleLoginFault(LoginFault e) throws ApiException {
-        System.err.println("Login Fault error occurred: " + e.getMessage());
-        e.printStackTrace();
+    /**
+     * Decide si se reintenta tras el intento {@code attempt} y devuelve la espera previa, o
+     * {@code null} para informar {@code failure}.
+     * <p>
+     * Un request que no llegó a enviarse (conexión rechazada o sin establecer) se puede repetir
+     * siempre. Si no, la falla tiene que ser transitoria y la operación {@link Idempotency#SAFE}, o
+     * {@link Idempotency#RECONCILE} con un {@link RetryReconciler} que confirme que el intento
+     * anterior no tuvo efecto. El backoff no puede pasar el deadline y cada reintento consume el
+     * {@link RetryBudget}.
+     */
+    private Duration retryDelay(String operationName, int attempt, Throwable error, ApiException failure,
+                                RetryReconciler reconciler, Deadline deadline) {
+        boolean notSent = isNotSent(error);
+        if (!notSent && !retryPolicy.isRetryable(failure)) return null;
+
+        RetryBudget budget = retryPolicy.getRetryBudget();
+        budget.onFailure();
+        if (attempt >= retryPolicy.getMaxAttempts()) return null;
+
+        Idempotency idempotency = retryPolicy.idempotency(operationName);
+        if (!notSent && (idempotency == Idempotency.NEVER || (idempotency == Idempotency.RECONCILE && reconciler == null))) {
+            return null;
+        }
+
+        Duration delay = retryPolicy.backoff(attempt);
+        if (deadline != null && delay.toNanos() >= deadline.remainingNanos()) return null;
+        if (!budget.allowsRetry()) return null;
 
-        throw new ApiException(
+        if (!notSent && idempotency == Idempotency.RECONCILE) {
+            try {
+                if (!reconciler.canRetry(failure)) return null;
+            } catch (ApiException | RuntimeException e) {
+                return null;
+            }
+        }
+        return delay;
+    }
+
+    /**
+     * Indica si el error ocurrió antes de enviar el request: conexión rechazada, host sin ruta o
+     * sin resolver, o timeout de conexión.
+     */
+    private static boolean isNotSent(Throwable e) {
+        for (Throwable t = e; t != null; t = t.getCause() == t ? null : t.getCause()) {
+            if (t instanceof ConnectException || t instanceof NoRouteToHostException
+                || t instanceof UnknownHostException || t instanceof HttpConnectTimeoutException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Duerme el backoff; cancelar la solicitud lo interrumpe.
+     */
+    private static void sleep(Duration delay, ApiException failure, CallBounds bounds) throws ApiException {
+        CompletableFuture<Void> cancelled = new CompletableFuture<>();
+        try (CancellationToken.Registration ignored = bounds.onCancel(() -> cancelled.complete(null))) {
+            cancelled.get(delay.toNanos(), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            return;
+        } catch (ExecutionException e) {
+            throw failure;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw failure;
+        }
+        throw new RequestCancelledException();
+    }
+
+    /**
+     * Error por deadline vencido: {@link DeadlineExceededException} si venció el pedido por la
+     * aplicación, o un error {@code timeout} si venció el de la {@link TimeoutPolicy}.
+     */
+    private ApiException expiredFailure(CallBounds bounds, Throwable timeout) {
+        return bounds.requested != null && bounds.requested.isExpired() ? new DeadlineExceededException() : toApiException(timeout);
+    }
+
+    /**
+     * Aplica el deadline y la cancelación a una llamada asíncrona: el future se completa con el error
+     * correspondiente y el intento en curso se aborta. Cancelar el future devuelto también lo aborta.
+     */
+    private <R> CompletableFuture<R> withBounds(CompletableFuture<R> future, CallBounds bounds) {
+        if (bounds.effective == null && bounds.token == null) return future;
+
+        if (bounds.token != null) {
+            CancellationToken.Registration registration = bounds.onCancel(() -> future.completeExceptionally(new RequestCancelledException()));
+            future.whenComplete((response, error) -> registration.close());
+        }
+        if (bounds.effective != null) {
+            future.orTimeout(Math.max(0, bounds.effective.remainingNanos()), TimeUnit.NANOSECONDS);
+        }
+        CompletableFuture<R> result = future.exceptionallyCompose(e -> CompletableFuture.failedFuture(
+            e instanceof TimeoutException ? expiredFailure(bounds, e) : toApiException(e)));
+        // Si el future devuelto se completa por fuera (cancelado por la aplicación o abandonado al
+        // cerrar el cliente), se corta la llamada en curso.
+        result.whenComplete((response, error) -> {
+            if (!future.isDone()) future.cancel(false);
+        });
+        return result;
+    }
+
+    /**
+     * Busca la operación por nombre local (por ejemplo {@code "FECAESolicitar"}). Para operaciones
+     * document/literal wrapped se usa la versión "unwrapped", que recibe los mismos parámetros que
+     * el método de la interfaz generada.
+     */
+    private static BindingOperationInfo resolveOperation(Client client, String operationName) {
+        for (BindingOperationInfo operation : client.getEndpoint().getBinding().getBindingInfo().getOperations()) {
+            if (operation.getName().getLocalPart().equals(operationName)) {
+                return operation.isUnwrappedCapable() ? operation.getUnwrappedOperation() : operation;
+            }
+        }
+        throw new IllegalArgumentException("Unknown operation: " + operationName);
+    }
+
+    /**
+     * Completa el {@link CompletableFuture} de una llamada asíncrona y devuelve el port al pool
+     * exactamente una vez.
+     */
+    private final class AsyncPortCallback<R> extends ClientCallback {
+        private final CompletableFuture<R> future;
+        private final Class<R> responseType;
+        private final Runnable releasePort;
+        private final AtomicBoolean finished = new AtomicBoolean();
+
+        private AsyncPortCallback(CompletableFuture<R> future, Class<R> responseType, Runnable releasePort) {
+            this.future = future;
+            this.responseType = responseType;
+            this.releasePort = releasePort;
+        }
+
+        @Override
+        public void handleResponse(Map<String, Object> ctx, Object[] res) {
+            super.handleResponse(ctx, res);
+            if (!finished.compareAndSet(false, true)) return;
+            releasePort.run();
+            try {
+                future.complete(responseType.cast(res != null && res.length > 0 ? res[0] : null));
+            } catch (ClassCastException e) {
+                future.completeExceptionally(toApiException(e));
+            }
+        }
+
+        @Override
+        public void handleException(Map<String, Object> ctx, Throwable ex) {
+            super.handleException(ctx, ex);
+            if (!finished.compareAndSet(false, true)) return;
+            releasePort.run();
+            future.completeExceptionally(ex);
+        }
+    }
+
+    /**
+     * Traduce cualquier error de una llamada SOAP (síncrona o asíncrona) a {@link ApiException}.
+     */
+    private ApiException toApiException(Throwable e) {
+        return toApiException(e, null, null);
+    }
+
+    /**
+     * Igual que {@link #toApiException(Throwable)}, informando al {@link ErrorReporter} el servicio y
+     * la operación que fallaron. Las {@link ApiException} ya traducidas no se vuelven a informar.
+     */
+    private ApiException toApiException(Throwable e, Class<?> portClass, String operationName) {
+        if (e instanceof CompletionException && e.getCause() != null) return toApiException(e.getCause(), portClass, operationName);
+        if (e instanceof ApiException) return (ApiException) e;
+        ApiException failure = translate(e);
+        errorReporter.report(failure, e, portClass, operationName);
+        return failure;
+    }
+
+    /**
+     * Traducción de {@link #toApiException(Throwable)} sin informarla, para los errores que igual
+     * llegan a quien hizo la llamada por otro camino (por ejemplo, un tramo de {@link EndpointRace}).
+     */
+    private ApiException translate(Throwable e) {
+        if (e instanceof CompletionException && e.getCause() != null) return translate(e.getCause());
+        if (e instanceof ApiException) return (ApiException) e;
+        if (e instanceof RejectedExecutionException && e.getCause() instanceof BulkheadFullException) return (ApiException) e.getCause();
+        if (e instanceof LoginFault) return handleLoginFault((LoginFault) e);
+        if (e instanceof SOAPFaultException) return handleSoapFault((SOAPFaultException) e);
+        if (e instanceof SoapFault) return handleSoapFault((SoapFault) e);
+        if (e instanceof MalformedURLException) return handleMalformedUrlError((MalformedURLException) e);
+        if (isTimeout(e)) return handleTimeoutError(e);
+        if (e instanceof WebServiceException || e instanceof Fault || e instanceof IOException) return handleWebServiceError(e);
+        return handleUnexpectedError(e);
+    }
+
+    private ApiException handleLoginFault(LoginFault e) {
+        return new ApiException(
             new ErrorDto("login_fault", "Error de autenticación con AFIP: " + e.getMessage(), null),
-            HttpStatus.UNAUTHORIZED
+            HttpStatus.UNAUTHORIZED,
+            e
         );
     }
 
-    private void handleSoapFault(SOAPFaultException e) throws ApiException {
-        System.err.println("SOAP Fault: " + e.getFault().getFaultString());
+    private ApiException handleSoapFault(SOAPFaultException e) {
         String faultCode = handleSoapFaultCode(e.getFault());
-        System.err.println("SOAP Fault Code: " + faultCode);
 
-        throw new ApiException(
+        return new ApiException(
             new ErrorDto(faultCode, e.getFault().getFaultString(), null),
-            HttpStatus.INTERNAL_SERVER_ERROR
+            HttpStatus.INTERNAL_SERVER_ERROR,
+            e
+        );
+    }
+
+    /**
+     * Variante de {@link #handleSoapFault(SOAPFaultException)} para el camino asíncrono, donde CXF
+     * entrega el {@link SoapFault} sin envolverlo en una excepción JAX-WS.
+     */
+    private ApiException handleSoapFault(SoapFault e) {
+        String faultCode = e.getFaultCode() != null && !e.getFaultCode().getLocalPart().isBlank()
+            ? e.getFaultCode().getLocalPart()
+            : "soap_fault";
+
+        return new ApiException(
+            new ErrorDto(faultCode, e.getMessage(), null),
+            HttpStatus.INTERNAL_SERVER_ERROR,
+            e
         );
     }
 
@@ -134,39 +1540,55 @@ public class DefaultSoapRequestHandler implements SoapRequestHandler {
         return "soap_fault";
     }
 
-    private void handleWebServiceError(WebServiceException e) throws ApiException {
-        System.err.println("Web Service Error: " + e.getMessage());
-
-        throw new ApiException(
+    private ApiException handleWebServiceError(Throwable e) {
+        return new ApiException(
             new ErrorDto("webservice_error", "Error de comunicación con AFIP", null),
-            HttpStatus.BAD_GATEWAY
+            HttpStatus.BAD_GATEWAY,
+            e
         );
     }
 
-    private void handleMalformedUrlError(MalformedURLException e) throws ApiException {
-        System.err.println("Malformed URL: " + e.getMessage());
+    /**
+     * Indica si el error (o alguna de sus causas) es un timeout de conexión, de lectura o del
+     * deadline total de la llamada.
+     */
+    private static boolean isTimeout(Throwable e) {
+        for (Throwable t = e; t != null; t = t.getCause() == t ? null : t.getCause()) {
+            if (t instanceof SocketTimeoutException || t instanceof HttpTimeoutException || t instanceof TimeoutException) {
+                return true;
+            }
+        }
+        return false;
+    }
 
-        throw new ApiException(
-            new ErrorDto("malformed_url", "La URL del WSDL es inválida o está mal formada: " + e.getMessage(), null),
-            HttpStatus.BAD_REQUEST
+    private ApiException handleTimeoutError(Throwable e) {
+        return new ApiException(
+            new ErrorDto("timeout", "Se agotó el tiempo de espera de la respuesta de AFIP", null),
+            HttpStatus.GATEWAY_TIMEOUT,
+            e
         );
     }
 
-    private void handleUnexpectedError(Exception e) throws ApiException {
-        System.err.println("Unexpected error occurred: " + e.getMessage());
-        e.printStackTrace();
+    private ApiException handleMalformedUrlError(MalformedURLException e) {
+        return new ApiException(
+            new ErrorDto("malformed_url", "La URL del WSDL es inválida o está mal formada: " + e.getMessage(), null),
+            HttpStatus.BAD_REQUEST,
+            e
+        );
+    }
 
-        throw new ApiException(
+    private ApiException handleUnexpectedError(Throwable e) {
+        return new ApiException(
             new ErrorDto("unexpected_error", "Unexpected error occurred", null),
-            HttpStatus.INTERNAL_SERVER_ERROR
+            HttpStatus.INTERNAL_SERVER_ERROR,
+            e
         );
     }
 
     /**
      * Devuelve TRUE si el modo de transporte requiere AsyncHTTPConduit.
      */
-    private Boolean resolveUseAsync(BaseApiRequest request) {
-        RequestOptions mergedOptions = mergeRequestOptions(request);
+    private Boolean resolveUseAsync(RequestOptions mergedOptions) {
         return mergedOptions.getHttpTransportMode() == HttpTransportMode.HTTP_HC5
             ? Boolean.TRUE
             : Boolean.FALSE;
@@ -185,13 +1607,12 @@ public class DefaultSoapRequestHandler implements SoapRequestHandler {
         return (mergedOptions.hasProxy() && mergedOptions.getProxyOptions().hasCredentials()) ? Boolean.TRUE : Boolean.FALSE;
     }
 
-    private void validateUnsupportedFeatures(BaseApiRequest request) throws ApiException {
+    private void validateUnsupportedFeatures(RequestOptions mergedOptions) throws ApiException {
         //validateProxyAuthSupport(request);
-        validateAuthenticatedProxyRequiresHttpHc5(request);
+        validateAuthenticatedProxyRequiresHttpHc5(mergedOptions);
     }
 
-    private void validateAuthenticatedProxyRequiresHttpHc5(BaseApiRequest request) throws MissingHttpTransportSupportException {
-        RequestOptions mergedOptions = mergeRequestOptions(request);
+    private void validateAuthenticatedProxyRequiresHttpHc5(RequestOptions mergedOptions) throws MissingHttpTransportSupportException {
         if (mergedOptions.hasProxy() && mergedOptions.getProxyOptions().hasCredentials()) {
             HttpTransportMode mode = mergedOptions.getHttpTransportMode();
             if (mode != HttpTransportMode.HTTP_HC5) throw new MissingHttpTransportSupportException();
@@ -204,27 +1625,27 @@ public class DefaultSoapRequestHandler implements SoapRequestHandler {
         if (mergedOptions.getProxyOptions() != null && mergedOptions.getProxyOptions().hasCredentials()) throw new UnsupportedProxyAuthException();
     }
 
-    private <T> T resolvePort(Class<T> portClass, String endpoint) {
+    private String resolveEndpointUrl(Class<?> portClass, String endpoint) {
         if (portClass.equals(ServiceSoap.class)) {
-            ServiceSoap port = new Service().getServiceSoap();
-            ((BindingProvider) port).getRequestContext()
-                .put(BindingProvider.ENDPOINT_ADDRESS_PROPERTY, endpoint + "/wsfev1/service.asmx");
-            return portClass.cast(port);
+            return endpoint + "/wsfev1/service.asmx";
         }
 
         if (portClass.equals(LoginCMS.class)) {
-            LoginCMS port = new LoginCMSService().getLoginCms();
-            ((BindingProvider) port).getRequestContext()
-                .put(BindingProvider.ENDPOINT_ADDRESS_PROPERTY, endpoint + "/ws/services/LoginCms");
-            return portClass.cast(port);
+            return endpoint + "/ws/services/LoginCms";
         }
 
         throw new IllegalArgumentException("Unsupported port class: " + portClass);
     }
 
-    private void resolveCxfClient(Object port, RequestOptions options) {
+    private void resolveCxfClient(Object port, Class<?> portClass, RequestOptions options, TimeoutOptions timeouts) {
         Client client = ClientProxy.getClient(port);
+        client.setExecutor(executor(portClass));
+        client.getRequestContext().put(AsyncHTTPConduit.USE_ASYNC, resolveUseAsync(options));
+
         HTTPConduit conduit = (HTTPConduit) client.getConduit();
+        if (tlsClientParameters != null) conduit.setTlsClientParameters(tlsClientParameters);
+        ConnectionPoolConfigurer.configurePolicy(conduit.getClient(), connectionPoolOptions);
+        applyTimeouts(conduit.getClient(), timeouts);
         ProxyOptions proxyOptions = options.getProxyOptions();
 
         if (options.hasProxy()) {
@@ -240,15 +1661,39 @@ public class DefaultSoapRequestHandler implements SoapRequestHandler {
         }
     }
 
-    private <T> T resolveConfiguredPort(BaseApiRequest request, Class<T> portClass) {
-        RequestOptions mergedOptions = mergeRequestOptions(request);;
+    /**
+     * Aplica los timeouts efectivos (acotados por el deadline) a la política del conduit.
+     */
+    private static void applyTimeouts(HTTPClientPolicy policy, TimeoutOptions timeouts) {
+        if (timeouts == null) return;
 
-        String endpoint = mergedOptions.getUrlBase() != null
-            ? mergedOptions.getUrlBase()
-            : resolveDefaultApiBase(portClass, mergedOptions.getApiEnvironment());
+        Duration connectTimeout = timeouts.getEffectiveConnectTimeout();
+        Duration receiveTimeout = timeouts.getEffectiveReceiveTimeout();
+        if (connectTimeout != null) policy.setConnectionTimeout(connectTimeout.toMillis());
+        if (receiveTimeout != null) policy.setReceiveTimeout(receiveTimeout.toMillis());
+    }
+
+    /**
+     * Los timeouts forman parte de la clave del pool: cada combinación distinta tiene sus propios
+     * ports, configurados una única vez, en lugar de modificar la política del conduit en cada llamada.
+     */
+    private PortKey resolvePortKey(Class<?> portClass, String endpoint, RequestOptions mergedOptions, String operationName) {
+        TimeoutOptions timeouts = TimeoutOptions.merge(mergedOptions.getTimeoutOptions(), timeoutPolicy.resolve(operationName));
+
+        return new PortKey(portClass, endpoint, mergedOptions.getHttpTransportMode(), mergedOptions.getProxyOptions(), timeouts);
+    }
 
-        T port = resolvePort(portClass, endpoint);
-        resolveCxfClient(port, mergedOptions);
+    private <T> T createConfiguredPort(PortKey key, RequestOptions mergedOptions) {
+        @SuppressWarnings("unchecked")
+        Class<T> portClass = (Class<T>) key.getPortClass();
+        String endpointUrl = resolveEndpointUrl(portClass, key.getEndpoint());
+
+        if (key.getHttpTransportMode() == HttpTransportMode.JDK_HTTP_CLIENT) {
+            return jdkSoapTransport.createPort(portClass, endpointUrl, key.getTimeoutOptions(), key.getProxyOptions());
+        }
+
+        T port = portFactory.create(portClass, endpointUrl);
+        resolveCxfClient(port, key.getPortClass(), mergedOptions, key.getTimeoutOptions());
         return port;
     }
 
@@ -258,6 +1703,84 @@ public class DefaultSoapRequestHandler implements SoapRequestHandler {
     }
 
     private RequestOptions mergeRequestOptions(BaseApiRequest request) {
-        return RequestOptions.merge(this.options, request != null ? request.getOptions() : null);
+        return RequestOptions.merge(this.options, requestOptions(request));
+    }
+
+    private static RequestOptions requestOptions(BaseApiRequest request) {
+        return request != null ? request.getOptions() : null;
+    }
+
+    /**
+     * Combina y valida las opciones de {@code request} con las del cliente una sola vez por
+     * configuración distinta.
+     * <p>
+     * Las solicitudes que solo traen datos de la llamada (CUIT, credenciales, deadline), como todas
+     * las de {@code WsfeService}, comparten la configuración del cliente. Las que la redefinen se
+     * memorizan solo por su configuración ({@link RequestOptions#configOnly()}): el CUIT, las
+     * credenciales, el deadline y el token no forman parte de la clave ni de {@link ResolvedOptions},
+     * así que llamadas de distintos CUIT o con deadlines propios comparten la misma entrada. Si el
+     * mapa llega a {@link #MAX_RESOLVED_OPTIONS} configuraciones se vacía y se vuelve a poblar con
+     * las que sigan en uso. Una configuración inválida no se memoriza y falla en cada llamada.
+     */
+    private ResolvedOptions resolveOptions(BaseApiRequest request) throws ApiException {
+        RequestOptions local = requestOptions(request);
+        if (local == null || !local.hasConfigOverrides()) {
+            ResolvedOptions resolved = clientResolvedOptions;
+            if (resolved == null) {
+                resolved = createResolvedOptions(null);
+                clientResolvedOptions = resolved;
+            }
+            return resolved;
+        }
+
+        RequestOptions config = local.configOnly();
+        ResolvedOptions resolved = resolvedOptions.get(config);
+        if (resolved != null) return resolved;
+        resolved = createResolvedOptions(config);
+        if (resolvedOptions.size() >= MAX_RESOLVED_OPTIONS) resolvedOptions.clear();
+        ResolvedOptions previous = resolvedOptions.putIfAbsent(config, resolved);
+        return previous != null ? previous : resolved;
+    }
+
+    /** Cantidad de configuraciones memorizadas. */
+    int resolvedOptionsCount() {
+        return resolvedOptions.size();
+    }
+
+    private ResolvedOptions createResolvedOptions(RequestOptions local) throws ApiException {
+        RequestOptions mergedOptions = RequestOptions.merge(this.options, local);
+        validateUnsupportedFeatures(mergedOptions);
+        return new ResolvedOptions(mergedOptions);
+    }
+
+    /**
+     * Endpoints de {@code portClass}: el de las opciones ({@code urlBase} o el del ambiente) y sus
+     * alternativas de {@link FailoverOptions}.
+     */
+    private EndpointRoute resolveRoute(Class<?> portClass, ResolvedOptions resolved) {
+        EndpointRoute route = resolved.getRoute(portClass);
+        if (route != null) return route;
+        RequestOptions mergedOptions = resolved.getOptions();
+        String endpoint = mergedOptions.getUrlBase() != null
+            ? mergedOptions.getUrlBase()
+            : resolveDefaultApiBase(portClass, mergedOptions.getApiEnvironment());
+        List<ResolvedOptions.Target> targets = new ArrayList<>();
+        targets.add(createTarget(portClass, endpoint));
+        for (String alternate : failoverOptions.alternatesFor(endpoint)) {
+            if (!alternate.equals(endpoint)) targets.add(createTarget(portClass, alternate));
+        }
+        return resolved.putRoute(portClass, new EndpointRoute(targets));
+    }
+
+    private ResolvedOptions.Target createTarget(Class<?> portClass, String endpoint) {
+        String endpointUrl = resolveEndpointUrl(portClass, endpoint);
+        EndpointHealth health = endpointHealth.computeIfAbsent(endpointUrl, url -> new EndpointHealth(url, failoverOptions));
+        return new ResolvedOptions.Target(endpoint, endpointUrl, health);
+    }
+
+    private PortKey resolvePortKey(Class<?> portClass, ResolvedOptions resolved, ResolvedOptions.Target target, String operationName) {
+        PortKey key = target.getPortKey(operationName);
+        if (key != null) return key;
+        return target.putPortKey(operationName, resolvePortKey(portClass, target.getEndpoint(), resolved.getOptions(), operationName));
     }
 }
@@ -0,0 +1,102 @@
+package com.germanfica.wsfe.net;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Caché de resoluciones DNS con el TTL de {@link DnsCacheOptions}.
+ * <p>
+ * Es el {@code DnsResolver} del pool de Apache HttpClient 5 (HTTP_HC5), así que cada conexión nueva
+ * de ese transporte la consulta y los contadores reflejan las resoluciones reales. Los transportes
+ * {@code java.net.http} y {@code HttpURLConnection} resuelven con la caché de {@link InetAddress} de
+ * la JVM, que Java 17 no permite reemplazar ni observar (ver
+ * {@link DnsCacheOptions#applyJvmDnsCacheTtl()}).
+ */
+public final class DnsCache {
+    private final DnsCacheOptions options;
+    private final Resolver resolver;
+    private final LongSupplier nanoClock;
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    DnsCache(DnsCacheOptions options) {
+        this(options, InetAddress::getAllByName, System::nanoTime);
+    }
+
+    DnsCache(DnsCacheOptions options, Resolver resolver, LongSupplier nanoClock) {
+        this.options = options;
+        this.resolver = resolver;
+        this.nanoClock = nanoClock;
+    }
+
+    /**
+     * Resoluciones servidas desde la caché.
+     */
+    public long getHits() {
+        return hits.sum();
+    }
+
+    /**
+     * Resoluciones que tuvieron que consultar al DNS.
+     */
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * Direcciones de {@code host}, desde la caché si no venció.
+     */
+    public InetAddress[] resolve(String host) throws UnknownHostException {
+        if (!options.isEnabled()) return resolver.resolve(host);
+
+        long now = nanoClock.getAsLong();
+        Entry entry = entries.get(host);
+        if (entry != null && now - entry.expiresAtNanos < 0) {
+            hits.increment();
+            return entry.get(host);
+        }
+        misses.increment();
+        try {
+            InetAddress[] addresses = resolver.resolve(host);
+            entries.put(host, new Entry(addresses, now + options.getTtl().toNanos()));
+            return addresses.clone();
+        } catch (UnknownHostException e) {
+            entries.put(host, new Entry(null, now + options.getNegativeTtl().toNanos()));
+            throw e;
+        }
+    }
+
+    /**
+     * Descarta las resoluciones guardadas; los contadores se conservan.
+     */
+    void clear() {
+        entries.clear();
+    }
+
+    /**
+     * Consulta real al DNS.
+     */
+    interface Resolver {
+        InetAddress[] resolve(String host) throws UnknownHostException;
+    }
+
+    private static final class Entry {
+        private final InetAddress[] addresses;
+        private final long expiresAtNanos;
+
+        private Entry(InetAddress[] addresses, long expiresAtNanos) {
+            this.addresses = addresses;
+            this.expiresAtNanos = expiresAtNanos;
+        }
+
+        private InetAddress[] get(String host) throws UnknownHostException {
+            if (addresses == null) throw new UnknownHostException(host);
+            return addresses.clone();
+        }
+    }
+}
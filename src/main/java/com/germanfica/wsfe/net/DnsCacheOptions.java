@@ -0,0 +1,49 @@
+package com.germanfica.wsfe.net;
+
+import lombok.Builder;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+
+import java.security.Security;
+import java.time.Duration;
+
+/**
+ * Tiempo durante el que se reutiliza la resolución DNS de los hosts de ARCA (ver {@link DnsCache}).
+ * <p>
+ * {@link #ttl} y {@link #negativeTtl} rigen la caché del SDK, que usa el transporte HTTP_HC5. Java 17
+ * no permite reemplazar el resolver de {@link java.net.InetAddress} (el SPI llegó en Java 18), así que
+ * los demás transportes usan la caché de la JVM, salvo que la aplicación opte por
+ * {@link #applyJvmDnsCacheTtl()}.
+ */
+@Getter
+@Builder(setterPrefix = "set")
+@EqualsAndHashCode(callSuper = false)
+public class DnsCacheOptions {
+    @Builder.Default
+    private final boolean enabled = true;
+    @Builder.Default
+    private final Duration ttl = Duration.ofSeconds(60);
+    @Builder.Default
+    private final Duration negativeTtl = Duration.ofSeconds(5);
+
+    public static DnsCacheOptions defaults() {
+        return DnsCacheOptions.builder().build();
+    }
+
+    public static DnsCacheOptions disabled() {
+        return DnsCacheOptions.builder().setEnabled(false).build();
+    }
+
+    /**
+     * Aplica {@link #ttl} a la caché de {@link java.net.InetAddress} con la propiedad de seguridad
+     * {@code networkaddress.cache.ttl}, para los transportes que no pasan por {@link DnsCache}. La
+     * propiedad es global a la JVM, se fija solo si no estaba definida y la JVM la lee en la primera
+     * resolución de nombres, así que este método debe llamarse al iniciar la aplicación. Los clientes
+     * del SDK nunca lo llaman por su cuenta.
+     */
+    public void applyJvmDnsCacheTtl() {
+        if (Security.getProperty("networkaddress.cache.ttl") == null) {
+            Security.setProperty("networkaddress.cache.ttl", Long.toString(ttl.getSeconds()));
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package com.germanfica.wsfe.net;
+
+import java.time.Duration;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+/**
+ * Latencia y exclusión temporal de un endpoint, compartidas por todas las llamadas del handler que
+ * lo usan (ver {@link FailoverOptions}).
+ */
+final class EndpointHealth {
+    /** Peso de cada muestra nueva en el promedio móvil de la latencia. */
+    private static final double ALPHA = 0.2;
+
+    private final String endpointUrl;
+    private final FailoverOptions options;
+    private final LongSupplier nanoClock;
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private double latencyNanos;
+    private long samples;
+    private int consecutiveFailures;
+    private long ejectedUntilNanos;
+    private boolean ejected;
+
+    EndpointHealth(String endpointUrl, FailoverOptions options) {
+        this(endpointUrl, options, System::nanoTime);
+    }
+
+    EndpointHealth(String endpointUrl, FailoverOptions options, LongSupplier nanoClock) {
+        this.endpointUrl = endpointUrl;
+        this.options = options;
+        this.nanoClock = nanoClock;
+    }
+
+    String getEndpointUrl() {
+        return endpointUrl;
+    }
+
+    void onSuccess(long latencyNanos) {
+        lock.lock();
+        try {
+            this.latencyNanos = samples == 0 ? latencyNanos : this.latencyNanos + ALPHA * (latencyNanos - this.latencyNanos);
+            samples++;
+            consecutiveFailures = 0;
+            ejected = false;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Registra como muestra el tiempo que llevaba una solicitud que perdió una carrera contra otro
+     * endpoint: su latencia fue al menos esa.
+     */
+    void onLost(long elapsedNanos) {
+        lock.lock();
+        try {
+            this.latencyNanos = samples == 0 ? elapsedNanos : this.latencyNanos + ALPHA * (elapsedNanos - this.latencyNanos);
+            samples++;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Excluye al endpoint por {@code ejectionDuration * 2^(fallas consecutivas - 1)}, acotado por
+     * {@code maxEjectionDuration}.
+     */
+    void onFailure() {
+        lock.lock();
+        try {
+            consecutiveFailures++;
+            long base = options.getEjectionDuration().toNanos();
+            long duration = consecutiveFailures > 20 ? Long.MAX_VALUE : base << Math.max(0, consecutiveFailures - 1);
+            if (duration < base) duration = Long.MAX_VALUE; // overflow
+            ejectedUntilNanos = nanoClock.getAsLong() + Math.min(duration, options.getMaxEjectionDuration().toNanos());
+            ejected = true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    boolean isAvailable(long nowNanos) {
+        lock.lock();
+        try {
+            return !ejected || nowNanos - ejectedUntilNanos >= 0;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Nanosegundos hasta que vuelve a estar disponible, o {@code 0}.
+     */
+    long ejectedForNanos(long nowNanos) {
+        lock.lock();
+        try {
+            return ejected ? Math.max(0, ejectedUntilNanos - nowNanos) : 0;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Latencia promedio en nanosegundos, o {@code -1} sin muestras.
+     */
+    double latencyNanos() {
+        lock.lock();
+        try {
+            return samples > 0 ? latencyNanos : -1;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    EndpointStatus status() {
+        lock.lock();
+        try {
+            long ejectedFor = ejected ? Math.max(0, ejectedUntilNanos - nanoClock.getAsLong()) : 0;
+            return new EndpointStatus(endpointUrl, samples > 0 ? Duration.ofNanos(Math.round(latencyNanos)) : null,
+                samples, consecutiveFailures, Duration.ofNanos(ejectedFor));
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.germanfica.wsfe.net;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Endpoints que atienden un servicio: el principal y sus alternativas de
+ * {@link FailoverOptions#getAlternates()}, en ese orden.
+ */
+final class EndpointRoute {
+    private final List<ResolvedOptions.Target> targets;
+
+    EndpointRoute(List<ResolvedOptions.Target> targets) {
+        this.targets = List.copyOf(targets);
+    }
+
+    ResolvedOptions.Target primary() {
+        return targets.get(0);
+    }
+
+    List<ResolvedOptions.Target> targets() {
+        return targets;
+    }
+
+    boolean hasAlternates() {
+        return targets.size() > 1;
+    }
+
+    /**
+     * Endpoints en orden de preferencia, sin {@code exclude}. Primero los disponibles, de menor a
+     * mayor latencia; uno sin muestras va después de los medidos, salvo el principal, que va primero
+     * hasta tener las suyas. Si {@code includeEjected} es {@code true} siguen los excluidos, empezando
+     * por el que vuelve antes.
+     */
+    List<ResolvedOptions.Target> candidates(ResolvedOptions.Target exclude, boolean includeEjected) {
+        if (!hasAlternates()) return exclude == null ? targets : List.of();
+
+        long now = System.nanoTime();
+        List<ResolvedOptions.Target> available = new ArrayList<>(targets.size());
+        List<Double> scores = new ArrayList<>(targets.size());
+        List<ResolvedOptions.Target> ejected = new ArrayList<>(targets.size());
+        List<Long> returns = new ArrayList<>(targets.size());
+        for (int i = 0; i < targets.size(); i++) {
+            ResolvedOptions.Target target = targets.get(i);
+            if (target == exclude) continue;
+            EndpointHealth health = target.getHealth();
+            if (health.isAvailable(now)) {
+                double latency = health.latencyNanos();
+                insert(available, scores, target, latency >= 0 ? latency : i == 0 ? 0 : Double.MAX_VALUE);
+            } else if (includeEjected) {
+                insert(ejected, returns, target, health.ejectedForNanos(now));
+            }
+        }
+        available.addAll(ejected);
+        return available;
+    }
+
+    /**
+     * Inserción estable: a igual puntaje se mantiene el orden de configuración.
+     */
+    private static <S extends Comparable<S>> void insert(List<ResolvedOptions.Target> list, List<S> scores,
+                                                         ResolvedOptions.Target target, S score) {
+        int i = scores.size();
+        while (i > 0 && scores.get(i - 1).compareTo(score) > 0) i--;
+        list.add(i, target);
+        scores.add(i, score);
+    }
+
+    List<EndpointStatus> status() {
+        List<EndpointStatus> status = new ArrayList<>(targets.size());
+        for (ResolvedOptions.Target target : targets) status.add(target.getHealth().status());
+        return status;
+    }
+}
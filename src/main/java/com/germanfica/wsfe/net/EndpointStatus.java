@@ -0,0 +1,37 @@
+package com.germanfica.wsfe.net;
+
+import lombok.Getter;
+
+import java.time.Duration;
+
+/**
+ * Estado de un endpoint según las llamadas recientes (ver {@link FailoverOptions}).
+ */
+@Getter
+public final class EndpointStatus {
+    private final String endpointUrl;
+    /** Latencia promedio (móvil exponencial) de las respuestas, o {@code null} sin muestras. */
+    private final Duration latency;
+    private final long samples;
+    private final int consecutiveFailures;
+    /** Tiempo que le queda fuera de la selección; {@link Duration#ZERO} si está disponible. */
+    private final Duration ejectedFor;
+
+    EndpointStatus(String endpointUrl, Duration latency, long samples, int consecutiveFailures, Duration ejectedFor) {
+        this.endpointUrl = endpointUrl;
+        this.latency = latency;
+        this.samples = samples;
+        this.consecutiveFailures = consecutiveFailures;
+        this.ejectedFor = ejectedFor;
+    }
+
+    public boolean isEjected() {
+        return !ejectedFor.isZero();
+    }
+
+    @Override
+    public String toString() {
+        return endpointUrl + " latency=" + (latency != null ? latency.toMillis() + "ms" : "-") + " samples=" + samples
+            + (isEjected() ? " ejected " + ejectedFor.toMillis() + "ms" : "");
+    }
+}
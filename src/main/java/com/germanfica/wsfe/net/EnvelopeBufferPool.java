@@ -0,0 +1,122 @@
+package com.germanfica.wsfe.net;
+
+import java.io.OutputStream;
+import java.net.http.HttpRequest;
+import java.nio.ByteBuffer;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pool de buffers directos para los envelopes de los transportes sin CXF; cada
+ * {@link JdkSoapTransport} tiene el suyo y lo vacía al cerrarse.
+ * <p>
+ * El request se serializa directamente sobre un {@link ByteBuffer} directo reutilizado y se publica
+ * sin copiarlo: el {@link java.net.http.HttpClient} escribe ese mismo buffer en el socket (o en el
+ * {@code SSLEngine}), sin pasar por un {@code byte[]} intermedio. El buffer vuelve al pool recién
+ * cuando termina el intercambio, porque hasta entonces el cliente puede seguir leyéndolo.
+ */
+final class EnvelopeBufferPool {
+    private static final int INITIAL_CAPACITY = 4 * 1024;
+    /** Los buffers que crecieron más que esto (lotes grandes de FECAESolicitar) no se retienen. */
+    private static final int MAX_RETAINED_CAPACITY = 64 * 1024;
+    private static final int MAX_POOLED = 256;
+
+    private final ConcurrentLinkedQueue<Buffer> pool = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pooled = new AtomicInteger();
+
+    Buffer acquire() {
+        Buffer buffer = pool.poll();
+        if (buffer == null) return new Buffer();
+        pooled.decrementAndGet();
+        return buffer;
+    }
+
+    /**
+     * Devuelve el buffer al pool. Solo debe llamarse cuando el request ya no puede volver a leerse;
+     * si no hay certeza (un intercambio cancelado), el buffer simplemente no se devuelve.
+     */
+    void release(Buffer buffer) {
+        if (buffer == null || buffer.capacity() > MAX_RETAINED_CAPACITY) return;
+        buffer.reset();
+        if (pooled.incrementAndGet() <= MAX_POOLED) {
+            pool.offer(buffer);
+        } else {
+            pooled.decrementAndGet();
+        }
+    }
+
+    /**
+     * Suelta los buffers retenidos; la memoria directa se libera cuando el GC los recolecta.
+     */
+    void clear() {
+        while (pool.poll() != null) {
+            pooled.decrementAndGet();
+        }
+    }
+
+    static final class Buffer extends OutputStream {
+        private ByteBuffer data = ByteBuffer.allocateDirect(INITIAL_CAPACITY);
+
+        private Buffer() {
+        }
+
+        int capacity() {
+            return data.capacity();
+        }
+
+        void reset() {
+            data.clear();
+        }
+
+        @Override
+        public void write(int b) {
+            ensureCapacity(1);
+            data.put((byte) b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            ensureCapacity(len);
+            data.put(b, off, len);
+        }
+
+        private void ensureCapacity(int extra) {
+            if (data.remaining() >= extra) return;
+            int capacity = Math.max(data.capacity() * 2, data.position() + extra);
+            ByteBuffer grown = ByteBuffer.allocateDirect(capacity);
+            data.flip();
+            grown.put(data);
+            data = grown;
+        }
+
+        /**
+         * Publica el contenido actual sin copiarlo. Cada suscripción (el cliente vuelve a suscribirse
+         * si reintenta el envío) recibe una vista propia del mismo buffer, que no debe modificarse
+         * mientras el request esté en curso.
+         */
+        HttpRequest.BodyPublisher publisher() {
+            ByteBuffer content = data.duplicate().flip();
+            return HttpRequest.BodyPublishers.fromPublisher(subscriber -> subscriber.onSubscribe(new Flow.Subscription() {
+                private final AtomicBoolean done = new AtomicBoolean();
+
+                @Override
+                public void request(long n) {
+                    if (!done.compareAndSet(false, true)) return;
+                    if (n <= 0) {
+                        subscriber.onError(new IllegalArgumentException("request(" + n + ")"));
+                        return;
+                    }
+                    subscriber.onNext(content.duplicate());
+                    subscriber.onComplete();
+                }
+
+                @Override
+                public void cancel() {
+                    done.set(true);
+                }
+            }), content.remaining());
+        }
+    }
+}
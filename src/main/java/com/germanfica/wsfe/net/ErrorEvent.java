@@ -0,0 +1,42 @@
+package com.germanfica.wsfe.net;
+
+import lombok.Getter;
+
+/**
+ * Error de una llamada SOAP entregado a un {@link ErrorListener}.
+ * <p>
+ * Conserva la excepción original en {@link #getCause()}; el texto de {@link #toString()} se arma
+ * recién cuando alguien lo pide.
+ */
+@Getter
+public final class ErrorEvent {
+    /** {@code fault_code} del {@code ErrorDto} de la {@code ApiException}. */
+    private final String code;
+    private final HttpStatus httpStatus;
+    /** Port del servicio llamado, o {@code null} si el error no es de una llamada a un servicio. */
+    private final Class<?> portClass;
+    private final String operationName;
+    private final Throwable cause;
+    /** Eventos del mismo código descartados por muestreo o límite desde el último entregado. */
+    private final long suppressed;
+
+    ErrorEvent(String code, HttpStatus httpStatus, Class<?> portClass, String operationName, Throwable cause, long suppressed) {
+        this.code = code;
+        this.httpStatus = httpStatus;
+        this.portClass = portClass;
+        this.operationName = operationName;
+        this.cause = cause;
+        this.suppressed = suppressed;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder(code);
+        if (portClass != null) sb.append(" en ").append(portClass.getSimpleName());
+        if (operationName != null) sb.append('.').append(operationName);
+        if (httpStatus != null) sb.append(" (").append(httpStatus.value()).append(')');
+        if (cause != null) sb.append(": ").append(cause);
+        if (suppressed > 0) sb.append(" [").append(suppressed).append(" eventos similares omitidos]");
+        return sb.toString();
+    }
+}
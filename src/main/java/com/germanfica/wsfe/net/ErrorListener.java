@@ -0,0 +1,22 @@
+package com.germanfica.wsfe.net;
+
+/**
+ * Recibe los errores de las llamadas SOAP de un cliente (ver {@link ErrorReportingOptions}).
+ * <p>
+ * Se invoca en el thread que completa la llamada, antes de que el error llegue a quien la hizo,
+ * por lo que no debe bloquear. Si lanza una excepción, se ignora.
+ */
+@FunctionalInterface
+public interface ErrorListener {
+
+    void onError(ErrorEvent event);
+
+    /**
+     * Listener que escribe cada evento en el {@link System.Logger} {@code com.germanfica.wsfe}:
+     * los errores inesperados y de autenticación como {@code ERROR} con su stack trace, y el resto
+     * como {@code WARNING}. El mensaje solo se arma si el nivel está habilitado.
+     */
+    static ErrorListener logging() {
+        return LoggingErrorListener.INSTANCE;
+    }
+}
@@ -0,0 +1,93 @@
+package com.germanfica.wsfe.net;
+
+import com.germanfica.wsfe.exception.ApiException;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Entrega los errores de un handler a su {@link ErrorListener} según las
+ * {@link ErrorReportingOptions}: muestrea y limita cada código por separado, de modo que un fault
+ * repetido no llegue miles de veces al listener y un error distinto no quede oculto detrás de él.
+ * <p>
+ * No toma locks: cada código tiene una ventana fija con contadores atómicos. En el cambio de
+ * ventana puede entregarse algún evento de más, lo que no afecta al propósito del límite.
+ */
+final class ErrorReporter {
+    /** Códigos con ventana propia; los faults de ARCA son un conjunto acotado, pero no confiamos en eso. */
+    private static final int MAX_CODES = 256;
+
+    private final ErrorListener listener;
+    private final double sampleRate;
+    private final int maxEvents;
+    private final long intervalNanos;
+    private final LongSupplier nanoClock;
+    private final Map<String, Window> windows = new ConcurrentHashMap<>();
+    private final Window overflow;
+
+    ErrorReporter(ErrorReportingOptions options) {
+        this(options, System::nanoTime);
+    }
+
+    ErrorReporter(ErrorReportingOptions options, LongSupplier nanoClock) {
+        boolean enabled = options.isEnabled() && options.getListener() != null;
+        this.listener = enabled ? options.getListener() : null;
+        this.sampleRate = options.getSampleRate();
+        this.maxEvents = options.getMaxEventsPerInterval();
+        this.intervalNanos = options.getInterval() != null ? options.getInterval().toNanos() : 0;
+        this.nanoClock = nanoClock;
+        this.overflow = new Window(nanoClock.getAsLong());
+    }
+
+    /**
+     * Informa {@code failure}, originada en {@code cause}, si el muestreo y el límite de su código
+     * lo permiten.
+     */
+    void report(ApiException failure, Throwable cause, Class<?> portClass, String operationName) {
+        if (listener == null) return;
+        String code = failure.getErrorDto().getFaultCode();
+        Window window = window(code != null ? code : "");
+        long now = nanoClock.getAsLong();
+        window.roll(now, intervalNanos);
+        if ((sampleRate < 1.0 && ThreadLocalRandom.current().nextDouble() >= sampleRate)
+            || (intervalNanos > 0 && window.count.incrementAndGet() > maxEvents)) {
+            window.suppressed.incrementAndGet();
+            return;
+        }
+        ErrorEvent event = new ErrorEvent(code, failure.getHttpStatus(), portClass, operationName, cause,
+            window.suppressed.getAndSet(0));
+        try {
+            listener.onError(event);
+        } catch (RuntimeException ignored) {
+        }
+    }
+
+    private Window window(String code) {
+        Window window = windows.get(code);
+        if (window != null) return window;
+        if (windows.size() >= MAX_CODES) return overflow;
+        return windows.computeIfAbsent(code, c -> new Window(nanoClock.getAsLong()));
+    }
+
+    private static final class Window {
+        private final AtomicLong start;
+        private final AtomicInteger count = new AtomicInteger();
+        private final AtomicLong suppressed = new AtomicLong();
+
+        private Window(long start) {
+            this.start = new AtomicLong(start);
+        }
+
+        /** Abre una ventana nueva si la actual ya venció; solo el thread que la abre reinicia la cuenta. */
+        private void roll(long now, long intervalNanos) {
+            long current = start.get();
+            if (intervalNanos > 0 && now - current >= intervalNanos && start.compareAndSet(current, now)) {
+                count.set(0);
+            }
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.germanfica.wsfe.net;
+
+import lombok.Builder;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+
+import java.time.Duration;
+
+/**
+ * Reporte de los errores de las llamadas SOAP a un {@link ErrorListener}.
+ * <p>
+ * Cada error traducido a {@code ApiException} genera un {@link ErrorEvent}. Durante una caída de
+ * ARCA el mismo fault se repite miles de veces, así que los eventos se muestrean con
+ * {@link #sampleRate} y de cada código se entregan como máximo {@link #maxEventsPerInterval} por
+ * {@link #interval}; el resto se descarta y se informa como {@link ErrorEvent#getSuppressed()} en el
+ * siguiente evento entregado del mismo código. Desactivado, los errores solo llegan a quien hizo la
+ * llamada.
+ */
+@Getter
+@Builder(setterPrefix = "set")
+@EqualsAndHashCode(callSuper = false)
+public class ErrorReportingOptions {
+    @Builder.Default
+    private final boolean enabled = true;
+    /** Por defecto, {@link ErrorListener#logging()}. */
+    @Builder.Default
+    private final ErrorListener listener = ErrorListener.logging();
+    /** Fracción de los eventos que se entrega, entre 0 y 1. */
+    @Builder.Default
+    private final double sampleRate = 1.0;
+    @Builder.Default
+    private final int maxEventsPerInterval = 10;
+    @Builder.Default
+    private final Duration interval = Duration.ofMinutes(1);
+
+    public static ErrorReportingOptions defaults() {
+        return ErrorReportingOptions.builder().build();
+    }
+
+    public static ErrorReportingOptions disabled() {
+        return ErrorReportingOptions.builder().setEnabled(false).build();
+    }
+}
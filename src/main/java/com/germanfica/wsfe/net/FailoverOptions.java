@@ -0,0 +1,79 @@
+package com.germanfica.wsfe.net;
+
+import lombok.Builder;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Endpoints alternativos de cada servicio y cómo se elige entre ellos.
+ * <p>
+ * {@link #alternates} asocia la URL base de un servicio (por ejemplo
+ * {@code https://servicios1.afip.gov.ar}, la de {@link ApiEnvironment#PROD} para WSFE) con otras URL
+ * base que atienden el mismo servicio: salidas por otro proxy o gateway, o un nombre que resuelve a
+ * otras direcciones. Cada llamada usa el endpoint disponible con menor latencia observada (promedio
+ * móvil exponencial); uno que todavía no tiene muestras solo se usa si el preferido falla o en una
+ * carrera. Sin alternativas configuradas el cliente se comporta como con un único endpoint.
+ * <p>
+ * Una falla transitoria (conexión rechazada, timeout, HTTP 503) deja al endpoint fuera de la
+ * selección durante {@link #ejectionDuration}, que se duplica con cada falla consecutiva hasta
+ * {@link #maxEjectionDuration}; el reintento va entonces a otro endpoint. Si todos están excluidos
+ * se usa el que vuelve antes.
+ * <p>
+ * Las operaciones {@link Idempotency#SAFE} compiten entre endpoints al estilo happy eyeballs: si el
+ * elegido no respondió al cabo del doble de su latencia habitual (y nunca antes de
+ * {@link #minRaceDelay}), o falla antes, la misma solicitud se envía al siguiente y gana la primera
+ * respuesta correcta. Con {@link #raceEnabled} en {@code false} solo hay failover entre intentos.
+ * <p>
+ * La unidad es la URL base, no la dirección IP: los transportes de Java 17 no dejan elegir la
+ * dirección de cada conexión, así que las direcciones de un mismo nombre comparten su estado y una
+ * exclusión las saca a todas.
+ * <p>
+ * Solo con {@link HttpTransportMode#HTTP_HC5} hay además estado por dirección IP: el pool conecta
+ * primero con las direcciones que respondieron más rápido, deja al final las que fallaron o no
+ * conectaron (con la misma exclusión de {@link #ejectionDuration}) y, si una conexión no se
+ * estableció al cabo de {@link #connectAttemptDelay}, abre otra con la siguiente dirección y usa la
+ * primera que conecte (RFC 8305). Una dirección que no responde cuesta así ese retardo y no el
+ * timeout de conexión.
+ */
+@Getter
+@Builder(setterPrefix = "set")
+@EqualsAndHashCode(callSuper = false)
+public class FailoverOptions {
+    @Builder.Default
+    private final boolean enabled = true;
+    /** URL base del servicio → URL base alternativas, en orden de preferencia. */
+    @Builder.Default
+    private final Map<String, List<String>> alternates = Map.of();
+    @Builder.Default
+    private final Duration ejectionDuration = Duration.ofSeconds(30);
+    @Builder.Default
+    private final Duration maxEjectionDuration = Duration.ofMinutes(5);
+    @Builder.Default
+    private final boolean raceEnabled = true;
+    @Builder.Default
+    private final Duration minRaceDelay = Duration.ofMillis(250);
+    /** Espera antes de intentar conectar con la siguiente dirección de un host (solo HTTP_HC5). */
+    @Builder.Default
+    private final Duration connectAttemptDelay = Duration.ofMillis(250);
+
+    public static FailoverOptions defaults() {
+        return FailoverOptions.builder().build();
+    }
+
+    public static FailoverOptions disabled() {
+        return FailoverOptions.builder().setEnabled(false).build();
+    }
+
+    /**
+     * Alternativas de {@code endpoint}, o una lista vacía si no hay o el failover está desactivado.
+     */
+    List<String> alternatesFor(String endpoint) {
+        if (!enabled || endpoint == null) return List.of();
+        List<String> urls = alternates.get(endpoint);
+        return urls != null ? urls : List.of();
+    }
+}
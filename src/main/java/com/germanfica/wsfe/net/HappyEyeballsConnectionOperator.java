@@ -0,0 +1,197 @@
+package com.germanfica.wsfe.net;
+
+import org.apache.hc.client5.http.nio.AsyncClientConnectionOperator;
+import org.apache.hc.client5.http.nio.ManagedAsyncClientConnection;
+import org.apache.hc.core5.concurrent.BasicFuture;
+import org.apache.hc.core5.concurrent.FutureCallback;
+import org.apache.hc.core5.http.HttpHost;
+import org.apache.hc.core5.http.protocol.HttpContext;
+import org.apache.hc.core5.io.CloseMode;
+import org.apache.hc.core5.net.NamedEndpoint;
+import org.apache.hc.core5.reactor.ConnectionInitiator;
+import org.apache.hc.core5.util.Timeout;
+
+import java.net.InetAddress;
+import java.net.SocketAddress;
+import java.net.UnknownHostException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+
+/**
+ * Conecta el pool de HTTP_HC5 con las direcciones de un host al estilo happy eyeballs (RFC 8305).
+ * <p>
+ * Las direcciones llegan ordenadas por el {@link SharedAsyncConduitFactory.CachingDnsResolver}. Se
+ * conecta con la primera; si no conectó al cabo de {@link FailoverOptions#getConnectAttemptDelay()},
+ * o falla antes, se conecta además con la siguiente, y así hasta agotarlas. Gana la primera conexión
+ * establecida (TCP y, si corresponde, TLS) y los intentos pendientes se cancelan. Cada resultado
+ * vuelve al resolver como muestra de la salud de esa dirección.
+ * <p>
+ * El {@code delegate} hace cada intento contra una sola dirección, fijada en el {@link HttpHost}; el
+ * nombre del host se conserva para SNI y la verificación del certificado.
+ */
+final class HappyEyeballsConnectionOperator implements AsyncClientConnectionOperator {
+    private final AsyncClientConnectionOperator delegate;
+    private final SharedAsyncConduitFactory.CachingDnsResolver resolver;
+    private final long attemptDelayNanos;
+    private final Timer timer;
+    private final LongSupplier nanoClock;
+
+    HappyEyeballsConnectionOperator(AsyncClientConnectionOperator delegate,
+                                    SharedAsyncConduitFactory.CachingDnsResolver resolver, Duration attemptDelay) {
+        this(delegate, resolver, attemptDelay,
+            (delayNanos, task) -> CompletableFuture.delayedExecutor(delayNanos, TimeUnit.NANOSECONDS).execute(task),
+            System::nanoTime);
+    }
+
+    HappyEyeballsConnectionOperator(AsyncClientConnectionOperator delegate,
+                                    SharedAsyncConduitFactory.CachingDnsResolver resolver, Duration attemptDelay,
+                                    Timer timer, LongSupplier nanoClock) {
+        this.delegate = delegate;
+        this.resolver = resolver;
+        this.attemptDelayNanos = attemptDelay.toNanos();
+        this.timer = timer;
+        this.nanoClock = nanoClock;
+    }
+
+    @Override
+    public Future<ManagedAsyncClientConnection> connect(ConnectionInitiator connectionInitiator, HttpHost host,
+                                                        SocketAddress localAddress, Timeout connectTimeout,
+                                                        Object attachment, FutureCallback<ManagedAsyncClientConnection> callback) {
+        return connect(connectionInitiator, host, null, localAddress, connectTimeout, attachment, null, callback);
+    }
+
+    @Override
+    public Future<ManagedAsyncClientConnection> connect(ConnectionInitiator connectionInitiator, HttpHost host,
+                                                        NamedEndpoint endpointName, SocketAddress localAddress,
+                                                        Timeout connectTimeout, Object attachment,
+                                                        HttpContext context, FutureCallback<ManagedAsyncClientConnection> callback) {
+        if (host.getAddress() != null) {
+            return delegate.connect(connectionInitiator, host, endpointName, localAddress, connectTimeout, attachment, context, callback);
+        }
+
+        InetAddress[] addresses;
+        try {
+            addresses = resolver.resolve(host.getHostName());
+        } catch (UnknownHostException e) {
+            BasicFuture<ManagedAsyncClientConnection> failed = new BasicFuture<>(callback);
+            failed.failed(e);
+            return failed;
+        }
+        Race race = new Race(addresses, callback, (address, attemptCallback) -> delegate.connect(connectionInitiator,
+            new HttpHost(host.getSchemeName(), address, host.getHostName(), host.getPort()),
+            endpointName != null ? endpointName : host, localAddress, connectTimeout, attachment, context, attemptCallback));
+        race.next();
+        return race;
+    }
+
+    @Override
+    public void upgrade(ManagedAsyncClientConnection conn, HttpHost host, Object attachment) {
+        delegate.upgrade(conn, host, attachment);
+    }
+
+    @Override
+    public void upgrade(ManagedAsyncClientConnection conn, HttpHost host, NamedEndpoint endpointName, Object attachment,
+                        HttpContext context, FutureCallback<ManagedAsyncClientConnection> callback) {
+        delegate.upgrade(conn, host, endpointName, attachment, context, callback);
+    }
+
+    /**
+     * Programa el intento con la siguiente dirección.
+     */
+    interface Timer {
+        void schedule(long delayNanos, Runnable task);
+    }
+
+    /**
+     * Conexión con una sola dirección.
+     */
+    private interface Attempt {
+        Future<ManagedAsyncClientConnection> connect(InetAddress address, FutureCallback<ManagedAsyncClientConnection> callback);
+    }
+
+    /**
+     * Intentos de conexión con las direcciones de un host. Termina con la primera conexión, o con la
+     * última falla si no conectó ninguna.
+     */
+    private final class Race extends BasicFuture<ManagedAsyncClientConnection> {
+        private final InetAddress[] addresses;
+        private final Attempt attempt;
+        private final AtomicInteger nextIndex = new AtomicInteger();
+        private final AtomicInteger pending = new AtomicInteger();
+        private final List<Future<ManagedAsyncClientConnection>> attempts = new CopyOnWriteArrayList<>();
+
+        private Race(InetAddress[] addresses, FutureCallback<ManagedAsyncClientConnection> callback, Attempt attempt) {
+            super(callback);
+            this.addresses = addresses;
+            this.attempt = attempt;
+        }
+
+        void next() {
+            if (isDone()) return;
+            int index = nextIndex.getAndIncrement();
+            if (index >= addresses.length) return;
+
+            InetAddress address = addresses[index];
+            long start = nanoClock.getAsLong();
+            AtomicBoolean settled = new AtomicBoolean();
+            pending.incrementAndGet();
+            Future<ManagedAsyncClientConnection> future = attempt.connect(address, new FutureCallback<>() {
+                @Override
+                public void completed(ManagedAsyncClientConnection connection) {
+                    settled.set(true);
+                    pending.decrementAndGet();
+                    resolver.onConnected(address, nanoClock.getAsLong() - start);
+                    if (Race.this.completed(connection)) {
+                        cancelAttempts();
+                    } else if (connection != null) {
+                        connection.close(CloseMode.IMMEDIATE);
+                    }
+                }
+
+                @Override
+                public void failed(Exception ex) {
+                    settled.set(true);
+                    resolver.onConnectFailed(address);
+                    int stillPending = pending.decrementAndGet();
+                    if (nextIndex.get() < addresses.length) {
+                        next();
+                    } else if (stillPending == 0) {
+                        Race.this.failed(ex);
+                    }
+                }
+
+                @Override
+                public void cancelled() {
+                    settled.set(true);
+                    pending.decrementAndGet();
+                    resolver.onLost(address, nanoClock.getAsLong() - start);
+                }
+            });
+            attempts.add(future);
+            if (isDone()) future.cancel(true);
+            if (index + 1 < addresses.length) {
+                timer.schedule(attemptDelayNanos, () -> {
+                    if (!settled.get()) next();
+                });
+            }
+        }
+
+        @Override
+        public boolean cancel(boolean mayInterruptIfRunning) {
+            boolean cancelled = super.cancel(mayInterruptIfRunning);
+            if (cancelled) cancelAttempts();
+            return cancelled;
+        }
+
+        private void cancelAttempts() {
+            attempts.forEach(future -> future.cancel(true));
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package com.germanfica.wsfe.net;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Aplica las {@link HedgingOptions} del cliente a las operaciones {@link Idempotency#SAFE} de su
+ * {@link RetryPolicy}.
+ * <p>
+ * Cada llamada elegible suma {@code maxHedgeRatio} fichas al presupuesto y cada hedge consume una,
+ * de modo que los hedges nunca superan esa fracción del tráfico aunque ARCA se ponga lenta para
+ * todas las llamadas a la vez.
+ */
+final class Hedger {
+    private static final long SCALE = 1000;
+
+    private final HedgingOptions options;
+    private final RetryPolicy retryPolicy;
+    private final Timer timer;
+    private final LongSupplier nanoClock;
+    private final Map<String, LatencyWindow> windows = new ConcurrentHashMap<>();
+    private final long depositPerCall;
+    private final long maxTokens;
+    private final AtomicLong tokens = new AtomicLong();
+
+    Hedger(HedgingOptions options, RetryPolicy retryPolicy, Executor executor) {
+        this(options, retryPolicy,
+            (delayNanos, task) -> CompletableFuture.delayedExecutor(delayNanos, TimeUnit.NANOSECONDS, executor).execute(task),
+            System::nanoTime);
+    }
+
+    Hedger(HedgingOptions options, RetryPolicy retryPolicy, Timer timer, LongSupplier nanoClock) {
+        this.options = options;
+        this.retryPolicy = retryPolicy;
+        this.timer = timer;
+        this.nanoClock = nanoClock;
+        this.depositPerCall = Math.round(Math.max(0.0, options.getMaxHedgeRatio()) * SCALE);
+        this.maxTokens = Math.max(1, options.getMaxBurst()) * SCALE;
+    }
+
+    /**
+     * Indica si {@code operationName} puede tener hedges.
+     */
+    boolean applies(String operationName) {
+        return options.isEnabled() && depositPerCall > 0 && operationName != null
+            && retryPolicy.idempotency(operationName) == Idempotency.SAFE;
+    }
+
+    /**
+     * Ejecuta {@code attempt} y, si no terminó al cabo de {@link #hedgeDelay}, lo vuelve a ejecutar
+     * siempre que el presupuesto y {@code mayHedge} lo permitan. El resultado es la primera respuesta
+     * correcta; la otra solicitud se cancela. Si fallan todas se informa la última falla.
+     */
+    <R> CompletableFuture<R> invoke(String operationName, Supplier<CompletableFuture<R>> attempt, BooleanSupplier mayHedge) {
+        LatencyWindow window = window(operationName);
+        tokens.accumulateAndGet(depositPerCall, (current, delta) -> Math.min(maxTokens, current + delta));
+
+        CompletableFuture<R> result = new CompletableFuture<>();
+        List<CompletableFuture<R>> attempts = new CopyOnWriteArrayList<>();
+        AtomicInteger pending = new AtomicInteger(1);
+        launch(attempt, window, attempts, pending, result);
+
+        Duration delay = hedgeDelay(window);
+        timer.schedule(delay.toNanos(), () -> {
+            if (result.isDone() || !tryConsumeToken()) return;
+            if (!mayHedge.getAsBoolean()) {
+                tokens.addAndGet(SCALE);
+                return;
+            }
+            pending.incrementAndGet();
+            launch(attempt, window, attempts, pending, result);
+        });
+
+        // La solicitud que pierde se cancela para liberar la conexión lo antes posible.
+        result.whenComplete((response, error) -> attempts.forEach(a -> a.cancel(true)));
+        return result;
+    }
+
+    private <R> void launch(Supplier<CompletableFuture<R>> attempt, LatencyWindow window, List<CompletableFuture<R>> attempts,
+                            AtomicInteger pending, CompletableFuture<R> result) {
+        long startNanos = nanoClock.getAsLong();
+        CompletableFuture<R> call = attempt.get();
+        attempts.add(call);
+        if (result.isDone()) call.cancel(true);
+
+        call.whenComplete((response, error) -> {
+            if (call.isCancelled()) return;
+            if (error == null) {
+                window.record(nanoClock.getAsLong() - startNanos);
+                result.complete(response);
+            } else if (pending.decrementAndGet() == 0) {
+                result.completeExceptionally(error);
+            }
+        });
+    }
+
+    /**
+     * Espera antes del hedge: el percentil observado de la operación, o {@code fallbackDelay}
+     * mientras no haya suficientes muestras, y nunca menos que {@code minDelay}.
+     */
+    Duration hedgeDelay(String operationName) {
+        return hedgeDelay(window(operationName));
+    }
+
+    private Duration hedgeDelay(LatencyWindow window) {
+        long observed = window.size() >= options.getMinSamples() ? window.percentileNanos() : -1;
+        Duration delay = observed >= 0 ? Duration.ofNanos(observed) : options.getFallbackDelay();
+        return delay.compareTo(options.getMinDelay()) < 0 ? options.getMinDelay() : delay;
+    }
+
+    private boolean tryConsumeToken() {
+        while (true) {
+            long current = tokens.get();
+            if (current < SCALE) return false;
+            if (tokens.compareAndSet(current, current - SCALE)) return true;
+        }
+    }
+
+    private LatencyWindow window(String operationName) {
+        return windows.computeIfAbsent(RateLimitPolicy.normalize(operationName),
+            name -> new LatencyWindow(options.getWindowSize(), options.getPercentile()));
+    }
+
+    /**
+     * Programa la tarea que lanza el hedge.
+     */
+    interface Timer {
+        void schedule(long delayNanos, Runnable task);
+    }
+}
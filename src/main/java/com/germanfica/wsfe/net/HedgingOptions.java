@@ -0,0 +1,47 @@
+package com.germanfica.wsfe.net;
+
+import lombok.Builder;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+
+import java.time.Duration;
+
+/**
+ * Ajustes del hedging de consultas: si una operación {@link Idempotency#SAFE} no respondió al cabo
+ * del percentil {@link #percentile} de su latencia reciente, se envía una segunda solicitud idéntica,
+ * se usa la primera respuesta y se cancela la otra.
+ * <p>
+ * Es opcional: los clientes usan {@link #disabled()} salvo que se configure. Hasta reunir
+ * {@link #minSamples} respuestas de la operación se espera {@link #fallbackDelay}, y la espera nunca
+ * baja de {@link #minDelay}. El presupuesto limita los hedges a {@link #maxHedgeRatio} de las
+ * llamadas que podrían tenerlos, con ráfagas de hasta {@link #maxBurst} hedges.
+ */
+@Getter
+@Builder(setterPrefix = "set")
+@EqualsAndHashCode(callSuper = false)
+public class HedgingOptions {
+    @Builder.Default
+    private final boolean enabled = true;
+    @Builder.Default
+    private final double percentile = 0.95;
+    @Builder.Default
+    private final Duration minDelay = Duration.ofMillis(50);
+    @Builder.Default
+    private final Duration fallbackDelay = Duration.ofSeconds(2);
+    @Builder.Default
+    private final int minSamples = 20;
+    @Builder.Default
+    private final int windowSize = 200;
+    @Builder.Default
+    private final double maxHedgeRatio = 0.1;
+    @Builder.Default
+    private final int maxBurst = 10;
+
+    public static HedgingOptions defaults() {
+        return HedgingOptions.builder().build();
+    }
+
+    public static HedgingOptions disabled() {
+        return HedgingOptions.builder().setEnabled(false).build();
+    }
+}
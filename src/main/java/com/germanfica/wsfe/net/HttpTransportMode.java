@@ -4,6 +4,7 @@ public enum HttpTransportMode {
     HTTP,        // Default HTTPConduit (HttpURLConnection)
     //HTTP_HC,   // HttpClient v4
     HTTP_HC5,    // HttpClient v5 (async, soporta proxy con auth RFC 7235)
+    JDK_HTTP_CLIENT, // java.net.http.HttpClient sin CXF (envelopes armados a mano, HTTP/2)
     //HTTP_NETTY,
     //HTTP_JETTY,
     //HTTP_UNDERTOW,
@@ -0,0 +1,18 @@
+package com.germanfica.wsfe.net;
+
+/**
+ * Clase de idempotencia de una operación, usada por {@link RetryPolicy} para decidir si un intento
+ * fallido puede repetirse.
+ */
+public enum Idempotency {
+    /** Consultas sin efectos (por ejemplo {@code FEParamGet*}): se reintentan sin más. */
+    SAFE,
+    /**
+     * Operaciones que autorizan o registran comprobantes ({@code FECAESolicitar},
+     * {@code FECAEARegInformativo}): solo se reintentan si un {@link RetryReconciler} confirma que el
+     * intento anterior no llegó a procesarse.
+     */
+    RECONCILE,
+    /** No se reintentan, salvo que el request no haya llegado a enviarse (conexión rechazada). */
+    NEVER
+}
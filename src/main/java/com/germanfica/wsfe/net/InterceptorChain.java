@@ -0,0 +1,35 @@
+package com.germanfica.wsfe.net;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+/**
+ * Un eslabón de la cadena de {@link SoapInterceptor}: {@link #proceed()} invoca al interceptor
+ * {@code index} con el eslabón siguiente, y el último llama a {@code terminal} (el handler).
+ */
+final class InterceptorChain implements SoapInterceptor.Chain {
+    private final SoapInterceptor[] interceptors;
+    private final int index;
+    private final SoapInvocation invocation;
+    private final Supplier<CompletableFuture<Object>> terminal;
+
+    InterceptorChain(SoapInterceptor[] interceptors, int index, SoapInvocation invocation, Supplier<CompletableFuture<Object>> terminal) {
+        this.interceptors = interceptors;
+        this.index = index;
+        this.invocation = invocation;
+        this.terminal = terminal;
+    }
+
+    @Override
+    public CompletableFuture<Object> proceed() {
+        if (index == interceptors.length) return terminal.get();
+        try {
+            CompletableFuture<Object> result = interceptors[index].intercept(invocation,
+                new InterceptorChain(interceptors, index + 1, invocation, terminal));
+            return result != null ? result
+                : CompletableFuture.failedFuture(new IllegalStateException(interceptors[index].getClass().getName() + " devolvió null"));
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package com.germanfica.wsfe.net;
+
+import jakarta.xml.ws.WebServiceException;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Port de {@link HttpTransportMode#JDK_HTTP_CLIENT}: implementa la interfaz generada (por ejemplo
+ * {@code ServiceSoap}) enviando cada operación como un POST SOAP 1.1 sobre {@link HttpClient}.
+ * <p>
+ * No hay cadena de interceptores: el envelope se arma y se lee con {@link SoapServiceModel}, y las
+ * respuestas son los mismos tipos JAXB generados que devuelve CXF.
+ */
+final class JdkSoapPort implements InvocationHandler {
+    private static final String CONTENT_TYPE = "text/xml; charset=UTF-8";
+
+    private final SoapServiceModel model;
+    private final HttpClient httpClient;
+    private final EnvelopeBufferPool buffers;
+    private final URI endpoint;
+    private final Duration receiveTimeout;
+    /** Deadline de la llamada en curso; el port está prestado en exclusiva mientras se usa. */
+    private volatile Deadline deadline;
+
+    JdkSoapPort(SoapServiceModel model, HttpClient httpClient, EnvelopeBufferPool buffers, URI endpoint, Duration receiveTimeout) {
+        this.model = model;
+        this.httpClient = httpClient;
+        this.buffers = buffers;
+        this.endpoint = endpoint;
+        this.receiveTimeout = receiveTimeout;
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        if (method.getDeclaringClass() == Object.class) return invokeObjectMethod(proxy, method, args);
+
+        SoapOperation operation = model.operation(method);
+        EnvelopeBufferPool.Buffer buffer = buffers.acquire();
+        boolean completed = false;
+        try {
+            HttpResponse<InputStream> response = httpClient.send(buildRequest(operation, args, buffer), HttpResponse.BodyHandlers.ofInputStream());
+            try (InputStream body = response.body()) {
+                completed = true;
+                return readResponse(operation, response.statusCode(), body);
+            }
+        } catch (IOException e) {
+            throw new WebServiceException(e.getMessage(), e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new WebServiceException("Llamada SOAP interrumpida", e);
+        } finally {
+            // Si el intercambio no terminó, el cliente todavía podría estar leyendo el buffer.
+            if (completed) buffers.release(buffer);
+        }
+    }
+
+    /**
+     * Envía la operación sin bloquear: la respuesta se lee cuando llega completa.
+     */
+    CompletableFuture<Object> invokeAsync(String operationName, Object[] args) {
+        SoapOperation operation = model.operation(operationName);
+        EnvelopeBufferPool.Buffer buffer = buffers.acquire();
+        CompletableFuture<HttpResponse<byte[]>> exchange;
+        try {
+            exchange = httpClient.sendAsync(buildRequest(operation, args, buffer), HttpResponse.BodyHandlers.ofByteArray());
+        } catch (RuntimeException e) {
+            buffers.release(buffer);
+            return CompletableFuture.failedFuture(e);
+        }
+        // Terminado el intercambio, con respuesta o con error, el cliente ya no lee el request. Si se
+        // canceló, el envío puede seguir en curso: el buffer se descarta en lugar de reutilizarse.
+        exchange.whenComplete((response, error) -> {
+            if (!exchange.isCancelled()) buffers.release(buffer);
+        });
+        CompletableFuture<Object> result = exchange.thenApply(response ->
+            readResponse(operation, response.statusCode(), new ByteArrayInputStream(response.body())));
+        // Cancelar el resultado aborta el intercambio.
+        result.whenComplete((response, error) -> {
+            if (result.isCancelled()) exchange.cancel(true);
+        });
+        return result;
+    }
+
+    /**
+     * Acota el timeout de las próximas solicitudes al tiempo restante de {@code deadline}
+     * ({@code null} para volver al configurado).
+     */
+    void setDeadline(Deadline deadline) {
+        this.deadline = deadline;
+    }
+
+    private HttpRequest buildRequest(SoapOperation operation, Object[] args, EnvelopeBufferPool.Buffer buffer) {
+        model.writeRequest(operation, args, buffer);
+        HttpRequest.Builder request = HttpRequest.newBuilder(endpoint)
+            .header("Content-Type", CONTENT_TYPE)
+            .header("SOAPAction", "\"" + operation.getSoapAction() + "\"")
+            .POST(buffer.publisher());
+        Duration timeout = deadline != null ? deadline.cap(receiveTimeout) : receiveTimeout;
+        if (timeout != null) request.timeout(timeout);
+        return request.build();
+    }
+
+    /**
+     * SOAP 1.1 responde los faults con HTTP 500, así que ese status también se parsea.
+     */
+    private Object readResponse(SoapOperation operation, int status, InputStream body) {
+        if (status != 200 && status != 500) {
+            throw new WebServiceException("HTTP " + status + " invocando " + endpoint);
+        }
+        return model.readResponse(operation, body);
+    }
+
+    private Object invokeObjectMethod(Object proxy, Method method, Object[] args) {
+        switch (method.getName()) {
+            case "equals":
+                return proxy == args[0];
+            case "hashCode":
+                return System.identityHashCode(proxy);
+            case "toString":
+                return "JdkSoapPort[" + endpoint + "]";
+            default:
+                throw new UnsupportedOperationException(method.getName());
+        }
+    }
+}
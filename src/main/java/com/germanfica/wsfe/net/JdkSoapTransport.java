@@ -0,0 +1,118 @@
+package com.germanfica.wsfe.net;
+
+import lombok.Value;
+
+import javax.net.ssl.SSLContext;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.net.InetSocketAddress;
+import java.net.ProxySelector;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+
+/**
+ * Transporte {@link HttpTransportMode#JDK_HTTP_CLIENT}. Con {@link ConnectionPoolOptions#getIoExecutor()}
+ * el {@link HttpClient} corre sobre un pool fijo de pocos threads, así que miles de llamadas en
+ * vuelo comparten su selector y esos threads en lugar de ocupar uno cada una.
+ * <p>
+ * Comparte un {@link HttpClient} (y con él su pool de conexiones y la multiplexación HTTP/2) entre
+ * todos los ports del handler que usan el mismo connect timeout y proxy, y que son del mismo
+ * servicio si {@link BulkheadOptions} los aísla; los ports son proxies dinámicos de la interfaz
+ * generada que delegan en {@link JdkSoapPort}.
+ */
+final class JdkSoapTransport {
+    private final Function<Class<?>, Executor> executors;
+    private final boolean perService;
+    private final ConnectionPoolOptions connectionPoolOptions;
+    private final SSLContext sslContext;
+    private final Map<ClientKey, HttpClient> clients = new ConcurrentHashMap<>();
+    private final EnvelopeBufferPool buffers = new EnvelopeBufferPool();
+
+    /**
+     * @param executors  executor de los {@link HttpClient} de cada servicio
+     * @param perService si cada servicio tiene sus propios {@link HttpClient} (ver {@link BulkheadOptions})
+     */
+    JdkSoapTransport(Function<Class<?>, Executor> executors, boolean perService, ConnectionPoolOptions connectionPoolOptions, SSLContext sslContext) {
+        this.executors = executors;
+        this.perService = perService;
+        this.connectionPoolOptions = connectionPoolOptions;
+        this.sslContext = sslContext;
+    }
+
+    <T> T createPort(Class<T> portClass, String endpointUrl, TimeoutOptions timeouts, ProxyOptions proxyOptions) {
+        Duration connectTimeout = timeouts != null ? timeouts.getEffectiveConnectTimeout() : null;
+        Duration receiveTimeout = timeouts != null ? timeouts.getEffectiveReceiveTimeout() : null;
+        HttpClient httpClient = clients.computeIfAbsent(new ClientKey(connectTimeout, proxyOptions, perService ? portClass : null),
+            clientKey -> createHttpClient(clientKey, executors.apply(portClass)));
+
+        JdkSoapPort handler = new JdkSoapPort(SoapServiceModel.of(portClass), httpClient, buffers, URI.create(endpointUrl), receiveTimeout);
+        return portClass.cast(Proxy.newProxyInstance(portClass.getClassLoader(), new Class<?>[]{portClass}, handler));
+    }
+
+    /**
+     * Libera los {@link HttpClient} y los buffers del transporte. En Java 21+ se cierran con {@code shutdownNow()},
+     * que corta también las llamadas que sigan en curso; en Java 17 no tienen cierre explícito y
+     * sus conexiones terminan por inactividad una vez que dejan de estar referenciados. El método
+     * se resuelve por reflexión porque el SDK se compila con target 17.
+     */
+    void close() {
+        for (HttpClient client : clients.values()) {
+            shutdownNow(client);
+        }
+        clients.clear();
+        buffers.clear();
+    }
+
+    private static void shutdownNow(HttpClient client) {
+        Method shutdownNow;
+        try {
+            shutdownNow = HttpClient.class.getMethod("shutdownNow");
+        } catch (NoSuchMethodException e) {
+            return;
+        }
+        try {
+            shutdownNow.invoke(client);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("No se pudo cerrar el HttpClient", e);
+        }
+    }
+
+    /**
+     * Devuelve el {@link JdkSoapPort} detrás de {@code port}, o {@code null} si el port no fue
+     * creado por este transporte (por ejemplo, un port de CXF).
+     */
+    static JdkSoapPort unwrap(Object port) {
+        if (port == null || !Proxy.isProxyClass(port.getClass())) return null;
+        InvocationHandler handler = Proxy.getInvocationHandler(port);
+        return handler instanceof JdkSoapPort ? (JdkSoapPort) handler : null;
+    }
+
+    private HttpClient createHttpClient(ClientKey key, Executor executor) {
+        boolean http2 = connectionPoolOptions == null || !Boolean.FALSE.equals(connectionPoolOptions.getHttp2Enabled());
+        HttpClient.Builder builder = HttpClient.newBuilder()
+            .version(http2 ? HttpClient.Version.HTTP_2 : HttpClient.Version.HTTP_1_1)
+            .followRedirects(HttpClient.Redirect.NEVER);
+
+        if (executor != null) builder.executor(executor);
+        if (sslContext != null) builder.sslContext(sslContext);
+        if (key.getConnectTimeout() != null) builder.connectTimeout(key.getConnectTimeout());
+        if (key.getProxyOptions() != null && key.getProxyOptions().isValid()) {
+            builder.proxy(ProxySelector.of(new InetSocketAddress(key.getProxyOptions().getHost(), key.getProxyOptions().getPort())));
+        }
+        return builder.build();
+    }
+
+    @Value
+    private static class ClientKey {
+        Duration connectTimeout;
+        ProxyOptions proxyOptions;
+        /** Servicio dueño del cliente, o {@code null} si los servicios comparten las conexiones. */
+        Class<?> service;
+    }
+}
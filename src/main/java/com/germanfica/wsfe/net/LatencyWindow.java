@@ -0,0 +1,49 @@
+package com.germanfica.wsfe.net;
+
+import java.util.Arrays;
+
+/**
+ * Últimas latencias de una operación, para estimar un percentil.
+ * <p>
+ * El percentil se recalcula cada {@value #RECOMPUTE_EVERY} muestras y se cachea, así leerlo en cada
+ * llamada no implica ordenar la ventana.
+ */
+final class LatencyWindow {
+    private static final int RECOMPUTE_EVERY = 16;
+
+    private final long[] samples;
+    private final double percentile;
+    private int next;
+    private int count;
+    private int sinceRecompute;
+    private volatile long cachedNanos = -1;
+
+    LatencyWindow(int size, double percentile) {
+        this.samples = new long[Math.max(1, size)];
+        this.percentile = Math.min(1.0, Math.max(0.0, percentile));
+    }
+
+    synchronized void record(long latencyNanos) {
+        samples[next] = latencyNanos;
+        next = (next + 1) % samples.length;
+        if (count < samples.length) count++;
+        if (++sinceRecompute >= RECOMPUTE_EVERY || cachedNanos < 0) {
+            sinceRecompute = 0;
+            long[] sorted = Arrays.copyOf(samples, count);
+            Arrays.sort(sorted);
+            int index = Math.max(0, (int) Math.ceil(percentile * count) - 1);
+            cachedNanos = sorted[Math.min(count - 1, index)];
+        }
+    }
+
+    synchronized int size() {
+        return count;
+    }
+
+    /**
+     * Percentil configurado de la ventana, o {@code -1} si todavía no hay muestras.
+     */
+    long percentileNanos() {
+        return cachedNanos;
+    }
+}
@@ -0,0 +1,25 @@
+package com.germanfica.wsfe.net;
+
+/**
+ * Implementación de {@link ErrorListener#logging()}.
+ */
+final class LoggingErrorListener implements ErrorListener {
+    static final LoggingErrorListener INSTANCE = new LoggingErrorListener();
+
+    private static final System.Logger LOGGER = System.getLogger("com.germanfica.wsfe");
+
+    private LoggingErrorListener() {
+    }
+
+    @Override
+    public void onError(ErrorEvent event) {
+        boolean severe = "unexpected_error".equals(event.getCode()) || "login_fault".equals(event.getCode());
+        System.Logger.Level level = severe ? System.Logger.Level.ERROR : System.Logger.Level.WARNING;
+        if (!LOGGER.isLoggable(level)) return;
+        if (severe) {
+            LOGGER.log(level, event.toString(), event.getCause());
+        } else {
+            LOGGER.log(level, event.toString());
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.germanfica.wsfe.net;
+
+import fev1.dif.afip.gov.ar.Service;
+import fev1.dif.afip.gov.ar.ServiceSoap;
+import https.wsaa_afip_gov_ar.ws.services.logincms.LoginCMS;
+import https.wsaa_afip_gov_ar.ws.services.logincms.LoginCMSService;
+import org.apache.cxf.Bus;
+import org.apache.cxf.jaxws.JaxWsProxyFactoryBean;
+
+import javax.xml.namespace.QName;
+import java.net.URL;
+
+/**
+ * Crea ports JAX-WS sobre un {@link Bus} explícito.
+ * <p>
+ * Con {@link WsdlMode#LOCAL} el modelo de servicio sale del WSDL empaquetado en el classpath, así
+ * que crear un port no descarga el WSDL de ARCA ni depende de la red.
+ */
+final class PortFactory {
+    static final String WSFE_WSDL_RESOURCE = "wsdl/wsfev1.wsdl";
+    static final String WSAA_WSDL_RESOURCE = "wsdl/LoginCms.wsdl";
+    /**
+     * WSDL de ARCA para {@link WsdlMode#REMOTE}. No se usa el {@code WSDL_LOCATION} generado porque,
+     * con los WSDL empaquetados, apunta al classpath.
+     */
+    static final String WSFE_REMOTE_WSDL = "https://servicios1.afip.gov.ar/wsfev1/service.asmx?wsdl";
+    static final String WSAA_REMOTE_WSDL = "https://wsaa.afip.gov.ar/ws/services/LoginCms?wsdl";
+
+    private final Bus bus;
+    private final WsdlMode wsdlMode;
+
+    PortFactory(Bus bus, WsdlMode wsdlMode) {
+        this.bus = bus;
+        this.wsdlMode = wsdlMode != null ? wsdlMode : WsdlMode.LOCAL;
+    }
+
+    <T> T create(Class<T> portClass, String address) {
+        if (portClass.equals(ServiceSoap.class)) {
+            return create(portClass, address, WSFE_REMOTE_WSDL, WSFE_WSDL_RESOURCE,
+                Service.SERVICE, Service.ServiceSoap);
+        }
+
+        if (portClass.equals(LoginCMS.class)) {
+            return create(portClass, address, WSAA_REMOTE_WSDL, WSAA_WSDL_RESOURCE,
+                LoginCMSService.SERVICE, LoginCMSService.LoginCms);
+        }
+
+        throw new IllegalArgumentException("Unsupported port class: " + portClass);
+    }
+
+    private <T> T create(Class<T> portClass, String address, String remoteWsdl, String wsdlResource,
+                         QName serviceName, QName endpointName) {
+        JaxWsProxyFactoryBean factory = new JaxWsProxyFactoryBean();
+        factory.setBus(bus);
+        factory.setServiceClass(portClass);
+        factory.setAddress(address);
+
+        factory.setWsdlURL(resolveWsdl(remoteWsdl, wsdlResource));
+        factory.setServiceName(serviceName);
+        factory.setEndpointName(endpointName);
+
+        return portClass.cast(factory.create());
+    }
+
+    private String resolveWsdl(String remoteWsdl, String wsdlResource) {
+        if (wsdlMode == WsdlMode.REMOTE) return remoteWsdl;
+        URL bundled = bundledWsdl(wsdlResource);
+        if (bundled == null) {
+            throw new IllegalStateException("Bundled WSDL not found on the classpath: " + wsdlResource);
+        }
+        return bundled.toExternalForm();
+    }
+
+    /**
+     * WSDL empaquetado en el classpath, o {@code null} si no está disponible.
+     */
+    static URL bundledWsdl(String wsdlResource) {
+        return PortFactory.class.getClassLoader().getResource(wsdlResource);
+    }
+}
@@ -0,0 +1,19 @@
+package com.germanfica.wsfe.net;
+
+import lombok.Value;
+
+/**
+ * Identifica un port JAX-WS ya configurado.
+ * <p>
+ * Dos invocaciones con el mismo {@code PortKey} pueden compartir (de a una por vez) el mismo
+ * port, porque todo lo que se aplica al port y a su conduit al crearlo depende únicamente de
+ * estos valores.
+ */
+@Value
+class PortKey {
+    Class<?> portClass;
+    String endpoint;
+    HttpTransportMode httpTransportMode;
+    ProxyOptions proxyOptions;
+    TimeoutOptions timeoutOptions;
+}
@@ -0,0 +1,64 @@
+package com.germanfica.wsfe.net;
+
+import jakarta.jws.WebMethod;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Métodos de la interfaz de un port por nombre de operación, para las llamadas síncronas que llegan
+ * con sus argumentos en lugar de un {@link PortInvoker}.
+ * <p>
+ * A diferencia de {@link SoapServiceModel}, no arma el contexto JAXB: los transportes de CXF
+ * serializan por su cuenta y solo hace falta el {@link Method}.
+ */
+final class PortMethods {
+    private static final Map<Class<?>, Map<String, Method>> METHODS = new ConcurrentHashMap<>();
+
+    private PortMethods() {
+    }
+
+    /**
+     * {@link PortInvoker} que llama a la operación {@code operationName} de {@code portClass} con
+     * {@code args}. El arreglo se lee al invocar, así que un cambio posterior de sus elementos se
+     * envía.
+     */
+    static <P, R> PortInvoker<P, R> invoker(Class<P> portClass, String operationName, Class<R> responseType, Object[] args) {
+        Method method = method(portClass, operationName);
+        return port -> {
+            try {
+                return responseType.cast(method.invoke(port, args));
+            } catch (InvocationTargetException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof Exception) throw (Exception) cause;
+                if (cause instanceof Error) throw (Error) cause;
+                throw e;
+            }
+        };
+    }
+
+    /**
+     * Busca el método por el nombre de la operación en el WSDL ({@link WebMethod#operationName()})
+     * o por el nombre del método de la interfaz.
+     */
+    static Method method(Class<?> portClass, String operationName) {
+        Method method = METHODS.computeIfAbsent(portClass, PortMethods::index).get(operationName);
+        if (method == null) throw new IllegalArgumentException("Unknown operation: " + operationName);
+        return method;
+    }
+
+    private static Map<String, Method> index(Class<?> portClass) {
+        Map<String, Method> byName = new HashMap<>();
+        for (Method method : portClass.getMethods()) {
+            if (method.getDeclaringClass() == Object.class || Modifier.isStatic(method.getModifiers())) continue;
+            WebMethod webMethod = method.getAnnotation(WebMethod.class);
+            byName.put(webMethod != null && !webMethod.operationName().isEmpty() ? webMethod.operationName() : method.getName(), method);
+            byName.putIfAbsent(method.getName(), method);
+        }
+        return Map.copyOf(byName);
+    }
+}
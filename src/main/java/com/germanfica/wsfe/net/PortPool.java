@@ -0,0 +1,96 @@
+package com.germanfica.wsfe.net;
+
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Pool de ports JAX-WS agrupados por {@link PortKey}.
+ * <p>
+ * Crear un port ({@code new Service().getServiceSoap()}) reconstruye el modelo del servicio y el
+ * conduit, lo que es mucho más caro que la llamada SOAP en sí. Este pool conserva los ports ya
+ * configurados para reutilizarlos.
+ * <p>
+ * Un port prestado con {@link #borrow} pertenece en exclusiva al thread que lo pidió hasta que lo
+ * devuelve con {@link #release}, así que su request context puede modificarse sin sincronización.
+ * El pool en sí es lock-free y seguro para uso concurrente.
+ */
+final class PortPool {
+    static final int DEFAULT_MAX_IDLE_PER_KEY = 64;
+
+    private final ConcurrentMap<PortKey, Slot> slots = new ConcurrentHashMap<>();
+    private final int maxIdlePerKey;
+    private volatile boolean closed;
+
+    PortPool() {
+        this(DEFAULT_MAX_IDLE_PER_KEY);
+    }
+
+    PortPool(int maxIdlePerKey) {
+        this.maxIdlePerKey = maxIdlePerKey;
+    }
+
+    /**
+     * Devuelve un port libre para {@code key} o crea uno nuevo con {@code factory} si no hay ninguno.
+     */
+    <P> P borrow(PortKey key, Supplier<P> factory) {
+        Slot slot = slots.get(key);
+        if (slot != null) {
+            Object port = slot.idle.pollFirst();
+            if (port != null) {
+                slot.size.decrementAndGet();
+                @SuppressWarnings("unchecked")
+                P typed = (P) port;
+                return typed;
+            }
+        }
+        return factory.get();
+    }
+
+    /**
+     * Devuelve un port al pool. Si ya hay {@code maxIdlePerKey} ports libres para la misma clave,
+     * el port se descarta.
+     */
+    void release(PortKey key, Object port) {
+        if (closed) return;
+        Slot slot = slots.computeIfAbsent(key, k -> new Slot());
+        if (slot.size.incrementAndGet() > maxIdlePerKey) {
+            slot.size.decrementAndGet();
+            return;
+        }
+        slot.idle.offerFirst(port); // LIFO: el port más reciente tiene el conduit más "caliente"
+    }
+
+    /**
+     * Cierra el pool y devuelve los ports libres para que el llamador los destruya. Los ports que
+     * se devuelvan después con {@link #release} se descartan.
+     */
+    List<Object> close() {
+        closed = true;
+        List<Object> ports = new ArrayList<>();
+        for (Slot slot : slots.values()) {
+            for (Object port; (port = slot.idle.pollFirst()) != null; ) {
+                slot.size.decrementAndGet();
+                ports.add(port);
+            }
+        }
+        slots.clear();
+        return ports;
+    }
+
+    /** Cantidad de ports libres para {@code key}. */
+    int idleCount(PortKey key) {
+        Slot slot = slots.get(key);
+        return slot != null ? slot.size.get() : 0;
+    }
+
+    private static final class Slot {
+        private final Deque<Object> idle = new ConcurrentLinkedDeque<>();
+        private final AtomicInteger size = new AtomicInteger();
+    }
+}
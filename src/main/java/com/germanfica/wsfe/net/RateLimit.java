@@ -0,0 +1,49 @@
+package com.germanfica.wsfe.net;
+
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+
+import java.time.Duration;
+
+/**
+ * Límite de frecuencia de un balde de fichas: {@code permits} llamadas cada {@code period}, con
+ * ráfagas de hasta {@code burst} llamadas seguidas.
+ *
+ * <pre>{@code
+ * RateLimit.of(10, Duration.ofSeconds(1), 20); // 10 por segundo, ráfagas de 20
+ * }</pre>
+ */
+@Getter
+@EqualsAndHashCode
+public final class RateLimit {
+    private final int permits;
+    private final Duration period;
+    private final int burst;
+
+    private RateLimit(int permits, Duration period, int burst) {
+        if (permits <= 0) throw new IllegalArgumentException("permits must be positive");
+        if (period == null || period.isZero() || period.isNegative()) throw new IllegalArgumentException("Invalid period specified!");
+        if (burst <= 0) throw new IllegalArgumentException("burst must be positive");
+        this.permits = permits;
+        this.period = period;
+        this.burst = burst;
+    }
+
+    public static RateLimit of(int permits, Duration period, int burst) {
+        return new RateLimit(permits, period, burst);
+    }
+
+    /**
+     * {@code permits} llamadas por segundo, con ráfagas del mismo tamaño.
+     */
+    public static RateLimit perSecond(int permits) {
+        return of(permits, Duration.ofSeconds(1), permits);
+    }
+
+    /**
+     * Intervalo entre fichas, en nanosegundos.
+     */
+    long intervalNanos() {
+        return Math.max(1, period.toNanos() / permits);
+    }
+}
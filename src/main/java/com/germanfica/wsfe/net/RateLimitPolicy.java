@@ -0,0 +1,176 @@
+package com.germanfica.wsfe.net;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Límites de frecuencia del cliente, para no superar las cuotas de ARCA por contribuyente.
+ * <p>
+ * Cada CUIT tiene su propio balde para el total de sus llamadas ({@link #getPerCuit()}) y uno por
+ * operación ({@link #limitFor(String)}). Los límites por operación se resuelven por nombre igual que
+ * en {@link TimeoutPolicy} (nombre exacto o prefijo terminado en {@code *}, sin distinguir
+ * mayúsculas). Las llamadas sin CUIT conocido comparten un mismo balde.
+ * <p>
+ * Con {@link Mode#BLOCK} la llamada espera su ficha hasta {@link #getMaxWait()}; con
+ * {@link Mode#TRY} falla enseguida. En ambos casos el rechazo es una
+ * {@link com.germanfica.wsfe.exception.RateLimitExceededException}.
+ *
+ * <pre>{@code
+ * RateLimitPolicy policy = RateLimitPolicy.builder()
+ *     .setPerCuit(RateLimit.perSecond(20))
+ *     .setOperation("FECAESolicitar", RateLimit.of(5, Duration.ofSeconds(1), 10))
+ *     .setOperation("loginCms", RateLimit.of(1, Duration.ofMinutes(1), 2))
+ *     .build();
+ * }</pre>
+ */
+@Getter
+public class RateLimitPolicy {
+    public enum Mode {
+        /** Espera una ficha hasta {@code maxWait}. */
+        BLOCK,
+        /** Falla enseguida si no hay fichas. */
+        TRY
+    }
+
+    private final RateLimit perCuit;
+    private final RateLimit defaultOperationLimit;
+    private final Map<String, RateLimit> operationLimits;
+    private final Mode mode;
+    private final Duration maxWait;
+
+    @Getter(AccessLevel.NONE)
+    private final Map<String, Optional<RateLimit>> resolved = new ConcurrentHashMap<>();
+
+    private RateLimitPolicy(RateLimitPolicyBuilder builder) {
+        this.perCuit = builder.perCuit;
+        this.defaultOperationLimit = builder.defaultOperationLimit;
+        this.operationLimits = Collections.unmodifiableMap(new LinkedHashMap<>(builder.operationLimits));
+        this.mode = builder.mode;
+        this.maxWait = builder.maxWait;
+    }
+
+    /**
+     * Sin límites: ARCA no publica sus cuotas, así que cada aplicación define las suyas.
+     */
+    public static RateLimitPolicy defaults() {
+        return builder().build();
+    }
+
+    /**
+     * Indica si hay algún límite configurado.
+     */
+    public boolean isEnabled() {
+        return perCuit != null || defaultOperationLimit != null || !operationLimits.isEmpty();
+    }
+
+    /**
+     * Límite de {@code operationName} para cada CUIT, o {@code null} si no tiene.
+     */
+    public RateLimit limitFor(String operationName) {
+        if (operationName == null) return defaultOperationLimit;
+        return resolved.computeIfAbsent(normalize(operationName), name -> Optional.ofNullable(lookup(name))).orElse(null);
+    }
+
+    private RateLimit lookup(String operationName) {
+        RateLimit match = operationLimits.get(operationName);
+        if (match != null) return match;
+
+        int longestPrefix = -1;
+        for (Map.Entry<String, RateLimit> entry : operationLimits.entrySet()) {
+            String key = entry.getKey();
+            if (!key.endsWith("*")) continue;
+            String prefix = key.substring(0, key.length() - 1);
+            if (operationName.startsWith(prefix) && prefix.length() > longestPrefix) {
+                longestPrefix = prefix.length();
+                match = entry.getValue();
+            }
+        }
+        return match != null ? match : defaultOperationLimit;
+    }
+
+    static String normalize(String operationName) {
+        return operationName.toLowerCase(Locale.ROOT);
+    }
+
+    public static RateLimitPolicyBuilder builder() {
+        return new RateLimitPolicyBuilder();
+    }
+
+    public RateLimitPolicyBuilder toBuilder() {
+        RateLimitPolicyBuilder builder = new RateLimitPolicyBuilder()
+            .setPerCuit(perCuit)
+            .setDefaultOperationLimit(defaultOperationLimit)
+            .setMode(mode)
+            .setMaxWait(maxWait);
+        builder.operationLimits.putAll(operationLimits);
+        return builder;
+    }
+
+    public static class RateLimitPolicyBuilder {
+        private RateLimit perCuit;
+        private RateLimit defaultOperationLimit;
+        private final Map<String, RateLimit> operationLimits = new LinkedHashMap<>();
+        private Mode mode = Mode.BLOCK;
+        private Duration maxWait = Duration.ofSeconds(5);
+
+        /**
+         * Límite del total de llamadas de cada CUIT, sumando todas las operaciones.
+         */
+        public RateLimitPolicyBuilder setPerCuit(RateLimit perCuit) {
+            this.perCuit = perCuit;
+            return this;
+        }
+
+        /**
+         * Límite por CUIT de las operaciones sin uno propio.
+         */
+        public RateLimitPolicyBuilder setDefaultOperationLimit(RateLimit defaultOperationLimit) {
+            this.defaultOperationLimit = defaultOperationLimit;
+            return this;
+        }
+
+        /**
+         * Define el límite por CUIT de una operación. {@code operationName} puede terminar en
+         * {@code *} para aplicar a todas las operaciones con ese prefijo.
+         */
+        public RateLimitPolicyBuilder setOperation(String operationName, RateLimit limit) {
+            if (operationName == null || operationName.isBlank()) {
+                throw new IllegalArgumentException("Empty operation name specified!");
+            }
+            if (limit == null) {
+                operationLimits.remove(normalize(operationName));
+            } else {
+                operationLimits.put(normalize(operationName), limit);
+            }
+            return this;
+        }
+
+        public RateLimitPolicyBuilder setMode(Mode mode) {
+            this.mode = mode != null ? mode : Mode.BLOCK;
+            return this;
+        }
+
+        /**
+         * Espera máxima por una ficha en {@link Mode#BLOCK}.
+         */
+        public RateLimitPolicyBuilder setMaxWait(Duration maxWait) {
+            if (maxWait == null || maxWait.isNegative()) {
+                throw new IllegalArgumentException("Invalid max wait specified!");
+            }
+            this.maxWait = maxWait;
+            return this;
+        }
+
+        public RateLimitPolicy build() {
+            return new RateLimitPolicy(this);
+        }
+    }
+}
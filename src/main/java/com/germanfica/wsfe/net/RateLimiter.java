@@ -0,0 +1,171 @@
+package com.germanfica.wsfe.net;
+
+import com.germanfica.wsfe.exception.ApiException;
+import com.germanfica.wsfe.exception.DeadlineExceededException;
+import com.germanfica.wsfe.exception.RateLimitExceededException;
+import com.germanfica.wsfe.exception.RequestCancelledException;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.LongSupplier;
+
+/**
+ * Aplica la {@link RateLimitPolicy} del cliente con un {@link TokenBucket} por CUIT y uno por CUIT
+ * y operación. Los baldes se crean a demanda y se reservan sin locks, de modo que un proceso con
+ * muchos contribuyentes no serializa sus llamadas. Como mucho una vez por minuto, una reserva
+ * descarta los baldes que llevan lleno un período de recarga completo: uno nuevo arrancaría igual
+ * de lleno, así que el mapa no crece con cada CUIT que alguna vez pasó por el cliente.
+ * <p>
+ * El handler toma una ficha antes de cada intento. La aplicación puede usar {@link #tryAcquire} o
+ * {@link #acquire} para respetar los mismos límites en su propio código (por ejemplo, para decidir
+ * si encolar un lote).
+ */
+public final class RateLimiter {
+    private static final String UNKNOWN_CUIT = "-";
+    private static final long SWEEP_INTERVAL_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+    private final RateLimitPolicy policy;
+    private final LongSupplier nanoClock;
+    private final Map<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+    private final AtomicLong nextSweepAt;
+
+    RateLimiter(RateLimitPolicy policy) {
+        this(policy, System::nanoTime);
+    }
+
+    /**
+     * {@code nanoClock} solo mide el estado de los baldes; las esperas siempre son reales.
+     */
+    RateLimiter(RateLimitPolicy policy, LongSupplier nanoClock) {
+        this.policy = policy;
+        this.nanoClock = nanoClock;
+        this.nextSweepAt = new AtomicLong(nanoClock.getAsLong() + SWEEP_INTERVAL_NANOS);
+    }
+
+    public RateLimitPolicy getPolicy() {
+        return policy;
+    }
+
+    /**
+     * Toma una ficha si hay una disponible, sin esperar.
+     */
+    public boolean tryAcquire(Long cuit, String operationName) {
+        return reserve(cuit, operationName, 0) == 0;
+    }
+
+    /**
+     * Toma una ficha según el modo de la política: en {@link RateLimitPolicy.Mode#BLOCK} espera
+     * hasta {@code maxWait}, en {@link RateLimitPolicy.Mode#TRY} falla enseguida.
+     *
+     * @throws RateLimitExceededException si no hay ficha dentro de la espera permitida.
+     */
+    public void acquire(Long cuit, String operationName) throws ApiException {
+        acquire(cuit, operationName, null, null);
+    }
+
+    /**
+     * Igual que {@link #acquire(Long, String)}, pero la espera no pasa de {@code deadline} (falla con
+     * {@link DeadlineExceededException}) y se corta al cancelar {@code cancellationToken}.
+     */
+    void acquire(Long cuit, String operationName, Deadline deadline, CancellationToken cancellationToken) throws ApiException {
+        long maxWaitNanos = maxWaitNanos(deadline);
+        long waitNanos = reserve(cuit, operationName, maxWaitNanos);
+        if (waitNanos < 0) throw rejection(cuit, operationName, deadline);
+        if (waitNanos == 0) return;
+
+        Thread caller = Thread.currentThread();
+        long until = System.nanoTime() + waitNanos;
+        try (CancellationToken.Registration ignored = cancellationToken != null
+            ? cancellationToken.onCancel(() -> LockSupport.unpark(caller))
+            : () -> { }) {
+            for (long remaining = waitNanos; remaining > 0; remaining = until - System.nanoTime()) {
+                LockSupport.parkNanos(remaining);
+                if (cancellationToken != null && cancellationToken.isCancelled()) throw new RequestCancelledException();
+                if (caller.isInterrupted()) throw new RateLimitExceededException(describe(cuit, operationName));
+            }
+        }
+    }
+
+    /**
+     * Igual que {@link #acquire}, pero la espera se programa en {@code executor} sin ocupar un thread.
+     */
+    CompletableFuture<Void> acquireAsync(Long cuit, String operationName, Deadline deadline, Executor executor) {
+        long waitNanos = reserve(cuit, operationName, maxWaitNanos(deadline));
+        if (waitNanos < 0) return CompletableFuture.failedFuture(rejection(cuit, operationName, deadline));
+        if (waitNanos == 0) return CompletableFuture.completedFuture(null);
+        return CompletableFuture.runAsync(() -> { }, CompletableFuture.delayedExecutor(waitNanos, TimeUnit.NANOSECONDS, executor));
+    }
+
+    private long maxWaitNanos(Deadline deadline) {
+        long maxWaitNanos = policy.getMode() == RateLimitPolicy.Mode.TRY ? 0 : policy.getMaxWait().toNanos();
+        return deadline != null ? Math.max(0, Math.min(maxWaitNanos, deadline.remainingNanos())) : maxWaitNanos;
+    }
+
+    /**
+     * Si la espera no alcanzó por el deadline de la solicitud y no por la política, se informa el deadline.
+     */
+    private ApiException rejection(Long cuit, String operationName, Deadline deadline) {
+        boolean cutByDeadline = deadline != null && policy.getMode() == RateLimitPolicy.Mode.BLOCK
+            && deadline.remainingNanos() < policy.getMaxWait().toNanos();
+        return cutByDeadline ? new DeadlineExceededException() : new RateLimitExceededException(describe(cuit, operationName));
+    }
+
+    /**
+     * Reserva una ficha del balde del CUIT y otra del de la operación. Si la segunda no alcanza se
+     * devuelve la primera.
+     *
+     * @return la espera en nanosegundos o {@code -1} si supera {@code maxWaitNanos}.
+     */
+    private long reserve(Long cuit, String operationName, long maxWaitNanos) {
+        if (!policy.isEnabled()) return 0;
+
+        long now = nanoClock.getAsLong();
+        sweepIfDue(now);
+        String cuitKey = cuit != null ? cuit.toString() : UNKNOWN_CUIT;
+        long waitNanos = 0;
+
+        TokenBucket cuitBucket = null;
+        if (policy.getPerCuit() != null) {
+            cuitBucket = buckets.computeIfAbsent(cuitKey, k -> new TokenBucket(policy.getPerCuit(), now));
+            waitNanos = cuitBucket.reserve(now, maxWaitNanos);
+            if (waitNanos < 0) return -1;
+        }
+
+        RateLimit operationLimit = policy.limitFor(operationName);
+        if (operationLimit != null) {
+            String operationKey = cuitKey + '/' + (operationName != null ? RateLimitPolicy.normalize(operationName) : "*");
+            long operationWait = buckets.computeIfAbsent(operationKey, k -> new TokenBucket(operationLimit, now)).reserve(now, maxWaitNanos);
+            if (operationWait < 0) {
+                if (cuitBucket != null) cuitBucket.refund();
+                return -1;
+            }
+            waitNanos = Math.max(waitNanos, operationWait);
+        }
+        return waitNanos;
+    }
+
+    /**
+     * Descarta los baldes ociosos si pasó el intervalo de barrido; solo barre el llamador que gana
+     * el compare-and-set. Un llamador que ya tenía el balde descartado puede reservar en él una
+     * última ficha que el balde nuevo no ve; como estaba lleno, el exceso no pasa de esa ficha.
+     */
+    private void sweepIfDue(long now) {
+        long due = nextSweepAt.get();
+        if (now - due < 0 || !nextSweepAt.compareAndSet(due, now + SWEEP_INTERVAL_NANOS)) return;
+        buckets.entrySet().removeIf(entry -> entry.getValue().isIdle(now));
+    }
+
+    /** Cantidad de baldes vivos. */
+    int bucketCount() {
+        return buckets.size();
+    }
+
+    private static String describe(Long cuit, String operationName) {
+        return (operationName != null ? operationName : "la operación") + (cuit != null ? " (CUIT " + cuit + ")" : "");
+    }
+}
@@ -0,0 +1,62 @@
+package com.germanfica.wsfe.net;
+
+/**
+ * Deadline y cancelación de la solicitud que se está ejecutando en el thread actual.
+ * <p>
+ * Sirve para que el presupuesto de tiempo llegue a llamadas que el SDK hace internamente, como la
+ * renovación del TA contra WSAA dentro de {@code RefreshingAuthProvider}: todas las llamadas SOAP
+ * hechas mientras el contexto está activo respetan su deadline y su {@link CancellationToken}.
+ *
+ * <pre>{@code
+ * try (RequestContext.Scope scope = RequestContext.of(Deadline.after(Duration.ofSeconds(10)), token).attach()) {
+ *     client.fecaeSolicitar(request);
+ * }
+ * }</pre>
+ */
+public final class RequestContext {
+    private static final ThreadLocal<RequestContext> CURRENT = new ThreadLocal<>();
+
+    private final Deadline deadline;
+    private final CancellationToken cancellationToken;
+
+    private RequestContext(Deadline deadline, CancellationToken cancellationToken) {
+        this.deadline = deadline;
+        this.cancellationToken = cancellationToken;
+    }
+
+    public static RequestContext of(Deadline deadline, CancellationToken cancellationToken) {
+        return new RequestContext(deadline, cancellationToken);
+    }
+
+    /**
+     * Contexto activo en el thread actual, o {@code null}.
+     */
+    public static RequestContext current() {
+        return CURRENT.get();
+    }
+
+    public Deadline getDeadline() {
+        return deadline;
+    }
+
+    public CancellationToken getCancellationToken() {
+        return cancellationToken;
+    }
+
+    /**
+     * Activa el contexto en el thread actual hasta cerrar el {@link Scope}, que restaura el anterior.
+     */
+    public Scope attach() {
+        RequestContext previous = CURRENT.get();
+        CURRENT.set(this);
+        return () -> {
+            if (previous != null) CURRENT.set(previous);
+            else CURRENT.remove();
+        };
+    }
+
+    public interface Scope extends AutoCloseable {
+        @Override
+        void close();
+    }
+}
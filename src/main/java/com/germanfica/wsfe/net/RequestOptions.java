@@ -13,8 +13,11 @@ public class RequestOptions {
     private final ApiEnvironment apiEnvironment;
     private final ProxyOptions proxyOptions;
     private final HttpTransportMode httpTransportMode;
+    private final TimeoutOptions timeoutOptions;
+    private final Deadline deadline;
+    private final CancellationToken cancellationToken;
 
-    private RequestOptions(String token, String sign, Long cuit, String urlBase, ApiEnvironment apiEnvironment, ProxyOptions proxyOptions, HttpTransportMode httpTransportMode) {
+    private RequestOptions(String token, String sign, Long cuit, String urlBase, ApiEnvironment apiEnvironment, ProxyOptions proxyOptions, HttpTransportMode httpTransportMode, TimeoutOptions timeoutOptions, Deadline deadline, CancellationToken cancellationToken) {
         this.token = normalizeToken(token);
         this.sign = normalizeSign(sign);
         this.cuit = cuit;
@@ -22,12 +25,32 @@ public class RequestOptions {
         this.apiEnvironment = apiEnvironment;
         this.proxyOptions = proxyOptions;
         this.httpTransportMode = httpTransportMode;
+        this.timeoutOptions = timeoutOptions;
+        this.deadline = deadline;
+        this.cancellationToken = cancellationToken;
     }
 
     public boolean hasProxy() {
         return proxyOptions != null && proxyOptions.isValid();
     }
 
+    /**
+     * Indica si estas opciones cambian la configuración del cliente (endpoint, entorno, proxy,
+     * transporte o timeouts). El CUIT, las credenciales, el deadline y el token de cancelación son
+     * datos de la llamada y no cuentan.
+     */
+    boolean hasConfigOverrides() {
+        return urlBase != null || apiEnvironment != null || proxyOptions != null || httpTransportMode != null || timeoutOptions != null;
+    }
+
+    /**
+     * Copia con solo la configuración ({@link #hasConfigOverrides()}), sin los datos de la llamada.
+     * Dos solicitudes con la misma configuración dan copias iguales.
+     */
+    RequestOptions configOnly() {
+        return new RequestOptions(null, null, null, urlBase, apiEnvironment, proxyOptions, httpTransportMode, timeoutOptions, null, null);
+    }
+
     public static RequestOptionsBuilder builder() {
         return new RequestOptionsBuilder();
     }
@@ -37,7 +60,13 @@ public class RequestOptions {
             .setToken(this.token)
             .setSign(this.sign)
             .setCuit(this.cuit)
-            .setUrlBase(this.urlBase);
+            .setUrlBase(this.urlBase)
+            .setApiEnvironment(this.apiEnvironment)
+            .setProxyOptions(this.proxyOptions)
+            .setHttpTransportMode(this.httpTransportMode)
+            .setTimeoutOptions(this.timeoutOptions)
+            .setDeadline(this.deadline)
+            .setCancellationToken(this.cancellationToken);
     }
 
     private static String normalizeToken(String token) {
@@ -69,6 +98,9 @@ public class RequestOptions {
         private ApiEnvironment apiEnvironment;
         private ProxyOptions proxyOptions;
         private HttpTransportMode httpTransportMode;
+        private TimeoutOptions timeoutOptions;
+        private Deadline deadline;
+        private CancellationToken cancellationToken;
 
         public RequestOptionsBuilder setToken(String token) {
             this.token = token;
@@ -105,8 +137,34 @@ public class RequestOptions {
             return this;
         }
 
+        /**
+         * Timeouts de esta solicitud. Tienen prioridad sobre la {@link TimeoutPolicy} del cliente
+         * para la operación invocada; los campos {@code null} se toman de la política.
+         */
+        public RequestOptionsBuilder setTimeoutOptions(TimeoutOptions timeoutOptions) {
+            this.timeoutOptions = timeoutOptions;
+            return this;
+        }
+
+        /**
+         * Instante límite de la solicitud completa: renovación del TA, esperas, intentos y backoff.
+         * Al vencer, la solicitud falla con {@code DeadlineExceededException}.
+         */
+        public RequestOptionsBuilder setDeadline(Deadline deadline) {
+            this.deadline = deadline;
+            return this;
+        }
+
+        /**
+         * Permite abortar la solicitud en curso con {@link CancellationToken#cancel()}.
+         */
+        public RequestOptionsBuilder setCancellationToken(CancellationToken cancellationToken) {
+            this.cancellationToken = cancellationToken;
+            return this;
+        }
+
         public RequestOptions build() {
-            return new RequestOptions(token, sign, cuit, urlBase, apiEnvironment, proxyOptions, httpTransportMode);
+            return new RequestOptions(token, sign, cuit, urlBase, apiEnvironment, proxyOptions, httpTransportMode, timeoutOptions, deadline, cancellationToken);
         }
     }
 
@@ -135,6 +193,9 @@ public class RequestOptions {
             .setApiEnvironment(localOptions.getApiEnvironment() != null ? localOptions.getApiEnvironment() : globalOptions.getApiEnvironment())
             .setProxyOptions(localOptions.getProxyOptions() != null ? localOptions.getProxyOptions() : globalOptions.getProxyOptions())
             .setHttpTransportMode(localOptions.getHttpTransportMode() != null ? localOptions.getHttpTransportMode() : globalOptions.getHttpTransportMode())
+            .setTimeoutOptions(localOptions.getTimeoutOptions())
+            .setDeadline(localOptions.getDeadline())
+            .setCancellationToken(localOptions.getCancellationToken())
             .build();
     }
 
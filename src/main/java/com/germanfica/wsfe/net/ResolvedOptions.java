@@ -0,0 +1,87 @@
+package com.germanfica.wsfe.net;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Configuración de una solicitud ya resuelta: las {@link RequestOptions} combinadas con las del
+ * cliente y validadas, más lo que de ellas se deriva para cada servicio (endpoints y
+ * {@link PortKey} por operación).
+ * <p>
+ * Es inmutable en lo que expone y se comparte entre todas las solicitudes con la misma
+ * configuración, de modo que una llamada repetida no vuelve a combinar opciones ni a construir
+ * claves: solo consulta mapas ya poblados. Los datos propios de cada llamada (CUIT, deadline,
+ * {@link CancellationToken}) no forman parte de esta configuración y se leen de la solicitud.
+ */
+final class ResolvedOptions {
+    /** Clave de las llamadas sin nombre de operación ({@link ConcurrentHashMap} no admite {@code null}). */
+    private static final String NO_OPERATION = "";
+
+    private final RequestOptions options;
+    private final Map<Class<?>, EndpointRoute> routes = new ConcurrentHashMap<>();
+
+    ResolvedOptions(RequestOptions options) {
+        this.options = options;
+    }
+
+    /**
+     * Opciones combinadas; solo llevan configuración, sin CUIT, credenciales, deadline ni
+     * {@link CancellationToken}.
+     */
+    RequestOptions getOptions() {
+        return options;
+    }
+
+    /**
+     * Endpoints ya resueltos de {@code portClass}, o {@code null} si todavía no se calcularon.
+     */
+    EndpointRoute getRoute(Class<?> portClass) {
+        return routes.get(portClass);
+    }
+
+    /**
+     * Guarda los endpoints de {@code portClass}; si otro thread se adelantó, devuelve los suyos.
+     */
+    EndpointRoute putRoute(Class<?> portClass, EndpointRoute route) {
+        EndpointRoute previous = routes.putIfAbsent(portClass, route);
+        return previous != null ? previous : route;
+    }
+
+    /**
+     * Endpoint de un servicio, su {@link EndpointHealth} (compartida por todas las configuraciones
+     * que lo usan) y las claves de pool de sus operaciones.
+     */
+    static final class Target {
+        private final String endpoint;
+        private final String endpointUrl;
+        private final EndpointHealth health;
+        private final Map<String, PortKey> portKeys = new ConcurrentHashMap<>();
+
+        Target(String endpoint, String endpointUrl, EndpointHealth health) {
+            this.endpoint = endpoint;
+            this.endpointUrl = endpointUrl;
+            this.health = health;
+        }
+
+        String getEndpoint() {
+            return endpoint;
+        }
+
+        String getEndpointUrl() {
+            return endpointUrl;
+        }
+
+        EndpointHealth getHealth() {
+            return health;
+        }
+
+        PortKey getPortKey(String operationName) {
+            return portKeys.get(operationName != null ? operationName : NO_OPERATION);
+        }
+
+        PortKey putPortKey(String operationName, PortKey key) {
+            PortKey previous = portKeys.putIfAbsent(operationName != null ? operationName : NO_OPERATION, key);
+            return previous != null ? previous : key;
+        }
+    }
+}
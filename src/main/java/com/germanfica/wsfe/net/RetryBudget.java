@@ -0,0 +1,60 @@
+package com.germanfica.wsfe.net;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Presupuesto global de reintentos de un cliente, compartido por todas sus operaciones.
+ * <p>
+ * Funciona como un balde de fichas: cada falla transitoria resta una ficha y cada respuesta
+ * correcta suma {@code tokenRatio}. Mientras el balde esté por debajo de la mitad no se reintenta,
+ * así un corte de ARCA no multiplica la carga con reintentos de todos los llamadores a la vez.
+ * Con {@code tokenRatio = 0.1} se tolera, en régimen, un reintento cada diez llamadas correctas.
+ */
+public final class RetryBudget {
+    private static final long SCALE = 1000;
+
+    private final long maxTokens;
+    private final long tokenRatio;
+    private final AtomicLong tokens;
+
+    private RetryBudget(int maxTokens, double tokenRatio) {
+        if (maxTokens <= 0) throw new IllegalArgumentException("maxTokens must be positive");
+        if (tokenRatio <= 0) throw new IllegalArgumentException("tokenRatio must be positive");
+        this.maxTokens = maxTokens * SCALE;
+        this.tokenRatio = Math.max(1, Math.round(tokenRatio * SCALE));
+        this.tokens = new AtomicLong(this.maxTokens);
+    }
+
+    public static RetryBudget of(int maxTokens, double tokenRatio) {
+        return new RetryBudget(maxTokens, tokenRatio);
+    }
+
+    /**
+     * Presupuesto por defecto: 100 fichas y un décimo de ficha por llamada correcta.
+     */
+    public static RetryBudget defaults() {
+        return of(100, 0.1);
+    }
+
+    void onSuccess() {
+        tokens.accumulateAndGet(tokenRatio, (current, delta) -> Math.min(maxTokens, current + delta));
+    }
+
+    void onFailure() {
+        tokens.accumulateAndGet(SCALE, (current, delta) -> Math.max(0, current - delta));
+    }
+
+    /**
+     * Indica si quedan fichas suficientes para reintentar.
+     */
+    public boolean allowsRetry() {
+        return tokens.get() > maxTokens / 2;
+    }
+
+    /**
+     * Fichas disponibles, para monitoreo.
+     */
+    public double getAvailableTokens() {
+        return (double) tokens.get() / SCALE;
+    }
+}
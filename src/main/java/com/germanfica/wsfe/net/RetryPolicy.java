@@ -0,0 +1,236 @@
+package com.germanfica.wsfe.net;
+
+import com.germanfica.wsfe.exception.ApiException;
+import com.germanfica.wsfe.exception.BulkheadFullException;
+import com.germanfica.wsfe.exception.CircuitOpenException;
+import com.germanfica.wsfe.exception.ClientClosedException;
+import com.germanfica.wsfe.exception.DeadlineExceededException;
+import com.germanfica.wsfe.exception.RequestCancelledException;
+import lombok.AccessLevel;
+import lombok.Getter;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Política de reintentos del cliente.
+ * <p>
+ * Solo se reintentan las fallas transitorias (errores de transporte, HTTP 503 y timeouts), nunca los
+ * SOAP faults, los errores de negocio ni los rechazos del circuit breaker. Si la operación puede repetirse lo decide su
+ * {@link Idempotency}, que se resuelve por nombre igual que en {@link TimeoutPolicy} (nombre exacto
+ * o prefijo terminado en {@code *}, sin distinguir mayúsculas). Entre intentos se espera un backoff
+ * exponencial con jitter, acotado por el deadline de la operación, y cada reintento consume el
+ * {@link RetryBudget} compartido del cliente.
+ *
+ * <pre>{@code
+ * RetryPolicy policy = RetryPolicy.defaults().toBuilder()
+ *     .setMaxAttempts(4)
+ *     .setInitialBackoff(Duration.ofMillis(500))
+ *     .build();
+ * }</pre>
+ */
+@Getter
+public class RetryPolicy {
+    private final int maxAttempts;
+    private final Duration initialBackoff;
+    private final Duration maxBackoff;
+    private final double multiplier;
+    /** Fracción del backoff que se aleatoriza: 0 = sin jitter, 1 = "full jitter". */
+    private final double jitter;
+    private final RetryBudget retryBudget;
+    private final Idempotency defaultIdempotency;
+    private final Map<String, Idempotency> operationIdempotency;
+
+    @Getter(AccessLevel.NONE)
+    private final Map<String, Idempotency> resolved = new ConcurrentHashMap<>();
+
+    private RetryPolicy(RetryPolicyBuilder builder) {
+        this.maxAttempts = Math.max(1, builder.maxAttempts);
+        this.initialBackoff = builder.initialBackoff;
+        this.maxBackoff = builder.maxBackoff;
+        this.multiplier = Math.max(1.0, builder.multiplier);
+        this.jitter = Math.min(1.0, Math.max(0.0, builder.jitter));
+        this.retryBudget = builder.retryBudget != null ? builder.retryBudget : RetryBudget.defaults();
+        this.defaultIdempotency = builder.defaultIdempotency;
+        this.operationIdempotency = Collections.unmodifiableMap(new LinkedHashMap<>(builder.operationIdempotency));
+    }
+
+    /**
+     * Hasta 3 intentos con backoff de 200 ms a 2 s. Las consultas de WSFE son {@link Idempotency#SAFE},
+     * {@code FECAESolicitar} y {@code FECAEARegInformativo} requieren reconciliación y el resto
+     * (incluido {@code loginCms}) no se reintenta.
+     */
+    public static RetryPolicy defaults() {
+        return builder()
+            .setOperation("FEDummy", Idempotency.SAFE)
+            .setOperation("FEParamGet*", Idempotency.SAFE)
+            .setOperation("FECompConsultar", Idempotency.SAFE)
+            .setOperation("FECompUltimoAutorizado", Idempotency.SAFE)
+            .setOperation("FECompTotXRequest", Idempotency.SAFE)
+            .setOperation("FECAEAConsultar", Idempotency.SAFE)
+            .setOperation("FECAEASinMovimientoConsultar", Idempotency.SAFE)
+            .setOperation("FECAESolicitar", Idempotency.RECONCILE)
+            .setOperation("FECAEARegInformativo", Idempotency.RECONCILE)
+            .build();
+    }
+
+    /**
+     * Política sin reintentos.
+     */
+    public static RetryPolicy disabled() {
+        return builder().setMaxAttempts(1).build();
+    }
+
+    /**
+     * Devuelve la clase de idempotencia de {@code operationName}.
+     */
+    public Idempotency idempotency(String operationName) {
+        if (operationName == null) return defaultIdempotency;
+        return resolved.computeIfAbsent(normalize(operationName), this::lookup);
+    }
+
+    /**
+     * Indica si el error es una falla transitoria del servicio o de la red. Un bulkhead lleno es
+     * sobrecarga del propio cliente y no se reintenta.
+     */
+    public boolean isRetryable(ApiException failure) {
+        if (failure instanceof BulkheadFullException || failure instanceof CircuitOpenException || failure instanceof DeadlineExceededException
+            || failure instanceof RequestCancelledException || failure instanceof ClientClosedException) return false;
+        HttpStatus status = failure.getHttpStatus();
+        return status == HttpStatus.BAD_GATEWAY
+            || status == HttpStatus.SERVICE_UNAVAILABLE
+            || status == HttpStatus.GATEWAY_TIMEOUT;
+    }
+
+    /**
+     * Espera antes del intento {@code attempt + 1}: {@code initialBackoff * multiplier^(attempt - 1)},
+     * acotado por {@code maxBackoff} y con la fracción {@link #jitter} elegida al azar.
+     */
+    public Duration backoff(int attempt) {
+        double base = initialBackoff.toMillis() * Math.pow(multiplier, Math.max(0, attempt - 1));
+        double capped = Math.min(base, maxBackoff.toMillis());
+        double randomized = capped * (1.0 - jitter * ThreadLocalRandom.current().nextDouble());
+        return Duration.ofMillis(Math.round(randomized));
+    }
+
+    private Idempotency lookup(String operationName) {
+        Idempotency match = operationIdempotency.get(operationName);
+        if (match != null) return match;
+
+        int longestPrefix = -1;
+        for (Map.Entry<String, Idempotency> entry : operationIdempotency.entrySet()) {
+            String key = entry.getKey();
+            if (!key.endsWith("*")) continue;
+            String prefix = key.substring(0, key.length() - 1);
+            if (operationName.startsWith(prefix) && prefix.length() > longestPrefix) {
+                longestPrefix = prefix.length();
+                match = entry.getValue();
+            }
+        }
+        return match != null ? match : defaultIdempotency;
+    }
+
+    private static String normalize(String operationName) {
+        return operationName.toLowerCase(Locale.ROOT);
+    }
+
+    public static RetryPolicyBuilder builder() {
+        return new RetryPolicyBuilder();
+    }
+
+    /**
+     * Copia la política. El {@link RetryBudget} se comparte con la original.
+     */
+    public RetryPolicyBuilder toBuilder() {
+        RetryPolicyBuilder builder = new RetryPolicyBuilder()
+            .setMaxAttempts(maxAttempts)
+            .setInitialBackoff(initialBackoff)
+            .setMaxBackoff(maxBackoff)
+            .setMultiplier(multiplier)
+            .setJitter(jitter)
+            .setRetryBudget(retryBudget)
+            .setDefaultIdempotency(defaultIdempotency);
+        builder.operationIdempotency.putAll(operationIdempotency);
+        return builder;
+    }
+
+    public static class RetryPolicyBuilder {
+        private int maxAttempts = 3;
+        private Duration initialBackoff = Duration.ofMillis(200);
+        private Duration maxBackoff = Duration.ofSeconds(2);
+        private double multiplier = 2.0;
+        private double jitter = 1.0;
+        private RetryBudget retryBudget;
+        private Idempotency defaultIdempotency = Idempotency.NEVER;
+        private final Map<String, Idempotency> operationIdempotency = new LinkedHashMap<>();
+
+        /**
+         * Cantidad total de intentos, incluido el primero. {@code 1} desactiva los reintentos.
+         */
+        public RetryPolicyBuilder setMaxAttempts(int maxAttempts) {
+            this.maxAttempts = maxAttempts;
+            return this;
+        }
+
+        public RetryPolicyBuilder setInitialBackoff(Duration initialBackoff) {
+            if (initialBackoff == null || initialBackoff.isNegative()) {
+                throw new IllegalArgumentException("Invalid initial backoff specified!");
+            }
+            this.initialBackoff = initialBackoff;
+            return this;
+        }
+
+        public RetryPolicyBuilder setMaxBackoff(Duration maxBackoff) {
+            if (maxBackoff == null || maxBackoff.isNegative()) {
+                throw new IllegalArgumentException("Invalid max backoff specified!");
+            }
+            this.maxBackoff = maxBackoff;
+            return this;
+        }
+
+        public RetryPolicyBuilder setMultiplier(double multiplier) {
+            this.multiplier = multiplier;
+            return this;
+        }
+
+        public RetryPolicyBuilder setJitter(double jitter) {
+            this.jitter = jitter;
+            return this;
+        }
+
+        public RetryPolicyBuilder setRetryBudget(RetryBudget retryBudget) {
+            this.retryBudget = retryBudget;
+            return this;
+        }
+
+        public RetryPolicyBuilder setDefaultIdempotency(Idempotency defaultIdempotency) {
+            this.defaultIdempotency = defaultIdempotency != null ? defaultIdempotency : Idempotency.NEVER;
+            return this;
+        }
+
+        /**
+         * Define la idempotencia de una operación. {@code operationName} puede terminar en {@code *}
+         * para aplicar a todas las operaciones con ese prefijo.
+         */
+        public RetryPolicyBuilder setOperation(String operationName, Idempotency idempotency) {
+            if (operationName == null || operationName.isBlank()) {
+                throw new IllegalArgumentException("Empty operation name specified!");
+            }
+            if (idempotency == null) {
+                operationIdempotency.remove(normalize(operationName));
+            } else {
+                operationIdempotency.put(normalize(operationName), idempotency);
+            }
+            return this;
+        }
+
+        public RetryPolicy build() {
+            return new RetryPolicy(this);
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.germanfica.wsfe.net;
+
+import com.germanfica.wsfe.exception.ApiException;
+
+/**
+ * Verificación previa al reintento de una operación {@link Idempotency#RECONCILE}.
+ * <p>
+ * Cuando un intento falla sin respuesta (timeout, conexión cortada) no se sabe si ARCA llegó a
+ * procesarlo. El reconciliador lo consulta (por ejemplo con {@code FECompUltimoAutorizado}) y
+ * devuelve {@code true} solo si el intento anterior no tuvo efecto y es seguro repetirlo.
+ */
+@FunctionalInterface
+public interface RetryReconciler {
+    /**
+     * @param failure error del intento anterior.
+     * @return {@code true} si el intento anterior no tuvo efecto y puede repetirse.
+     * @throws ApiException si la verificación falla; en ese caso no se reintenta y se informa el
+     *                      error original.
+     */
+    boolean canRetry(ApiException failure) throws ApiException;
+}
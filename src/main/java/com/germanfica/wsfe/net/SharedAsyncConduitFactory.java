@@ -0,0 +1,355 @@
+package com.germanfica.wsfe.net;
+
+import org.apache.cxf.Bus;
+import org.apache.cxf.configuration.security.ProxyAuthorizationPolicy;
+import org.apache.cxf.transport.http.URLConnectionHTTPConduit;
+import org.apache.cxf.transport.http.asyncclient.hc5.AsyncHTTPConduitFactory;
+import org.apache.cxf.transports.http.configuration.HTTPClientPolicy;
+import org.apache.hc.client5.http.DnsResolver;
+import org.apache.hc.client5.http.SchemePortResolver;
+import org.apache.hc.client5.http.SystemDefaultDnsResolver;
+import org.apache.hc.client5.http.auth.AuthCache;
+import org.apache.hc.client5.http.auth.AuthScheme;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.TlsConfig;
+import org.apache.hc.client5.http.impl.async.CloseableHttpAsyncClient;
+import org.apache.hc.client5.http.impl.async.HttpAsyncClients;
+import org.apache.hc.client5.http.impl.auth.BasicAuthCache;
+import org.apache.hc.client5.http.impl.nio.PoolingAsyncClientConnectionManager;
+import org.apache.hc.client5.http.impl.nio.PoolingAsyncClientConnectionManagerBuilder;
+import org.apache.hc.client5.http.nio.AsyncClientConnectionOperator;
+import org.apache.hc.core5.http.HttpHost;
+import org.apache.hc.core5.http.nio.ssl.TlsStrategy;
+import org.apache.hc.core5.http2.HttpVersionPolicy;
+import org.apache.hc.core5.io.CloseMode;
+import org.apache.hc.core5.pool.PoolConcurrencyPolicy;
+import org.apache.hc.core5.pool.PoolReusePolicy;
+import org.apache.hc.core5.reactor.IOReactorConfig;
+import org.apache.hc.core5.util.TimeValue;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+/**
+ * {@link AsyncHTTPConduitFactory} que comparte el cliente de Apache HttpClient 5 entre todos los
+ * conduits del {@link Bus} que salen por el mismo proxy con el mismo usuario.
+ * <p>
+ * CXF crea un cliente (con su pool de conexiones y su reactor de I/O) por cada
+ * {@link HTTPClientPolicy}, y cada port del {@link PortPool} tiene la suya: detrás de un proxy
+ * autenticado, cada port abría su propio túnel {@code CONNECT} y respondía su propio desafío 407.
+ * Aquí los túneles quedan en un único pool por proxy y usuario, y se reutilizan entre ports y
+ * operaciones. Los timeouts y el proxy viajan en la configuración de cada request, así que compartir
+ * el cliente no mezcla la configuración de los ports.
+ * <p>
+ * Con {@link BulkheadOptions} activo, cada servicio (WSAA y WSFE) tiene además su propio cliente,
+ * limitado a {@link BulkheadOptions#getMaxConnections()}, para que las conexiones de uno no
+ * esperen por las del otro.
+ * <p>
+ * Además, el esquema con el que el proxy aceptó las credenciales (Basic o Digest) se guarda por
+ * proxy, de modo que los túneles nuevos envían {@code Proxy-Authorization} de entrada en lugar de
+ * esperar el 407. Las credenciales siguen saliendo de la {@link ProxyAuthorizationPolicy} de cada
+ * conduit y el esquema nunca se usa con el servidor de destino.
+ * <p>
+ * Los nombres de los hosts se resuelven con el {@link DnsCache} del handler, si está activo. Con
+ * {@link FailoverOptions} activo, el pool recuerda además cómo conectó cada dirección IP y conecta
+ * con ellas al estilo happy eyeballs (ver {@link HappyEyeballsConnectionOperator}); esto es propio de
+ * HTTP_HC5, los otros transportes no dejan elegir la dirección de cada conexión.
+ */
+final class SharedAsyncConduitFactory extends AsyncHTTPConduitFactory {
+    /** Defaults de {@link AsyncHTTPConduitFactory} para lo que {@link ConnectionPoolOptions} no define. */
+    private static final int DEFAULT_MAX_CONNECTIONS = 5000;
+    private static final int DEFAULT_MAX_PER_ROUTE = 1000;
+    private static final Duration DEFAULT_TIME_TO_LIVE = Duration.ofSeconds(60);
+    private static final Duration DEFAULT_IDLE_TIMEOUT = Duration.ofSeconds(60);
+
+    private final ConnectionPoolOptions pool;
+    private final BulkheadOptions bulkhead;
+    private final FailoverOptions failover;
+    private final CachingDnsResolver dnsResolver;
+    private final Map<ClientKey, CloseableHttpAsyncClient> clients = new ConcurrentHashMap<>();
+    private final AuthCache proxyAuthCache = new BasicAuthCache();
+
+    SharedAsyncConduitFactory(Bus bus, ConnectionPoolOptions pool, BulkheadOptions bulkhead, DnsCache dnsCache,
+                              FailoverOptions failover) {
+        super(bus);
+        this.pool = pool != null ? pool : ConnectionPoolOptions.defaults();
+        this.bulkhead = bulkhead != null ? bulkhead : BulkheadOptions.disabled();
+        this.failover = failover != null ? failover : FailoverOptions.disabled();
+        this.dnsResolver = new CachingDnsResolver(dnsCache, this.failover);
+    }
+
+    @Override
+    public CloseableHttpAsyncClient createClient(URLConnectionHTTPConduit conduit, TlsStrategy tlsStrategy) {
+        ClientKey key = ClientKey.of(conduit, bulkhead.isEnabled(), tlsStrategy != null);
+        CloseableHttpAsyncClient client = clients.get(key);
+        if (client != null) return client;
+        return clients.computeIfAbsent(key, k -> createSharedClient(k, tlsStrategy));
+    }
+
+    private CloseableHttpAsyncClient createSharedClient(ClientKey key, TlsStrategy tlsStrategy) {
+        PoolingAsyncClientConnectionManager connectionManager = connectionManagerBuilder()
+            .setTlsStrategy(tlsStrategy)
+            .setDnsResolver(dnsResolver)
+            .setPoolConcurrencyPolicy(PoolConcurrencyPolicy.STRICT)
+            .setConnPoolPolicy(PoolReusePolicy.LIFO)
+            .setMaxConnTotal(maxConnections(key))
+            .setMaxConnPerRoute(pool.getMaxConnectionsPerRoute() != null ? pool.getMaxConnectionsPerRoute() : DEFAULT_MAX_PER_ROUTE)
+            .setDefaultConnectionConfig(ConnectionConfig.custom()
+                .setTimeToLive(toTimeValue(pool.getConnectionTimeToLive(), DEFAULT_TIME_TO_LIVE))
+                .build())
+            .setDefaultTlsConfig(TlsConfig.custom()
+                .setVersionPolicy(key.http2 ? HttpVersionPolicy.NEGOTIATE : HttpVersionPolicy.FORCE_HTTP_1)
+                .build())
+            .build();
+
+        CloseableHttpAsyncClient client = HttpAsyncClients.custom()
+            .setConnectionManager(connectionManager)
+            .setIOReactorConfig(ioReactorConfig(pool))
+            // CXF sigue las redirecciones y maneja las cookies por su cuenta.
+            .disableRedirectHandling()
+            .disableCookieManagement()
+            .evictIdleConnections(toTimeValue(pool.getIdleTimeout(), DEFAULT_IDLE_TIMEOUT))
+            .addExecInterceptorFirst("wsfe-proxy-auth-cache", (request, entityProducer, scope, chain, callback) -> {
+                HttpHost proxy = scope.route.getProxyHost();
+                if (proxy != null && scope.clientContext.getAuthCache() == null) {
+                    scope.clientContext.setAuthCache(new ProxyAuthCache(proxyAuthCache, proxy));
+                }
+                chain.proceed(request, entityProducer, scope, callback);
+            })
+            .build();
+        client.start();
+        return client;
+    }
+
+    /**
+     * Builder del pool. Con failover activo, las conexiones pasan por
+     * {@link HappyEyeballsConnectionOperator}.
+     */
+    private PoolingAsyncClientConnectionManagerBuilder connectionManagerBuilder() {
+        if (!failover.isEnabled()) return PoolingAsyncClientConnectionManagerBuilder.create();
+        return new PoolingAsyncClientConnectionManagerBuilder() {
+            @Override
+            protected AsyncClientConnectionOperator createConnectionOperator(TlsStrategy tlsStrategy,
+                                                                             SchemePortResolver schemePortResolver,
+                                                                             DnsResolver dnsResolver) {
+                return new HappyEyeballsConnectionOperator(
+                    super.createConnectionOperator(tlsStrategy, schemePortResolver, dnsResolver),
+                    SharedAsyncConduitFactory.this.dnsResolver, failover.getConnectAttemptDelay());
+            }
+        };
+    }
+
+    /**
+     * Cierra los clientes compartidos junto con el {@link Bus}. El handler solo lo cierra cuando
+     * las solicitudes terminaron o se abandonaron, así que no hay intercambios que esperar.
+     */
+    @Override
+    public void shutdown() {
+        super.shutdown();
+        clients.values().forEach(client -> client.close(CloseMode.IMMEDIATE));
+        clients.clear();
+        proxyAuthCache.clear();
+    }
+
+    /**
+     * Reactor de I/O del cliente. Los buffers del socket sin definir quedan en 0, el default del
+     * sistema operativo.
+     */
+    static IOReactorConfig ioReactorConfig(ConnectionPoolOptions pool) {
+        return IOReactorConfig.custom()
+            .setIoThreadCount(pool.getEffectiveIoThreads())
+            .setSoKeepAlive(Boolean.TRUE.equals(pool.getKeepAlive()))
+            .setTcpNoDelay(true)
+            .setSndBufSize(pool.getSendBufferSize() != null ? pool.getSendBufferSize() : 0)
+            .setRcvBufSize(pool.getReceiveBufferSize() != null ? pool.getReceiveBufferSize() : 0)
+            .build();
+    }
+
+    private int maxConnections(ClientKey key) {
+        if (key.service != null && bulkhead.getMaxConnections() != null) return bulkhead.getMaxConnections();
+        return pool.getMaxConnectionsTotal() != null ? pool.getMaxConnectionsTotal() : DEFAULT_MAX_CONNECTIONS;
+    }
+
+    private static TimeValue toTimeValue(Duration duration, Duration fallback) {
+        return TimeValue.ofMilliseconds((duration != null ? duration : fallback).toMillis());
+    }
+
+    /**
+     * Lo que separa un pool de otro: el servicio, si están aislados; el proxy y su usuario (un túnel
+     * autenticado no se presta a otras credenciales); la versión de HTTP y si el cliente tiene el
+     * {@link TlsStrategy} del handler.
+     */
+    private static final class ClientKey {
+        /** Nombre del endpoint de CXF (uno por servicio), o {@code null} si los servicios comparten el pool. */
+        private final String service;
+        private final String proxyHost;
+        private final int proxyPort;
+        private final String proxyUser;
+        private final boolean http2;
+        private final boolean tls;
+
+        private ClientKey(String service, String proxyHost, int proxyPort, String proxyUser, boolean http2, boolean tls) {
+            this.service = service;
+            this.proxyHost = proxyHost;
+            this.proxyPort = proxyPort;
+            this.proxyUser = proxyUser;
+            this.http2 = http2;
+            this.tls = tls;
+        }
+
+        private static ClientKey of(URLConnectionHTTPConduit conduit, boolean perService, boolean tls) {
+            HTTPClientPolicy policy = conduit.getClient();
+            ProxyAuthorizationPolicy proxyAuth = conduit.getProxyAuthorization();
+            String proxyHost = policy.getProxyServer();
+            return new ClientKey(perService ? conduit.getBeanName() : null, proxyHost, proxyHost != null ? policy.getProxyServerPort() : 0,
+                proxyAuth != null ? proxyAuth.getUserName() : null, "2.0".equals(policy.getVersion()), tls);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof ClientKey)) return false;
+            ClientKey other = (ClientKey) o;
+            return proxyPort == other.proxyPort && http2 == other.http2 && tls == other.tls
+                && Objects.equals(service, other.service) && Objects.equals(proxyHost, other.proxyHost)
+                && Objects.equals(proxyUser, other.proxyUser);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(service, proxyHost, proxyPort, proxyUser, http2, tls);
+        }
+    }
+
+    /**
+     * Vista del caché de esquemas de autenticación limitada al proxy de la ruta: el proveedor de
+     * credenciales de CXF devuelve las del proxy para cualquier host, así que un esquema del
+     * servidor de destino nunca debe guardarse ni enviarse de antemano.
+     */
+    private static final class ProxyAuthCache implements AuthCache {
+        private final AuthCache cache;
+        private final HttpHost proxy;
+
+        private ProxyAuthCache(AuthCache cache, HttpHost proxy) {
+            this.cache = cache;
+            this.proxy = proxy;
+        }
+
+        @Override
+        public void put(HttpHost host, AuthScheme authScheme) {
+            if (proxy.equals(host)) cache.put(host, authScheme);
+        }
+
+        @Override
+        public AuthScheme get(HttpHost host) {
+            return proxy.equals(host) ? cache.get(host) : null;
+        }
+
+        @Override
+        public void remove(HttpHost host) {
+            if (proxy.equals(host)) cache.remove(host);
+        }
+
+        @Override
+        public void clear() {
+            cache.remove(proxy);
+        }
+    }
+
+    /**
+     * Resuelve las direcciones con el {@link DnsCache} (o el resolver del sistema, sin caché); el
+     * nombre canónico (que HC5 solo usa para Kerberos/SPNEGO) sigue saliendo del resolver del sistema.
+     * <p>
+     * Con failover activo guarda un {@link EndpointHealth} por dirección y las devuelve ordenadas:
+     * primero las disponibles con muestras, de menor a mayor latencia de conexión; después las que
+     * todavía no tienen muestras, en el orden del DNS; al final las excluidas por una falla, de la que
+     * vuelve antes a la que vuelve después. Ninguna se descarta, así que un host cuyas direcciones
+     * fallaron todas se sigue intentando.
+     */
+    static final class CachingDnsResolver implements DnsResolver {
+        private final DnsCache cache;
+        private final FailoverOptions failover;
+        private final LongSupplier nanoClock;
+        private final Map<InetAddress, EndpointHealth> health = new ConcurrentHashMap<>();
+
+        CachingDnsResolver(DnsCache cache, FailoverOptions failover) {
+            this(cache, failover, System::nanoTime);
+        }
+
+        CachingDnsResolver(DnsCache cache, FailoverOptions failover, LongSupplier nanoClock) {
+            this.cache = cache;
+            this.failover = failover;
+            this.nanoClock = nanoClock;
+        }
+
+        @Override
+        public InetAddress[] resolve(String host) throws UnknownHostException {
+            InetAddress[] addresses = cache != null ? cache.resolve(host) : SystemDefaultDnsResolver.INSTANCE.resolve(host);
+            return failover.isEnabled() ? order(addresses) : addresses;
+        }
+
+        @Override
+        public String resolveCanonicalHostname(String host) throws UnknownHostException {
+            return SystemDefaultDnsResolver.INSTANCE.resolveCanonicalHostname(host);
+        }
+
+        void onConnected(InetAddress address, long latencyNanos) {
+            health(address).onSuccess(latencyNanos);
+        }
+
+        /**
+         * Registra como muestra el tiempo que llevaba un intento cancelado: su latencia fue al menos
+         * esa.
+         */
+        void onLost(InetAddress address, long elapsedNanos) {
+            health(address).onLost(elapsedNanos);
+        }
+
+        void onConnectFailed(InetAddress address) {
+            health(address).onFailure();
+        }
+
+        private EndpointHealth health(InetAddress address) {
+            return health.computeIfAbsent(address, a -> new EndpointHealth(a.getHostAddress(), failover, nanoClock));
+        }
+
+        private InetAddress[] order(InetAddress[] addresses) {
+            if (addresses.length < 2) return addresses;
+
+            long now = nanoClock.getAsLong();
+            Candidate[] candidates = new Candidate[addresses.length];
+            for (int i = 0; i < addresses.length; i++) {
+                EndpointHealth h = health.get(addresses[i]);
+                candidates[i] = h == null ? new Candidate(addresses[i], 1, 0)
+                    : !h.isAvailable(now) ? new Candidate(addresses[i], 2, h.ejectedForNanos(now))
+                    : h.latencyNanos() < 0 ? new Candidate(addresses[i], 1, 0)
+                    : new Candidate(addresses[i], 0, h.latencyNanos());
+            }
+            // Arrays.sort de objetos es estable: las direcciones sin muestras conservan el orden del DNS.
+            Arrays.sort(candidates, Comparator.<Candidate>comparingInt(c -> c.rank).thenComparingDouble(c -> c.key));
+
+            InetAddress[] ordered = new InetAddress[candidates.length];
+            for (int i = 0; i < candidates.length; i++) ordered[i] = candidates[i].address;
+            return ordered;
+        }
+
+        private static final class Candidate {
+            private final InetAddress address;
+            private final int rank;
+            private final double key;
+
+            private Candidate(InetAddress address, int rank, double key) {
+                this.address = address;
+                this.rank = rank;
+                this.key = key;
+            }
+        }
+    }
+}
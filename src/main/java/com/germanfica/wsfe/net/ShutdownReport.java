@@ -0,0 +1,43 @@
+package com.germanfica.wsfe.net;
+
+import lombok.Getter;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Resultado del cierre de un cliente (ver {@link SoapRequestHandler#shutdown(Duration)}).
+ * <p>
+ * {@link #getAbandoned()} son las solicitudes que seguían en curso al vencer la espera: las
+ * asíncronas se completaron con {@code ClientClosedException} y las síncronas fallan con esa misma
+ * excepción en su próximo intento. Los errores al liberar recursos no interrumpen el cierre y
+ * quedan en {@link #getErrors()}.
+ */
+@Getter
+public final class ShutdownReport {
+    /** Solicitudes en curso al comenzar el cierre. */
+    private final int inFlight;
+    private final int abandoned;
+    private final Duration duration;
+    private final List<Exception> errors;
+
+    ShutdownReport(int inFlight, int abandoned, Duration duration, List<Exception> errors) {
+        this.inFlight = inFlight;
+        this.abandoned = abandoned;
+        this.duration = duration;
+        this.errors = List.copyOf(errors);
+    }
+
+    /**
+     * Indica si todas las solicitudes terminaron a tiempo y los recursos se liberaron sin errores.
+     */
+    public boolean isClean() {
+        return abandoned == 0 && errors.isEmpty();
+    }
+
+    @Override
+    public String toString() {
+        return "shutdown " + duration.toMillis() + " ms (in flight " + inFlight + ", abandoned " + abandoned
+            + (errors.isEmpty() ? "" : ", errors " + errors.size()) + ")";
+    }
+}
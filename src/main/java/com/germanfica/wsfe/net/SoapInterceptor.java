@@ -0,0 +1,40 @@
+package com.germanfica.wsfe.net;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Interceptor de las llamadas de un cliente, para métricas, logging, caché, límites propios o
+ * para completar los argumentos de la solicitud.
+ * <p>
+ * Los interceptores se registran en el builder del cliente y forman una cadena en ese orden: el
+ * primero envuelve al resto, y el último envuelve la llamada del handler (límites, reintentos,
+ * circuit breaker y red). Cada uno decide si sigue con {@link Chain#proceed()} o corta la cadena
+ * devolviendo su propio resultado, por ejemplo una respuesta en caché, sin tocar la red.
+ * <p>
+ * La misma interfaz atiende las llamadas síncronas y las asíncronas
+ * ({@link SoapInvocation#isAsync()}). En las síncronas, {@code proceed()} ejecuta la llamada en
+ * el thread actual y devuelve un future ya completo. En las asíncronas no bloquea. Un error se
+ * informa con un future fallido o lanzando una excepción; si no es una {@code ApiException}, se
+ * traduce igual que los errores del transporte.
+ * <p>
+ * Sin interceptores, el handler no crea la cadena ni la {@link SoapInvocation}.
+ */
+@FunctionalInterface
+public interface SoapInterceptor {
+    /**
+     * Atiende la llamada descripta por {@code invocation}. El resultado tiene que ser del tipo de
+     * respuesta de la operación (ver {@link SoapInvocation#getResponseType()}).
+     */
+    CompletableFuture<Object> intercept(SoapInvocation invocation, Chain chain);
+
+    /**
+     * Resto de la cadena de una llamada.
+     */
+    interface Chain {
+        /**
+         * Pasa la llamada al siguiente interceptor o, si no hay más, al handler. Se puede llamar
+         * más de una vez (por ejemplo, para repetirla).
+         */
+        CompletableFuture<Object> proceed();
+    }
+}
@@ -0,0 +1,96 @@
+package com.germanfica.wsfe.net;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Una llamada que recorre la cadena de {@link SoapInterceptor}: el servicio, la operación y la
+ * solicitud, más atributos para que los interceptores compartan datos entre sí.
+ * <p>
+ * No es segura para usar desde varios threads a la vez; la cadena de una llamada la recorre un
+ * thread por vez.
+ */
+public final class SoapInvocation {
+    private static final Object[] NO_ARGUMENTS = new Object[0];
+
+    private final ApiRequest request;
+    private final Class<?> portClass;
+    private final String operationName;
+    private final Class<?> responseType;
+    private final Object[] arguments;
+    private final boolean async;
+    private Map<String, Object> attributes;
+
+    SoapInvocation(ApiRequest request, Class<?> portClass, String operationName, Class<?> responseType, Object[] arguments, boolean async) {
+        this.request = request;
+        this.portClass = portClass;
+        this.operationName = operationName;
+        this.responseType = responseType;
+        this.arguments = arguments != null ? arguments : NO_ARGUMENTS;
+        this.async = async;
+    }
+
+    /**
+     * Port del servicio ({@code ServiceSoap} para WSFE, {@code LoginCMS} para WSAA).
+     */
+    public Class<?> getPortClass() {
+        return portClass;
+    }
+
+    /**
+     * Operación, por ejemplo {@code "FECAESolicitar"}; puede ser {@code null} en llamadas directas
+     * al handler sin nombre de operación.
+     */
+    public String getOperationName() {
+        return operationName;
+    }
+
+    /**
+     * Opciones de la solicitud, o {@code null} si usa las del cliente.
+     */
+    public RequestOptions getOptions() {
+        return request != null ? request.getOptions() : null;
+    }
+
+    /**
+     * CUIT de la solicitud, si el servicio lo informa.
+     */
+    public Long getCuit() {
+        RequestOptions options = getOptions();
+        return options != null ? options.getCuit() : null;
+    }
+
+    /**
+     * Tipo de la respuesta, o {@code null} en las llamadas síncronas hechas con un
+     * {@link PortInvoker}, donde el handler no lo conoce.
+     */
+    public Class<?> getResponseType() {
+        return responseType;
+    }
+
+    /**
+     * Argumentos de la operación, en el orden de la interfaz generada; reemplazar un elemento
+     * cambia lo que se envía. Las llamadas síncronas hechas con un {@link PortInvoker} no los
+     * exponen y el arreglo está vacío.
+     */
+    public Object[] getArguments() {
+        return arguments;
+    }
+
+    public boolean isAsync() {
+        return async;
+    }
+
+    public Object getAttribute(String name) {
+        return attributes != null ? attributes.get(name) : null;
+    }
+
+    public void setAttribute(String name, Object value) {
+        if (attributes == null) attributes = new HashMap<>();
+        attributes.put(name, value);
+    }
+
+    ApiRequest getRequest() {
+        return request;
+    }
+}
@@ -0,0 +1,95 @@
+package com.germanfica.wsfe.net;
+
+import jakarta.jws.WebMethod;
+import jakarta.jws.WebParam;
+import jakarta.jws.WebResult;
+import jakarta.jws.WebService;
+import jakarta.xml.ws.RequestWrapper;
+import jakarta.xml.ws.ResponseWrapper;
+import lombok.Getter;
+
+import javax.xml.namespace.QName;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Method;
+
+/**
+ * Metadatos de una operación document/literal wrapped, leídos una única vez de las anotaciones
+ * JAX-WS de la interfaz generada por wsdl2java.
+ * <p>
+ * Si una anotación no está presente se usan los defaults de JAX-WS: el wrapper se llama como la
+ * operación, los parámetros {@code arg0..argN} y el resultado {@code return}.
+ */
+@Getter
+final class SoapOperation {
+    private final Method method;
+    private final String operationName;
+    private final String soapAction;
+    private final QName requestWrapper;
+    private final QName[] parameterNames;
+    private final Class<?>[] parameterTypes;
+    private final QName responseWrapper;
+    private final QName resultName;
+    private final Class<?> resultType;
+
+    private SoapOperation(Method method) {
+        String namespace = targetNamespace(method.getDeclaringClass());
+        WebMethod webMethod = method.getAnnotation(WebMethod.class);
+        RequestWrapper request = method.getAnnotation(RequestWrapper.class);
+        ResponseWrapper response = method.getAnnotation(ResponseWrapper.class);
+        WebResult result = method.getAnnotation(WebResult.class);
+
+        this.method = method;
+        this.operationName = webMethod != null && !webMethod.operationName().isEmpty()
+            ? webMethod.operationName()
+            : request != null && !request.localName().isEmpty() ? request.localName() : method.getName();
+        this.soapAction = webMethod != null ? webMethod.action() : "";
+        this.requestWrapper = new QName(
+            request != null && !request.targetNamespace().isEmpty() ? request.targetNamespace() : namespace,
+            request != null && !request.localName().isEmpty() ? request.localName() : operationName);
+        this.responseWrapper = new QName(
+            response != null && !response.targetNamespace().isEmpty() ? response.targetNamespace() : namespace,
+            response != null && !response.localName().isEmpty() ? response.localName() : operationName + "Response");
+        this.resultName = new QName(
+            result != null ? result.targetNamespace() : "",
+            result != null && !result.name().isEmpty() ? result.name() : "return");
+        this.resultType = method.getReturnType();
+        this.parameterTypes = method.getParameterTypes();
+        this.parameterNames = new QName[parameterTypes.length];
+
+        Annotation[][] annotations = method.getParameterAnnotations();
+        for (int i = 0; i < parameterTypes.length; i++) {
+            WebParam param = find(annotations[i]);
+            parameterNames[i] = new QName(
+                param != null ? param.targetNamespace() : "",
+                param != null && !param.name().isEmpty() ? param.name() : "arg" + i);
+        }
+    }
+
+    static SoapOperation of(Method method) {
+        return new SoapOperation(method);
+    }
+
+    /**
+     * Namespace del servicio según {@link WebService#targetNamespace()} o, si no está, derivado
+     * del paquete como lo hace JAX-WS ({@code fev1.dif.afip.gov.ar} → {@code http://ar.gov.afip.dif.fev1/}).
+     */
+    static String targetNamespace(Class<?> portClass) {
+        WebService webService = portClass.getAnnotation(WebService.class);
+        if (webService != null && !webService.targetNamespace().isEmpty()) return webService.targetNamespace();
+
+        String[] parts = portClass.getPackageName().split("\\.");
+        StringBuilder namespace = new StringBuilder("http://");
+        for (int i = parts.length - 1; i >= 0; i--) {
+            namespace.append(parts[i]);
+            if (i > 0) namespace.append('.');
+        }
+        return namespace.append('/').toString();
+    }
+
+    private static WebParam find(Annotation[] annotations) {
+        for (Annotation annotation : annotations) {
+            if (annotation instanceof WebParam) return (WebParam) annotation;
+        }
+        return null;
+    }
+}
@@ -3,7 +3,139 @@ package com.germanfica.wsfe.net;
 
 import com.germanfica.wsfe.exception.ApiException;
 
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
 public interface SoapRequestHandler {
     <T> T handleRequest(ApiRequest apiRequest, RequestExecutor<T> executor) throws ApiException;
     <P, R> R invoke(ApiRequest apiRequest, Class<P> portClass, PortInvoker<P, R> invoker) throws ApiException;
+
+    /**
+     * Igual que {@link #invoke(ApiRequest, Class, PortInvoker)}, indicando el nombre de la operación
+     * del WSDL para aplicar la configuración propia de esa operación (por ejemplo, sus timeouts).
+     */
+    default <P, R> R invoke(ApiRequest apiRequest, Class<P> portClass, String operationName, PortInvoker<P, R> invoker) throws ApiException {
+        return invoke(apiRequest, portClass, invoker);
+    }
+
+    /**
+     * Igual que {@link #invoke(ApiRequest, Class, String, PortInvoker)} para operaciones
+     * {@link Idempotency#RECONCILE}: antes de reintentar se consulta a {@code reconciler}.
+     */
+    default <P, R> R invoke(ApiRequest apiRequest, Class<P> portClass, String operationName, RetryReconciler reconciler, PortInvoker<P, R> invoker) throws ApiException {
+        return invoke(apiRequest, portClass, operationName, invoker);
+    }
+
+    /**
+     * Igual que {@link #invoke(ApiRequest, Class, String, PortInvoker)}, con el tipo de la respuesta
+     * y los argumentos de la operación, como en {@link #invokeAsync(ApiRequest, Class, String, Class, Object...)}.
+     */
+    default <P, R> R invoke(ApiRequest apiRequest, Class<P> portClass, String operationName, Class<R> responseType, Object... args) throws ApiException {
+        return invoke(apiRequest, portClass, operationName, null, responseType, args);
+    }
+
+    /**
+     * Igual que {@link #invoke(ApiRequest, Class, String, Class, Object...)} para operaciones
+     * {@link Idempotency#RECONCILE}. Por defecto invoca el método del port que corresponde a
+     * {@code operationName} con {@code args}.
+     */
+    default <P, R> R invoke(ApiRequest apiRequest, Class<P> portClass, String operationName, RetryReconciler reconciler, Class<R> responseType, Object... args) throws ApiException {
+        return invoke(apiRequest, portClass, operationName, reconciler, PortMethods.invoker(portClass, operationName, responseType, args));
+    }
+
+    <P, R> CompletableFuture<R> invokeAsync(ApiRequest apiRequest, Class<P> portClass, String operationName, Class<R> responseType, Object... args);
+
+    /**
+     * Versión asíncrona de {@link #invoke(ApiRequest, Class, String, RetryReconciler, PortInvoker)}.
+     */
+    default <P, R> CompletableFuture<R> invokeAsync(ApiRequest apiRequest, Class<P> portClass, String operationName, RetryReconciler reconciler, Class<R> responseType, Object... args) {
+        return invokeAsync(apiRequest, portClass, operationName, responseType, args);
+    }
+
+    /**
+     * Executor donde el SDK corre el trabajo bloqueante de las llamadas asíncronas
+     * (por ejemplo, obtener o refrescar el TA) y los callbacks de respuesta.
+     */
+    default Executor getExecutor() {
+        return ClientExecutors.defaultExecutor();
+    }
+
+    /**
+     * Limitador de concurrencia adaptativo de la operación {@code operationName} de {@code portClass},
+     * para monitoreo, o {@code null} si el handler no limita la concurrencia.
+     */
+    default ConcurrencyLimiter getConcurrencyLimiter(Class<?> portClass, String operationName) {
+        return null;
+    }
+
+    /**
+     * Cupo propio del servicio de {@code portClass} (ver {@link BulkheadOptions}), para
+     * monitoreo, o {@code null} si el handler no aísla los servicios.
+     */
+    default Bulkhead getBulkhead(Class<?> portClass) {
+        return null;
+    }
+
+    /**
+     * Limitador de frecuencia por CUIT y operación, o {@code null} si el handler no lo aplica.
+     */
+    default RateLimiter getRateLimiter() {
+        return null;
+    }
+
+    /**
+     * Caché de sesiones TLS del cliente, para verificar que las reconexiones reanudan la sesión, o
+     * {@code null} si el handler usa el contexto por defecto de cada transporte.
+     */
+    default TlsSessionCache getTlsSessionCache() {
+        return null;
+    }
+
+    /**
+     * Caché DNS del cliente, o {@code null} si el handler no la aplica.
+     */
+    default DnsCache getDnsCache() {
+        return null;
+    }
+
+    /**
+     * Estado de los endpoints de {@code portClass} con la configuración del cliente (ver
+     * {@link FailoverOptions}), o una lista vacía si el handler no lo registra.
+     */
+    default List<EndpointStatus> getEndpoints(Class<?> portClass) {
+        return List.of();
+    }
+
+    /**
+     * Crea de antemano los ports de {@code portClass} que usarán {@code operationNames} (uno por
+     * cada combinación de timeouts), para que la primera llamada no pague la construcción del
+     * modelo del servicio ni del contexto JAXB.
+     *
+     * @return la cantidad de ports preparados; {@code 0} si el handler no tiene pool.
+     */
+    default int preparePorts(ApiRequest apiRequest, Class<?> portClass, Collection<String> operationNames) throws ApiException {
+        return 0;
+    }
+
+    /**
+     * Deja de aceptar solicitudes, espera hasta {@code drainTimeout} a que terminen las que están en
+     * curso y libera los recursos del handler (ports, conexiones, threads propios). Las solicitudes
+     * que no terminan a tiempo se abandonan y fallan con {@code ClientClosedException}. Llamarlo
+     * más de una vez devuelve el reporte del primer cierre.
+     * <p>
+     * Un handler sin recursos propios no hace nada.
+     */
+    default ShutdownReport shutdown(Duration drainTimeout) {
+        return new ShutdownReport(0, 0, Duration.ZERO, List.of());
+    }
+
+    /**
+     * Indica si se llamó a {@link #shutdown(Duration)}.
+     */
+    default boolean isClosed() {
+        return false;
+    }
 }
@@ -1,10 +1,77 @@
 package com.germanfica.wsfe.net;
 
 import java.net.Proxy;
+import java.util.List;
+import java.util.concurrent.Executor;
 
+/**
+ * Configuración que un cliente entrega a {@link DefaultSoapRequestHandler}. Los getters que no son
+ * abstractos devuelven {@code null}, que el handler reemplaza por el default de cada opción: una
+ * subclase solo redefine los que configura.
+ */
 public abstract class SoapResponseGetterOptions {
     public abstract String getUrlBase();
     public abstract ApiEnvironment getApiEnvironment();
     public abstract ProxyOptions getProxyOptions();
     public abstract HttpTransportMode getHttpTransportMode();
+
+    public WsdlMode getWsdlMode() {
+        return null;
+    }
+
+    public Executor getExecutor() {
+        return null;
+    }
+
+    public ConnectionPoolOptions getConnectionPoolOptions() {
+        return null;
+    }
+
+    public TimeoutPolicy getTimeoutPolicy() {
+        return null;
+    }
+
+    public RetryPolicy getRetryPolicy() {
+        return null;
+    }
+
+    public CircuitBreakerOptions getCircuitBreakerOptions() {
+        return null;
+    }
+
+    public ConcurrencyLimitOptions getConcurrencyLimitOptions() {
+        return null;
+    }
+
+    public RateLimitPolicy getRateLimitPolicy() {
+        return null;
+    }
+
+    public HedgingOptions getHedgingOptions() {
+        return null;
+    }
+
+    public TlsOptions getTlsOptions() {
+        return null;
+    }
+
+    public DnsCacheOptions getDnsCacheOptions() {
+        return null;
+    }
+
+    public FailoverOptions getFailoverOptions() {
+        return null;
+    }
+
+    public BulkheadOptions getBulkheadOptions() {
+        return null;
+    }
+
+    public List<SoapInterceptor> getInterceptors() {
+        return null;
+    }
+
+    public ErrorReportingOptions getErrorReportingOptions() {
+        return null;
+    }
 }
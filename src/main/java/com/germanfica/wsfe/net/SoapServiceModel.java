@@ -0,0 +1,289 @@
+package com.germanfica.wsfe.net;
+
+import jakarta.xml.bind.JAXBContext;
+import jakarta.xml.bind.JAXBElement;
+import jakarta.xml.bind.JAXBException;
+import jakarta.xml.bind.Marshaller;
+import jakarta.xml.bind.Unmarshaller;
+import jakarta.xml.bind.annotation.XmlSeeAlso;
+import jakarta.xml.soap.SOAPConstants;
+import jakarta.xml.soap.SOAPException;
+import jakarta.xml.soap.SOAPFactory;
+import jakarta.xml.soap.SOAPFault;
+import jakarta.xml.ws.WebServiceException;
+import jakarta.xml.ws.soap.SOAPFaultException;
+
+import javax.xml.XMLConstants;
+import javax.xml.namespace.QName;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.stream.XMLStreamWriter;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Modelo SOAP 1.1 de un port, construido una única vez por interfaz a partir de sus anotaciones
+ * JAX-WS: el {@link JAXBContext} de sus tipos, las operaciones y pools de {@link Marshaller} /
+ * {@link Unmarshaller} (que no son thread-safe, pero sí reutilizables).
+ * <p>
+ * Arma el envelope de cada request y lee la respuesta sin pasar por la cadena de interceptores de CXF.
+ */
+final class SoapServiceModel {
+    static final String SOAP_ENV_NS = SOAPConstants.URI_NS_SOAP_1_1_ENVELOPE;
+
+    private static final Map<Class<?>, SoapServiceModel> MODELS = new ConcurrentHashMap<>();
+    private static final XMLOutputFactory OUTPUT_FACTORY = XMLOutputFactory.newFactory();
+    private static final XMLInputFactory INPUT_FACTORY = createInputFactory();
+
+    private final JAXBContext context;
+    private final Map<Method, SoapOperation> operationsByMethod;
+    private final Map<String, SoapOperation> operationsByName;
+    private final ConcurrentLinkedQueue<Marshaller> marshallers = new ConcurrentLinkedQueue<>();
+    private final ConcurrentLinkedQueue<Unmarshaller> unmarshallers = new ConcurrentLinkedQueue<>();
+
+    private SoapServiceModel(Class<?> portClass) {
+        Map<Method, SoapOperation> byMethod = new HashMap<>();
+        Map<String, SoapOperation> byName = new HashMap<>();
+        Set<Class<?>> types = new LinkedHashSet<>();
+
+        XmlSeeAlso seeAlso = portClass.getAnnotation(XmlSeeAlso.class);
+        if (seeAlso != null) types.addAll(Arrays.asList(seeAlso.value()));
+
+        for (Method method : portClass.getMethods()) {
+            if (method.getDeclaringClass() == Object.class || Modifier.isStatic(method.getModifiers())) continue;
+            SoapOperation operation = SoapOperation.of(method);
+            byMethod.put(method, operation);
+            byName.put(operation.getOperationName(), operation);
+            byName.putIfAbsent(method.getName(), operation);
+            addBindableType(types, operation.getResultType());
+            for (Class<?> type : operation.getParameterTypes()) addBindableType(types, type);
+        }
+
+        try {
+            this.context = JAXBContext.newInstance(types.toArray(new Class<?>[0]));
+        } catch (JAXBException e) {
+            throw new WebServiceException("No se pudo crear el JAXBContext de " + portClass.getName(), e);
+        }
+        this.operationsByMethod = Collections.unmodifiableMap(byMethod);
+        this.operationsByName = Collections.unmodifiableMap(byName);
+    }
+
+    static SoapServiceModel of(Class<?> portClass) {
+        return MODELS.computeIfAbsent(portClass, SoapServiceModel::new);
+    }
+
+    SoapOperation operation(Method method) {
+        return operationsByMethod.get(method);
+    }
+
+    /**
+     * Busca la operación por su nombre en el WSDL (por ejemplo {@code "FECAESolicitar"}) o por el
+     * nombre del método de la interfaz.
+     */
+    SoapOperation operation(String operationName) {
+        SoapOperation operation = operationsByName.get(operationName);
+        if (operation == null) throw new IllegalArgumentException("Unknown operation: " + operationName);
+        return operation;
+    }
+
+    /**
+     * Serializa el envelope SOAP 1.1 de la operación con sus parámetros.
+     */
+    byte[] writeRequest(SoapOperation operation, Object[] args) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(1024);
+        writeRequest(operation, args, out);
+        return out.toByteArray();
+    }
+
+    /**
+     * Serializa el envelope SOAP 1.1 de la operación sobre {@code out}, sin copias intermedias.
+     */
+    void writeRequest(SoapOperation operation, Object[] args, OutputStream out) {
+        Marshaller marshaller = borrowMarshaller();
+        try {
+            XMLStreamWriter writer = OUTPUT_FACTORY.createXMLStreamWriter(out, StandardCharsets.UTF_8.name());
+            QName wrapper = operation.getRequestWrapper();
+
+            writer.writeStartDocument(StandardCharsets.UTF_8.name(), "1.0");
+            writer.writeStartElement("soap", "Envelope", SOAP_ENV_NS);
+            writer.writeNamespace("soap", SOAP_ENV_NS);
+            writer.writeStartElement("soap", "Body", SOAP_ENV_NS);
+            writer.writeStartElement("op", wrapper.getLocalPart(), wrapper.getNamespaceURI());
+            writer.writeNamespace("op", wrapper.getNamespaceURI());
+
+            QName[] names = operation.getParameterNames();
+            Class<?>[] types = operation.getParameterTypes();
+            for (int i = 0; i < names.length; i++) {
+                Object value = args != null ? args[i] : null;
+                if (value == null) continue;
+                marshaller.marshal(parameter(names[i], types[i], value), writer);
+            }
+
+            writer.writeEndElement();
+            writer.writeEndElement();
+            writer.writeEndElement();
+            writer.writeEndDocument();
+            writer.close();
+        } catch (JAXBException | XMLStreamException e) {
+            throw new WebServiceException("No se pudo serializar el request de " + operation.getOperationName(), e);
+        } finally {
+            marshallers.offer(marshaller);
+        }
+    }
+
+    /**
+     * Lee la respuesta de la operación. Si el body contiene un {@code soap:Fault} se lanza
+     * {@link SOAPFaultException}, igual que con los ports de CXF.
+     */
+    Object readResponse(SoapOperation operation, InputStream in) {
+        Unmarshaller unmarshaller = borrowUnmarshaller();
+        XMLStreamReader reader = null;
+        try {
+            reader = INPUT_FACTORY.createXMLStreamReader(in);
+            moveToBodyContent(reader);
+
+            if (SOAP_ENV_NS.equals(reader.getNamespaceURI()) && "Fault".equals(reader.getLocalName())) {
+                throw readFault(reader);
+            }
+            if (!operation.getResponseWrapper().getLocalPart().equals(reader.getLocalName())) {
+                throw new WebServiceException("Unexpected wrapper element " + reader.getName()
+                    + " found. Expected " + operation.getResponseWrapper() + ".");
+            }
+
+            String resultName = operation.getResultName().getLocalPart();
+            while (reader.nextTag() == XMLStreamConstants.START_ELEMENT) {
+                if (resultName.equals(reader.getLocalName())) {
+                    return unmarshaller.unmarshal(reader, operation.getResultType()).getValue();
+                }
+                skipElement(reader);
+            }
+            return null;
+        } catch (JAXBException | XMLStreamException e) {
+            throw new WebServiceException("No se pudo leer la respuesta de " + operation.getOperationName(), e);
+        } finally {
+            unmarshallers.offer(unmarshaller);
+            closeQuietly(reader);
+        }
+    }
+
+    private static void moveToBodyContent(XMLStreamReader reader) throws XMLStreamException {
+        while (reader.hasNext()) {
+            if (reader.next() == XMLStreamConstants.START_ELEMENT
+                && SOAP_ENV_NS.equals(reader.getNamespaceURI())
+                && "Body".equals(reader.getLocalName())) {
+                reader.nextTag();
+                return;
+            }
+        }
+        throw new WebServiceException("La respuesta no contiene un soap:Body");
+    }
+
+    private static SOAPFaultException readFault(XMLStreamReader reader) throws XMLStreamException {
+        QName faultCode = null;
+        String faultString = null;
+
+        while (reader.nextTag() == XMLStreamConstants.START_ELEMENT) {
+            String name = reader.getLocalName();
+            if ("faultcode".equals(name)) {
+                faultCode = toQName(reader, reader.getElementText().trim());
+            } else if ("faultstring".equals(name)) {
+                faultString = reader.getElementText().trim();
+            } else {
+                skipElement(reader);
+            }
+        }
+
+        try {
+            SOAPFault fault = SOAPFactory.newInstance().createFault(
+                faultString != null ? faultString : "",
+                faultCode != null ? faultCode : new QName(SOAP_ENV_NS, "Server"));
+            return new SOAPFaultException(fault);
+        } catch (SOAPException e) {
+            throw new WebServiceException(faultString, e);
+        }
+    }
+
+    /**
+     * Resuelve el prefijo del faultcode. SAAJ requiere un código calificado, así que los códigos sin
+     * namespace se califican con el del envelope (se conserva el nombre local, que es lo que se reporta).
+     */
+    private static QName toQName(XMLStreamReader reader, String value) {
+        int idx = value.indexOf(':');
+        String prefix = idx > 0 ? value.substring(0, idx) : XMLConstants.DEFAULT_NS_PREFIX;
+        String localPart = idx > 0 ? value.substring(idx + 1) : value;
+        String namespace = reader.getNamespaceURI(prefix);
+        return new QName(namespace != null && !namespace.isEmpty() ? namespace : SOAP_ENV_NS, localPart);
+    }
+
+    private static void skipElement(XMLStreamReader reader) throws XMLStreamException {
+        int depth = 1;
+        while (depth > 0) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.START_ELEMENT) depth++;
+            else if (event == XMLStreamConstants.END_ELEMENT) depth--;
+        }
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static JAXBElement<?> parameter(QName name, Class<?> type, Object value) {
+        Class<?> declaredType = type.isPrimitive() ? value.getClass() : type;
+        return new JAXBElement(name, declaredType, value);
+    }
+
+    private Marshaller borrowMarshaller() {
+        Marshaller marshaller = marshallers.poll();
+        if (marshaller != null) return marshaller;
+        try {
+            marshaller = context.createMarshaller();
+            marshaller.setProperty(Marshaller.JAXB_FRAGMENT, Boolean.TRUE);
+            return marshaller;
+        } catch (JAXBException e) {
+            throw new WebServiceException(e);
+        }
+    }
+
+    private Unmarshaller borrowUnmarshaller() {
+        Unmarshaller unmarshaller = unmarshallers.poll();
+        if (unmarshaller != null) return unmarshaller;
+        try {
+            return context.createUnmarshaller();
+        } catch (JAXBException e) {
+            throw new WebServiceException(e);
+        }
+    }
+
+    private static void addBindableType(Set<Class<?>> types, Class<?> type) {
+        if (type.isPrimitive() || type == Void.class || type.getName().startsWith("java.")) return;
+        types.add(type);
+    }
+
+    private static XMLInputFactory createInputFactory() {
+        XMLInputFactory factory = XMLInputFactory.newFactory();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, Boolean.FALSE);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, Boolean.FALSE);
+        return factory;
+    }
+
+    private static void closeQuietly(XMLStreamReader reader) {
+        if (reader == null) return;
+        try {
+            reader.close();
+        } catch (XMLStreamException ignored) {
+        }
+    }
+}
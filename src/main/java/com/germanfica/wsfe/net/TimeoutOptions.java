@@ -0,0 +1,58 @@
+package com.germanfica.wsfe.net;
+
+import lombok.Builder;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+
+import java.time.Duration;
+
+/**
+ * Timeouts de una llamada SOAP.
+ * <p>
+ * {@code connectTimeout} y {@code receiveTimeout} se aplican al {@code HTTPClientPolicy} del conduit;
+ * {@code deadline} es el tiempo total máximo de la llamada y además acota a los otros dos.
+ * Un valor {@code null} hereda el del nivel anterior (ver {@link #merge(TimeoutOptions, TimeoutOptions)}).
+ */
+@Getter
+@Builder(setterPrefix = "set")
+@EqualsAndHashCode(callSuper = false)
+public class TimeoutOptions {
+    private final Duration connectTimeout;
+    private final Duration receiveTimeout;
+    private final Duration deadline;
+
+    /**
+     * Combina dos configuraciones campo a campo: los valores de {@code override} tienen prioridad
+     * y los {@code null} se completan con {@code base}.
+     */
+    public static TimeoutOptions merge(TimeoutOptions override, TimeoutOptions base) {
+        if (override == null) return base;
+        if (base == null) return override;
+
+        return TimeoutOptions.builder()
+            .setConnectTimeout(override.connectTimeout != null ? override.connectTimeout : base.connectTimeout)
+            .setReceiveTimeout(override.receiveTimeout != null ? override.receiveTimeout : base.receiveTimeout)
+            .setDeadline(override.deadline != null ? override.deadline : base.deadline)
+            .build();
+    }
+
+    /**
+     * Connect timeout efectivo: nunca mayor que el deadline.
+     */
+    public Duration getEffectiveConnectTimeout() {
+        return min(connectTimeout, deadline);
+    }
+
+    /**
+     * Receive timeout efectivo: nunca mayor que el deadline.
+     */
+    public Duration getEffectiveReceiveTimeout() {
+        return min(receiveTimeout, deadline);
+    }
+
+    private static Duration min(Duration timeout, Duration deadline) {
+        if (timeout == null) return deadline;
+        if (deadline == null) return timeout;
+        return timeout.compareTo(deadline) <= 0 ? timeout : deadline;
+    }
+}
@@ -0,0 +1,137 @@
+package com.germanfica.wsfe.net;
+
+import lombok.AccessLevel;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Política de timeouts por operación.
+ * <p>
+ * Cada operación se resuelve buscando primero su nombre exacto y luego el prefijo más largo
+ * terminado en {@code *} (por ejemplo {@code "FEParamGet*"}); el resultado se completa con los
+ * timeouts por defecto. Los nombres no distinguen mayúsculas, así que {@code "feDummy"} y
+ * {@code "FEDummy"} son equivalentes.
+ *
+ * <pre>{@code
+ * TimeoutPolicy policy = TimeoutPolicy.defaults().toBuilder()
+ *     .setOperation("FECAESolicitar", TimeoutOptions.builder()
+ *         .setReceiveTimeout(Duration.ofMinutes(2))
+ *         .build())
+ *     .build();
+ * }</pre>
+ */
+@Getter
+@EqualsAndHashCode(callSuper = false)
+public class TimeoutPolicy {
+    private final TimeoutOptions defaultTimeouts;
+    private final Map<String, TimeoutOptions> operationTimeouts;
+
+    @Getter(AccessLevel.NONE)
+    @EqualsAndHashCode.Exclude
+    private final Map<String, TimeoutOptions> resolved = new ConcurrentHashMap<>();
+
+    private TimeoutPolicy(TimeoutOptions defaultTimeouts, Map<String, TimeoutOptions> operationTimeouts) {
+        this.defaultTimeouts = defaultTimeouts;
+        this.operationTimeouts = Collections.unmodifiableMap(new LinkedHashMap<>(operationTimeouts));
+    }
+
+    /**
+     * Timeouts sugeridos para WSFE/WSAA: consultas cortas para {@code FEDummy} y {@code FEParamGet*},
+     * y más margen para {@code FECAESolicitar}, que ARCA puede tardar en procesar con lotes grandes.
+     */
+    public static TimeoutPolicy defaults() {
+        return builder()
+            .setDefault(timeouts(10, 60, null))
+            .setOperation("FEDummy", timeouts(3, 5, 10))
+            .setOperation("FEParamGet*", timeouts(5, 15, 20))
+            .setOperation("FECAESolicitar", timeouts(10, 90, 120))
+            .build();
+    }
+
+    /**
+     * Devuelve los timeouts de {@code operationName}, o los timeouts por defecto si la operación
+     * es {@code null} o no tiene una configuración propia.
+     */
+    public TimeoutOptions resolve(String operationName) {
+        if (operationName == null) return defaultTimeouts;
+        return resolved.computeIfAbsent(normalize(operationName), this::lookup);
+    }
+
+    private TimeoutOptions lookup(String operationName) {
+        TimeoutOptions match = operationTimeouts.get(operationName);
+
+        if (match == null) {
+            int longestPrefix = -1;
+            for (Map.Entry<String, TimeoutOptions> entry : operationTimeouts.entrySet()) {
+                String key = entry.getKey();
+                if (!key.endsWith("*")) continue;
+                String prefix = key.substring(0, key.length() - 1);
+                if (operationName.startsWith(prefix) && prefix.length() > longestPrefix) {
+                    longestPrefix = prefix.length();
+                    match = entry.getValue();
+                }
+            }
+        }
+
+        return TimeoutOptions.merge(match, defaultTimeouts);
+    }
+
+    private static String normalize(String operationName) {
+        return operationName.toLowerCase(Locale.ROOT);
+    }
+
+    private static TimeoutOptions timeouts(long connectSeconds, long receiveSeconds, Integer deadlineSeconds) {
+        return TimeoutOptions.builder()
+            .setConnectTimeout(Duration.ofSeconds(connectSeconds))
+            .setReceiveTimeout(Duration.ofSeconds(receiveSeconds))
+            .setDeadline(deadlineSeconds != null ? Duration.ofSeconds(deadlineSeconds) : null)
+            .build();
+    }
+
+    public static TimeoutPolicyBuilder builder() {
+        return new TimeoutPolicyBuilder();
+    }
+
+    public TimeoutPolicyBuilder toBuilder() {
+        TimeoutPolicyBuilder builder = new TimeoutPolicyBuilder().setDefault(defaultTimeouts);
+        builder.operationTimeouts.putAll(operationTimeouts);
+        return builder;
+    }
+
+    public static class TimeoutPolicyBuilder {
+        private TimeoutOptions defaultTimeouts;
+        private final Map<String, TimeoutOptions> operationTimeouts = new LinkedHashMap<>();
+
+        public TimeoutPolicyBuilder setDefault(TimeoutOptions defaultTimeouts) {
+            this.defaultTimeouts = defaultTimeouts;
+            return this;
+        }
+
+        /**
+         * Define los timeouts de una operación. {@code operationName} puede terminar en {@code *}
+         * para aplicar a todas las operaciones con ese prefijo.
+         */
+        public TimeoutPolicyBuilder setOperation(String operationName, TimeoutOptions timeouts) {
+            if (operationName == null || operationName.isBlank()) {
+                throw new IllegalArgumentException("Empty operation name specified!");
+            }
+            if (timeouts == null) {
+                operationTimeouts.remove(normalize(operationName));
+            } else {
+                operationTimeouts.put(normalize(operationName), timeouts);
+            }
+            return this;
+        }
+
+        public TimeoutPolicy build() {
+            return new TimeoutPolicy(defaultTimeouts, operationTimeouts);
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.germanfica.wsfe.net;
+
+import lombok.Builder;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+
+import java.time.Duration;
+
+/**
+ * Ajustes del {@link javax.net.ssl.SSLContext} que el cliente comparte entre todos sus conduits y
+ * transportes (ver {@link TlsSessionCache}).
+ * <p>
+ * Las sesiones TLS negociadas quedan en una caché de hasta {@link #sessionCacheSize} entradas durante
+ * {@link #sessionTimeout}; una conexión nueva al mismo host las reanuda con un handshake abreviado en
+ * lugar de uno completo. Con {@link #disabled()} se usa el contexto por defecto de cada transporte.
+ */
+@Getter
+@Builder(setterPrefix = "set")
+@EqualsAndHashCode(callSuper = false)
+public class TlsOptions {
+    @Builder.Default
+    private final boolean enabled = true;
+    @Builder.Default
+    private final String protocol = "TLS";
+    @Builder.Default
+    private final int sessionCacheSize = 1024;
+    @Builder.Default
+    private final Duration sessionTimeout = Duration.ofHours(24);
+
+    public static TlsOptions defaults() {
+        return TlsOptions.builder().build();
+    }
+
+    public static TlsOptions disabled() {
+        return TlsOptions.builder().setEnabled(false).build();
+    }
+}
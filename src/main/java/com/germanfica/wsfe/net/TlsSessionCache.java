@@ -0,0 +1,393 @@
+package com.germanfica.wsfe.net;
+
+import javax.net.ssl.KeyManager;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLContextSpi;
+import javax.net.ssl.SSLEngine;
+import javax.net.ssl.SSLEngineResult;
+import javax.net.ssl.SSLException;
+import javax.net.ssl.SSLParameters;
+import javax.net.ssl.SSLServerSocketFactory;
+import javax.net.ssl.SSLSession;
+import javax.net.ssl.SSLSessionContext;
+import javax.net.ssl.SSLSocket;
+import javax.net.ssl.SSLSocketFactory;
+import javax.net.ssl.TrustManager;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.security.GeneralSecurityException;
+import java.security.KeyManagementException;
+import java.security.SecureRandom;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiFunction;
+
+/**
+ * {@link SSLContext} del cliente, compartido por los conduits de CXF y por los transportes
+ * {@code java.net.http}, con la caché de sesiones de {@link TlsOptions}.
+ * <p>
+ * Al compartir un único contexto, una conexión nueva a {@code servicios1.afip.gov.ar} o
+ * {@code wsaa.afip.gov.ar} reanuda la sesión TLS negociada por cualquier otra conexión previa (de
+ * cualquier port o transporte) en lugar de repetir el handshake completo.
+ * <p>
+ * Cada conexión se cuenta cuando termina su handshake, según la sesión que negoció: si la sesión es
+ * anterior a la conexión, se reanudó (en TLS 1.2 con el mismo session ID y en TLS 1.3 con un PSK de
+ * la sesión previa); si no, hubo handshake completo. Los sockets de {@code HttpURLConnection} avisan
+ * con un {@link javax.net.ssl.HandshakeCompletedListener}; los {@link SSLEngine} de
+ * {@code java.net.http} y HC5 lo informan en el resultado del {@code wrap}/{@code unwrap} que cierra
+ * el handshake, donde solo se compara un instante y se incrementa un contador.
+ */
+public final class TlsSessionCache {
+    private final SSLContext delegate;
+    private final SSLContext sslContext;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    TlsSessionCache(TlsOptions options) {
+        try {
+            this.delegate = SSLContext.getInstance(options.getProtocol());
+            this.delegate.init(null, null, null);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("No se pudo crear el SSLContext " + options.getProtocol(), e);
+        }
+        SSLSessionContext sessions = delegate.getClientSessionContext();
+        sessions.setSessionCacheSize(options.getSessionCacheSize());
+        sessions.setSessionTimeout((int) Math.min(Integer.MAX_VALUE, options.getSessionTimeout().getSeconds()));
+        this.sslContext = new SSLContext(new CountingSpi(), delegate.getProvider(), delegate.getProtocol()) { };
+    }
+
+    /**
+     * Conexiones que reanudaron una sesión TLS previa.
+     */
+    public long getHits() {
+        return hits.sum();
+    }
+
+    /**
+     * Conexiones que tuvieron que hacer el handshake completo.
+     */
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * Sesiones en la caché.
+     */
+    public int getCachedSessions() {
+        int count = 0;
+        for (Enumeration<byte[]> ids = delegate.getClientSessionContext().getIds(); ids.hasMoreElements(); ids.nextElement()) {
+            count++;
+        }
+        return count;
+    }
+
+    SSLContext getSslContext() {
+        return sslContext;
+    }
+
+    /**
+     * Cuenta el handshake que terminó una conexión creada en {@code connectedAtMillis}.
+     */
+    void onHandshake(SSLSession session, long connectedAtMillis) {
+        if (session == null || !session.isValid()) return;
+        if (session.getCreationTime() < connectedAtMillis) {
+            hits.increment();
+        } else {
+            misses.increment();
+        }
+    }
+
+    /**
+     * Delega en el contexto real y observa cada conexión nueva: {@code java.net.http} y HC5 crean un
+     * {@link SSLEngine} por conexión, y el conduit {@code HttpURLConnection} un socket.
+     */
+    private final class CountingSpi extends SSLContextSpi {
+        /**
+         * Reinicializa el contexto real con otras credenciales; la caché de sesiones se conserva.
+         */
+        @Override
+        protected void engineInit(KeyManager[] km, TrustManager[] tm, SecureRandom random) throws KeyManagementException {
+            delegate.init(km, tm, random);
+        }
+
+        @Override
+        protected SSLSocketFactory engineGetSocketFactory() {
+            return new CountingSocketFactory(delegate.getSocketFactory());
+        }
+
+        @Override
+        protected SSLServerSocketFactory engineGetServerSocketFactory() {
+            return delegate.getServerSocketFactory();
+        }
+
+        @Override
+        protected SSLEngine engineCreateSSLEngine() {
+            return new CountingEngine(delegate.createSSLEngine());
+        }
+
+        @Override
+        protected SSLEngine engineCreateSSLEngine(String host, int port) {
+            return new CountingEngine(delegate.createSSLEngine(host, port));
+        }
+
+        @Override
+        protected SSLSessionContext engineGetServerSessionContext() {
+            return delegate.getServerSessionContext();
+        }
+
+        @Override
+        protected SSLSessionContext engineGetClientSessionContext() {
+            return delegate.getClientSessionContext();
+        }
+
+        @Override
+        protected SSLParameters engineGetDefaultSSLParameters() {
+            return delegate.getDefaultSSLParameters();
+        }
+
+        @Override
+        protected SSLParameters engineGetSupportedSSLParameters() {
+            return delegate.getSupportedSSLParameters();
+        }
+    }
+
+    private final class CountingSocketFactory extends SSLSocketFactory {
+        private final SSLSocketFactory factory;
+
+        private CountingSocketFactory(SSLSocketFactory factory) {
+            this.factory = factory;
+        }
+
+        @Override
+        public String[] getDefaultCipherSuites() {
+            return factory.getDefaultCipherSuites();
+        }
+
+        @Override
+        public String[] getSupportedCipherSuites() {
+            return factory.getSupportedCipherSuites();
+        }
+
+        @Override
+        public Socket createSocket() throws IOException {
+            return counted(factory.createSocket());
+        }
+
+        @Override
+        public Socket createSocket(Socket socket, String host, int port, boolean autoClose) throws IOException {
+            return counted(factory.createSocket(socket, host, port, autoClose));
+        }
+
+        @Override
+        public Socket createSocket(String host, int port) throws IOException {
+            return counted(factory.createSocket(host, port));
+        }
+
+        @Override
+        public Socket createSocket(String host, int port, InetAddress localHost, int localPort) throws IOException {
+            return counted(factory.createSocket(host, port, localHost, localPort));
+        }
+
+        @Override
+        public Socket createSocket(InetAddress host, int port) throws IOException {
+            return counted(factory.createSocket(host, port));
+        }
+
+        @Override
+        public Socket createSocket(InetAddress address, int port, InetAddress localAddress, int localPort) throws IOException {
+            return counted(factory.createSocket(address, port, localAddress, localPort));
+        }
+
+        /**
+         * El JDK notifica el fin del handshake en un thread propio, fuera del que lee el socket.
+         */
+        private Socket counted(Socket socket) {
+            if (socket instanceof SSLSocket) {
+                long connectedAt = System.currentTimeMillis();
+                ((SSLSocket) socket).addHandshakeCompletedListener(event -> onHandshake(event.getSession(), connectedAt));
+            }
+            return socket;
+        }
+    }
+
+    /**
+     * {@link SSLEngine} que delega en el del contexto real y cuenta su handshake inicial al verlo
+     * terminar ({@link SSLEngineResult.HandshakeStatus#FINISHED}).
+     */
+    private final class CountingEngine extends SSLEngine {
+        private final SSLEngine engine;
+        private final long createdAtMillis = System.currentTimeMillis();
+        private volatile boolean counted;
+
+        private CountingEngine(SSLEngine engine) {
+            super(engine.getPeerHost(), engine.getPeerPort());
+            this.engine = engine;
+        }
+
+        private SSLEngineResult observe(SSLEngineResult result) {
+            if (!counted && result.getHandshakeStatus() == SSLEngineResult.HandshakeStatus.FINISHED) {
+                counted = true;
+                onHandshake(engine.getSession(), createdAtMillis);
+            }
+            return result;
+        }
+
+        @Override
+        public SSLEngineResult wrap(ByteBuffer[] srcs, int offset, int length, ByteBuffer dst) throws SSLException {
+            return observe(engine.wrap(srcs, offset, length, dst));
+        }
+
+        @Override
+        public SSLEngineResult unwrap(ByteBuffer src, ByteBuffer[] dsts, int offset, int length) throws SSLException {
+            return observe(engine.unwrap(src, dsts, offset, length));
+        }
+
+        @Override
+        public Runnable getDelegatedTask() {
+            return engine.getDelegatedTask();
+        }
+
+        @Override
+        public void closeInbound() throws SSLException {
+            engine.closeInbound();
+        }
+
+        @Override
+        public boolean isInboundDone() {
+            return engine.isInboundDone();
+        }
+
+        @Override
+        public void closeOutbound() {
+            engine.closeOutbound();
+        }
+
+        @Override
+        public boolean isOutboundDone() {
+            return engine.isOutboundDone();
+        }
+
+        @Override
+        public String[] getSupportedCipherSuites() {
+            return engine.getSupportedCipherSuites();
+        }
+
+        @Override
+        public String[] getEnabledCipherSuites() {
+            return engine.getEnabledCipherSuites();
+        }
+
+        @Override
+        public void setEnabledCipherSuites(String[] suites) {
+            engine.setEnabledCipherSuites(suites);
+        }
+
+        @Override
+        public String[] getSupportedProtocols() {
+            return engine.getSupportedProtocols();
+        }
+
+        @Override
+        public String[] getEnabledProtocols() {
+            return engine.getEnabledProtocols();
+        }
+
+        @Override
+        public void setEnabledProtocols(String[] protocols) {
+            engine.setEnabledProtocols(protocols);
+        }
+
+        @Override
+        public SSLSession getSession() {
+            return engine.getSession();
+        }
+
+        @Override
+        public SSLSession getHandshakeSession() {
+            return engine.getHandshakeSession();
+        }
+
+        @Override
+        public void beginHandshake() throws SSLException {
+            engine.beginHandshake();
+        }
+
+        @Override
+        public SSLEngineResult.HandshakeStatus getHandshakeStatus() {
+            return engine.getHandshakeStatus();
+        }
+
+        @Override
+        public void setUseClientMode(boolean mode) {
+            engine.setUseClientMode(mode);
+        }
+
+        @Override
+        public boolean getUseClientMode() {
+            return engine.getUseClientMode();
+        }
+
+        @Override
+        public void setNeedClientAuth(boolean need) {
+            engine.setNeedClientAuth(need);
+        }
+
+        @Override
+        public boolean getNeedClientAuth() {
+            return engine.getNeedClientAuth();
+        }
+
+        @Override
+        public void setWantClientAuth(boolean want) {
+            engine.setWantClientAuth(want);
+        }
+
+        @Override
+        public boolean getWantClientAuth() {
+            return engine.getWantClientAuth();
+        }
+
+        @Override
+        public void setEnableSessionCreation(boolean flag) {
+            engine.setEnableSessionCreation(flag);
+        }
+
+        @Override
+        public boolean getEnableSessionCreation() {
+            return engine.getEnableSessionCreation();
+        }
+
+        @Override
+        public SSLParameters getSSLParameters() {
+            return engine.getSSLParameters();
+        }
+
+        @Override
+        public void setSSLParameters(SSLParameters params) {
+            engine.setSSLParameters(params);
+        }
+
+        @Override
+        public String getApplicationProtocol() {
+            return engine.getApplicationProtocol();
+        }
+
+        @Override
+        public String getHandshakeApplicationProtocol() {
+            return engine.getHandshakeApplicationProtocol();
+        }
+
+        @Override
+        public void setHandshakeApplicationProtocolSelector(BiFunction<SSLEngine, List<String>, String> selector) {
+            engine.setHandshakeApplicationProtocolSelector(selector);
+        }
+
+        @Override
+        public BiFunction<SSLEngine, List<String>, String> getHandshakeApplicationProtocolSelector() {
+            return engine.getHandshakeApplicationProtocolSelector();
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.germanfica.wsfe.net;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Balde de fichas sin locks, implementado como GCRA (generic cell rate algorithm).
+ * <p>
+ * En lugar de contar fichas se guarda el instante teórico en que el balde vuelve a estar lleno. Una
+ * reserva es un único compare-and-set, así que los llamadores de distintos CUIT u operaciones nunca
+ * compiten por el mismo lock.
+ */
+final class TokenBucket {
+    private final long intervalNanos;
+    private final long burstNanos;
+    private final AtomicLong fullAt;
+
+    /**
+     * Balde lleno en {@code nowNanos}.
+     */
+    TokenBucket(RateLimit limit, long nowNanos) {
+        this.intervalNanos = limit.intervalNanos();
+        this.burstNanos = intervalNanos * (limit.getBurst() - 1);
+        this.fullAt = new AtomicLong(nowNanos);
+    }
+
+    /**
+     * Reserva una ficha. Devuelve cuánto hay que esperar para usarla (0 si está disponible) o
+     * {@code -1} si la espera superaría {@code maxWaitNanos}, en cuyo caso no se reserva nada.
+     */
+    long reserve(long nowNanos, long maxWaitNanos) {
+        while (true) {
+            long current = fullAt.get();
+            long base = current - nowNanos > 0 ? current : nowNanos;
+            long waitNanos = Math.max(0, current - burstNanos - nowNanos);
+            if (waitNanos > maxWaitNanos) return -1;
+            if (fullAt.compareAndSet(current, base + intervalNanos)) return waitNanos;
+        }
+    }
+
+    /**
+     * Si el balde lleva lleno al menos un período de recarga completo (lo que tarda en llenarse
+     * desde vacío), es decir, si nadie lo usó en ese tiempo.
+     */
+    boolean isIdle(long nowNanos) {
+        return nowNanos - fullAt.get() >= burstNanos + intervalNanos;
+    }
+
+    /**
+     * Devuelve una ficha reservada que no llegó a usarse.
+     */
+    void refund() {
+        fullAt.addAndGet(-intervalNanos);
+    }
+}
@@ -0,0 +1,14 @@
+package com.germanfica.wsfe.net;
+
+/**
+ * Origen del WSDL con el que se construye el modelo de servicio de cada port.
+ */
+public enum WsdlMode {
+    /**
+     * Usa el WSDL empaquetado en el classpath ({@code wsdl/wsfev1.wsdl}, {@code wsdl/LoginCms.wsdl}).
+     * Nunca accede a la red para crear un port.
+     */
+    LOCAL,
+    /** Resuelve el WSDL remoto de ARCA con el que se generaron las clases (comportamiento anterior). */
+    REMOTE
+}
@@ -1,17 +0,0 @@
-package com.germanfica.wsfe.net;
-
-import com.germanfica.wsfe.annotation.Experimental;
-import lombok.AccessLevel;
-import lombok.AllArgsConstructor;
-import lombok.Value;
-import lombok.experimental.Accessors;
-
-/** A request to Wsfe's API. */
-@Experimental("This class is a placeholder and subject to change.")
-@Deprecated
-@Value
-@AllArgsConstructor(access = AccessLevel.PROTECTED)
-@Accessors(fluent = true)
-public class WsfeRequest {
-
-}
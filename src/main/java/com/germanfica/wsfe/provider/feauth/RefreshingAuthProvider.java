@@ -4,8 +4,12 @@ import com.germanfica.wsfe.WsaaClient;
 import com.germanfica.wsfe.cms.Cms;
 import com.germanfica.wsfe.dto.ErrorDto;
 import com.germanfica.wsfe.exception.ApiException;
+import com.germanfica.wsfe.exception.DeadlineExceededException;
+import com.germanfica.wsfe.exception.RequestCancelledException;
 import com.germanfica.wsfe.model.LoginTicketResponseData;
+import com.germanfica.wsfe.net.Deadline;
 import com.germanfica.wsfe.net.HttpStatus;
+import com.germanfica.wsfe.net.RequestContext;
 import com.germanfica.wsfe.param.CmsParams;
 import com.germanfica.wsfe.param.FEAuthParams;
 import com.germanfica.wsfe.provider.ProviderChain;
@@ -17,6 +21,9 @@ import com.germanfica.wsfe.time.ArcaDateTime;
 import com.germanfica.wsfe.util.LoginTicketParser;
 import fev1.dif.afip.gov.ar.FEAuthRequest;
 
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
 /**
  * RefreshingAuthProvider
  *
@@ -28,11 +35,19 @@ import fev1.dif.afip.gov.ar.FEAuthRequest;
  *
  * Este proveedor confía íntegramente en los tiempos devueltos por el WSAA
  * dentro del <loginTicketResponse>.
+ *
+ * El refresco se serializa con un {@link ReentrantLock} en lugar de {@code synchronized}: la llamada
+ * a WSAA es bloqueante y, dentro de un bloque {@code synchronized}, fijaría (pin) el virtual thread
+ * que la ejecuta a su carrier thread.
+ *
+ * Si hay un {@link RequestContext} activo, su deadline acota tanto la espera por el lock (otro
+ * thread puede estar renovando) como la llamada a WSAA, que lo hereda por correr en el mismo thread.
  */
 public class RefreshingAuthProvider implements FEAuthProvider {
 
     private final WsaaClient wsaa;       // Cliente WSAA
     private volatile FEAuthParams cache; // TA cacheado mientras no expire
+    private final ReentrantLock refreshLock = new ReentrantLock();
 
     public RefreshingAuthProvider(WsaaClient wsaa) {
         this.wsaa = wsaa;
@@ -42,17 +57,37 @@ public class RefreshingAuthProvider implements FEAuthProvider {
     public FEAuthRequest getAuth() throws ApiException {
         FEAuthParams local = cache;
         if (local == null || local.isExpired()) {
-            synchronized (this) {
+            lockRefresh();
+            try {
                 local = cache;
                 if (local == null || local.isExpired()) {
                     refresh();                     // (re)genera TA y actualiza cache
                     local = cache;
                 }
+            } finally {
+                refreshLock.unlock();
             }
         }
         return toFEAuthRequest(local);
     }
 
+    private void lockRefresh() throws ApiException {
+        RequestContext context = RequestContext.current();
+        Deadline deadline = context != null ? context.getDeadline() : null;
+        if (deadline == null) {
+            refreshLock.lock();
+            return;
+        }
+        try {
+            if (!refreshLock.tryLock(Math.max(0, deadline.remainingNanos()), TimeUnit.NANOSECONDS)) {
+                throw new DeadlineExceededException();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RequestCancelledException();
+        }
+    }
+
     private void refresh() throws ApiException {
         // (1) Intentar reutilizar TA válido persistido en disco
         cache = ProviderChain.<FEAuthParams>builder()
@@ -0,0 +1,10 @@
+package com.germanfica.wsfe.service;
+
+/**
+ * Nombres de las operaciones de WSAA tal como figuran en el WSDL ({@code wsdl:operation}).
+ */
+public final class AuthOperations {
+    public static final String LOGIN_CMS = "loginCms";
+
+    private AuthOperations() {}
+}
@@ -18,10 +18,10 @@ public class AuthService extends ApiService {
      * @return Token de Autorización (TA) en formato XML.
      */
     public String autenticar(String cmsFirmado) throws ApiException {
-        return this.invoke(null, LoginCMS.class, port -> port.loginCms(cmsFirmado));
+        return this.invoke(null, LoginCMS.class, AuthOperations.LOGIN_CMS, port -> port.loginCms(cmsFirmado));
     }
 
     public String autenticar(Cms cms) throws ApiException {
-        return this.invoke(null, LoginCMS.class, port -> port.loginCms(cms.getSignedValue()));
+        return this.invoke(forCuit(cms.getSubjectCuit()), LoginCMS.class, AuthOperations.LOGIN_CMS, port -> port.loginCms(cms.getSignedValue()));
     }
 }
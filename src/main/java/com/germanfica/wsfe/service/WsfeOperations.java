@@ -0,0 +1,48 @@
+package com.germanfica.wsfe.service;
+
+import java.util.List;
+
+/**
+ * Nombres de las operaciones de WSFEv1 tal como figuran en el WSDL ({@code wsdl:operation}).
+ */
+public final class WsfeOperations {
+    public static final String FECAE_SOLICITAR = "FECAESolicitar";
+    public static final String FE_COMP_TOT_X_REQUEST = "FECompTotXRequest";
+    public static final String FE_DUMMY = "FEDummy";
+    public static final String FE_COMP_ULTIMO_AUTORIZADO = "FECompUltimoAutorizado";
+    public static final String FE_COMP_CONSULTAR = "FECompConsultar";
+    public static final String FECAEA_REG_INFORMATIVO = "FECAEARegInformativo";
+    public static final String FECAEA_SOLICITAR = "FECAEASolicitar";
+    public static final String FECAEA_SIN_MOVIMIENTO_CONSULTAR = "FECAEASinMovimientoConsultar";
+    public static final String FECAEA_SIN_MOVIMIENTO_INFORMAR = "FECAEASinMovimientoInformar";
+    public static final String FECAEA_CONSULTAR = "FECAEAConsultar";
+    public static final String FE_PARAM_GET_COTIZACION = "FEParamGetCotizacion";
+    public static final String FE_PARAM_GET_TIPOS_TRIBUTOS = "FEParamGetTiposTributos";
+    public static final String FE_PARAM_GET_TIPOS_MONEDAS = "FEParamGetTiposMonedas";
+    public static final String FE_PARAM_GET_TIPOS_IVA = "FEParamGetTiposIva";
+    public static final String FE_PARAM_GET_TIPOS_OPCIONAL = "FEParamGetTiposOpcional";
+    public static final String FE_PARAM_GET_TIPOS_CONCEPTO = "FEParamGetTiposConcepto";
+    public static final String FE_PARAM_GET_PTOS_VENTA = "FEParamGetPtosVenta";
+    public static final String FE_PARAM_GET_TIPOS_CBTE = "FEParamGetTiposCbte";
+    public static final String FE_PARAM_GET_CONDICION_IVA_RECEPTOR = "FEParamGetCondicionIvaReceptor";
+    public static final String FE_PARAM_GET_TIPOS_DOC = "FEParamGetTiposDoc";
+    public static final String FE_PARAM_GET_TIPOS_PAISES = "FEParamGetTiposPaises";
+    public static final String FE_PARAM_GET_ACTIVIDADES = "FEParamGetActividades";
+
+    private static final List<String> ALL = List.of(
+        FECAE_SOLICITAR, FE_COMP_TOT_X_REQUEST, FE_DUMMY, FE_COMP_ULTIMO_AUTORIZADO, FE_COMP_CONSULTAR,
+        FECAEA_REG_INFORMATIVO, FECAEA_SOLICITAR, FECAEA_SIN_MOVIMIENTO_CONSULTAR, FECAEA_SIN_MOVIMIENTO_INFORMAR,
+        FECAEA_CONSULTAR, FE_PARAM_GET_COTIZACION, FE_PARAM_GET_TIPOS_TRIBUTOS, FE_PARAM_GET_TIPOS_MONEDAS,
+        FE_PARAM_GET_TIPOS_IVA, FE_PARAM_GET_TIPOS_OPCIONAL, FE_PARAM_GET_TIPOS_CONCEPTO, FE_PARAM_GET_PTOS_VENTA,
+        FE_PARAM_GET_TIPOS_CBTE, FE_PARAM_GET_CONDICION_IVA_RECEPTOR, FE_PARAM_GET_TIPOS_DOC,
+        FE_PARAM_GET_TIPOS_PAISES, FE_PARAM_GET_ACTIVIDADES);
+
+    private WsfeOperations() {}
+
+    /**
+     * Todas las operaciones del servicio.
+     */
+    public static List<String> all() {
+        return ALL;
+    }
+}
@@ -1,170 +1,496 @@
 package com.germanfica.wsfe.service;
 
 import com.germanfica.wsfe.exception.ApiException;
+import com.germanfica.wsfe.net.ApiRequest;
 import com.germanfica.wsfe.net.ApiService;
+import com.germanfica.wsfe.net.CancellationToken;
+import com.germanfica.wsfe.net.Deadline;
+import com.germanfica.wsfe.net.RequestContext;
+import com.germanfica.wsfe.net.RequestOptions;
+import com.germanfica.wsfe.net.RetryReconciler;
 import com.germanfica.wsfe.net.SoapRequestHandler;
 import com.germanfica.wsfe.provider.feauth.FEAuthProvider;
 import fev1.dif.afip.gov.ar.*;
 
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Operaciones de WSFEv1.
+ * <p>
+ * Un servicio puede llevar {@link RequestOptions} propias (ver {@link #withOptions(RequestOptions)})
+ * que se aplican a todas sus llamadas: otro endpoint, proxy, transporte, timeouts o deadline. Los
+ * servicios comparten el handler del cliente, así que sus ports, conexiones, límites y circuitos
+ * son los mismos; el handler solo crea ports nuevos para las combinaciones de endpoint, proxy,
+ * transporte y timeouts que todavía no vio.
+ */
 public class WsfeService extends ApiService {
     private final FEAuthProvider authProvider;
+    private final RequestOptions requestOptions;
+    /** Solicitud de las llamadas sin TA ({@code FEDummy}). */
+    private final ApiRequest optionsRequest;
+    /** Última solicitud armada con un TA; se reutiliza mientras el CUIT no cambie. */
+    private volatile ApiRequest lastAuthRequest;
 
     public WsfeService(SoapRequestHandler soapRequestHandler, FEAuthProvider feAuthProvider) throws ApiException {
+        this(soapRequestHandler, feAuthProvider, null);
+    }
+
+    /**
+     * Servicio cuyas llamadas usan {@code requestOptions}; con {@code null} se usa la configuración
+     * del cliente.
+     */
+    public WsfeService(SoapRequestHandler soapRequestHandler, FEAuthProvider feAuthProvider, RequestOptions requestOptions) {
         super(soapRequestHandler);
         this.authProvider = feAuthProvider;
+        this.requestOptions = requestOptions;
+        this.optionsRequest = forOptions(requestOptions);
+    }
+
+    /**
+     * Devuelve un servicio con el mismo handler y proveedor de TA cuyas llamadas usan
+     * {@code requestOptions}.
+     */
+    public WsfeService withOptions(RequestOptions requestOptions) {
+        return new WsfeService(getSoapRequestHandler(), authProvider, requestOptions);
+    }
+
+    /**
+     * Opciones de las llamadas de este servicio, o {@code null} si usa las del cliente.
+     */
+    public RequestOptions getRequestOptions() {
+        return requestOptions;
     }
 
     /**
      * Recupera el listado  de Tipos de Comprobantes utilizables en servicio de autorización.
      */
     public CbteTipoResponse feParamGetTiposCbte() throws ApiException {
-        return invoke(null, ServiceSoap.class, port -> port.feParamGetTiposCbte(authProvider.getAuth()));
+        return invokeWithAuth(WsfeOperations.FE_PARAM_GET_TIPOS_CBTE, CbteTipoResponse.class);
+    }
+
+    /**
+     * Versión asíncrona de {@link #feParamGetTiposCbte()}.
+     */
+    public CompletableFuture<CbteTipoResponse> feParamGetTiposCbteAsync() {
+        return invokeWithAuthAsync(WsfeOperations.FE_PARAM_GET_TIPOS_CBTE, CbteTipoResponse.class);
     }
 
     /**
      * Recupera el listado  de identificadores para el campo Concepto.
      */
     public ConceptoTipoResponse feParamGetTiposConcepto() throws ApiException {
-        return invoke(null, ServiceSoap.class, port -> port.feParamGetTiposConcepto(authProvider.getAuth()));
+        return invokeWithAuth(WsfeOperations.FE_PARAM_GET_TIPOS_CONCEPTO, ConceptoTipoResponse.class);
+    }
+
+    /**
+     * Versión asíncrona de {@link #feParamGetTiposConcepto()}.
+     */
+    public CompletableFuture<ConceptoTipoResponse> feParamGetTiposConceptoAsync() {
+        return invokeWithAuthAsync(WsfeOperations.FE_PARAM_GET_TIPOS_CONCEPTO, ConceptoTipoResponse.class);
     }
 
     /**
      * Recupera la condicion frente al IVA del receptor (para una clase de comprobante determinada o para todos si no se especifica).
      */
     public CondicionIvaReceptorResponse feParamGetCondicionIvaReceptor(String claseCmp) throws ApiException {
-        return invoke(null, ServiceSoap.class, port -> port.feParamGetCondicionIvaReceptor(authProvider.getAuth(), claseCmp));
+        return invokeWithAuth(WsfeOperations.FE_PARAM_GET_CONDICION_IVA_RECEPTOR, CondicionIvaReceptorResponse.class, claseCmp);
+    }
+
+    /**
+     * Versión asíncrona de {@link #feParamGetCondicionIvaReceptor(String)}.
+     */
+    public CompletableFuture<CondicionIvaReceptorResponse> feParamGetCondicionIvaReceptorAsync(String claseCmp) {
+        return invokeWithAuthAsync(WsfeOperations.FE_PARAM_GET_CONDICION_IVA_RECEPTOR, CondicionIvaReceptorResponse.class, claseCmp);
     }
 
     /**
      * Recupera el listado  de Tipos de Documentos utilizables en servicio de autorización.
      */
     public DocTipoResponse feParamGetTiposDoc() throws ApiException {
-        return invoke(null, ServiceSoap.class, port -> port.feParamGetTiposDoc(authProvider.getAuth()));
+        return invokeWithAuth(WsfeOperations.FE_PARAM_GET_TIPOS_DOC, DocTipoResponse.class);
+    }
+
+    /**
+     * Versión asíncrona de {@link #feParamGetTiposDoc()}.
+     */
+    public CompletableFuture<DocTipoResponse> feParamGetTiposDocAsync() {
+        return invokeWithAuthAsync(WsfeOperations.FE_PARAM_GET_TIPOS_DOC, DocTipoResponse.class);
     }
 
     /**
      * Recupera el listado de las diferentes actividades habilitadas para el emisor
      */
     public FEActividadesResponse feParamGetActividades() throws ApiException {
-        return invoke(null, ServiceSoap.class, port -> port.feParamGetActividades(authProvider.getAuth()));
+        return invokeWithAuth(WsfeOperations.FE_PARAM_GET_ACTIVIDADES, FEActividadesResponse.class);
+    }
+
+    /**
+     * Versión asíncrona de {@link #feParamGetActividades()}.
+     */
+    public CompletableFuture<FEActividadesResponse> feParamGetActividadesAsync() {
+        return invokeWithAuthAsync(WsfeOperations.FE_PARAM_GET_ACTIVIDADES, FEActividadesResponse.class);
     }
 
     /**
      * Consultar CAEA emitidos.
      */
     public FECAEAGetResponse fecaeaConsultar(int periodo, short orden) throws ApiException {
-        return invoke(null, ServiceSoap.class, port -> port.fecaeaConsultar(authProvider.getAuth(), periodo, orden));
+        return invokeWithAuth(WsfeOperations.FECAEA_CONSULTAR, FECAEAGetResponse.class, periodo, orden);
+    }
+
+    /**
+     * Versión asíncrona de {@link #fecaeaConsultar(int, short)}.
+     */
+    public CompletableFuture<FECAEAGetResponse> fecaeaConsultarAsync(int periodo, short orden) {
+        return invokeWithAuthAsync(WsfeOperations.FECAEA_CONSULTAR, FECAEAGetResponse.class, periodo, orden);
     }
 
     /**
      * Metodo dummy para verificacion de funcionamiento
      */
     public DummyResponse feDummy() throws ApiException {
-        return invoke(null, ServiceSoap.class, ServiceSoap::feDummy);
+        return invoke(optionsRequest, ServiceSoap.class, WsfeOperations.FE_DUMMY, DummyResponse.class);
+    }
+
+    /**
+     * Versión asíncrona de {@link #feDummy()}.
+     */
+    public CompletableFuture<DummyResponse> feDummyAsync() {
+        return invokeAsync(optionsRequest, ServiceSoap.class, WsfeOperations.FE_DUMMY, DummyResponse.class);
     }
 
     /**
      * Solicitud de Código de Autorización Electrónico (CAE)
      */
     public FECAEAGetResponse fecaeaSolicitar(int periodo, short orden) throws ApiException {
-        return invoke(null, ServiceSoap.class, port -> port.fecaeaSolicitar(authProvider.getAuth(), periodo, orden));
+        return invokeWithAuth(WsfeOperations.FECAEA_SOLICITAR, FECAEAGetResponse.class, periodo, orden);
+    }
+
+    /**
+     * Versión asíncrona de {@link #fecaeaSolicitar(int, short)}.
+     */
+    public CompletableFuture<FECAEAGetResponse> fecaeaSolicitarAsync(int periodo, short orden) {
+        return invokeWithAuthAsync(WsfeOperations.FECAEA_SOLICITAR, FECAEAGetResponse.class, periodo, orden);
     }
 
     /**
      * Rendición de comprobantes asociados a un CAEA.
      */
     public FECAEAResponse fecaeaRegInformativo(FECAEARequest feCAEARegInfReq) throws ApiException {
-        return invoke(null, ServiceSoap.class, port -> port.fecaeaRegInformativo(authProvider.getAuth(), feCAEARegInfReq));
+        return invokeWithAuth(WsfeOperations.FECAEA_REG_INFORMATIVO, caeaReconciler(feCAEARegInfReq), FECAEAResponse.class, feCAEARegInfReq);
+    }
+
+    /**
+     * Versión asíncrona de {@link #fecaeaRegInformativo(FECAEARequest)}.
+     */
+    public CompletableFuture<FECAEAResponse> fecaeaRegInformativoAsync(FECAEARequest feCAEARegInfReq) {
+        return invokeWithAuthAsync(WsfeOperations.FECAEA_REG_INFORMATIVO, caeaReconciler(feCAEARegInfReq), FECAEAResponse.class, feCAEARegInfReq);
     }
 
     /**
      * Consulta CAEA informado como sin movimientos.
      */
     public FECAEASinMovConsResponse fecaeaSinMovimientoConsultar(String caea, int ptoVta) throws ApiException {
-        return invoke(null, ServiceSoap.class, port -> port.fecaeaSinMovimientoConsultar(authProvider.getAuth(), caea, ptoVta));
+        return invokeWithAuth(WsfeOperations.FECAEA_SIN_MOVIMIENTO_CONSULTAR, FECAEASinMovConsResponse.class, caea, ptoVta);
+    }
+
+    /**
+     * Versión asíncrona de {@link #fecaeaSinMovimientoConsultar(String, int)}.
+     */
+    public CompletableFuture<FECAEASinMovConsResponse> fecaeaSinMovimientoConsultarAsync(String caea, int ptoVta) {
+        return invokeWithAuthAsync(WsfeOperations.FECAEA_SIN_MOVIMIENTO_CONSULTAR, FECAEASinMovConsResponse.class, caea, ptoVta);
     }
 
     /**
      * Informa CAEA sin movimientos.
      */
     public FECAEASinMovResponse fecaeaSinMovimientoInformar(int ptoVta, String caea) throws ApiException {
-        return invoke(null, ServiceSoap.class, port -> port.fecaeaSinMovimientoInformar(authProvider.getAuth(), ptoVta, caea));
+        return invokeWithAuth(WsfeOperations.FECAEA_SIN_MOVIMIENTO_INFORMAR, FECAEASinMovResponse.class, ptoVta, caea);
+    }
+
+    /**
+     * Versión asíncrona de {@link #fecaeaSinMovimientoInformar(int, String)}.
+     */
+    public CompletableFuture<FECAEASinMovResponse> fecaeaSinMovimientoInformarAsync(int ptoVta, String caea) {
+        return invokeWithAuthAsync(WsfeOperations.FECAEA_SIN_MOVIMIENTO_INFORMAR, FECAEASinMovResponse.class, ptoVta, caea);
     }
 
     /**
      * Solicitud de Código de Autorización Electrónico (CAE)
      */
     public FECAEResponse fecaeSolicitar(FECAERequest feCAEReq) throws ApiException {
-        return invoke(null, ServiceSoap.class, port -> port.fecaeSolicitar(authProvider.getAuth(), feCAEReq));
+        return invokeWithAuth(WsfeOperations.FECAE_SOLICITAR, caeReconciler(feCAEReq), FECAEResponse.class, feCAEReq);
+    }
+
+    /**
+     * Versión asíncrona de {@link #fecaeSolicitar(FECAERequest)}.
+     */
+    public CompletableFuture<FECAEResponse> fecaeSolicitarAsync(FECAERequest feCAEReq) {
+        return invokeWithAuthAsync(WsfeOperations.FECAE_SOLICITAR, caeReconciler(feCAEReq), FECAEResponse.class, feCAEReq);
     }
 
     /**
      * Consulta Comprobante emitido y su código.
      */
     public FECompConsultaResponse feCompConsultar(FECompConsultaReq feCompConsReq) throws ApiException {
-        return invoke(null, ServiceSoap.class, port -> port.feCompConsultar(authProvider.getAuth(), feCompConsReq));
+        return invokeWithAuth(WsfeOperations.FE_COMP_CONSULTAR, FECompConsultaResponse.class, feCompConsReq);
+    }
+
+    /**
+     * Versión asíncrona de {@link #feCompConsultar(FECompConsultaReq)}.
+     */
+    public CompletableFuture<FECompConsultaResponse> feCompConsultarAsync(FECompConsultaReq feCompConsReq) {
+        return invokeWithAuthAsync(WsfeOperations.FE_COMP_CONSULTAR, FECompConsultaResponse.class, feCompConsReq);
     }
 
     /**
      * Recupera la cotizacion de la moneda consultada y su  fecha
      */
     public FECotizacionResponse feParamGetCotizacion(String monId, String fchCotiz) throws ApiException {
-        return invoke(null, ServiceSoap.class, port -> port.feParamGetCotizacion(authProvider.getAuth(), monId, fchCotiz));
+        return invokeWithAuth(WsfeOperations.FE_PARAM_GET_COTIZACION, FECotizacionResponse.class, monId, fchCotiz);
+    }
+
+    /**
+     * Versión asíncrona de {@link #feParamGetCotizacion(String, String)}.
+     */
+    public CompletableFuture<FECotizacionResponse> feParamGetCotizacionAsync(String monId, String fchCotiz) {
+        return invokeWithAuthAsync(WsfeOperations.FE_PARAM_GET_COTIZACION, FECotizacionResponse.class, monId, fchCotiz);
     }
 
     /**
      * Recupera el listado de los diferente paises que pueden ser utilizados  en el servicio de autorizacion
      */
     public FEPaisResponse feParamGetTiposPaises() throws ApiException {
-        return invoke(null, ServiceSoap.class, port -> port.feParamGetTiposPaises(authProvider.getAuth()));
+        return invokeWithAuth(WsfeOperations.FE_PARAM_GET_TIPOS_PAISES, FEPaisResponse.class);
+    }
+
+    /**
+     * Versión asíncrona de {@link #feParamGetTiposPaises()}.
+     */
+    public CompletableFuture<FEPaisResponse> feParamGetTiposPaisesAsync() {
+        return invokeWithAuthAsync(WsfeOperations.FE_PARAM_GET_TIPOS_PAISES, FEPaisResponse.class);
     }
 
     /**
      * Recupera el listado de puntos de venta registrados y su estado
      */
     public FEPtoVentaResponse feParamGetPtosVenta() throws ApiException {
-        return invoke(null, ServiceSoap.class, port -> port.feParamGetPtosVenta(authProvider.getAuth()));
+        return invokeWithAuth(WsfeOperations.FE_PARAM_GET_PTOS_VENTA, FEPtoVentaResponse.class);
+    }
+
+    /**
+     * Versión asíncrona de {@link #feParamGetPtosVenta()}.
+     */
+    public CompletableFuture<FEPtoVentaResponse> feParamGetPtosVentaAsync() {
+        return invokeWithAuthAsync(WsfeOperations.FE_PARAM_GET_PTOS_VENTA, FEPtoVentaResponse.class);
     }
 
     /**
      * Retorna el ultimo comprobante autorizado para el tipo de comprobante / cuit / punto de venta ingresado / Tipo de Emisión
      */
     public FERecuperaLastCbteResponse feCompUltimoAutorizado(int ptoVta, int cbteTipo) throws ApiException {
-        return invoke(null, ServiceSoap.class, port -> port.feCompUltimoAutorizado(authProvider.getAuth(), ptoVta, cbteTipo));
+        return invokeWithAuth(WsfeOperations.FE_COMP_ULTIMO_AUTORIZADO, FERecuperaLastCbteResponse.class, ptoVta, cbteTipo);
+    }
+
+    /**
+     * Versión asíncrona de {@link #feCompUltimoAutorizado(int, int)}.
+     */
+    public CompletableFuture<FERecuperaLastCbteResponse> feCompUltimoAutorizadoAsync(int ptoVta, int cbteTipo) {
+        return invokeWithAuthAsync(WsfeOperations.FE_COMP_ULTIMO_AUTORIZADO, FERecuperaLastCbteResponse.class, ptoVta, cbteTipo);
     }
 
     /**
      * Retorna la cantidad maxima de registros que puede tener una invocacion al metodo FECAESolicitar / FECAEARegInformativo
      */
     public FERegXReqResponse feCompTotXRequest() throws ApiException {
-        return invoke(null, ServiceSoap.class, port -> port.feCompTotXRequest(authProvider.getAuth()));
+        return invokeWithAuth(WsfeOperations.FE_COMP_TOT_X_REQUEST, FERegXReqResponse.class);
+    }
+
+    /**
+     * Versión asíncrona de {@link #feCompTotXRequest()}.
+     */
+    public CompletableFuture<FERegXReqResponse> feCompTotXRequestAsync() {
+        return invokeWithAuthAsync(WsfeOperations.FE_COMP_TOT_X_REQUEST, FERegXReqResponse.class);
     }
 
     /**
      * Recupera el listado  de los diferente tributos que pueden ser utilizados  en el servicio de autorizacion
      */
     public FETributoResponse feParamGetTiposTributos() throws ApiException {
-        return invoke(null, ServiceSoap.class, port -> port.feParamGetTiposTributos(authProvider.getAuth()));
+        return invokeWithAuth(WsfeOperations.FE_PARAM_GET_TIPOS_TRIBUTOS, FETributoResponse.class);
+    }
+
+    /**
+     * Versión asíncrona de {@link #feParamGetTiposTributos()}.
+     */
+    public CompletableFuture<FETributoResponse> feParamGetTiposTributosAsync() {
+        return invokeWithAuthAsync(WsfeOperations.FE_PARAM_GET_TIPOS_TRIBUTOS, FETributoResponse.class);
     }
 
     /**
      * Recupera el listado  de Tipos de Iva utilizables en servicio de autorización.
      */
     public IvaTipoResponse feParamGetTiposIva() throws ApiException {
-        return invoke(null, ServiceSoap.class, port -> port.feParamGetTiposIva(authProvider.getAuth()));
+        return invokeWithAuth(WsfeOperations.FE_PARAM_GET_TIPOS_IVA, IvaTipoResponse.class);
+    }
+
+    /**
+     * Versión asíncrona de {@link #feParamGetTiposIva()}.
+     */
+    public CompletableFuture<IvaTipoResponse> feParamGetTiposIvaAsync() {
+        return invokeWithAuthAsync(WsfeOperations.FE_PARAM_GET_TIPOS_IVA, IvaTipoResponse.class);
     }
 
     /**
      * Recupera el listado de monedas utilizables en servicio de autorización
      */
     public MonedaResponse feParamGetTiposMonedas() throws ApiException {
-        return invoke(null, ServiceSoap.class, port -> port.feParamGetTiposMonedas(authProvider.getAuth()));
+        return invokeWithAuth(WsfeOperations.FE_PARAM_GET_TIPOS_MONEDAS, MonedaResponse.class);
+    }
+
+    /**
+     * Versión asíncrona de {@link #feParamGetTiposMonedas()}.
+     */
+    public CompletableFuture<MonedaResponse> feParamGetTiposMonedasAsync() {
+        return invokeWithAuthAsync(WsfeOperations.FE_PARAM_GET_TIPOS_MONEDAS, MonedaResponse.class);
     }
 
     /**
      * Recupera el listado de identificadores para los campos Opcionales
      */
     public OpcionalTipoResponse feParamGetTiposOpcional() throws ApiException {
-        return invoke(null, ServiceSoap.class, port -> port.feParamGetTiposOpcional(authProvider.getAuth()));
+        return invokeWithAuth(WsfeOperations.FE_PARAM_GET_TIPOS_OPCIONAL, OpcionalTipoResponse.class);
+    }
+
+    /**
+     * Versión asíncrona de {@link #feParamGetTiposOpcional()}.
+     */
+    public CompletableFuture<OpcionalTipoResponse> feParamGetTiposOpcionalAsync() {
+        return invokeWithAuthAsync(WsfeOperations.FE_PARAM_GET_TIPOS_OPCIONAL, OpcionalTipoResponse.class);
+    }
+
+    /**
+     * Reconciliación de {@link #fecaeSolicitar}: el intento fallido no se procesó si el último
+     * comprobante autorizado es anterior al primero del lote.
+     */
+    private RetryReconciler caeReconciler(FECAERequest request) {
+        return failure -> {
+            if (request == null || request.getFeCabReq() == null || request.getFeDetReq() == null) return false;
+            List<FECAEDetRequest> details = request.getFeDetReq().getFECAEDetRequest();
+            if (details == null || details.isEmpty()) return false;
+            FECAECabRequest cab = request.getFeCabReq();
+            return isPendingAuthorization(cab.getPtoVta(), cab.getCbteTipo(), details.get(0).getCbteDesde());
+        };
+    }
+
+    /**
+     * Reconciliación de {@link #fecaeaRegInformativo}, con el mismo criterio que {@link #caeReconciler}.
+     */
+    private RetryReconciler caeaReconciler(FECAEARequest request) {
+        return failure -> {
+            if (request == null || request.getFeCabReq() == null || request.getFeDetReq() == null) return false;
+            List<FECAEADetRequest> details = request.getFeDetReq().getFECAEADetRequest();
+            if (details == null || details.isEmpty()) return false;
+            FECAEACabRequest cab = request.getFeCabReq();
+            return isPendingAuthorization(cab.getPtoVta(), cab.getCbteTipo(), details.get(0).getCbteDesde());
+        };
+    }
+
+    /**
+     * Consulta {@code FECompUltimoAutorizado}. Si la respuesta trae errores no se puede confirmar
+     * nada y se asume que el comprobante pudo haberse autorizado.
+     */
+    private boolean isPendingAuthorization(int ptoVta, int cbteTipo, long firstCbte) throws ApiException {
+        FERecuperaLastCbteResponse last = feCompUltimoAutorizado(ptoVta, cbteTipo);
+        if (last == null || (last.getErrors() != null && !last.getErrors().getErr().isEmpty())) return false;
+        return last.getCbteNro() < firstCbte;
+    }
+
+    /**
+     * Obtiene el TA una vez e invoca la operación con él. El CUIT del TA identifica la llamada ante
+     * los límites de frecuencia del cliente. El deadline y la cancelación del servicio acotan también
+     * la renovación del TA (ver {@link #requestContext()}). Como en la versión asíncrona, el TA y
+     * {@code args} viajan como argumentos de la operación, así que los interceptores los ven.
+     */
+    private <R> R invokeWithAuth(String operationName, Class<R> responseType, Object... args) throws ApiException {
+        return invokeWithAuth(operationName, null, responseType, args);
+    }
+
+    private <R> R invokeWithAuth(String operationName, RetryReconciler reconciler, Class<R> responseType, Object... args) throws ApiException {
+        try (RequestContext.Scope ignored = attach(requestContext())) {
+            FEAuthRequest auth = authProvider.getAuth();
+            return invoke(authRequest(auth), ServiceSoap.class, operationName, reconciler, responseType, withAuth(auth, args));
+        }
+    }
+
+    /**
+     * Obtiene el TA en el executor del cliente (un refresco contra WSAA es bloqueante y no debe
+     * ocupar el thread que llama) y luego invoca la operación de forma asíncrona.
+     */
+    private <R> CompletableFuture<R> invokeWithAuthAsync(String operationName, Class<R> responseType, Object... args) {
+        return invokeWithAuthAsync(operationName, null, responseType, args);
+    }
+
+    private <R> CompletableFuture<R> invokeWithAuthAsync(String operationName, RetryReconciler reconciler, Class<R> responseType, Object... args) {
+        // El deadline y la cancelación de la solicitud siguen a la llamada en el executor.
+        RequestContext context = requestContext();
+        return CompletableFuture
+            .supplyAsync(() -> {
+                try (RequestContext.Scope ignored = attach(context)) {
+                    return withAuth(authProvider.getAuth(), args);
+                } catch (ApiException e) {
+                    throw new CompletionException(e);
+                }
+            }, getExecutor())
+            .thenCompose(params -> {
+                try (RequestContext.Scope ignored = attach(context)) {
+                    return invokeAsync(authRequest((FEAuthRequest) params[0]), ServiceSoap.class, operationName, reconciler, responseType, params);
+                }
+            });
+    }
+
+    /**
+     * Contexto con el que corren la obtención del TA y la llamada. {@code getAuth()} se ejecuta antes
+     * de que el handler vea las {@link RequestOptions}, así que un refresco contra WSAA (y las
+     * consultas de reconciliación de un reintento) solo respetan el deadline y la cancelación del
+     * servicio si viajan en el {@link RequestContext}. Del deadline del servicio y el del contexto
+     * del thread se toma el más cercano; el token del servicio tiene prioridad, como en el handler.
+     */
+    private RequestContext requestContext() {
+        RequestContext current = RequestContext.current();
+        Deadline deadline = requestOptions != null ? requestOptions.getDeadline() : null;
+        CancellationToken token = requestOptions != null ? requestOptions.getCancellationToken() : null;
+        if (deadline == null && token == null) return current;
+        if (current != null) {
+            deadline = Deadline.earliest(deadline, current.getDeadline());
+            if (token == null) token = current.getCancellationToken();
+        }
+        return RequestContext.of(deadline, token);
+    }
+
+    private static RequestContext.Scope attach(RequestContext context) {
+        return context != null ? context.attach() : () -> { };
+    }
+
+    /**
+     * Solicitud con el CUIT del TA y las opciones del servicio. Mientras el TA sea del mismo CUIT,
+     * las llamadas reutilizan la misma solicitud en lugar de armar opciones nuevas.
+     */
+    private ApiRequest authRequest(FEAuthRequest auth) {
+        if (auth == null) return optionsRequest;
+        ApiRequest last = lastAuthRequest;
+        if (last != null && last.getOptions().getCuit() == auth.getCuit()) return last;
+        ApiRequest request = forCuit(requestOptions, auth.getCuit());
+        lastAuthRequest = request;
+        return request;
+    }
+
+    private static Object[] withAuth(FEAuthRequest auth, Object[] args) {
+        Object[] params = new Object[args.length + 1];
+        params[0] = auth;
+        System.arraycopy(args, 0, params, 1, args.length);
+        return params;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,124 @@
+package com.germanfica;
+
+import com.germanfica.wsfe.net.ApiEnvironment;
+import com.germanfica.wsfe.net.DefaultSoapRequestHandler;
+import com.germanfica.wsfe.net.HttpTransportMode;
+import com.germanfica.wsfe.net.ProxyOptions;
+import com.germanfica.wsfe.net.SoapResponseGetterOptions;
+import com.germanfica.wsfe.net.WsdlMode;
+import fev1.dif.afip.gov.ar.DummyResponse;
+import fev1.dif.afip.gov.ar.ServiceSoap;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Compares the per-call latency of {@code FEDummy} against a local stub server when sent through
+ * the CXF transport ({@link HttpTransportMode#HTTP}) versus {@link HttpTransportMode#JDK_HTTP_CLIENT},
+ * which builds the envelope by hand and skips CXF's interceptor chain.
+ *
+ * Skipped unless run with {@code -Dwsfe.benchmark=true}.
+ */
+public class JdkHttpTransportBenchmarkTest {
+
+    private static final int WARMUP_ITERATIONS = 200;
+    private static final int MEASURED_ITERATIONS = 2_000;
+
+    private static final String FE_DUMMY_RESPONSE =
+        "<?xml version=\"1.0\" encoding=\"utf-8\"?>"
+            + "<soap:Envelope xmlns:soap=\"http://schemas.xmlsoap.org/soap/envelope/\">"
+            + "<soap:Body>"
+            + "<FEDummyResponse xmlns=\"http://ar.gov.afip.dif.FEV1/\">"
+            + "<FEDummyResult><AppServer>OK</AppServer><DbServer>OK</DbServer><AuthServer>OK</AuthServer></FEDummyResult>"
+            + "</FEDummyResponse>"
+            + "</soap:Body>"
+            + "</soap:Envelope>";
+
+    @Test
+    @Tag("benchmark")
+    @DisplayName("JDK_HTTP_CLIENT should be cheaper per call than the CXF transport")
+    void compareCxfTransportVersusJdkHttpClient() throws Exception {
+        Assumptions.assumeTrue(Boolean.getBoolean("wsfe.benchmark"),
+            "Benchmark deshabilitado. Ejecutar con -Dwsfe.benchmark=true");
+
+        try (MockWebServer server = new MockWebServer()) {
+            server.setDispatcher(new Dispatcher() {
+                @Override
+                public MockResponse dispatch(RecordedRequest request) {
+                    return new MockResponse()
+                        .setHeader("Content-Type", "text/xml; charset=utf-8")
+                        .setBody(FE_DUMMY_RESPONSE);
+                }
+            });
+            server.start();
+            String urlBase = server.url("/").toString().replaceAll("/$", "");
+
+            long cxfNanos = measure(new DefaultSoapRequestHandler(new BenchmarkOptions(urlBase, HttpTransportMode.HTTP)));
+            long jdkNanos = measure(new DefaultSoapRequestHandler(new BenchmarkOptions(urlBase, HttpTransportMode.JDK_HTTP_CLIENT)));
+
+            System.out.printf("FEDummy -> CXF (HTTP): %.3f ms/call, JDK_HTTP_CLIENT: %.3f ms/call%n",
+                cxfNanos / 1_000_000.0, jdkNanos / 1_000_000.0);
+
+            Assertions.assertTrue(jdkNanos < cxfNanos,
+                "JDK_HTTP_CLIENT debería ser más barato por llamada que el transporte de CXF");
+        }
+    }
+
+    private static long measure(DefaultSoapRequestHandler handler) throws Exception {
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            call(handler);
+        }
+
+        long start = System.nanoTime();
+        for (int i = 0; i < MEASURED_ITERATIONS; i++) {
+            call(handler);
+        }
+        return (System.nanoTime() - start) / MEASURED_ITERATIONS;
+    }
+
+    private static void call(DefaultSoapRequestHandler handler) throws Exception {
+        DummyResponse response = handler.invoke(null, ServiceSoap.class, "FEDummy", ServiceSoap::feDummy);
+        Assertions.assertEquals("OK", response.getAppServer());
+    }
+
+    private static final class BenchmarkOptions extends SoapResponseGetterOptions {
+        private final String urlBase;
+        private final HttpTransportMode httpTransportMode;
+
+        private BenchmarkOptions(String urlBase, HttpTransportMode httpTransportMode) {
+            this.urlBase = urlBase;
+            this.httpTransportMode = httpTransportMode;
+        }
+
+        @Override
+        public String getUrlBase() {
+            return urlBase;
+        }
+
+        @Override
+        public ApiEnvironment getApiEnvironment() {
+            return null;
+        }
+
+        @Override
+        public ProxyOptions getProxyOptions() {
+            return null;
+        }
+
+        @Override
+        public HttpTransportMode getHttpTransportMode() {
+            return httpTransportMode;
+        }
+
+        @Override
+        public WsdlMode getWsdlMode() {
+            return WsdlMode.LOCAL;
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.germanfica;
+
+import com.germanfica.wsfe.net.ApiEnvironment;
+import com.germanfica.wsfe.net.DefaultSoapRequestHandler;
+import com.germanfica.wsfe.net.HttpTransportMode;
+import com.germanfica.wsfe.net.ProxyOptions;
+import com.germanfica.wsfe.net.SoapResponseGetterOptions;
+import com.germanfica.wsfe.net.WsdlMode;
+import fev1.dif.afip.gov.ar.Service;
+import fev1.dif.afip.gov.ar.ServiceSoap;
+import jakarta.xml.ws.BindingProvider;
+import org.apache.cxf.Bus;
+import org.apache.cxf.BusFactory;
+import org.apache.cxf.frontend.ClientProxy;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Measures the client-side overhead of obtaining a configured {@link ServiceSoap} port, without
+ * sending any SOAP request.
+ *
+ * <ul>
+ *   <li><b>before</b>: what every call used to do, a fresh Bus plus {@code new Service().getServiceSoap()}.</li>
+ *   <li><b>after</b>: {@link DefaultSoapRequestHandler#invoke} drawing the port from its pool.</li>
+ * </ul>
+ *
+ * The generated {@link Service} still resolves the remote WSDL, so this benchmark needs network
+ * access and is skipped unless run with {@code -Dwsfe.benchmark=true}.
+ */
+public class PortPoolBenchmarkTest {
+
+    private static final int WARMUP_ITERATIONS = 5;
+    private static final int MEASURED_ITERATIONS = 50;
+
+    @Test
+    @Tag("benchmark")
+    @DisplayName("pooled ports should be cheaper per call than building a new port every time")
+    void compareNewPortPerCallVersusPooledPort() throws Exception {
+        Assumptions.assumeTrue(Boolean.getBoolean("wsfe.benchmark"),
+            "Benchmark deshabilitado. Ejecutar con -Dwsfe.benchmark=true");
+
+        String endpoint = ApiEnvironment.HOMO.getUrlFor(ServiceSoap.class);
+        DefaultSoapRequestHandler handler = new DefaultSoapRequestHandler(new BenchmarkOptions());
+
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            newPortPerCall(endpoint);
+            handler.invoke(null, ServiceSoap.class, port -> port);
+        }
+
+        long beforeStart = System.nanoTime();
+        for (int i = 0; i < MEASURED_ITERATIONS; i++) {
+            newPortPerCall(endpoint);
+        }
+        long beforeNanos = (System.nanoTime() - beforeStart) / MEASURED_ITERATIONS;
+
+        long afterStart = System.nanoTime();
+        for (int i = 0; i < MEASURED_ITERATIONS; i++) {
+            handler.invoke(null, ServiceSoap.class, port -> port);
+        }
+        long afterNanos = (System.nanoTime() - afterStart) / MEASURED_ITERATIONS;
+
+        System.out.printf("Port per call -> before: %.3f ms/call, after (pooled): %.3f ms/call%n",
+            beforeNanos / 1_000_000.0, afterNanos / 1_000_000.0);
+
+        Assertions.assertTrue(afterNanos < beforeNanos,
+            "El port cacheado debería ser más barato que crear uno nuevo por llamada");
+    }
+
+    /** Reproduce el camino anterior: un Bus nuevo y un port nuevo por cada llamada. */
+    private static void newPortPerCall(String endpoint) {
+        Bus previousBus = BusFactory.getThreadDefaultBus(false);
+        Bus threadBus = BusFactory.newInstance().createBus();
+        BusFactory.setThreadDefaultBus(threadBus);
+        try {
+            ServiceSoap port = new Service().getServiceSoap();
+            ((BindingProvider) port).getRequestContext()
+                .put(BindingProvider.ENDPOINT_ADDRESS_PROPERTY, endpoint + "/wsfev1/service.asmx");
+            ClientProxy.getClient(port).getConduit();
+        } finally {
+            BusFactory.setThreadDefaultBus(previousBus);
+            threadBus.shutdown(true);
+        }
+    }
+
+    private static final class BenchmarkOptions extends SoapResponseGetterOptions {
+        @Override
+        public String getUrlBase() {
+            return null;
+        }
+
+        @Override
+        public ApiEnvironment getApiEnvironment() {
+            return ApiEnvironment.HOMO;
+        }
+
+        @Override
+        public ProxyOptions getProxyOptions() {
+            return null;
+        }
+
+        @Override
+        public HttpTransportMode getHttpTransportMode() {
+            return HttpTransportMode.HTTP;
+        }
+
+        @Override
+        public WsdlMode getWsdlMode() {
+            return WsdlMode.LOCAL;
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.germanfica;
+
+import com.germanfica.wsfe.net.ApiEnvironment;
+import com.germanfica.wsfe.net.DefaultSoapRequestHandler;
+import com.germanfica.wsfe.net.HttpTransportMode;
+import com.germanfica.wsfe.net.ProxyOptions;
+import com.germanfica.wsfe.net.SoapResponseGetterOptions;
+import com.germanfica.wsfe.net.WsdlMode;
+import fev1.dif.afip.gov.ar.ServiceSoap;
+import https.wsaa_afip_gov_ar.ws.services.logincms.LoginCMS;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Compares client startup (handler construction plus the first configured port for WSFE and
+ * WSAA) when the service model comes from the WSDLs bundled under {@code src/main/resources/wsdl}
+ * ({@link WsdlMode#LOCAL}) versus the remote ARCA WSDL ({@link WsdlMode#REMOTE}).
+ *
+ * The benchmark is skipped unless run with {@code -Dwsfe.benchmark=true}. {@link WsdlMode#REMOTE}
+ * needs network access, so it is only measured when {@code -Dwsfe.benchmark.remote=true} is also set.
+ */
+public class WsdlStartupBenchmarkTest {
+
+    @Test
+    @Tag("benchmark")
+    @DisplayName("local WSDL mode should start without fetching the remote WSDL")
+    void compareLocalVersusRemoteWsdlStartup() throws Exception {
+        Assumptions.assumeTrue(Boolean.getBoolean("wsfe.benchmark"),
+            "Benchmark deshabilitado. Ejecutar con -Dwsfe.benchmark=true");
+        Assertions.assertNotNull(getClass().getClassLoader().getResource("wsdl/wsfev1.wsdl"));
+        Assertions.assertNotNull(getClass().getClassLoader().getResource("wsdl/LoginCms.wsdl"));
+
+        // La primera creación de un port paga la carga de clases de CXF/JAXB en ambos modos;
+        // se descarta para que la comparación mida sólo la resolución del WSDL.
+        measureStartup(WsdlMode.LOCAL);
+
+        long localNanos = measureStartup(WsdlMode.LOCAL);
+        System.out.printf("Startup -> LOCAL: %.1f ms%n", localNanos / 1_000_000.0);
+
+        if (Boolean.getBoolean("wsfe.benchmark.remote")) {
+            long remoteNanos = measureStartup(WsdlMode.REMOTE);
+            System.out.printf("Startup -> REMOTE: %.1f ms%n", remoteNanos / 1_000_000.0);
+        }
+    }
+
+    private static long measureStartup(WsdlMode wsdlMode) throws Exception {
+        long start = System.nanoTime();
+        DefaultSoapRequestHandler handler = new DefaultSoapRequestHandler(new BenchmarkOptions(wsdlMode));
+        handler.invoke(null, ServiceSoap.class, port -> port);
+        handler.invoke(null, LoginCMS.class, port -> port);
+        return System.nanoTime() - start;
+    }
+
+    private static final class BenchmarkOptions extends SoapResponseGetterOptions {
+        private final WsdlMode wsdlMode;
+
+        private BenchmarkOptions(WsdlMode wsdlMode) {
+            this.wsdlMode = wsdlMode;
+        }
+
+        @Override
+        public String getUrlBase() {
+            return null;
+        }
+
+        @Override
+        public ApiEnvironment getApiEnvironment() {
+            return ApiEnvironment.HOMO;
+        }
+
+        @Override
+        public ProxyOptions getProxyOptions() {
+            return null;
+        }
+
+        @Override
+        public HttpTransportMode getHttpTransportMode() {
+            return HttpTransportMode.HTTP;
+        }
+
+        @Override
+        public WsdlMode getWsdlMode() {
+            return wsdlMode;
+        }
+    }
+}
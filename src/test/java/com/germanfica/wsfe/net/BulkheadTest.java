@@ -0,0 +1,122 @@
+package com.germanfica.wsfe.net;
+
+import com.germanfica.wsfe.exception.BulkheadFullException;
+import org.junit.jupiter.api.*;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Unit tests for {@link Bulkhead} admission, queueing and rejection. The client executor is a manual
+ * queue, so a task only runs when the test says so.
+ */
+public class BulkheadTest {
+    private final ArrayDeque<Runnable> executor = new ArrayDeque<>();
+    private final List<String> ran = new ArrayList<>();
+
+    private Bulkhead bulkhead(BulkheadOptions.Overflow overflow) {
+        return new Bulkhead("ServiceSoap", BulkheadOptions.builder()
+            .setMaxConcurrency(2)
+            .setMaxQueueSize(1)
+            .setOverflow(overflow)
+            .build(), executor::add);
+    }
+
+    private Runnable task(String name) {
+        return () -> ran.add(name);
+    }
+
+    private void runNext() {
+        executor.poll().run();
+    }
+
+    @Test
+    @Tag("unit")
+    @DisplayName("should submit up to maxConcurrency tasks and queue the rest")
+    void shouldQueueOverConcurrency() {
+        Bulkhead bulkhead = bulkhead(BulkheadOptions.Overflow.REJECT);
+
+        bulkhead.execute(task("a"));
+        bulkhead.execute(task("b"));
+        bulkhead.execute(task("c"));
+
+        Assertions.assertEquals(2, executor.size());
+        Assertions.assertEquals(2, bulkhead.getActive());
+        Assertions.assertEquals(1, bulkhead.getQueued());
+
+        runNext();
+        Assertions.assertEquals(List.of("a"), ran);
+        Assertions.assertEquals(2, executor.size());
+        Assertions.assertEquals(0, bulkhead.getQueued());
+
+        runNext();
+        runNext();
+        Assertions.assertEquals(List.of("a", "b", "c"), ran);
+        Assertions.assertEquals(0, bulkhead.getActive());
+    }
+
+    @Test
+    @Tag("unit")
+    @DisplayName("should reject tasks and calls once the slots and the queue are full")
+    void shouldRejectWhenFull() throws Exception {
+        Bulkhead bulkhead = bulkhead(BulkheadOptions.Overflow.REJECT);
+        bulkhead.admit();
+        for (String name : new String[]{"a", "b", "c"}) bulkhead.execute(task(name));
+
+        RejectedExecutionException rejected = Assertions.assertThrows(RejectedExecutionException.class, () -> bulkhead.execute(task("d")));
+        Assertions.assertInstanceOf(BulkheadFullException.class, rejected.getCause());
+        Assertions.assertThrows(BulkheadFullException.class, bulkhead::admit);
+        Assertions.assertEquals(2, bulkhead.getRejected());
+
+        runNext();
+        bulkhead.admit();
+        bulkhead.execute(task("d"));
+        Assertions.assertEquals(1, bulkhead.getQueued());
+    }
+
+    @Test
+    @Tag("unit")
+    @DisplayName("should run the task on the submitting thread with CALLER_RUNS")
+    void shouldRunOnCallerWhenFull() throws Exception {
+        Bulkhead bulkhead = bulkhead(BulkheadOptions.Overflow.CALLER_RUNS);
+        for (String name : new String[]{"a", "b", "c"}) bulkhead.execute(task(name));
+
+        bulkhead.admit();
+        bulkhead.execute(task("d"));
+
+        Assertions.assertEquals(List.of("d"), ran);
+        Assertions.assertEquals(0, bulkhead.getRejected());
+        Assertions.assertEquals(2, executor.size());
+    }
+
+    @Test
+    @Tag("unit")
+    @DisplayName("should free the slot when the client executor rejects the task")
+    void shouldReleaseSlotOnExecutorRejection() {
+        Bulkhead bulkhead = new Bulkhead("LoginCMS", BulkheadOptions.builder().setMaxConcurrency(1).build(), task -> {
+            throw new RejectedExecutionException("executor closed");
+        });
+
+        Assertions.assertThrows(RejectedExecutionException.class, () -> bulkhead.execute(task("a")));
+        Assertions.assertEquals(0, bulkhead.getActive());
+    }
+
+    @Test
+    @Tag("unit")
+    @DisplayName("should drop queued tasks and reject new ones after shutdown")
+    void shouldRejectAfterShutdown() {
+        Bulkhead bulkhead = bulkhead(BulkheadOptions.Overflow.REJECT);
+        for (String name : new String[]{"a", "b", "c"}) bulkhead.execute(task(name));
+
+        bulkhead.shutdown();
+
+        Assertions.assertEquals(0, bulkhead.getQueued());
+        Assertions.assertThrows(RejectedExecutionException.class, () -> bulkhead.execute(task("d")));
+        runNext();
+        runNext();
+        Assertions.assertEquals(List.of("a", "b"), ran);
+        Assertions.assertTrue(executor.isEmpty());
+    }
+}
@@ -0,0 +1,169 @@
+package com.germanfica.wsfe.net;
+
+import org.junit.jupiter.api.*;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Unit tests for the {@link CircuitBreaker} state transitions, driven by a fake clock.
+ */
+public class CircuitBreakerTest {
+    private static final Duration OPEN_DURATION = Duration.ofSeconds(30);
+
+    private final AtomicLong clock = new AtomicLong();
+
+    private CircuitBreaker breaker(CircuitBreakerOptions options) {
+        return new CircuitBreaker(options, null, clock::get);
+    }
+
+    private static CircuitBreakerOptions.CircuitBreakerOptionsBuilder options() {
+        return CircuitBreakerOptions.builder()
+            .setConsecutiveFailures(3)
+            .setSlidingWindowSize(10)
+            .setMinimumCalls(10)
+            .setOpenDuration(OPEN_DURATION);
+    }
+
+    private void advance(Duration duration) {
+        clock.addAndGet(duration.toNanos());
+    }
+
+    @Test
+    @Tag("unit")
+    @DisplayName("should open after consecutive failures and reject until the open duration elapses")
+    void shouldOpenAfterConsecutiveFailures() {
+        CircuitBreaker breaker = breaker(options().build());
+
+        breaker.onFailure();
+        breaker.onFailure();
+        Assertions.assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        breaker.onFailure();
+        Assertions.assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        Assertions.assertFalse(breaker.tryAcquire());
+
+        advance(OPEN_DURATION.minusMillis(1));
+        Assertions.assertFalse(breaker.tryAcquire());
+    }
+
+    @Test
+    @Tag("unit")
+    @DisplayName("should reset the consecutive count on success")
+    void shouldResetConsecutiveFailuresOnSuccess() {
+        CircuitBreaker breaker = breaker(options().build());
+
+        breaker.onFailure();
+        breaker.onFailure();
+        breaker.onSuccess();
+        breaker.onFailure();
+        breaker.onFailure();
+
+        Assertions.assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+    }
+
+    @Test
+    @Tag("unit")
+    @DisplayName("should open when the failure rate of the window crosses the threshold")
+    void shouldOpenOnFailureRate() {
+        CircuitBreaker breaker = breaker(options().setConsecutiveFailures(100).setFailureRateThreshold(0.5).build());
+
+        for (int i = 0; i < 5; i++) {
+            breaker.onSuccess();
+            Assertions.assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+            breaker.onFailure();
+        }
+
+        Assertions.assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+    }
+
+    @Test
+    @Tag("unit")
+    @DisplayName("should let a single trial call through when half open and close on its success")
+    void shouldCloseAfterSuccessfulTrialCall() {
+        CircuitBreaker breaker = breaker(options().build());
+        for (int i = 0; i < 3; i++) breaker.onFailure();
+
+        advance(OPEN_DURATION);
+        Assertions.assertTrue(breaker.tryAcquire());
+        Assertions.assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+        Assertions.assertFalse(breaker.tryAcquire());
+
+        breaker.onSuccess();
+        Assertions.assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        Assertions.assertTrue(breaker.tryAcquire());
+    }
+
+    @Test
+    @Tag("unit")
+    @DisplayName("should reopen for a full open duration when the trial call fails")
+    void shouldReopenAfterFailedTrialCall() {
+        CircuitBreaker breaker = breaker(options().build());
+        for (int i = 0; i < 3; i++) breaker.onFailure();
+        advance(OPEN_DURATION);
+        Assertions.assertTrue(breaker.tryAcquire());
+
+        breaker.onFailure();
+        Assertions.assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        advance(OPEN_DURATION.minusMillis(1));
+        Assertions.assertFalse(breaker.tryAcquire());
+        advance(Duration.ofMillis(1));
+        Assertions.assertTrue(breaker.tryAcquire());
+    }
+
+    @Test
+    @Tag("unit")
+    @DisplayName("should allow another trial call right away when the trial call is abandoned")
+    void shouldAllowNewTrialAfterAbandon() {
+        CircuitBreaker breaker = breaker(options().build());
+        for (int i = 0; i < 3; i++) breaker.onFailure();
+        advance(OPEN_DURATION);
+        Assertions.assertTrue(breaker.tryAcquire());
+
+        breaker.onAbandoned();
+        Assertions.assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        Assertions.assertTrue(breaker.tryAcquire());
+    }
+
+    @Test
+    @Tag("unit")
+    @DisplayName("should keep rejecting real traffic until the probe succeeds")
+    void shouldRecoverThroughProbe() {
+        AtomicInteger probes = new AtomicInteger();
+        CompletableFuture<Boolean> firstProbe = new CompletableFuture<>();
+        CompletableFuture<Boolean> secondProbe = new CompletableFuture<>();
+        CircuitBreaker breaker = new CircuitBreaker(options().build(),
+            () -> probes.incrementAndGet() == 1 ? firstProbe : secondProbe, clock::get);
+        for (int i = 0; i < 3; i++) breaker.onFailure();
+
+        advance(OPEN_DURATION);
+        Assertions.assertFalse(breaker.tryAcquire());
+        Assertions.assertFalse(breaker.tryAcquire());
+        Assertions.assertEquals(1, probes.get());
+
+        firstProbe.complete(Boolean.FALSE);
+        Assertions.assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        Assertions.assertFalse(breaker.tryAcquire());
+        Assertions.assertEquals(1, probes.get());
+
+        advance(OPEN_DURATION);
+        Assertions.assertFalse(breaker.tryAcquire());
+        Assertions.assertEquals(2, probes.get());
+        secondProbe.complete(Boolean.TRUE);
+        Assertions.assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        Assertions.assertTrue(breaker.tryAcquire());
+    }
+
+    @Test
+    @Tag("unit")
+    @DisplayName("should always allow calls when disabled")
+    void shouldIgnoreFailuresWhenDisabled() {
+        CircuitBreaker breaker = breaker(CircuitBreakerOptions.disabled());
+
+        for (int i = 0; i < 100; i++) breaker.onFailure();
+
+        Assertions.assertTrue(breaker.tryAcquire());
+        Assertions.assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+    }
+}
@@ -0,0 +1,219 @@
+package com.germanfica.wsfe.net;
+
+import com.germanfica.wsfe.exception.ConcurrencyLimitException;
+import org.junit.jupiter.api.*;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Unit tests for the AIMD limit and the waiting queue of {@link ConcurrencyLimiter}. Latencies come
+ * from a fake clock advanced between acquiring and releasing each permit.
+ */
+public class ConcurrencyLimiterTest {
+    private final AtomicLong clock = new AtomicLong();
+
+    private ConcurrencyLimiter limiter(ConcurrencyLimitOptions options) {
+        return new ConcurrencyLimiter(options, clock::get);
+    }
+
+    private static ConcurrencyLimitOptions.ConcurrencyLimitOptionsBuilder options(int initialLimit) {
+        return ConcurrencyLimitOptions.builder()
+            .setInitialLimit(initialLimit)
+            .setMinLimit(1)
+            .setMaxLimit(100);
+    }
+
+    private ConcurrencyLimiter.Permit acquire(ConcurrencyLimiter limiter) {
+        CompletableFuture<ConcurrencyLimiter.Permit> permit = limiter.acquire();
+        Assertions.assertTrue(permit.isDone(), "permit granted immediately");
+        return permit.join();
+    }
+
+    private void completeAfter(ConcurrencyLimiter.Permit permit, Duration latency) {
+        clock.addAndGet(latency.toNanos());
+        permit.onSuccess();
+    }
+
+    @Test
+    @Tag("unit")
+    @DisplayName("should grow the limit additively while busy and latency is steady")
+    void shouldGrowAdditively() {
+        ConcurrencyLimiter limiter = limiter(options(4).build());
+
+        // Only the release that finds half the limit in use grows it, by 1/limit per round.
+        for (int i = 0; i < 8; i++) {
+            ConcurrencyLimiter.Permit first = acquire(limiter);
+            ConcurrencyLimiter.Permit second = acquire(limiter);
+            completeAfter(first, Duration.ofMillis(10));
+            completeAfter(second, Duration.ofMillis(10));
+        }
+
+        Assertions.assertEquals(5, limiter.getLimit());
+        Assertions.assertEquals(0, limiter.getInFlight());
+    }
+
+    @Test
+    @Tag("unit")
+    @DisplayName("should not grow the limit while most of it is unused")
+    void shouldNotGrowWhenUnderused() {
+        ConcurrencyLimiter limiter = limiter(options(10).build());
+
+        for (int i = 0; i < 50; i++) {
+            completeAfter(acquire(limiter), Duration.ofMillis(10));
+        }
+
+        Assertions.assertEquals(10, limiter.getLimit());
+    }
+
+    @Test
+    @Tag("unit")
+    @DisplayName("should cut the limit multiplicatively on a dropped call")
+    void shouldBackOffOnDrop() {
+        ConcurrencyLimiter limiter = limiter(options(10).setBackoffRatio(0.5).build());
+
+        acquire(limiter).onDropped();
+        Assertions.assertEquals(5, limiter.getLimit());
+        acquire(limiter).onDropped();
+        acquire(limiter).onDropped();
+        acquire(limiter).onDropped();
+        Assertions.assertEquals(1, limiter.getLimit());
+    }
+
+    @Test
+    @Tag("unit")
+    @DisplayName("should cut the limit when recent latency exceeds the tolerated multiple of the usual one")
+    void shouldBackOffOnLatency() {
+        ConcurrencyLimiter limiter = limiter(options(10).setBackoffRatio(0.5).setLatencyTolerance(2.0).build());
+        completeAfter(acquire(limiter), Duration.ofMillis(10));
+        Assertions.assertEquals(10, limiter.getLimit());
+
+        completeAfter(acquire(limiter), Duration.ofMillis(100));
+        Assertions.assertEquals(10, limiter.getLimit());
+        completeAfter(acquire(limiter), Duration.ofMillis(100));
+        Assertions.assertEquals(5, limiter.getLimit());
+    }
+
+    @Test
+    @Tag("unit")
+    @DisplayName("should not change the limit for a permit that was never used")
+    void shouldIgnoreCancelledPermits() {
+        ConcurrencyLimiter limiter = limiter(options(10).setBackoffRatio(0.5).build());
+
+        acquire(limiter).cancel();
+
+        Assertions.assertEquals(10, limiter.getLimit());
+        Assertions.assertEquals(0, limiter.getInFlight());
+    }
+
+    @Test
+    @Tag("unit")
+    @DisplayName("should queue calls over the limit and grant them in FIFO order")
+    void shouldQueueInOrder() {
+        ConcurrencyLimiter limiter = limiter(options(1).setMaxLimit(1).build());
+        ConcurrencyLimiter.Permit running = acquire(limiter);
+
+        CompletableFuture<ConcurrencyLimiter.Permit> first = limiter.acquire();
+        CompletableFuture<ConcurrencyLimiter.Permit> second = limiter.acquire();
+        Assertions.assertEquals(2, limiter.getQueued());
+        Assertions.assertFalse(first.isDone());
+
+        completeAfter(running, Duration.ofMillis(10));
+        Assertions.assertTrue(first.isDone());
+        Assertions.assertFalse(second.isDone());
+        Assertions.assertEquals(1, limiter.getInFlight());
+        Assertions.assertEquals(1, limiter.getQueued());
+
+        completeAfter(first.join(), Duration.ofMillis(10));
+        Assertions.assertTrue(second.isDone());
+        completeAfter(second.join(), Duration.ofMillis(10));
+        Assertions.assertEquals(0, limiter.getInFlight());
+    }
+
+    @Test
+    @Tag("unit")
+    @DisplayName("should release a permit only once")
+    void shouldReleaseOnce() {
+        ConcurrencyLimiter limiter = limiter(options(1).setMaxLimit(1).build());
+        ConcurrencyLimiter.Permit running = acquire(limiter);
+        CompletableFuture<ConcurrencyLimiter.Permit> first = limiter.acquire();
+        CompletableFuture<ConcurrencyLimiter.Permit> second = limiter.acquire();
+
+        running.onSuccess();
+        running.onSuccess();
+        running.onDropped();
+
+        Assertions.assertTrue(first.isDone());
+        Assertions.assertFalse(second.isDone());
+        Assertions.assertEquals(1, limiter.getInFlight());
+        Assertions.assertEquals(1, limiter.getLimit());
+    }
+
+    @Test
+    @Tag("unit")
+    @DisplayName("should drop a cancelled waiter from the queue without leaking its place")
+    void shouldForgetCancelledWaiters() {
+        ConcurrencyLimiter limiter = limiter(options(1).setMaxLimit(1).build());
+        ConcurrencyLimiter.Permit running = acquire(limiter);
+        CompletableFuture<ConcurrencyLimiter.Permit> waiting = limiter.acquire();
+
+        waiting.cancel(false);
+        Assertions.assertEquals(0, limiter.getQueued());
+        running.onSuccess();
+
+        Assertions.assertEquals(0, limiter.getInFlight());
+        Assertions.assertTrue(limiter.acquire().isDone());
+    }
+
+    @Test
+    @Tag("unit")
+    @DisplayName("should reject calls over the limit with REJECT or a full queue")
+    void shouldRejectOverflow() {
+        ConcurrencyLimiter rejecting = limiter(options(1).setMaxLimit(1).setOverflow(ConcurrencyLimitOptions.Overflow.REJECT).build());
+        acquire(rejecting);
+        assertFailsWithLimit(rejecting.acquire());
+
+        ConcurrencyLimiter queueing = limiter(options(1).setMaxLimit(1).setMaxQueueSize(1).build());
+        acquire(queueing);
+        CompletableFuture<ConcurrencyLimiter.Permit> queued = queueing.acquire();
+        assertFailsWithLimit(queueing.acquire());
+        Assertions.assertFalse(queued.isDone());
+    }
+
+    @Test
+    @Tag("unit")
+    @DisplayName("should fail a waiter after the maximum queue wait and give its place to the next one")
+    void shouldExpireWaiters() throws Exception {
+        ConcurrencyLimiter limiter = limiter(options(1).setMaxLimit(1).setMaxQueueWait(Duration.ofMillis(20)).build());
+        ConcurrencyLimiter.Permit running = acquire(limiter);
+        CompletableFuture<ConcurrencyLimiter.Permit> expiring = limiter.acquire();
+
+        CompletionException failure = Assertions.assertThrows(CompletionException.class,
+            () -> expiring.orTimeout(5, TimeUnit.SECONDS).join());
+        Assertions.assertInstanceOf(ConcurrencyLimitException.class, failure.getCause());
+        Assertions.assertEquals(0, limiter.getQueued());
+
+        running.onSuccess();
+        Assertions.assertEquals(0, limiter.getInFlight());
+    }
+
+    @Test
+    @Tag("unit")
+    @DisplayName("should grant uncounted permits when disabled")
+    void shouldNotLimitWhenDisabled() {
+        ConcurrencyLimiter limiter = limiter(ConcurrencyLimitOptions.disabled());
+
+        for (int i = 0; i < 1000; i++) acquire(limiter);
+
+        Assertions.assertEquals(0, limiter.getInFlight());
+    }
+
+    private static void assertFailsWithLimit(CompletableFuture<ConcurrencyLimiter.Permit> permit) {
+        Assertions.assertTrue(permit.isCompletedExceptionally());
+        CompletionException failure = Assertions.assertThrows(CompletionException.class, permit::join);
+        Assertions.assertInstanceOf(ConcurrencyLimitException.class, failure.getCause());
+    }
+}
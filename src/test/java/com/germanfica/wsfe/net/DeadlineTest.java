@@ -0,0 +1,190 @@
+package com.germanfica.wsfe.net;
+
+import com.germanfica.wsfe.exception.DeadlineExceededException;
+import com.germanfica.wsfe.exception.RequestCancelledException;
+import fev1.dif.afip.gov.ar.ServiceSoap;
+import org.junit.jupiter.api.*;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Unit tests for {@link Deadline}, {@link CancellationToken} and how {@link DefaultSoapRequestHandler}
+ * applies them. The handler calls use fake invokers that never touch the port, so nothing goes
+ * over the network.
+ */
+public class DeadlineTest {
+    private DefaultSoapRequestHandler handler;
+
+    @BeforeEach
+    void setUp() {
+        handler = new DefaultSoapRequestHandler(new TestOptions());
+    }
+
+    @AfterEach
+    void tearDown() {
+        handler.shutdown(Duration.ZERO);
+    }
+
+    private static ApiRequest request(Deadline deadline, CancellationToken token) {
+        return new ApiRequest(RequestOptions.builder().setDeadline(deadline).setCancellationToken(token).build()) { };
+    }
+
+    @Test
+    @Tag("unit")
+    @DisplayName("should expire deadlines that are zero or negative and saturate huge ones")
+    void shouldComputeRemainingTime() {
+        Assertions.assertTrue(Deadline.after(Duration.ZERO).isExpired());
+        Assertions.assertTrue(Deadline.after(Duration.ofSeconds(-1)).isExpired());
+        Assertions.assertFalse(Deadline.after(Duration.ofHours(1)).isExpired());
+        Assertions.assertFalse(Deadline.after(Duration.ofSeconds(Long.MAX_VALUE)).isExpired());
+        Assertions.assertTrue(Deadline.after(Duration.ofSeconds(Long.MIN_VALUE)).isExpired());
+        Assertions.assertThrows(IllegalArgumentException.class, () -> Deadline.after(null));
+    }
+
+    @Test
+    @Tag("unit")
+    @DisplayName("should pick the earliest deadline and cap timeouts to the remaining time")
+    void shouldCombineDeadlines() {
+        Deadline soon = Deadline.after(Duration.ofSeconds(10));
+        Deadline later = Deadline.after(Duration.ofHours(1));
+
+        Assertions.assertSame(soon, Deadline.earliest(soon, later));
+        Assertions.assertSame(soon, Deadline.earliest(later, soon));
+        Assertions.assertSame(later, Deadline.earliest(null, later));
+        Assertions.assertNull(Deadline.earliest(null, null));
+
+        Assertions.assertEquals(Duration.ofSeconds(1), soon.cap(Duration.ofSeconds(1)));
+        Duration capped = soon.cap(Duration.ofMinutes(1));
+        Assertions.assertTrue(capped.compareTo(Duration.ofSeconds(10)) <= 0 && capped.compareTo(Duration.ofSeconds(9)) > 0);
+        Assertions.assertEquals(Duration.ofMillis(1), Deadline.after(Duration.ZERO).cap(Duration.ofMinutes(1)));
+        Assertions.assertTrue(soon.cap(null).compareTo(Duration.ofSeconds(10)) <= 0);
+    }
+
+    @Test
+    @Tag("unit")
+    @DisplayName("should run cancellation callbacks once and right away when registered late")
+    void shouldRunCancellationCallbacks() {
+        CancellationToken token = CancellationToken.create();
+        AtomicInteger kept = new AtomicInteger();
+        AtomicInteger removed = new AtomicInteger();
+        token.onCancel(kept::incrementAndGet);
+        token.onCancel(removed::incrementAndGet).close();
+
+        token.cancel();
+        token.cancel();
+        Assertions.assertTrue(token.isCancelled());
+        Assertions.assertEquals(1, kept.get());
+        Assertions.assertEquals(0, removed.get());
+
+        AtomicInteger late = new AtomicInteger();
+        token.onCancel(late::incrementAndGet);
+        Assertions.assertEquals(1, late.get());
+    }
+
+    @Test
+    @Tag("unit")
+    @DisplayName("should restore the previous request context when a scope closes")
+    void shouldNestRequestContexts() {
+        RequestContext outer = RequestContext.of(Deadline.after(Duration.ofHours(1)), null);
+        RequestContext inner = RequestContext.of(null, CancellationToken.create());
+
+        try (RequestContext.Scope ignored = outer.attach()) {
+            try (RequestContext.Scope alsoIgnored = inner.attach()) {
+                Assertions.assertSame(inner, RequestContext.current());
+            }
+            Assertions.assertSame(outer, RequestContext.current());
+        }
+        Assertions.assertNull(RequestContext.current());
+    }
+
+    @Test
+    @Tag("unit")
+    @DisplayName("should not start an attempt once the deadline has passed")
+    void shouldFailExpiredRequestsUpFront() {
+        AtomicInteger attempts = new AtomicInteger();
+
+        Assertions.assertThrows(DeadlineExceededException.class, () -> handler.invoke(request(Deadline.after(Duration.ZERO), null),
+            ServiceSoap.class, "FEDummy", port -> attempts.incrementAndGet()));
+        Assertions.assertEquals(0, attempts.get());
+    }
+
+    @Test
+    @Tag("unit")
+    @DisplayName("should abandon and interrupt an attempt that outlives the deadline")
+    void shouldInterruptAttemptAtDeadline() throws Exception {
+        CountDownLatch interrupted = new CountDownLatch(1);
+
+        Assertions.assertThrows(DeadlineExceededException.class, () -> handler.invoke(request(Deadline.after(Duration.ofMillis(100)), null),
+            ServiceSoap.class, "FEDummy", port -> block(interrupted)));
+        Assertions.assertTrue(interrupted.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    @Tag("unit")
+    @DisplayName("should abandon and interrupt an attempt when the request is cancelled")
+    void shouldInterruptAttemptOnCancel() throws Exception {
+        CancellationToken token = CancellationToken.create();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch interrupted = new CountDownLatch(1);
+        Thread canceller = new Thread(() -> {
+            try {
+                if (started.await(5, TimeUnit.SECONDS)) token.cancel();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        canceller.start();
+
+        Assertions.assertThrows(RequestCancelledException.class, () -> handler.invoke(request(null, token),
+            ServiceSoap.class, "FEDummy", port -> {
+                started.countDown();
+                return block(interrupted);
+            }));
+        Assertions.assertTrue(interrupted.await(5, TimeUnit.SECONDS));
+        canceller.join();
+    }
+
+    @Test
+    @Tag("unit")
+    @DisplayName("should apply the deadline of the active request context")
+    void shouldUseRequestContextDeadline() {
+        try (RequestContext.Scope ignored = RequestContext.of(Deadline.after(Duration.ZERO), null).attach()) {
+            Assertions.assertThrows(DeadlineExceededException.class,
+                () -> handler.invoke(null, ServiceSoap.class, "FEDummy", port -> "unreachable"));
+        }
+    }
+
+    private static Object block(CountDownLatch interrupted) {
+        try {
+            Thread.sleep(TimeUnit.MINUTES.toMillis(1));
+        } catch (InterruptedException e) {
+            interrupted.countDown();
+        }
+        return null;
+    }
+
+    private static final class TestOptions extends SoapResponseGetterOptions {
+        @Override
+        public String getUrlBase() {
+            return "http://127.0.0.1:9";
+        }
+
+        @Override
+        public ApiEnvironment getApiEnvironment() {
+            return null;
+        }
+
+        @Override
+        public ProxyOptions getProxyOptions() {
+            return null;
+        }
+
+        @Override
+        public HttpTransportMode getHttpTransportMode() {
+            return HttpTransportMode.JDK_HTTP_CLIENT;
+        }
+    }
+}
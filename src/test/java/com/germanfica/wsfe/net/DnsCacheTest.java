@@ -0,0 +1,116 @@
+package com.germanfica.wsfe.net;
+
+import org.junit.jupiter.api.*;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Unit tests for the {@link DnsCache} TTLs and counters, with a fake resolver and a fake clock.
+ */
+public class DnsCacheTest {
+    private static final String HOST = "servicios1.afip.gov.ar";
+    private static final String UNKNOWN_HOST = "no-existe.afip.gov.ar";
+
+    private final AtomicLong clock = new AtomicLong();
+    private final AtomicInteger lookups = new AtomicInteger();
+
+    private DnsCache cache(DnsCacheOptions options) {
+        return new DnsCache(options, host -> {
+            lookups.incrementAndGet();
+            if (UNKNOWN_HOST.equals(host)) throw new UnknownHostException(host);
+            return new InetAddress[]{InetAddress.getByAddress(host, new byte[]{10, 0, 0, 1})};
+        }, clock::get);
+    }
+
+    private static DnsCacheOptions options() {
+        return DnsCacheOptions.builder()
+            .setTtl(Duration.ofSeconds(60))
+            .setNegativeTtl(Duration.ofSeconds(5))
+            .build();
+    }
+
+    private void advance(Duration duration) {
+        clock.addAndGet(duration.toNanos());
+    }
+
+    @Test
+    @Tag("unit")
+    @DisplayName("should serve resolutions from the cache until the TTL expires")
+    void shouldCacheUntilTtl() throws Exception {
+        DnsCache cache = cache(options());
+
+        cache.resolve(HOST);
+        advance(Duration.ofSeconds(59));
+        cache.resolve(HOST);
+        Assertions.assertEquals(1, lookups.get());
+        Assertions.assertEquals(1, cache.getHits());
+        Assertions.assertEquals(1, cache.getMisses());
+
+        advance(Duration.ofSeconds(1));
+        cache.resolve(HOST);
+        Assertions.assertEquals(2, lookups.get());
+        Assertions.assertEquals(2, cache.getMisses());
+    }
+
+    @Test
+    @Tag("unit")
+    @DisplayName("should cache failed resolutions for the negative TTL")
+    void shouldCacheFailures() {
+        DnsCache cache = cache(options());
+
+        Assertions.assertThrows(UnknownHostException.class, () -> cache.resolve(UNKNOWN_HOST));
+        Assertions.assertThrows(UnknownHostException.class, () -> cache.resolve(UNKNOWN_HOST));
+        Assertions.assertEquals(1, lookups.get());
+        Assertions.assertEquals(1, cache.getHits());
+
+        advance(Duration.ofSeconds(5));
+        Assertions.assertThrows(UnknownHostException.class, () -> cache.resolve(UNKNOWN_HOST));
+        Assertions.assertEquals(2, lookups.get());
+    }
+
+    @Test
+    @Tag("unit")
+    @DisplayName("should hand out copies that callers cannot use to corrupt the cache")
+    void shouldReturnCopies() throws Exception {
+        DnsCache cache = cache(options());
+
+        InetAddress[] first = cache.resolve(HOST);
+        first[0] = null;
+
+        Assertions.assertNotNull(cache.resolve(HOST)[0]);
+    }
+
+    @Test
+    @Tag("unit")
+    @DisplayName("should forget resolutions on clear but keep the counters")
+    void shouldKeepCountersOnClear() throws Exception {
+        DnsCache cache = cache(options());
+        cache.resolve(HOST);
+        cache.resolve(HOST);
+
+        cache.clear();
+        cache.resolve(HOST);
+
+        Assertions.assertEquals(2, lookups.get());
+        Assertions.assertEquals(1, cache.getHits());
+        Assertions.assertEquals(2, cache.getMisses());
+    }
+
+    @Test
+    @Tag("unit")
+    @DisplayName("should resolve every time without counting when disabled")
+    void shouldBypassWhenDisabled() throws Exception {
+        DnsCache cache = cache(DnsCacheOptions.disabled());
+
+        cache.resolve(HOST);
+        cache.resolve(HOST);
+
+        Assertions.assertEquals(2, lookups.get());
+        Assertions.assertEquals(0, cache.getHits());
+        Assertions.assertEquals(0, cache.getMisses());
+    }
+}
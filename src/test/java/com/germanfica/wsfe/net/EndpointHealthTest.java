@@ -0,0 +1,112 @@
+package com.germanfica.wsfe.net;
+
+import org.junit.jupiter.api.*;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Unit tests for the ejection and latency tracking of {@link EndpointHealth}, driven by a fake clock.
+ */
+public class EndpointHealthTest {
+    private static final String URL = "https://servicios1.afip.gov.ar/wsfev1/service.asmx";
+
+    private final AtomicLong clock = new AtomicLong();
+
+    private EndpointHealth health() {
+        return new EndpointHealth(URL, FailoverOptions.builder()
+            .setEjectionDuration(Duration.ofSeconds(30))
+            .setMaxEjectionDuration(Duration.ofMinutes(5))
+            .build(), clock::get);
+    }
+
+    private void advance(Duration duration) {
+        clock.addAndGet(duration.toNanos());
+    }
+
+    private static long nanos(Duration duration) {
+        return duration.toNanos();
+    }
+
+    @Test
+    @Tag("unit")
+    @DisplayName("should eject an endpoint for the ejection duration after a failure")
+    void shouldEjectAfterFailure() {
+        EndpointHealth health = health();
+        Assertions.assertTrue(health.isAvailable(clock.get()));
+
+        health.onFailure();
+
+        Assertions.assertFalse(health.isAvailable(clock.get()));
+        Assertions.assertEquals(nanos(Duration.ofSeconds(30)), health.ejectedForNanos(clock.get()));
+        advance(Duration.ofSeconds(29));
+        Assertions.assertFalse(health.isAvailable(clock.get()));
+        advance(Duration.ofSeconds(1));
+        Assertions.assertTrue(health.isAvailable(clock.get()));
+        Assertions.assertEquals(0, health.ejectedForNanos(clock.get()));
+    }
+
+    @Test
+    @Tag("unit")
+    @DisplayName("should double the ejection on each consecutive failure up to the maximum")
+    void shouldBackOffEjection() {
+        EndpointHealth health = health();
+
+        long[] expectedSeconds = {30, 60, 120, 240, 300, 300};
+        for (long seconds : expectedSeconds) {
+            health.onFailure();
+            Assertions.assertEquals(nanos(Duration.ofSeconds(seconds)), health.ejectedForNanos(clock.get()));
+        }
+        for (int i = 0; i < 100; i++) health.onFailure();
+        Assertions.assertEquals(nanos(Duration.ofMinutes(5)), health.ejectedForNanos(clock.get()));
+    }
+
+    @Test
+    @Tag("unit")
+    @DisplayName("should readmit the endpoint and reset the backoff on success")
+    void shouldReadmitOnSuccess() {
+        EndpointHealth health = health();
+        health.onFailure();
+        health.onFailure();
+
+        health.onSuccess(nanos(Duration.ofMillis(100)));
+        Assertions.assertTrue(health.isAvailable(clock.get()));
+
+        health.onFailure();
+        Assertions.assertEquals(nanos(Duration.ofSeconds(30)), health.ejectedForNanos(clock.get()));
+    }
+
+    @Test
+    @Tag("unit")
+    @DisplayName("should keep a moving average of latency that includes lost races")
+    void shouldAverageLatency() {
+        EndpointHealth health = health();
+        Assertions.assertEquals(-1, health.latencyNanos());
+
+        health.onSuccess(nanos(Duration.ofMillis(100)));
+        Assertions.assertEquals(nanos(Duration.ofMillis(100)), health.latencyNanos(), 1);
+        health.onSuccess(nanos(Duration.ofMillis(200)));
+        Assertions.assertEquals(nanos(Duration.ofMillis(120)), health.latencyNanos(), 1);
+        health.onLost(nanos(Duration.ofMillis(620)));
+        Assertions.assertEquals(nanos(Duration.ofMillis(220)), health.latencyNanos(), 1);
+    }
+
+    @Test
+    @Tag("unit")
+    @DisplayName("should report latency, failures and the remaining ejection")
+    void shouldReportStatus() {
+        EndpointHealth health = health();
+        health.onSuccess(nanos(Duration.ofMillis(100)));
+        health.onFailure();
+        advance(Duration.ofSeconds(10));
+
+        EndpointStatus status = health.status();
+
+        Assertions.assertEquals(URL, status.getEndpointUrl());
+        Assertions.assertEquals(Duration.ofMillis(100), status.getLatency());
+        Assertions.assertEquals(1, status.getSamples());
+        Assertions.assertEquals(1, status.getConsecutiveFailures());
+        Assertions.assertEquals(Duration.ofSeconds(20), status.getEjectedFor());
+        Assertions.assertTrue(status.isEjected());
+    }
+}
@@ -0,0 +1,112 @@
+package com.germanfica.wsfe.net;
+
+import com.germanfica.wsfe.dto.ErrorDto;
+import com.germanfica.wsfe.exception.ApiException;
+import fev1.dif.afip.gov.ar.ServiceSoap;
+import org.junit.jupiter.api.*;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Unit tests for the per-code rate limiting and sampling of {@link ErrorReporter}, with a
+ * recording listener and a fake clock.
+ */
+public class ErrorReporterTest {
+    private final AtomicLong clock = new AtomicLong();
+    private final List<ErrorEvent> events = new ArrayList<>();
+
+    private ErrorReporter reporter(ErrorReportingOptions.ErrorReportingOptionsBuilder options) {
+        return new ErrorReporter(options.setListener(events::add).build(), clock::get);
+    }
+
+    private static ErrorReportingOptions.ErrorReportingOptionsBuilder options() {
+        return ErrorReportingOptions.builder()
+            .setMaxEventsPerInterval(2)
+            .setInterval(Duration.ofMinutes(1));
+    }
+
+    private static void report(ErrorReporter reporter, String code) {
+        ApiException failure = new ApiException(new ErrorDto(code, "test", null), HttpStatus.INTERNAL_SERVER_ERROR);
+        reporter.report(failure, failure, ServiceSoap.class, "FEDummy");
+    }
+
+    @Test
+    @Tag("unit")
+    @DisplayName("should deliver at most maxEventsPerInterval events per code and interval")
+    void shouldLimitEventsPerInterval() {
+        ErrorReporter reporter = reporter(options());
+
+        for (int i = 0; i < 5; i++) report(reporter, "soap:Server");
+
+        Assertions.assertEquals(2, events.size());
+        Assertions.assertEquals("soap:Server", events.get(0).getCode());
+        Assertions.assertEquals(ServiceSoap.class, events.get(0).getPortClass());
+        Assertions.assertEquals("FEDummy", events.get(0).getOperationName());
+    }
+
+    @Test
+    @Tag("unit")
+    @DisplayName("should report how many events were suppressed once the next interval opens")
+    void shouldCountSuppressedEvents() {
+        ErrorReporter reporter = reporter(options());
+        for (int i = 0; i < 5; i++) report(reporter, "soap:Server");
+
+        clock.addAndGet(Duration.ofSeconds(59).toNanos());
+        report(reporter, "soap:Server");
+        Assertions.assertEquals(2, events.size());
+
+        clock.addAndGet(Duration.ofSeconds(1).toNanos());
+        report(reporter, "soap:Server");
+        Assertions.assertEquals(3, events.size());
+        Assertions.assertEquals(4, events.get(2).getSuppressed());
+        Assertions.assertEquals(0, events.get(0).getSuppressed());
+    }
+
+    @Test
+    @Tag("unit")
+    @DisplayName("should limit each code separately")
+    void shouldIsolateCodes() {
+        ErrorReporter reporter = reporter(options());
+
+        for (int i = 0; i < 5; i++) report(reporter, "soap:Server");
+        report(reporter, "coe.notAuthorized");
+        report(reporter, "transport_error");
+
+        Assertions.assertEquals(4, events.size());
+        Assertions.assertEquals("coe.notAuthorized", events.get(2).getCode());
+        Assertions.assertEquals("transport_error", events.get(3).getCode());
+    }
+
+    @Test
+    @Tag("unit")
+    @DisplayName("should drop every event with a zero sample rate and none with an unlimited interval")
+    void shouldSampleEvents() {
+        ErrorReporter sampledOut = reporter(options().setSampleRate(0.0));
+        for (int i = 0; i < 5; i++) report(sampledOut, "soap:Server");
+        Assertions.assertTrue(events.isEmpty());
+
+        ErrorReporter unlimited = reporter(options().setInterval(null));
+        for (int i = 0; i < 5; i++) report(unlimited, "soap:Server");
+        Assertions.assertEquals(5, events.size());
+    }
+
+    @Test
+    @Tag("unit")
+    @DisplayName("should keep going when the listener throws and stay silent when disabled")
+    void shouldIsolateListenerFailures() {
+        ErrorReporter throwing = new ErrorReporter(options().setListener(event -> {
+            events.add(event);
+            throw new IllegalStateException("listener failed");
+        }).build(), clock::get);
+        report(throwing, "soap:Server");
+        report(throwing, "soap:Server");
+        Assertions.assertEquals(2, events.size());
+
+        ErrorReporter disabled = reporter(options().setEnabled(false));
+        report(disabled, "soap:Server");
+        Assertions.assertEquals(2, events.size());
+    }
+}
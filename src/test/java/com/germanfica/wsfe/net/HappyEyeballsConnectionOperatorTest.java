@@ -0,0 +1,225 @@
+package com.germanfica.wsfe.net;
+
+import org.apache.hc.client5.http.nio.AsyncClientConnectionOperator;
+import org.apache.hc.client5.http.nio.ManagedAsyncClientConnection;
+import org.apache.hc.core5.concurrent.BasicFuture;
+import org.apache.hc.core5.concurrent.FutureCallback;
+import org.apache.hc.core5.http.HttpHost;
+import org.apache.hc.core5.http.protocol.HttpContext;
+import org.apache.hc.core5.net.NamedEndpoint;
+import org.apache.hc.core5.reactor.ConnectionInitiator;
+import org.apache.hc.core5.util.Timeout;
+import org.junit.jupiter.api.*;
+
+import java.lang.reflect.Proxy;
+import java.net.ConnectException;
+import java.net.InetAddress;
+import java.net.SocketAddress;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Unit tests for the per-address health kept by the HC5 {@link SharedAsyncConduitFactory.CachingDnsResolver}
+ * and the staggered connects of {@link HappyEyeballsConnectionOperator}, driven by a fake clock, a
+ * manual timer and a delegate whose connects complete on demand.
+ */
+public class HappyEyeballsConnectionOperatorTest {
+    private static final String HOST = "servicios1.afip.gov.ar";
+    private static final Duration ATTEMPT_DELAY = Duration.ofMillis(250);
+
+    private final AtomicLong clock = new AtomicLong();
+    private final List<Runnable> timers = new ArrayList<>();
+    private final FakeOperator delegate = new FakeOperator();
+    private InetAddress a;
+    private InetAddress b;
+    private InetAddress c;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        a = InetAddress.getByAddress(HOST, new byte[]{10, 0, 0, 1});
+        b = InetAddress.getByAddress(HOST, new byte[]{10, 0, 0, 2});
+        c = InetAddress.getByAddress(HOST, new byte[]{10, 0, 0, 3});
+    }
+
+    private SharedAsyncConduitFactory.CachingDnsResolver resolver(FailoverOptions failover) {
+        DnsCache cache = new DnsCache(DnsCacheOptions.defaults(), host -> new InetAddress[]{a, b, c}, clock::get);
+        return new SharedAsyncConduitFactory.CachingDnsResolver(cache, failover, clock::get);
+    }
+
+    private static FailoverOptions failover() {
+        return FailoverOptions.builder()
+            .setEjectionDuration(Duration.ofSeconds(30))
+            .setConnectAttemptDelay(ATTEMPT_DELAY)
+            .build();
+    }
+
+    private HappyEyeballsConnectionOperator operator(SharedAsyncConduitFactory.CachingDnsResolver resolver) {
+        return new HappyEyeballsConnectionOperator(delegate, resolver, ATTEMPT_DELAY,
+            (delayNanos, task) -> {
+                Assertions.assertEquals(ATTEMPT_DELAY.toNanos(), delayNanos);
+                timers.add(task);
+            }, clock::get);
+    }
+
+    private Future<ManagedAsyncClientConnection> connect(HappyEyeballsConnectionOperator operator) {
+        return operator.connect(null, new HttpHost("https", HOST, 443), null, null, Timeout.ofSeconds(10), null, null, null);
+    }
+
+    private void fireTimers() {
+        List<Runnable> due = new ArrayList<>(timers);
+        timers.clear();
+        due.forEach(Runnable::run);
+    }
+
+    private void advance(Duration duration) {
+        clock.addAndGet(duration.toNanos());
+    }
+
+    @Test
+    @Tag("unit")
+    @DisplayName("should order addresses by connect latency and demote failed ones")
+    void shouldOrderByHealth() throws Exception {
+        SharedAsyncConduitFactory.CachingDnsResolver resolver = resolver(failover());
+        Assertions.assertArrayEquals(new InetAddress[]{a, b, c}, resolver.resolve(HOST));
+
+        resolver.onConnectFailed(a);
+        resolver.onConnected(b, Duration.ofMillis(80).toNanos());
+        resolver.onConnected(c, Duration.ofMillis(20).toNanos());
+
+        Assertions.assertArrayEquals(new InetAddress[]{c, b, a}, resolver.resolve(HOST));
+
+        advance(Duration.ofSeconds(30));
+        resolver.onConnected(a, Duration.ofMillis(50).toNanos());
+        Assertions.assertArrayEquals(new InetAddress[]{c, a, b}, resolver.resolve(HOST));
+    }
+
+    @Test
+    @Tag("unit")
+    @DisplayName("should keep DNS order when failover is disabled")
+    void shouldKeepDnsOrderWhenDisabled() throws Exception {
+        SharedAsyncConduitFactory.CachingDnsResolver resolver = resolver(FailoverOptions.disabled());
+        resolver.onConnectFailed(a);
+
+        Assertions.assertArrayEquals(new InetAddress[]{a, b, c}, resolver.resolve(HOST));
+    }
+
+    @Test
+    @Tag("unit")
+    @DisplayName("should connect to the next address when the first one does not answer in time")
+    void shouldStaggerPastBlackHoledAddress() throws Exception {
+        SharedAsyncConduitFactory.CachingDnsResolver resolver = resolver(failover());
+        Future<ManagedAsyncClientConnection> result = connect(operator(resolver));
+
+        Assertions.assertEquals(List.of(a), delegate.addresses());
+        advance(ATTEMPT_DELAY);
+        fireTimers();
+        Assertions.assertEquals(List.of(a, b), delegate.addresses());
+
+        advance(Duration.ofMillis(30));
+        ManagedAsyncClientConnection connection = connection();
+        delegate.attempts.get(1).future.completed(connection);
+
+        Assertions.assertSame(connection, result.get());
+        Assertions.assertTrue(delegate.attempts.get(0).future.isCancelled());
+        Assertions.assertEquals(HOST, delegate.attempts.get(1).host.getHostName());
+        fireTimers();
+        Assertions.assertEquals(2, delegate.attempts.size());
+        Assertions.assertArrayEquals(new InetAddress[]{b, a, c}, resolver.resolve(HOST));
+    }
+
+    @Test
+    @Tag("unit")
+    @DisplayName("should try the next address right away when a connect fails")
+    void shouldFailOverImmediatelyOnConnectFailure() throws Exception {
+        SharedAsyncConduitFactory.CachingDnsResolver resolver = resolver(failover());
+        Future<ManagedAsyncClientConnection> result = connect(operator(resolver));
+
+        delegate.attempts.get(0).future.failed(new ConnectException("refused"));
+        Assertions.assertEquals(List.of(a, b), delegate.addresses());
+        delegate.attempts.get(1).future.failed(new ConnectException("refused"));
+        ConnectException last = new ConnectException("timed out");
+        delegate.attempts.get(2).future.failed(last);
+
+        ExecutionException e = Assertions.assertThrows(ExecutionException.class, result::get);
+        Assertions.assertSame(last, e.getCause());
+        Assertions.assertArrayEquals(new InetAddress[]{a, b, c}, resolver.resolve(HOST));
+
+        advance(Duration.ofSeconds(5));
+        resolver.onConnectFailed(a);
+        Assertions.assertArrayEquals(new InetAddress[]{b, c, a}, resolver.resolve(HOST));
+    }
+
+    @Test
+    @Tag("unit")
+    @DisplayName("should cancel every pending attempt when the caller cancels")
+    void shouldCancelPendingAttempts() {
+        Future<ManagedAsyncClientConnection> result = connect(operator(resolver(failover())));
+        fireTimers();
+
+        Assertions.assertTrue(result.cancel(true));
+        Assertions.assertTrue(delegate.attempts.stream().allMatch(attempt -> attempt.future.isCancelled()));
+        fireTimers();
+        Assertions.assertEquals(2, delegate.attempts.size());
+    }
+
+    @Test
+    @Tag("unit")
+    @DisplayName("should pass a host with a fixed address straight to the delegate")
+    void shouldDelegateFixedAddress() {
+        operator(resolver(failover())).connect(null, new HttpHost("https", c, HOST, 443), null, null,
+            Timeout.ofSeconds(10), null, null, null);
+
+        Assertions.assertEquals(List.of(c), delegate.addresses());
+        Assertions.assertTrue(timers.isEmpty());
+    }
+
+    private static ManagedAsyncClientConnection connection() {
+        return (ManagedAsyncClientConnection) Proxy.newProxyInstance(HappyEyeballsConnectionOperatorTest.class.getClassLoader(),
+            new Class<?>[]{ManagedAsyncClientConnection.class}, (proxy, method, args) -> null);
+    }
+
+    private static final class FakeOperator implements AsyncClientConnectionOperator {
+        private final List<Attempt> attempts = new ArrayList<>();
+
+        List<InetAddress> addresses() {
+            List<InetAddress> addresses = new ArrayList<>();
+            attempts.forEach(attempt -> addresses.add(attempt.host.getAddress()));
+            return addresses;
+        }
+
+        @Override
+        public Future<ManagedAsyncClientConnection> connect(ConnectionInitiator connectionInitiator, HttpHost host,
+                                                            SocketAddress localAddress, Timeout connectTimeout,
+                                                            Object attachment, FutureCallback<ManagedAsyncClientConnection> callback) {
+            return connect(connectionInitiator, host, null, localAddress, connectTimeout, attachment, null, callback);
+        }
+
+        @Override
+        public Future<ManagedAsyncClientConnection> connect(ConnectionInitiator connectionInitiator, HttpHost host,
+                                                            NamedEndpoint endpointName, SocketAddress localAddress,
+                                                            Timeout connectTimeout, Object attachment, HttpContext context,
+                                                            FutureCallback<ManagedAsyncClientConnection> callback) {
+            Attempt attempt = new Attempt(host, new BasicFuture<>(callback));
+            attempts.add(attempt);
+            return attempt.future;
+        }
+
+        @Override
+        public void upgrade(ManagedAsyncClientConnection conn, HttpHost host, Object attachment) {
+        }
+    }
+
+    private static final class Attempt {
+        private final HttpHost host;
+        private final BasicFuture<ManagedAsyncClientConnection> future;
+
+        private Attempt(HttpHost host, BasicFuture<ManagedAsyncClientConnection> future) {
+            this.host = host;
+            this.future = future;
+        }
+    }
+}
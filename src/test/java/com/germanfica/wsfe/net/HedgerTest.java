@@ -0,0 +1,179 @@
+package com.germanfica.wsfe.net;
+
+import org.junit.jupiter.api.*;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Unit tests for {@link Hedger}. Hedges are scheduled on a manual timer and latencies come from a
+ * fake clock, so each test decides exactly when the hedge fires and which attempt answers first.
+ */
+public class HedgerTest {
+    private final AtomicLong clock = new AtomicLong();
+    private final List<Long> delays = new ArrayList<>();
+    private final List<Runnable> timers = new ArrayList<>();
+    private final List<CompletableFuture<String>> attempts = new ArrayList<>();
+
+    private Hedger hedger(HedgingOptions options) {
+        RetryPolicy retryPolicy = RetryPolicy.builder().setOperation("FEDummy", Idempotency.SAFE).build();
+        return new Hedger(options, retryPolicy, (delayNanos, task) -> {
+            delays.add(delayNanos);
+            timers.add(task);
+        }, clock::get);
+    }
+
+    private static HedgingOptions.HedgingOptionsBuilder options() {
+        return HedgingOptions.builder()
+            .setFallbackDelay(Duration.ofSeconds(2))
+            .setMinDelay(Duration.ofMillis(50))
+            .setMinSamples(16)
+            .setPercentile(0.75)
+            .setMaxHedgeRatio(1.0);
+    }
+
+    private CompletableFuture<String> attempt() {
+        CompletableFuture<String> attempt = new CompletableFuture<>();
+        attempts.add(attempt);
+        return attempt;
+    }
+
+    private void fireTimers() {
+        List<Runnable> due = new ArrayList<>(timers);
+        timers.clear();
+        due.forEach(Runnable::run);
+    }
+
+    @Test
+    @Tag("unit")
+    @DisplayName("should hedge only SAFE operations while enabled")
+    void shouldApplyOnlyToSafeOperations() {
+        Hedger hedger = hedger(options().build());
+
+        Assertions.assertTrue(hedger.applies("FEDummy"));
+        Assertions.assertFalse(hedger.applies("FECAESolicitar"));
+        Assertions.assertFalse(hedger.applies(null));
+        Assertions.assertFalse(hedger(HedgingOptions.disabled()).applies("FEDummy"));
+        Assertions.assertFalse(hedger(options().setMaxHedgeRatio(0).build()).applies("FEDummy"));
+    }
+
+    @Test
+    @Tag("unit")
+    @DisplayName("should use the fallback delay until there are enough samples, then the observed percentile")
+    void shouldDeriveDelayFromObservedLatency() {
+        Hedger hedger = hedger(options().build());
+
+        // The window recomputes its percentile every 16 samples after the first one.
+        for (int i = 0; i < 17; i++) {
+            if (i < 16) Assertions.assertEquals(Duration.ofSeconds(2), hedger.hedgeDelay("FEDummy"));
+            CompletableFuture<String> result = hedger.invoke("FEDummy", this::attempt, () -> true);
+            clock.addAndGet(Duration.ofMillis(i % 2 == 0 ? 100 : 300).toNanos());
+            attempts.get(attempts.size() - 1).complete("ok");
+            Assertions.assertEquals("ok", result.join());
+        }
+
+        Assertions.assertEquals(Duration.ofMillis(300), hedger.hedgeDelay("FEDummy"));
+        Assertions.assertEquals(Duration.ofSeconds(2), hedger.hedgeDelay("FECompConsultar"));
+        Assertions.assertEquals(Duration.ofMillis(50), hedger(options().setFallbackDelay(Duration.ofMillis(1)).build()).hedgeDelay("FEDummy"));
+    }
+
+    @Test
+    @Tag("unit")
+    @DisplayName("should launch a hedge after the delay, keep the first answer and cancel the loser")
+    void shouldHedgeSlowAttempt() {
+        Hedger hedger = hedger(options().build());
+
+        CompletableFuture<String> result = hedger.invoke("FEDummy", this::attempt, () -> true);
+        Assertions.assertEquals(List.of(Duration.ofSeconds(2).toNanos()), delays);
+        Assertions.assertEquals(1, attempts.size());
+
+        fireTimers();
+        Assertions.assertEquals(2, attempts.size());
+        attempts.get(1).complete("hedge");
+
+        Assertions.assertEquals("hedge", result.join());
+        Assertions.assertTrue(attempts.get(0).isCancelled());
+    }
+
+    @Test
+    @Tag("unit")
+    @DisplayName("should not hedge an attempt that already answered")
+    void shouldNotHedgeFinishedAttempt() {
+        Hedger hedger = hedger(options().build());
+
+        CompletableFuture<String> result = hedger.invoke("FEDummy", this::attempt, () -> true);
+        attempts.get(0).complete("first");
+        fireTimers();
+
+        Assertions.assertEquals("first", result.join());
+        Assertions.assertEquals(1, attempts.size());
+    }
+
+    @Test
+    @Tag("unit")
+    @DisplayName("should keep hedges within maxHedgeRatio of the calls")
+    void shouldRespectHedgeBudget() {
+        Hedger hedger = hedger(options().setMaxHedgeRatio(0.5).setMaxBurst(1).build());
+
+        hedger.invoke("FEDummy", this::attempt, () -> true);
+        fireTimers();
+        Assertions.assertEquals(1, attempts.size());
+
+        hedger.invoke("FEDummy", this::attempt, () -> true);
+        fireTimers();
+        Assertions.assertEquals(3, attempts.size());
+
+        hedger.invoke("FEDummy", this::attempt, () -> true);
+        fireTimers();
+        Assertions.assertEquals(4, attempts.size());
+    }
+
+    @Test
+    @Tag("unit")
+    @DisplayName("should give the token back when the hedge is vetoed")
+    void shouldRefundVetoedHedge() {
+        Hedger hedger = hedger(options().setMaxBurst(1).build());
+
+        hedger.invoke("FEDummy", this::attempt, () -> false);
+        fireTimers();
+        Assertions.assertEquals(1, attempts.size());
+
+        hedger.invoke("FEDummy", this::attempt, () -> true);
+        fireTimers();
+        Assertions.assertEquals(3, attempts.size());
+    }
+
+    @Test
+    @Tag("unit")
+    @DisplayName("should wait for every attempt and report the last failure")
+    void shouldReportLastFailure() {
+        Hedger hedger = hedger(options().build());
+        CompletableFuture<String> result = hedger.invoke("FEDummy", this::attempt, () -> true);
+        fireTimers();
+
+        attempts.get(0).completeExceptionally(new IllegalStateException("first"));
+        Assertions.assertFalse(result.isDone());
+        attempts.get(1).completeExceptionally(new IllegalStateException("hedge"));
+
+        CompletionException failure = Assertions.assertThrows(CompletionException.class, result::join);
+        Assertions.assertEquals("hedge", failure.getCause().getMessage());
+    }
+
+    @Test
+    @Tag("unit")
+    @DisplayName("should still answer with the hedge when the first attempt fails")
+    void shouldRecoverThroughHedge() {
+        Hedger hedger = hedger(options().build());
+        CompletableFuture<String> result = hedger.invoke("FEDummy", this::attempt, () -> true);
+        fireTimers();
+
+        attempts.get(0).completeExceptionally(new IllegalStateException("first"));
+        attempts.get(1).complete("hedge");
+
+        Assertions.assertEquals("hedge", result.join());
+    }
+}
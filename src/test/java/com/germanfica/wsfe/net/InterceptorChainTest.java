@@ -0,0 +1,187 @@
+package com.germanfica.wsfe.net;
+
+import com.germanfica.wsfe.exception.ApiException;
+import fev1.dif.afip.gov.ar.DummyResponse;
+import fev1.dif.afip.gov.ar.FEAuthRequest;
+import fev1.dif.afip.gov.ar.FERecuperaLastCbteResponse;
+import fev1.dif.afip.gov.ar.ServiceSoap;
+import org.junit.jupiter.api.*;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Unit tests for {@link InterceptorChain}: ordering, short-circuiting and failures, both on the
+ * chain alone and through {@link DefaultSoapRequestHandler} with a fake invoker.
+ */
+public class InterceptorChainTest {
+    private final List<String> events = new ArrayList<>();
+    private final AtomicInteger terminalCalls = new AtomicInteger();
+
+    private SoapInvocation invocation() {
+        return new SoapInvocation(null, ServiceSoap.class, "FEDummy", null, null, false);
+    }
+
+    private CompletableFuture<Object> proceed(SoapInterceptor... interceptors) {
+        return new InterceptorChain(interceptors, 0, invocation(), () -> {
+            terminalCalls.incrementAndGet();
+            events.add("terminal");
+            return CompletableFuture.completedFuture("response");
+        }).proceed();
+    }
+
+    private SoapInterceptor recording(String name) {
+        return (invocation, chain) -> {
+            events.add(name + ":before");
+            return chain.proceed().whenComplete((response, error) -> events.add(name + ":after"));
+        };
+    }
+
+    @Test
+    @Tag("unit")
+    @DisplayName("should run interceptors in order around the terminal call")
+    void shouldRunInOrder() {
+        Object response = proceed(recording("outer"), recording("inner")).join();
+
+        Assertions.assertEquals("response", response);
+        Assertions.assertEquals(List.of("outer:before", "inner:before", "terminal", "inner:after", "outer:after"), events);
+    }
+
+    @Test
+    @Tag("unit")
+    @DisplayName("should skip the rest of the chain when an interceptor answers by itself")
+    void shouldShortCircuit() {
+        SoapInterceptor cache = (invocation, chain) -> CompletableFuture.completedFuture("cached");
+
+        Object response = proceed(recording("outer"), cache, recording("inner")).join();
+
+        Assertions.assertEquals("cached", response);
+        Assertions.assertEquals(0, terminalCalls.get());
+        Assertions.assertEquals(List.of("outer:before", "outer:after"), events);
+    }
+
+    @Test
+    @Tag("unit")
+    @DisplayName("should turn a thrown exception or a null result into a failed future")
+    void shouldFailOnBrokenInterceptors() {
+        SoapInterceptor throwing = (invocation, chain) -> {
+            throw new IllegalArgumentException("boom");
+        };
+        SoapInterceptor returningNull = (invocation, chain) -> null;
+
+        CompletionException thrown = Assertions.assertThrows(CompletionException.class, () -> proceed(throwing).join());
+        Assertions.assertInstanceOf(IllegalArgumentException.class, thrown.getCause());
+        CompletionException nullResult = Assertions.assertThrows(CompletionException.class, () -> proceed(returningNull).join());
+        Assertions.assertInstanceOf(IllegalStateException.class, nullResult.getCause());
+        Assertions.assertEquals(0, terminalCalls.get());
+    }
+
+    @Test
+    @Tag("unit")
+    @DisplayName("should share attributes between the interceptors of one invocation")
+    void shouldShareAttributes() {
+        SoapInterceptor writer = (invocation, chain) -> {
+            invocation.setAttribute("traceId", "abc");
+            return chain.proceed();
+        };
+        SoapInterceptor reader = (invocation, chain) -> CompletableFuture.completedFuture(invocation.getAttribute("traceId"));
+
+        Assertions.assertEquals("abc", proceed(writer, reader).join());
+    }
+
+    @Test
+    @Tag("unit")
+    @DisplayName("should not reach the port when an interceptor short-circuits a handler call")
+    void shouldShortCircuitHandlerCalls() throws Exception {
+        AtomicInteger invocations = new AtomicInteger();
+        SoapInterceptor cache = (invocation, chain) -> "FEDummy".equals(invocation.getOperationName())
+            ? CompletableFuture.completedFuture("cached")
+            : chain.proceed();
+        DefaultSoapRequestHandler handler = new DefaultSoapRequestHandler(new TestOptions(List.of(cache)));
+        try {
+            Object cached = handler.invoke(null, ServiceSoap.class, "FEDummy", port -> invocations.incrementAndGet());
+            Object invoked = handler.invoke(null, ServiceSoap.class, "FECompUltimoAutorizado", port -> invocations.incrementAndGet());
+
+            Assertions.assertEquals("cached", cached);
+            Assertions.assertEquals(1, invoked);
+            Assertions.assertEquals(1, invocations.get());
+        } finally {
+            handler.shutdown(Duration.ZERO);
+        }
+    }
+
+    @Test
+    @Tag("unit")
+    @DisplayName("should expose the arguments and response type of a sync handler call")
+    void shouldExposeSyncArguments() throws Exception {
+        List<SoapInvocation> seen = new ArrayList<>();
+        FERecuperaLastCbteResponse cached = new FERecuperaLastCbteResponse();
+        SoapInterceptor capture = (invocation, chain) -> {
+            seen.add(invocation);
+            return CompletableFuture.completedFuture(cached);
+        };
+        FEAuthRequest auth = new FEAuthRequest();
+        DefaultSoapRequestHandler handler = new DefaultSoapRequestHandler(new TestOptions(List.of(capture)));
+        try {
+            FERecuperaLastCbteResponse response = handler.invoke(null, ServiceSoap.class, "FECompUltimoAutorizado",
+                FERecuperaLastCbteResponse.class, auth, 1, 6);
+
+            Assertions.assertSame(cached, response);
+            Assertions.assertFalse(seen.get(0).isAsync());
+            Assertions.assertEquals(FERecuperaLastCbteResponse.class, seen.get(0).getResponseType());
+            Assertions.assertArrayEquals(new Object[]{auth, 1, 6}, seen.get(0).getArguments());
+        } finally {
+            handler.shutdown(Duration.ZERO);
+        }
+    }
+
+    @Test
+    @Tag("unit")
+    @DisplayName("should reject a sync interceptor result of the wrong type")
+    void shouldRejectWrongSyncResultType() {
+        SoapInterceptor wrong = (invocation, chain) -> CompletableFuture.completedFuture("not a response");
+        DefaultSoapRequestHandler handler = new DefaultSoapRequestHandler(new TestOptions(List.of(wrong)));
+        try {
+            Assertions.assertThrows(ApiException.class, () -> handler.invoke(null, ServiceSoap.class, "FEDummy", DummyResponse.class));
+        } finally {
+            handler.shutdown(Duration.ZERO);
+        }
+    }
+
+    private static final class TestOptions extends SoapResponseGetterOptions {
+        private final List<SoapInterceptor> interceptors;
+
+        private TestOptions(List<SoapInterceptor> interceptors) {
+            this.interceptors = interceptors;
+        }
+
+        @Override
+        public String getUrlBase() {
+            return "http://127.0.0.1:9";
+        }
+
+        @Override
+        public ApiEnvironment getApiEnvironment() {
+            return null;
+        }
+
+        @Override
+        public ProxyOptions getProxyOptions() {
+            return null;
+        }
+
+        @Override
+        public HttpTransportMode getHttpTransportMode() {
+            return HttpTransportMode.JDK_HTTP_CLIENT;
+        }
+
+        @Override
+        public List<SoapInterceptor> getInterceptors() {
+            return interceptors;
+        }
+    }
+}
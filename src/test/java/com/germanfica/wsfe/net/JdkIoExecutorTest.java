@@ -0,0 +1,162 @@
+package com.germanfica.wsfe.net;
+
+import fev1.dif.afip.gov.ar.DummyResponse;
+import fev1.dif.afip.gov.ar.ServiceSoap;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Unit tests for {@link ConnectionPoolOptions#getIoExecutor()} with
+ * {@link HttpTransportMode#JDK_HTTP_CLIENT}: the {@code HttpClient} runs on the I/O executor and
+ * results are handed to the client executor.
+ */
+public class JdkIoExecutorTest {
+
+    private static final String FE_DUMMY_RESPONSE =
+        "<?xml version=\"1.0\" encoding=\"utf-8\"?>"
+            + "<soap:Envelope xmlns:soap=\"http://schemas.xmlsoap.org/soap/envelope/\">"
+            + "<soap:Body>"
+            + "<FEDummyResponse xmlns=\"http://ar.gov.afip.dif.FEV1/\">"
+            + "<FEDummyResult><AppServer>OK</AppServer><DbServer>OK</DbServer><AuthServer>OK</AuthServer></FEDummyResult>"
+            + "</FEDummyResponse>"
+            + "</soap:Body>"
+            + "</soap:Envelope>";
+
+    private MockWebServer server;
+    private ExecutorService ioPool;
+    private ExecutorService clientPool;
+    private final AtomicInteger ioTasks = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() throws Exception {
+        server = new MockWebServer();
+        server.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                // The delay keeps the call in flight until the test has chained its stage.
+                return new MockResponse()
+                    .setHeader("Content-Type", "text/xml; charset=utf-8")
+                    .setBody(FE_DUMMY_RESPONSE)
+                    .setHeadersDelay(100, TimeUnit.MILLISECONDS);
+            }
+        });
+        server.start();
+        ioPool = ClientExecutors.newEventLoop(2);
+        clientPool = Executors.newSingleThreadExecutor(task -> new Thread(task, "client-executor"));
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        server.shutdown();
+        ioPool.shutdownNow();
+        clientPool.shutdownNow();
+    }
+
+    @Test
+    @Tag("unit")
+    @DisplayName("should run the HttpClient on the I/O executor and deliver results on the client executor")
+    void runsOnIoExecutor() throws Exception {
+        DefaultSoapRequestHandler handler = new DefaultSoapRequestHandler(new TestOptions(urlBase(), BulkheadOptions.disabled()));
+        try {
+            String[] thread = new String[1];
+            DummyResponse response = handler.invokeAsync(null, ServiceSoap.class, "FEDummy", DummyResponse.class)
+                .thenApply(r -> {
+                    thread[0] = Thread.currentThread().getName();
+                    return r;
+                })
+                .get(10, TimeUnit.SECONDS);
+
+            Assertions.assertEquals("OK", response.getAppServer());
+            Assertions.assertTrue(ioTasks.get() > 0);
+            Assertions.assertEquals("client-executor", thread[0]);
+        } finally {
+            handler.shutdown(Duration.ZERO);
+        }
+    }
+
+    @Test
+    @Tag("unit")
+    @DisplayName("should keep the HttpClient on the service bulkhead when bulkheads are enabled")
+    void bulkheadTakesPrecedence() throws Exception {
+        BulkheadOptions bulkhead = BulkheadOptions.builder().setEnabled(true).build();
+        DefaultSoapRequestHandler handler = new DefaultSoapRequestHandler(new TestOptions(urlBase(), bulkhead));
+        try {
+            DummyResponse response = handler.invokeAsync(null, ServiceSoap.class, "FEDummy", DummyResponse.class)
+                .get(10, TimeUnit.SECONDS);
+
+            Assertions.assertEquals("OK", response.getAppServer());
+            Assertions.assertEquals(0, ioTasks.get());
+        } finally {
+            handler.shutdown(Duration.ZERO);
+        }
+    }
+
+    private String urlBase() {
+        return server.url("/").toString().replaceAll("/$", "");
+    }
+
+    private final class TestOptions extends SoapResponseGetterOptions {
+        private final String urlBase;
+        private final BulkheadOptions bulkheadOptions;
+
+        private TestOptions(String urlBase, BulkheadOptions bulkheadOptions) {
+            this.urlBase = urlBase;
+            this.bulkheadOptions = bulkheadOptions;
+        }
+
+        @Override
+        public String getUrlBase() {
+            return urlBase;
+        }
+
+        @Override
+        public ApiEnvironment getApiEnvironment() {
+            return null;
+        }
+
+        @Override
+        public ProxyOptions getProxyOptions() {
+            return null;
+        }
+
+        @Override
+        public HttpTransportMode getHttpTransportMode() {
+            return HttpTransportMode.JDK_HTTP_CLIENT;
+        }
+
+        @Override
+        public Executor getExecutor() {
+            return clientPool;
+        }
+
+        @Override
+        public ConnectionPoolOptions getConnectionPoolOptions() {
+            return ConnectionPoolOptions.builder()
+                .setIoExecutor(task -> {
+                    ioTasks.incrementAndGet();
+                    ioPool.execute(task);
+                })
+                .build();
+        }
+
+        @Override
+        public BulkheadOptions getBulkheadOptions() {
+            return bulkheadOptions;
+        }
+    }
+}
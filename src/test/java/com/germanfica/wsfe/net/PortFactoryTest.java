@@ -0,0 +1,83 @@
+package com.germanfica.wsfe.net;
+
+import fev1.dif.afip.gov.ar.ServiceSoap;
+import https.wsaa_afip_gov_ar.ws.services.logincms.LoginCMS;
+import org.apache.cxf.Bus;
+import org.apache.cxf.BusFactory;
+import org.apache.cxf.endpoint.Client;
+import org.apache.cxf.frontend.ClientProxy;
+import org.apache.cxf.service.model.ServiceInfo;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for {@link PortFactory} in {@link WsdlMode#LOCAL}: ports are built from the WSDLs
+ * bundled under {@code src/main/resources/wsdl} without touching the network.
+ */
+public class PortFactoryTest {
+
+    private Bus bus;
+
+    @BeforeEach
+    void setUp() {
+        bus = BusFactory.newInstance().createBus();
+    }
+
+    @AfterEach
+    void tearDown() {
+        bus.shutdown(true);
+    }
+
+    @Test
+    @Tag("unit")
+    @DisplayName("should bundle the WSFE and WSAA WSDLs on the classpath")
+    void bundlesWsdls() {
+        Assertions.assertNotNull(PortFactory.bundledWsdl(PortFactory.WSFE_WSDL_RESOURCE));
+        Assertions.assertNotNull(PortFactory.bundledWsdl(PortFactory.WSAA_WSDL_RESOURCE));
+    }
+
+    @Test
+    @Tag("unit")
+    @DisplayName("should build the WSFE port from the bundled WSDL")
+    void buildsWsfePortFromBundledWsdl() {
+        ServiceSoap port = new PortFactory(bus, WsdlMode.LOCAL)
+            .create(ServiceSoap.class, "http://127.0.0.1:9/wsfev1/service.asmx");
+
+        ServiceInfo service = serviceInfo(port);
+        Assertions.assertTrue(service.getDescription().getBaseURI().endsWith(PortFactory.WSFE_WSDL_RESOURCE));
+        Assertions.assertEquals(22, service.getInterface().getOperations().size());
+        Assertions.assertEquals("http://127.0.0.1:9/wsfev1/service.asmx",
+            ClientProxy.getClient(port).getEndpoint().getEndpointInfo().getAddress());
+    }
+
+    @Test
+    @Tag("unit")
+    @DisplayName("should build the WSAA port from the bundled WSDL")
+    void buildsWsaaPortFromBundledWsdl() {
+        LoginCMS port = new PortFactory(bus, WsdlMode.LOCAL)
+            .create(LoginCMS.class, "http://127.0.0.1:9/ws/services/LoginCms");
+
+        ServiceInfo service = serviceInfo(port);
+        Assertions.assertTrue(service.getDescription().getBaseURI().endsWith(PortFactory.WSAA_WSDL_RESOURCE));
+        Assertions.assertEquals(1, service.getInterface().getOperations().size());
+    }
+
+    @Test
+    @Tag("unit")
+    @DisplayName("should reject unsupported port classes")
+    void rejectsUnsupportedPortClass() {
+        PortFactory factory = new PortFactory(bus, WsdlMode.LOCAL);
+
+        Assertions.assertThrows(IllegalArgumentException.class,
+            () -> factory.create(Runnable.class, "http://127.0.0.1:9"));
+    }
+
+    private static ServiceInfo serviceInfo(Object port) {
+        Client client = ClientProxy.getClient(port);
+        return client.getEndpoint().getService().getServiceInfos().get(0);
+    }
+}
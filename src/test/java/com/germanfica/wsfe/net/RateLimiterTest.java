@@ -0,0 +1,218 @@
+package com.germanfica.wsfe.net;
+
+import com.germanfica.wsfe.exception.DeadlineExceededException;
+import com.germanfica.wsfe.exception.RateLimitExceededException;
+import com.germanfica.wsfe.exception.RequestCancelledException;
+import org.junit.jupiter.api.*;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Unit tests for {@link RateLimiter} and its {@link TokenBucket}s. Bucket state follows a fake clock;
+ * only the blocking tests wait for real, and for a few milliseconds at most.
+ */
+public class RateLimiterTest {
+    private static final long CUIT = 20123456789L;
+    private static final long OTHER_CUIT = 27123456789L;
+
+    private final AtomicLong clock = new AtomicLong();
+
+    private RateLimiter limiter(RateLimitPolicy policy) {
+        return new RateLimiter(policy, clock::get);
+    }
+
+    private void advance(Duration duration) {
+        clock.addAndGet(duration.toNanos());
+    }
+
+    @Test
+    @Tag("unit")
+    @DisplayName("should allow a burst and then one call per interval")
+    void shouldAllowBurstThenSteadyRate() {
+        RateLimiter limiter = limiter(RateLimitPolicy.builder()
+            .setPerCuit(RateLimit.of(2, Duration.ofSeconds(1), 3))
+            .build());
+
+        for (int i = 0; i < 3; i++) Assertions.assertTrue(limiter.tryAcquire(CUIT, "FEDummy"));
+        Assertions.assertFalse(limiter.tryAcquire(CUIT, "FEDummy"));
+
+        advance(Duration.ofMillis(499));
+        Assertions.assertFalse(limiter.tryAcquire(CUIT, "FEDummy"));
+        advance(Duration.ofMillis(1));
+        Assertions.assertTrue(limiter.tryAcquire(CUIT, "FEDummy"));
+        Assertions.assertFalse(limiter.tryAcquire(CUIT, "FEDummy"));
+
+        advance(Duration.ofSeconds(10));
+        for (int i = 0; i < 3; i++) Assertions.assertTrue(limiter.tryAcquire(CUIT, "FEDummy"));
+        Assertions.assertFalse(limiter.tryAcquire(CUIT, "FEDummy"));
+    }
+
+    @Test
+    @Tag("unit")
+    @DisplayName("should keep a separate bucket per CUIT")
+    void shouldIsolateCuits() {
+        RateLimiter limiter = limiter(RateLimitPolicy.builder()
+            .setPerCuit(RateLimit.of(1, Duration.ofSeconds(1), 1))
+            .build());
+
+        Assertions.assertTrue(limiter.tryAcquire(CUIT, "FEDummy"));
+        Assertions.assertFalse(limiter.tryAcquire(CUIT, "FEDummy"));
+        Assertions.assertTrue(limiter.tryAcquire(OTHER_CUIT, "FEDummy"));
+        Assertions.assertTrue(limiter.tryAcquire(null, "FEDummy"));
+        Assertions.assertFalse(limiter.tryAcquire(null, "FEDummy"));
+    }
+
+    @Test
+    @Tag("unit")
+    @DisplayName("should apply operation limits by prefix and refund the CUIT token when the operation is limited")
+    void shouldApplyOperationLimits() {
+        RateLimiter limiter = limiter(RateLimitPolicy.builder()
+            .setPerCuit(RateLimit.of(5, Duration.ofSeconds(1), 5))
+            .setOperation("FEParamGet*", RateLimit.of(1, Duration.ofSeconds(1), 1))
+            .build());
+
+        Assertions.assertTrue(limiter.tryAcquire(CUIT, "FEParamGetTiposCbte"));
+        for (int i = 0; i < 10; i++) Assertions.assertFalse(limiter.tryAcquire(CUIT, "FEParamGetTiposCbte"));
+        Assertions.assertTrue(limiter.tryAcquire(CUIT, "FEParamGetTiposIva"));
+
+        for (int i = 0; i < 3; i++) Assertions.assertTrue(limiter.tryAcquire(CUIT, "FEDummy"));
+        Assertions.assertFalse(limiter.tryAcquire(CUIT, "FEDummy"));
+    }
+
+    @Test
+    @Tag("unit")
+    @DisplayName("should never limit without a policy")
+    void shouldNotLimitByDefault() {
+        RateLimiter limiter = limiter(RateLimitPolicy.defaults());
+
+        for (int i = 0; i < 1000; i++) Assertions.assertTrue(limiter.tryAcquire(CUIT, "FEDummy"));
+    }
+
+    @Test
+    @Tag("unit")
+    @DisplayName("should fail right away in TRY mode")
+    void shouldFailFastInTryMode() throws Exception {
+        RateLimiter limiter = limiter(RateLimitPolicy.builder()
+            .setPerCuit(RateLimit.of(1, Duration.ofSeconds(1), 1))
+            .setMode(RateLimitPolicy.Mode.TRY)
+            .build());
+
+        limiter.acquire(CUIT, "FEDummy");
+        Assertions.assertThrows(RateLimitExceededException.class, () -> limiter.acquire(CUIT, "FEDummy"));
+    }
+
+    @Test
+    @Tag("unit")
+    @DisplayName("should wait for the next token in BLOCK mode")
+    void shouldWaitInBlockMode() throws Exception {
+        RateLimiter limiter = limiter(RateLimitPolicy.builder()
+            .setPerCuit(RateLimit.of(50, Duration.ofSeconds(1), 1))
+            .setMaxWait(Duration.ofSeconds(5))
+            .build());
+
+        limiter.acquire(CUIT, "FEDummy");
+        long start = System.nanoTime();
+        limiter.acquire(CUIT, "FEDummy");
+
+        Assertions.assertTrue(System.nanoTime() - start >= Duration.ofMillis(20).toNanos());
+    }
+
+    @Test
+    @Tag("unit")
+    @DisplayName("should reject a wait longer than maxWait and report the deadline when it is the shorter bound")
+    void shouldBoundTheWait() throws Exception {
+        RateLimiter limiter = limiter(RateLimitPolicy.builder()
+            .setPerCuit(RateLimit.of(1, Duration.ofSeconds(10), 1))
+            .setMaxWait(Duration.ofSeconds(1))
+            .build());
+        limiter.acquire(CUIT, "FEDummy");
+
+        Assertions.assertThrows(RateLimitExceededException.class, () -> limiter.acquire(CUIT, "FEDummy"));
+        Assertions.assertThrows(DeadlineExceededException.class,
+            () -> limiter.acquire(CUIT, "FEDummy", Deadline.after(Duration.ofMillis(100)), null));
+    }
+
+    @Test
+    @Tag("unit")
+    @DisplayName("should stop waiting when the request is cancelled")
+    void shouldStopWaitingOnCancel() throws Exception {
+        RateLimiter limiter = limiter(RateLimitPolicy.builder()
+            .setPerCuit(RateLimit.of(1, Duration.ofSeconds(10), 1))
+            .setMaxWait(Duration.ofSeconds(20))
+            .build());
+        limiter.acquire(CUIT, "FEDummy");
+        CancellationToken token = CancellationToken.create();
+        token.cancel();
+
+        long start = System.nanoTime();
+        Assertions.assertThrows(RequestCancelledException.class, () -> limiter.acquire(CUIT, "FEDummy", null, token));
+        Assertions.assertTrue(System.nanoTime() - start < Duration.ofSeconds(5).toNanos());
+    }
+
+    @Test
+    @Tag("unit")
+    @DisplayName("should not reserve anything when the wait is rejected")
+    void shouldNotReserveOnRejection() {
+        TokenBucket bucket = new TokenBucket(RateLimit.of(1, Duration.ofSeconds(1), 1), 0);
+
+        Assertions.assertEquals(0, bucket.reserve(0, 0));
+        Assertions.assertEquals(-1, bucket.reserve(0, 0));
+        Assertions.assertEquals(-1, bucket.reserve(0, 0));
+        Assertions.assertEquals(Duration.ofSeconds(1).toNanos(), bucket.reserve(0, Long.MAX_VALUE));
+        Assertions.assertEquals(Duration.ofSeconds(2).toNanos(), bucket.reserve(0, Long.MAX_VALUE));
+
+        bucket.refund();
+        Assertions.assertEquals(Duration.ofSeconds(2).toNanos(), bucket.reserve(0, Long.MAX_VALUE));
+    }
+
+    @Test
+    @Tag("unit")
+    @DisplayName("should evict buckets that stayed full for a whole refill period")
+    void shouldEvictIdleBuckets() {
+        RateLimiter limiter = limiter(RateLimitPolicy.builder()
+            .setPerCuit(RateLimit.of(1, Duration.ofSeconds(1), 2))
+            .setOperation("FECAESolicitar", RateLimit.of(1, Duration.ofMinutes(10), 1))
+            .build());
+
+        Assertions.assertTrue(limiter.tryAcquire(CUIT, "FEDummy"));
+        Assertions.assertTrue(limiter.tryAcquire(OTHER_CUIT, "FECAESolicitar"));
+        Assertions.assertEquals(3, limiter.bucketCount());
+
+        // Before the sweep interval nothing is dropped, even though CUIT's bucket is already full.
+        advance(Duration.ofSeconds(30));
+        Assertions.assertTrue(limiter.tryAcquire(OTHER_CUIT, "FEDummy"));
+        Assertions.assertEquals(3, limiter.bucketCount());
+
+        // Both per-CUIT buckets have been full for longer than their 2 s refill period, but the
+        // FECAESolicitar bucket takes 10 minutes to refill and was emptied at t=0.
+        advance(Duration.ofSeconds(31));
+        Assertions.assertTrue(limiter.tryAcquire(null, "FEDummy"));
+        Assertions.assertEquals(2, limiter.bucketCount());
+
+        advance(Duration.ofMinutes(20));
+        Assertions.assertTrue(limiter.tryAcquire(null, "FEDummy"));
+        Assertions.assertEquals(1, limiter.bucketCount());
+    }
+
+    @Test
+    @Tag("unit")
+    @DisplayName("should start a full bucket again after eviction")
+    void shouldRecreateEvictedBucketFull() {
+        RateLimiter limiter = limiter(RateLimitPolicy.builder()
+            .setPerCuit(RateLimit.of(1, Duration.ofSeconds(1), 2))
+            .build());
+
+        Assertions.assertTrue(limiter.tryAcquire(CUIT, "FEDummy"));
+        Assertions.assertTrue(limiter.tryAcquire(CUIT, "FEDummy"));
+        Assertions.assertFalse(limiter.tryAcquire(CUIT, "FEDummy"));
+
+        advance(Duration.ofMinutes(2));
+        Assertions.assertTrue(limiter.tryAcquire(OTHER_CUIT, "FEDummy"));
+        Assertions.assertEquals(1, limiter.bucketCount());
+
+        Assertions.assertTrue(limiter.tryAcquire(CUIT, "FEDummy"));
+        Assertions.assertTrue(limiter.tryAcquire(CUIT, "FEDummy"));
+        Assertions.assertFalse(limiter.tryAcquire(CUIT, "FEDummy"));
+    }
+}
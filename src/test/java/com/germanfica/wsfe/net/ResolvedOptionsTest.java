@@ -0,0 +1,105 @@
+package com.germanfica.wsfe.net;
+
+import fev1.dif.afip.gov.ar.ServiceSoap;
+import org.junit.jupiter.api.*;
+
+import java.time.Duration;
+
+/**
+ * Unit tests for how {@link DefaultSoapRequestHandler} memoizes {@link ResolvedOptions}: only the
+ * configuration of a request is part of the key, never its CUIT, credentials, deadline or token.
+ */
+public class ResolvedOptionsTest {
+    private DefaultSoapRequestHandler handler;
+
+    @BeforeEach
+    void setUp() {
+        handler = new DefaultSoapRequestHandler(new TestOptions());
+    }
+
+    @AfterEach
+    void tearDown() {
+        handler.shutdown(Duration.ZERO);
+    }
+
+    @Test
+    @Tag("unit")
+    @DisplayName("should keep only configuration fields in the config-only copy")
+    void shouldDropPerCallData() {
+        TimeoutOptions timeouts = TimeoutOptions.builder().setReceiveTimeout(Duration.ofSeconds(5)).build();
+        RequestOptions first = RequestOptions.builder()
+            .setCuit(20123456789L).setToken("t1").setSign("s1")
+            .setUrlBase("http://127.0.0.1:9").setTimeoutOptions(timeouts)
+            .setDeadline(Deadline.after(Duration.ofSeconds(1))).setCancellationToken(CancellationToken.create())
+            .build();
+        RequestOptions second = first.toBuilder()
+            .setCuit(27123456789L).setToken("t2").setSign("s2")
+            .setDeadline(Deadline.after(Duration.ofSeconds(2))).setCancellationToken(CancellationToken.create())
+            .build();
+
+        RequestOptions config = first.configOnly();
+        Assertions.assertEquals(config, second.configOnly());
+        Assertions.assertNull(config.getCuit());
+        Assertions.assertNull(config.getToken());
+        Assertions.assertNull(config.getDeadline());
+        Assertions.assertNull(config.getCancellationToken());
+        Assertions.assertEquals("http://127.0.0.1:9", config.getUrlBase());
+        Assertions.assertSame(timeouts, config.getTimeoutOptions());
+    }
+
+    @Test
+    @Tag("unit")
+    @DisplayName("should share one resolved configuration across CUITs and deadlines")
+    void shouldShareResolvedOptionsAcrossCalls() throws Exception {
+        for (int i = 0; i < 300; i++) {
+            handler.invoke(request(RequestOptions.builder()
+                .setCuit(20000000000L + i)
+                .setUrlBase("http://127.0.0.1:9")
+                .setDeadline(Deadline.after(Duration.ofMinutes(1)))
+                .setCancellationToken(CancellationToken.create())
+                .build()), ServiceSoap.class, "FEDummy", port -> "ok");
+        }
+
+        Assertions.assertEquals(1, handler.resolvedOptionsCount());
+    }
+
+    @Test
+    @Tag("unit")
+    @DisplayName("should keep a separate entry per distinct configuration")
+    void shouldKeyOnConfiguration() throws Exception {
+        handler.invoke(request(RequestOptions.builder().setUrlBase("http://127.0.0.1:9").build()),
+            ServiceSoap.class, "FEDummy", port -> "ok");
+        handler.invoke(request(RequestOptions.builder().setUrlBase("http://127.0.0.1:10").build()),
+            ServiceSoap.class, "FEDummy", port -> "ok");
+        handler.invoke(request(RequestOptions.builder().setCuit(20123456789L).build()),
+            ServiceSoap.class, "FEDummy", port -> "ok");
+
+        Assertions.assertEquals(2, handler.resolvedOptionsCount());
+    }
+
+    private static ApiRequest request(RequestOptions options) {
+        return new ApiRequest(options) { };
+    }
+
+    private static final class TestOptions extends SoapResponseGetterOptions {
+        @Override
+        public String getUrlBase() {
+            return "http://127.0.0.1:9";
+        }
+
+        @Override
+        public ApiEnvironment getApiEnvironment() {
+            return null;
+        }
+
+        @Override
+        public ProxyOptions getProxyOptions() {
+            return null;
+        }
+
+        @Override
+        public HttpTransportMode getHttpTransportMode() {
+            return HttpTransportMode.JDK_HTTP_CLIENT;
+        }
+    }
+}
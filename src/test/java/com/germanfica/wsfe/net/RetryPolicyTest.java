@@ -0,0 +1,126 @@
+package com.germanfica.wsfe.net;
+
+import com.germanfica.wsfe.dto.ErrorDto;
+import com.germanfica.wsfe.exception.ApiException;
+import com.germanfica.wsfe.exception.BulkheadFullException;
+import com.germanfica.wsfe.exception.CircuitOpenException;
+import com.germanfica.wsfe.exception.DeadlineExceededException;
+import org.junit.jupiter.api.*;
+
+import java.time.Duration;
+
+/**
+ * Unit tests for {@link RetryPolicy} and {@link RetryBudget}. Backoffs are checked with jitter
+ * disabled so the expected waits are exact.
+ */
+public class RetryPolicyTest {
+
+    private static ApiException failure(HttpStatus status) {
+        return new ApiException(new ErrorDto("soap:Server", "test", null), status);
+    }
+
+    @Test
+    @Tag("unit")
+    @DisplayName("should resolve idempotency by exact name and by longest prefix, ignoring case")
+    void shouldResolveIdempotency() {
+        RetryPolicy policy = RetryPolicy.builder()
+            .setOperation("FEParam*", Idempotency.RECONCILE)
+            .setOperation("FEParamGet*", Idempotency.SAFE)
+            .setOperation("FECAESolicitar", Idempotency.RECONCILE)
+            .build();
+
+        Assertions.assertEquals(Idempotency.SAFE, policy.idempotency("FEParamGetTiposCbte"));
+        Assertions.assertEquals(Idempotency.RECONCILE, policy.idempotency("FEParamOtro"));
+        Assertions.assertEquals(Idempotency.RECONCILE, policy.idempotency("fecaesolicitar"));
+        Assertions.assertEquals(Idempotency.NEVER, policy.idempotency("loginCms"));
+        Assertions.assertEquals(Idempotency.NEVER, policy.idempotency(null));
+    }
+
+    @Test
+    @Tag("unit")
+    @DisplayName("should retry only transient HTTP failures")
+    void shouldRetryOnlyTransientFailures() {
+        RetryPolicy policy = RetryPolicy.defaults();
+
+        Assertions.assertTrue(policy.isRetryable(failure(HttpStatus.BAD_GATEWAY)));
+        Assertions.assertTrue(policy.isRetryable(failure(HttpStatus.SERVICE_UNAVAILABLE)));
+        Assertions.assertTrue(policy.isRetryable(failure(HttpStatus.GATEWAY_TIMEOUT)));
+        Assertions.assertFalse(policy.isRetryable(failure(HttpStatus.INTERNAL_SERVER_ERROR)));
+        Assertions.assertFalse(policy.isRetryable(new CircuitOpenException("http://localhost")));
+        Assertions.assertFalse(policy.isRetryable(new DeadlineExceededException()));
+        Assertions.assertFalse(policy.isRetryable(new BulkheadFullException("ServiceSoap")));
+    }
+
+    @Test
+    @Tag("unit")
+    @DisplayName("should grow the backoff exponentially up to the max backoff")
+    void shouldGrowBackoffExponentially() {
+        RetryPolicy policy = RetryPolicy.builder()
+            .setInitialBackoff(Duration.ofMillis(100))
+            .setMaxBackoff(Duration.ofMillis(500))
+            .setMultiplier(2.0)
+            .setJitter(0.0)
+            .build();
+
+        Assertions.assertEquals(Duration.ofMillis(100), policy.backoff(1));
+        Assertions.assertEquals(Duration.ofMillis(200), policy.backoff(2));
+        Assertions.assertEquals(Duration.ofMillis(400), policy.backoff(3));
+        Assertions.assertEquals(Duration.ofMillis(500), policy.backoff(4));
+    }
+
+    @Test
+    @Tag("unit")
+    @DisplayName("should keep the jittered backoff within the configured fraction")
+    void shouldBoundJitteredBackoff() {
+        RetryPolicy policy = RetryPolicy.builder()
+            .setInitialBackoff(Duration.ofMillis(1000))
+            .setJitter(0.5)
+            .build();
+
+        for (int i = 0; i < 100; i++) {
+            long millis = policy.backoff(1).toMillis();
+            Assertions.assertTrue(millis >= 500 && millis <= 1000, "backoff " + millis);
+        }
+    }
+
+    @Test
+    @Tag("unit")
+    @DisplayName("should stop allowing retries below half the budget and refill on success")
+    void shouldDrainAndRefillBudget() {
+        RetryBudget budget = RetryBudget.of(10, 0.5);
+
+        for (int i = 0; i < 4; i++) budget.onFailure();
+        Assertions.assertTrue(budget.allowsRetry());
+        budget.onFailure();
+        Assertions.assertFalse(budget.allowsRetry());
+        Assertions.assertEquals(5.0, budget.getAvailableTokens());
+
+        budget.onSuccess();
+        Assertions.assertTrue(budget.allowsRetry());
+        Assertions.assertEquals(5.5, budget.getAvailableTokens());
+    }
+
+    @Test
+    @Tag("unit")
+    @DisplayName("should keep the budget between zero and its maximum")
+    void shouldClampBudget() {
+        RetryBudget budget = RetryBudget.of(2, 1.0);
+
+        for (int i = 0; i < 10; i++) budget.onSuccess();
+        Assertions.assertEquals(2.0, budget.getAvailableTokens());
+        for (int i = 0; i < 10; i++) budget.onFailure();
+        Assertions.assertEquals(0.0, budget.getAvailableTokens());
+    }
+
+    @Test
+    @Tag("unit")
+    @DisplayName("should share the retry budget with copies made by toBuilder")
+    void shouldShareBudgetWithCopies() {
+        RetryPolicy policy = RetryPolicy.defaults();
+        RetryPolicy copy = policy.toBuilder().setMaxAttempts(5).build();
+
+        Assertions.assertSame(policy.getRetryBudget(), copy.getRetryBudget());
+        Assertions.assertEquals(5, copy.getMaxAttempts());
+        Assertions.assertEquals(1, RetryPolicy.disabled().getMaxAttempts());
+    }
+}
@@ -0,0 +1,62 @@
+package com.germanfica.wsfe.net;
+
+import org.apache.cxf.Bus;
+import org.apache.cxf.BusFactory;
+import org.apache.cxf.transport.http.HTTPConduitFactory;
+import org.apache.cxf.transport.http.asyncclient.hc5.AsyncHTTPConduitFactory;
+import org.apache.hc.core5.reactor.IOReactorConfig;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for how {@link ConnectionPoolOptions} reach the shared HttpClient 5 client.
+ */
+public class SharedAsyncConduitFactoryTest {
+
+    @Test
+    @Tag("unit")
+    @DisplayName("should apply socket buffer sizes to the I/O reactor")
+    void appliesSocketBuffers() {
+        IOReactorConfig config = SharedAsyncConduitFactory.ioReactorConfig(ConnectionPoolOptions.builder()
+            .setSendBufferSize(64 * 1024)
+            .setReceiveBufferSize(128 * 1024)
+            .setIoThreads(3)
+            .build());
+
+        Assertions.assertEquals(64 * 1024, config.getSndBufSize());
+        Assertions.assertEquals(128 * 1024, config.getRcvBufSize());
+        Assertions.assertEquals(3, config.getIoThreadCount());
+        Assertions.assertTrue(config.isTcpNoDelay());
+    }
+
+    @Test
+    @Tag("unit")
+    @DisplayName("should leave unset socket buffers to the operating system")
+    void leavesUnsetBuffersToOs() {
+        IOReactorConfig config = SharedAsyncConduitFactory.ioReactorConfig(ConnectionPoolOptions.builder().build());
+
+        Assertions.assertEquals(0, config.getSndBufSize());
+        Assertions.assertEquals(0, config.getRcvBufSize());
+    }
+
+    @Test
+    @Tag("unit")
+    @DisplayName("should register the shared factory without CXF's unused pool properties")
+    void registersSharedFactoryOnly() {
+        Bus bus = BusFactory.newInstance().createBus();
+        try {
+            ConnectionPoolConfigurer.configureBus(bus, ConnectionPoolOptions.builder()
+                .setMaxConnectionsTotal(10)
+                .setIoThreads(2)
+                .build(), null, null, null);
+
+            Assertions.assertTrue(bus.getExtension(HTTPConduitFactory.class) instanceof SharedAsyncConduitFactory);
+            Assertions.assertNull(bus.getProperty(AsyncHTTPConduitFactory.MAX_CONNECTIONS));
+            Assertions.assertNull(bus.getProperty(AsyncHTTPConduitFactory.THREAD_COUNT));
+        } finally {
+            bus.shutdown(true);
+        }
+    }
+}
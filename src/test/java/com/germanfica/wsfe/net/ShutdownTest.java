@@ -0,0 +1,127 @@
+package com.germanfica.wsfe.net;
+
+import com.germanfica.wsfe.exception.ClientClosedException;
+import fev1.dif.afip.gov.ar.ServiceSoap;
+import org.junit.jupiter.api.*;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Unit tests for {@link DefaultSoapRequestHandler#shutdown(Duration)}: draining the calls in flight,
+ * abandoning them when the drain timeout expires and rejecting new ones. The calls use fake
+ * invokers that never touch the port.
+ */
+public class ShutdownTest {
+    private final DefaultSoapRequestHandler handler = new DefaultSoapRequestHandler(new TestOptions());
+
+    @AfterEach
+    void tearDown() {
+        handler.shutdown(Duration.ZERO);
+    }
+
+    private CompletableFuture<Object> invokeInBackground(PortInvoker<ServiceSoap, Object> invoker) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return handler.invoke(null, ServiceSoap.class, "FEDummy", invoker);
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        }, runnable -> new Thread(runnable).start());
+    }
+
+    @Test
+    @Tag("unit")
+    @DisplayName("should close right away when idle and reject new calls")
+    void shouldRejectCallsAfterShutdown() {
+        ShutdownReport report = handler.shutdown(Duration.ofSeconds(5));
+
+        Assertions.assertTrue(handler.isClosed());
+        Assertions.assertTrue(report.isClean());
+        Assertions.assertEquals(0, report.getInFlight());
+        Assertions.assertThrows(ClientClosedException.class, () -> handler.invoke(null, ServiceSoap.class, "FEDummy", port -> "late"));
+        Assertions.assertThrows(ClientClosedException.class, () -> handler.handleRequest(null, () -> "late"));
+        Assertions.assertSame(report, handler.shutdown(Duration.ofSeconds(5)));
+    }
+
+    @Test
+    @Tag("unit")
+    @DisplayName("should wait for the calls in flight to finish")
+    void shouldDrainCallsInFlight() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Object> call = invokeInBackground(port -> {
+            started.countDown();
+            release.await();
+            return "done";
+        });
+        Assertions.assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        CompletableFuture<ShutdownReport> shutdown = CompletableFuture.supplyAsync(() -> handler.shutdown(Duration.ofSeconds(30)),
+            runnable -> new Thread(runnable).start());
+        while (!handler.isClosed()) {
+            Thread.onSpinWait();
+        }
+        Assertions.assertFalse(shutdown.isDone());
+        Assertions.assertThrows(ClientClosedException.class, () -> handler.invoke(null, ServiceSoap.class, "FEDummy", port -> "late"));
+
+        release.countDown();
+        ShutdownReport report = shutdown.get(5, TimeUnit.SECONDS);
+        Assertions.assertEquals("done", call.get(5, TimeUnit.SECONDS));
+        Assertions.assertTrue(report.isClean());
+        Assertions.assertEquals(1, report.getInFlight());
+    }
+
+    @Test
+    @Tag("unit")
+    @DisplayName("should interrupt the calls still running when the drain timeout expires")
+    void shouldAbandonCallsAfterDrainTimeout() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch interrupted = new CountDownLatch(1);
+        CompletableFuture<Object> call = invokeInBackground(port -> {
+            started.countDown();
+            try {
+                Thread.sleep(TimeUnit.MINUTES.toMillis(1));
+            } catch (InterruptedException e) {
+                interrupted.countDown();
+                throw e;
+            }
+            return "done";
+        });
+        Assertions.assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        ShutdownReport report = handler.shutdown(Duration.ofMillis(100));
+
+        Assertions.assertEquals(1, report.getInFlight());
+        Assertions.assertEquals(1, report.getAbandoned());
+        Assertions.assertFalse(report.isClean());
+        Assertions.assertTrue(interrupted.await(5, TimeUnit.SECONDS));
+        ExecutionException failure = Assertions.assertThrows(ExecutionException.class, () -> call.get(5, TimeUnit.SECONDS));
+        Assertions.assertInstanceOf(ClientClosedException.class, failure.getCause().getCause());
+    }
+
+    private static final class TestOptions extends SoapResponseGetterOptions {
+        @Override
+        public String getUrlBase() {
+            return "http://127.0.0.1:9";
+        }
+
+        @Override
+        public ApiEnvironment getApiEnvironment() {
+            return null;
+        }
+
+        @Override
+        public ProxyOptions getProxyOptions() {
+            return null;
+        }
+
+        @Override
+        public HttpTransportMode getHttpTransportMode() {
+            return HttpTransportMode.JDK_HTTP_CLIENT;
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package com.germanfica.wsfe.net;
+
+import org.bouncycastle.asn1.x500.X500Name;
+import org.bouncycastle.cert.jcajce.JcaX509CertificateConverter;
+import org.bouncycastle.cert.jcajce.JcaX509v3CertificateBuilder;
+import org.bouncycastle.operator.jcajce.JcaContentSignerBuilder;
+import org.junit.jupiter.api.*;
+
+import javax.net.ssl.KeyManagerFactory;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLEngine;
+import javax.net.ssl.SSLEngineResult;
+import javax.net.ssl.SSLException;
+import javax.net.ssl.SSLSession;
+import javax.net.ssl.TrustManagerFactory;
+import java.lang.reflect.Proxy;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.KeyStore;
+import java.security.cert.X509Certificate;
+import java.util.Date;
+
+/**
+ * Unit tests for the {@link TlsSessionCache} counters: first with fake sessions, then with real
+ * handshakes between in-memory {@link SSLEngine}s against a self-signed server certificate.
+ */
+public class TlsSessionCacheTest {
+    private static final char[] PASSWORD = "changeit".toCharArray();
+    private static final String HOST = "wsaa.afip.gov.ar";
+
+    private static SSLSession session(long creationTime, boolean valid) {
+        return (SSLSession) Proxy.newProxyInstance(SSLSession.class.getClassLoader(), new Class<?>[]{SSLSession.class},
+            (proxy, method, args) -> {
+                switch (method.getName()) {
+                    case "getCreationTime":
+                        return creationTime;
+                    case "isValid":
+                        return valid;
+                    default:
+                        throw new UnsupportedOperationException(method.getName());
+                }
+            });
+    }
+
+    @Test
+    @Tag("unit")
+    @DisplayName("should count sessions created before the connection as resumed")
+    void shouldClassifyHandshakes() {
+        TlsSessionCache cache = new TlsSessionCache(TlsOptions.defaults());
+
+        cache.onHandshake(session(999, true), 1000);
+        cache.onHandshake(session(1000, true), 1000);
+        cache.onHandshake(session(1001, true), 1000);
+        cache.onHandshake(session(0, false), 1000);
+        cache.onHandshake(null, 1000);
+
+        Assertions.assertEquals(1, cache.getHits());
+        Assertions.assertEquals(2, cache.getMisses());
+    }
+
+    @Test
+    @Tag("unit")
+    @DisplayName("should count a full handshake first and a resumption on the next connection")
+    void shouldCountRealResumption() throws Exception {
+        KeyStore keyStore = selfSignedKeyStore();
+        SSLContext server = SSLContext.getInstance("TLS");
+        KeyManagerFactory keyManagers = KeyManagerFactory.getInstance(KeyManagerFactory.getDefaultAlgorithm());
+        keyManagers.init(keyStore, PASSWORD);
+        server.init(keyManagers.getKeyManagers(), null, null);
+
+        TlsSessionCache cache = new TlsSessionCache(TlsOptions.defaults());
+        TrustManagerFactory trustManagers = TrustManagerFactory.getInstance(TrustManagerFactory.getDefaultAlgorithm());
+        trustManagers.init(keyStore);
+        cache.getSslContext().init(null, trustManagers.getTrustManagers(), null);
+
+        handshake(cache.getSslContext().createSSLEngine(HOST, 443), server.createSSLEngine());
+        Assertions.assertEquals(0, cache.getHits());
+        Assertions.assertEquals(1, cache.getMisses());
+        Assertions.assertTrue(cache.getCachedSessions() > 0);
+
+        // The resumption check compares millisecond timestamps.
+        Thread.sleep(5);
+        handshake(cache.getSslContext().createSSLEngine(HOST, 443), server.createSSLEngine());
+        Assertions.assertEquals(1, cache.getHits());
+        Assertions.assertEquals(1, cache.getMisses());
+    }
+
+    /**
+     * Pumps records between both engines until the handshake and the session tickets that follow it
+     * have been exchanged.
+     */
+    private static void handshake(SSLEngine client, SSLEngine server) throws SSLException {
+        client.setUseClientMode(true);
+        server.setUseClientMode(false);
+        ByteBuffer empty = ByteBuffer.allocate(0);
+        ByteBuffer toServer = ByteBuffer.allocate(64 * 1024);
+        ByteBuffer toClient = ByteBuffer.allocate(64 * 1024);
+        ByteBuffer clientApp = ByteBuffer.allocate(64 * 1024);
+        ByteBuffer serverApp = ByteBuffer.allocate(64 * 1024);
+        client.beginHandshake();
+        server.beginHandshake();
+
+        for (int round = 0; round < 50; round++) {
+            client.wrap(empty, toServer);
+            runTasks(client);
+            server.wrap(empty, toClient);
+            runTasks(server);
+
+            deliver(toServer, server, serverApp);
+            deliver(toClient, client, clientApp);
+
+            if (round > 5 && toServer.position() == 0 && toClient.position() == 0
+                && client.getHandshakeStatus() == SSLEngineResult.HandshakeStatus.NOT_HANDSHAKING
+                && server.getHandshakeStatus() == SSLEngineResult.HandshakeStatus.NOT_HANDSHAKING) {
+                return;
+            }
+        }
+        Assertions.fail("handshake did not finish");
+    }
+
+    private static void deliver(ByteBuffer records, SSLEngine engine, ByteBuffer app) throws SSLException {
+        records.flip();
+        while (records.hasRemaining()) {
+            SSLEngineResult result = engine.unwrap(records, app);
+            runTasks(engine);
+            if (result.getStatus() != SSLEngineResult.Status.OK || result.bytesConsumed() == 0) break;
+        }
+        records.compact();
+    }
+
+    private static void runTasks(SSLEngine engine) {
+        for (Runnable task = engine.getDelegatedTask(); task != null; task = engine.getDelegatedTask()) {
+            task.run();
+        }
+    }
+
+    private static KeyStore selfSignedKeyStore() throws Exception {
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+        generator.initialize(2048);
+        KeyPair keyPair = generator.generateKeyPair();
+        X500Name subject = new X500Name("CN=" + HOST);
+        long now = System.currentTimeMillis();
+        X509Certificate certificate = new JcaX509CertificateConverter().getCertificate(new JcaX509v3CertificateBuilder(
+            subject, BigInteger.ONE, new Date(now - 60_000), new Date(now + 3_600_000), subject, keyPair.getPublic())
+            .build(new JcaContentSignerBuilder("SHA256withRSA").build(keyPair.getPrivate())));
+
+        KeyStore keyStore = KeyStore.getInstance("PKCS12");
+        keyStore.load(null, null);
+        keyStore.setKeyEntry("server", keyPair.getPrivate(), PASSWORD, new X509Certificate[]{certificate});
+        return keyStore;
+    }
+}
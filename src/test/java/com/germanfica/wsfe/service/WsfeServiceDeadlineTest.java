@@ -0,0 +1,146 @@
+package com.germanfica.wsfe.service;
+
+import com.germanfica.wsfe.exception.ApiException;
+import com.germanfica.wsfe.exception.DeadlineExceededException;
+import com.germanfica.wsfe.exception.RequestCancelledException;
+import com.germanfica.wsfe.net.ApiEnvironment;
+import com.germanfica.wsfe.net.CancellationToken;
+import com.germanfica.wsfe.net.Deadline;
+import com.germanfica.wsfe.net.DefaultSoapRequestHandler;
+import com.germanfica.wsfe.net.HttpTransportMode;
+import com.germanfica.wsfe.net.ProxyOptions;
+import com.germanfica.wsfe.net.RequestContext;
+import com.germanfica.wsfe.net.RequestOptions;
+import com.germanfica.wsfe.net.SoapResponseGetterOptions;
+import com.germanfica.wsfe.provider.feauth.FEAuthProvider;
+import fev1.dif.afip.gov.ar.FEAuthRequest;
+import org.junit.jupiter.api.*;
+
+import java.time.Duration;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Unit tests for how {@link WsfeService} carries the deadline and cancellation of its
+ * {@link RequestOptions} into {@link FEAuthProvider#getAuth()}, which runs before the handler sees
+ * the options. The provider is a fake slow WSAA refresh that, like {@code RefreshingAuthProvider},
+ * only knows about the current {@link RequestContext}.
+ */
+public class WsfeServiceDeadlineTest {
+    private DefaultSoapRequestHandler handler;
+    private SlowAuthProvider authProvider;
+
+    @BeforeEach
+    void setUp() {
+        handler = new DefaultSoapRequestHandler(new TestOptions());
+        authProvider = new SlowAuthProvider();
+    }
+
+    @AfterEach
+    void tearDown() {
+        handler.shutdown(Duration.ZERO);
+    }
+
+    private WsfeService service(RequestOptions options) {
+        return new WsfeService(handler, authProvider, options);
+    }
+
+    @Test
+    @Tag("unit")
+    @DisplayName("should bound a slow auth refresh by the service deadline")
+    void shouldBoundAuthByServiceDeadline() {
+        WsfeService service = service(RequestOptions.builder().setDeadline(Deadline.after(Duration.ofMillis(100))).build());
+
+        long start = System.nanoTime();
+        Assertions.assertThrows(DeadlineExceededException.class, () -> service.feCompUltimoAutorizado(1, 6));
+        Assertions.assertTrue(System.nanoTime() - start < Duration.ofSeconds(5).toNanos());
+        Assertions.assertNull(RequestContext.current());
+    }
+
+    @Test
+    @Tag("unit")
+    @DisplayName("should bound a slow auth refresh by the service deadline on async calls")
+    void shouldBoundAsyncAuthByServiceDeadline() {
+        WsfeService service = service(RequestOptions.builder().setDeadline(Deadline.after(Duration.ofMillis(100))).build());
+
+        ExecutionException failure = Assertions.assertThrows(ExecutionException.class,
+            () -> service.feCompUltimoAutorizadoAsync(1, 6).get(5, TimeUnit.SECONDS));
+        Assertions.assertTrue(failure.getCause() instanceof DeadlineExceededException);
+    }
+
+    @Test
+    @Tag("unit")
+    @DisplayName("should keep the earliest of the service and thread deadlines")
+    void shouldUseEarliestDeadline() throws Exception {
+        Deadline serviceDeadline = Deadline.after(Duration.ofHours(1));
+        Deadline threadDeadline = Deadline.after(Duration.ofMillis(100));
+        WsfeService service = service(RequestOptions.builder().setDeadline(serviceDeadline).build());
+
+        try (RequestContext.Scope ignored = RequestContext.of(threadDeadline, null).attach()) {
+            Assertions.assertThrows(DeadlineExceededException.class, () -> service.feCompUltimoAutorizado(1, 6));
+        }
+        Assertions.assertSame(threadDeadline, authProvider.seenDeadline);
+    }
+
+    @Test
+    @Tag("unit")
+    @DisplayName("should stop a slow auth refresh when the service token is cancelled")
+    void shouldCancelAuthWithServiceToken() {
+        CancellationToken token = CancellationToken.create();
+        token.cancel();
+        WsfeService service = service(RequestOptions.builder().setCancellationToken(token).build());
+
+        Assertions.assertThrows(RequestCancelledException.class, () -> service.feCompUltimoAutorizado(1, 6));
+    }
+
+    /**
+     * Waits up to 30 s for a WSAA response that never comes, giving up when the current
+     * {@link RequestContext} expires or is cancelled.
+     */
+    private static final class SlowAuthProvider implements FEAuthProvider {
+        private volatile Deadline seenDeadline;
+
+        @Override
+        public FEAuthRequest getAuth() throws ApiException {
+            RequestContext context = RequestContext.current();
+            Deadline deadline = context != null ? context.getDeadline() : null;
+            CancellationToken token = context != null ? context.getCancellationToken() : null;
+            seenDeadline = deadline;
+
+            long until = System.nanoTime() + Duration.ofSeconds(30).toNanos();
+            while (System.nanoTime() - until < 0) {
+                if (token != null && token.isCancelled()) throw new RequestCancelledException();
+                if (deadline != null && deadline.isExpired()) throw new DeadlineExceededException();
+                try {
+                    Thread.sleep(10);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new RequestCancelledException();
+                }
+            }
+            return new FEAuthRequest();
+        }
+    }
+
+    private static final class TestOptions extends SoapResponseGetterOptions {
+        @Override
+        public String getUrlBase() {
+            return "http://127.0.0.1:9";
+        }
+
+        @Override
+        public ApiEnvironment getApiEnvironment() {
+            return null;
+        }
+
+        @Override
+        public ProxyOptions getProxyOptions() {
+            return null;
+        }
+
+        @Override
+        public HttpTransportMode getHttpTransportMode() {
+            return HttpTransportMode.JDK_HTTP_CLIENT;
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package com.germanfica.wsfe.service;
+
+import com.germanfica.wsfe.net.ApiEnvironment;
+import com.germanfica.wsfe.net.DefaultSoapRequestHandler;
+import com.germanfica.wsfe.net.HttpTransportMode;
+import com.germanfica.wsfe.net.ProxyOptions;
+import com.germanfica.wsfe.net.SoapInterceptor;
+import com.germanfica.wsfe.net.SoapInvocation;
+import com.germanfica.wsfe.net.SoapResponseGetterOptions;
+import fev1.dif.afip.gov.ar.FEAuthRequest;
+import fev1.dif.afip.gov.ar.FERecuperaLastCbteResponse;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import org.junit.jupiter.api.*;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Unit tests for what {@link SoapInterceptor}s see of {@link WsfeService} calls: sync and async
+ * calls expose the same response type and arguments (the TA first), and replacing an argument
+ * changes the request that is sent.
+ */
+public class WsfeServiceInterceptorTest {
+    private static final String LAST_CBTE_RESPONSE =
+        "<?xml version=\"1.0\" encoding=\"utf-8\"?>"
+            + "<soap:Envelope xmlns:soap=\"http://schemas.xmlsoap.org/soap/envelope/\">"
+            + "<soap:Body>"
+            + "<FECompUltimoAutorizadoResponse xmlns=\"http://ar.gov.afip.dif.FEV1/\">"
+            + "<FECompUltimoAutorizadoResult><PtoVta>42</PtoVta><CbteTipo>6</CbteTipo><CbteNro>10</CbteNro></FECompUltimoAutorizadoResult>"
+            + "</FECompUltimoAutorizadoResponse>"
+            + "</soap:Body>"
+            + "</soap:Envelope>";
+
+    private final List<SoapInvocation> seen = new CopyOnWriteArrayList<>();
+    private final FEAuthRequest auth = new FEAuthRequest();
+    private MockWebServer server;
+    private DefaultSoapRequestHandler handler;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        auth.setToken("token");
+        auth.setSign("sign");
+        auth.setCuit(20123456789L);
+        server = new MockWebServer();
+        server.start();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        if (handler != null) handler.shutdown(Duration.ZERO);
+        server.shutdown();
+    }
+
+    private WsfeService service(SoapInterceptor interceptor) {
+        handler = new DefaultSoapRequestHandler(new TestOptions(server.url("/").toString().replaceAll("/$", ""), interceptor));
+        return new WsfeService(handler, () -> auth, null);
+    }
+
+    private void enqueueResponse() {
+        server.enqueue(new MockResponse().setHeader("Content-Type", "text/xml; charset=utf-8").setBody(LAST_CBTE_RESPONSE));
+    }
+
+    @Test
+    @Tag("unit")
+    @DisplayName("should expose the same arguments and response type to sync and async calls")
+    void shouldExposeSameInvocationSyncAndAsync() throws Exception {
+        WsfeService service = service((invocation, chain) -> {
+            seen.add(invocation);
+            return chain.proceed();
+        });
+        enqueueResponse();
+        enqueueResponse();
+
+        service.feCompUltimoAutorizado(42, 6);
+        service.feCompUltimoAutorizadoAsync(42, 6).get(10, TimeUnit.SECONDS);
+
+        Assertions.assertEquals(2, seen.size());
+        Assertions.assertFalse(seen.get(0).isAsync());
+        Assertions.assertTrue(seen.get(1).isAsync());
+        for (SoapInvocation invocation : seen) {
+            Assertions.assertEquals(FERecuperaLastCbteResponse.class, invocation.getResponseType());
+            Assertions.assertArrayEquals(new Object[]{auth, 42, 6}, invocation.getArguments());
+        }
+    }
+
+    @Test
+    @Tag("unit")
+    @DisplayName("should send the arguments a sync interceptor replaced")
+    void shouldSendReplacedSyncArguments() throws Exception {
+        WsfeService service = service((invocation, chain) -> {
+            invocation.getArguments()[1] = 42;
+            return chain.proceed();
+        });
+        enqueueResponse();
+
+        FERecuperaLastCbteResponse response = service.feCompUltimoAutorizado(1, 6);
+
+        Assertions.assertEquals(10, response.getCbteNro());
+        String body = server.takeRequest(5, TimeUnit.SECONDS).getBody().readUtf8();
+        Assertions.assertTrue(body.contains(">42<"), body);
+        Assertions.assertFalse(body.contains(">1<"), body);
+    }
+
+    private static final class TestOptions extends SoapResponseGetterOptions {
+        private final String urlBase;
+        private final SoapInterceptor interceptor;
+
+        private TestOptions(String urlBase, SoapInterceptor interceptor) {
+            this.urlBase = urlBase;
+            this.interceptor = interceptor;
+        }
+
+        @Override
+        public String getUrlBase() {
+            return urlBase;
+        }
+
+        @Override
+        public ApiEnvironment getApiEnvironment() {
+            return null;
+        }
+
+        @Override
+        public ProxyOptions getProxyOptions() {
+            return null;
+        }
+
+        @Override
+        public HttpTransportMode getHttpTransportMode() {
+            return HttpTransportMode.JDK_HTTP_CLIENT;
+        }
+
+        @Override
+        public List<SoapInterceptor> getInterceptors() {
+            return List.of(interceptor);
+        }
+    }
+}